@@ -0,0 +1,13 @@
+import userCommonsFixtures from "fixtures/userCommonsFixtures";
+
+// /api/chat/authors responses for the members in userCommonsFixtures
+const toChatAuthors = (userCommons) =>
+    Object.fromEntries(userCommons.map((uc) => [uc.userId, uc.username || ""]));
+
+const chatAuthorsFixtures = {
+    oneChatAuthor: toChatAuthors(userCommonsFixtures.oneUserCommons),
+    threeChatAuthors: toChatAuthors(userCommonsFixtures.threeUserCommons),
+    tenChatAuthors: toChatAuthors(userCommonsFixtures.tenUserCommons),
+};
+
+export default chatAuthorsFixtures;
@@ -35,42 +35,54 @@ const jobsFixtures = {
                 "createdAt": "2023-08-08T12:14:00.041855-07:00",
                 "updatedAt": "2023-08-08T12:14:00.211631-07:00",
                 "status": "complete",
-                "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 54.40000000000016\n old cow health: 54.40000000000016, new cow health: 53.600000000000165\nCow health has been updated!"
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 10,
+                "durationMs": 169
             },
             {
                 "id": 119,
                 "createdAt": "2023-08-08T12:13:00.052523-07:00",
                 "updatedAt": "2023-08-08T12:13:00.297008-07:00",
                 "status": "complete",
-                "log": "Starting to milk the cows\nMilking cows for Commons: Blue, Milk Price: $5.00\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0, totalWealth: $10210.00\nProfit for user: Phill Conrad is: $15.00, newWealth: $10225.00\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0, totalWealth: $10455.00\nProfit for user: Phillip Conrad is: $35.00, newWealth: $10490.00\nMilking cows for Commons: Red, Milk Price: $10.00\nUser: Phill Conrad, numCows: 10, cowHealth: 54.40000000000016, totalWealth: $2604.80\nProfit for user: Phill Conrad is: $54.40, newWealth: $2659.20\nCows have been milked!"
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 10,
+                "durationMs": 244
             },
             {
                 "id": 118,
                 "createdAt": "2023-08-08T11:42:22.695515-07:00",
                 "updatedAt": "2023-08-08T11:42:25.245356-07:00",
                 "status": "complete",
-                "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 3,
+                "durationMs": 2549
             },
             {
                 "id": 117,
                 "createdAt": "2023-08-08T11:42:22.556153-07:00",
                 "updatedAt": "2023-08-08T11:42:25.057215-07:00",
                 "status": "complete",
-                "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 3,
+                "durationMs": 2501
             },
             {
                 "id": 116,
                 "createdAt": "2023-08-08T11:42:22.398358-07:00",
                 "updatedAt": "2023-08-08T11:42:24.200089-07:00",
                 "status": "complete",
-                "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 3,
+                "durationMs": 1801
             },
             {
                 "id": 115,
                 "createdAt": "2023-08-08T11:42:22.296369-07:00",
                 "updatedAt": "2023-08-08T11:42:24.04618-07:00",
                 "status": "complete",
-                "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 3,
+                "durationMs": 1749
             }
         ],
         "pageable": {
@@ -99,6 +111,39 @@ const jobsFixtures = {
         "first": true,
         "empty": false
     },
+    queuedPage:
+    {
+        "content": [
+            {
+                "id": 122,
+                "createdAt": "2023-08-08T12:15:00.041855-07:00",
+                "updatedAt": "2023-08-08T12:15:00.041855-07:00",
+                "status": "queued",
+                "queuePosition": 1,
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 0,
+                "durationMs": null
+            },
+            {
+                "id": 121,
+                "createdAt": "2023-08-08T12:14:30.041855-07:00",
+                "updatedAt": "2023-08-08T12:14:30.211631-07:00",
+                "status": "running",
+                "queuePosition": null,
+                "createdBy": "phtcon@ucsb.edu",
+                "numLogLines": 1,
+                "durationMs": null
+            }
+        ],
+        "totalPages": 1,
+        "totalElements": 2,
+        "last": true,
+        "size": 10,
+        "number": 0,
+        "numberOfElements": 2,
+        "first": true,
+        "empty": false
+    },
     fourPages: [
         {
             "content": [
@@ -107,70 +152,90 @@ const jobsFixtures = {
                     "createdAt": "2023-08-08T12:14:00.041855-07:00",
                     "updatedAt": "2023-08-08T12:14:00.211631-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 54.40000000000016\n old cow health: 54.40000000000016, new cow health: 53.600000000000165\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 169
                 },
                 {
                     "id": 119,
                     "createdAt": "2023-08-08T12:13:00.052523-07:00",
                     "updatedAt": "2023-08-08T12:13:00.297008-07:00",
                     "status": "complete",
-                    "log": "Starting to milk the cows\nMilking cows for Commons: Blue, Milk Price: $5.00\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0, totalWealth: $10210.00\nProfit for user: Phill Conrad is: $15.00, newWealth: $10225.00\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0, totalWealth: $10455.00\nProfit for user: Phillip Conrad is: $35.00, newWealth: $10490.00\nMilking cows for Commons: Red, Milk Price: $10.00\nUser: Phill Conrad, numCows: 10, cowHealth: 54.40000000000016, totalWealth: $2604.80\nProfit for user: Phill Conrad is: $54.40, newWealth: $2659.20\nCows have been milked!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 244
                 },
                 {
                     "id": 118,
                     "createdAt": "2023-08-08T11:42:22.695515-07:00",
                     "updatedAt": "2023-08-08T11:42:25.245356-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 2549
                 },
                 {
                     "id": 117,
                     "createdAt": "2023-08-08T11:42:22.556153-07:00",
                     "updatedAt": "2023-08-08T11:42:25.057215-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 2501
                 },
                 {
                     "id": 116,
                     "createdAt": "2023-08-08T11:42:22.398358-07:00",
                     "updatedAt": "2023-08-08T11:42:24.200089-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1801
                 },
                 {
                     "id": 115,
                     "createdAt": "2023-08-08T11:42:22.296369-07:00",
                     "updatedAt": "2023-08-08T11:42:24.04618-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1749
                 },
                 {
                     "id": 114,
                     "createdAt": "2023-08-08T11:42:22.14669-07:00",
                     "updatedAt": "2023-08-08T11:42:23.156125-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1009
                 },
                 {
                     "id": 113,
                     "createdAt": "2023-08-08T11:42:21.995817-07:00",
                     "updatedAt": "2023-08-08T11:42:23.003502-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1007
                 },
                 {
                     "id": 112,
                     "createdAt": "2023-08-08T11:42:02.244951-07:00",
                     "updatedAt": "2023-08-08T11:42:05.295741-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 3050
                 },
                 {
                     "id": 111,
                     "createdAt": "2023-08-08T11:42:02.045677-07:00",
                     "updatedAt": "2023-08-08T11:42:04.554159-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 2508
                 }
             ],
             "pageable": {
@@ -206,70 +271,90 @@ const jobsFixtures = {
                     "createdAt": "2023-08-08T11:42:01.894951-07:00",
                     "updatedAt": "2023-08-08T11:42:04.251314-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 2356
                 },
                 {
                     "id": 109,
                     "createdAt": "2023-08-08T11:42:01.745402-07:00",
                     "updatedAt": "2023-08-08T11:42:03.50618-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1760
                 },
                 {
                     "id": 108,
                     "createdAt": "2023-08-08T11:42:01.598764-07:00",
                     "updatedAt": "2023-08-08T11:42:03.204012-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1605
                 },
                 {
                     "id": 107,
                     "createdAt": "2023-08-08T11:42:01.449214-07:00",
                     "updatedAt": "2023-08-08T11:42:02.495829-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1046
                 },
                 {
                     "id": 106,
                     "createdAt": "2023-08-08T11:42:01.145541-07:00",
                     "updatedAt": "2023-08-08T11:42:02.156006-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1010
                 },
                 {
                     "id": 105,
                     "createdAt": "2023-08-08T11:42:00.01123-07:00",
                     "updatedAt": "2023-08-08T11:42:00.204043-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 55.20000000000016\n old cow health: 55.20000000000016, new cow health: 54.40000000000016\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 192
                 },
                 {
                     "id": 104,
                     "createdAt": "2023-08-08T11:41:52.398066-07:00",
                     "updatedAt": "2023-08-08T11:41:53.445837-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1047
                 },
                 {
                     "id": 103,
                     "createdAt": "2023-08-08T11:41:51.799791-07:00",
                     "updatedAt": "2023-08-08T11:41:52.845574-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1045
                 },
                 {
                     "id": 102,
                     "createdAt": "2023-08-08T11:41:51.10517-07:00",
                     "updatedAt": "2023-08-08T11:41:52.153975-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1048
                 },
                 {
                     "id": 101,
                     "createdAt": "2023-08-08T11:41:50.294837-07:00",
                     "updatedAt": "2023-08-08T11:41:51.306282-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1011
                 }
             ],
             "pageable": {
@@ -305,70 +390,90 @@ const jobsFixtures = {
                     "createdAt": "2023-08-08T11:41:49.5453-07:00",
                     "updatedAt": "2023-08-08T11:41:50.554996-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1009
                 },
                 {
                     "id": 99,
                     "createdAt": "2023-08-08T11:41:34.310896-07:00",
                     "updatedAt": "2023-08-08T11:41:35.446034-07:00",
                     "status": "complete",
-                    "log": "Hello World! from test job!\nauthentication is not null\nGoodbye from test job!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 3,
+                    "durationMs": 1135
                 },
                 {
                     "id": 98,
                     "createdAt": "2023-08-08T11:35:00.017525-07:00",
                     "updatedAt": "2023-08-08T11:35:00.158433-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 56.000000000000156\n old cow health: 56.000000000000156, new cow health: 55.20000000000016\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 140
                 },
                 {
                     "id": 97,
                     "createdAt": "2023-08-08T11:28:00.010639-07:00",
                     "updatedAt": "2023-08-08T11:28:00.242304-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 56.80000000000015\n old cow health: 56.80000000000015, new cow health: 56.000000000000156\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 231
                 },
                 {
                     "id": 96,
                     "createdAt": "2023-08-08T11:26:00.03317-07:00",
                     "updatedAt": "2023-08-08T11:26:00.193107-07:00",
                     "status": "complete",
-                    "log": "Starting to milk the cows\nMilking cows for Commons: Blue, Milk Price: $5.00\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0, totalWealth: $10195.00\nProfit for user: Phill Conrad is: $15.00, newWealth: $10210.00\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0, totalWealth: $10420.00\nProfit for user: Phillip Conrad is: $35.00, newWealth: $10455.00\nMilking cows for Commons: Red, Milk Price: $10.00\nUser: Phill Conrad, numCows: 10, cowHealth: 56.80000000000015, totalWealth: $2548.00\nProfit for user: Phill Conrad is: $56.80, newWealth: $2604.80\nCows have been milked!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 159
                 },
                 {
                     "id": 95,
                     "createdAt": "2023-08-08T11:13:00.025739-07:00",
                     "updatedAt": "2023-08-08T11:13:00.285787-07:00",
                     "status": "complete",
-                    "log": "Starting to milk the cows\nMilking cows for Commons: Blue, Milk Price: $5.00\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0, totalWealth: $10180.00\nProfit for user: Phill Conrad is: $15.00, newWealth: $10195.00\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0, totalWealth: $10385.00\nProfit for user: Phillip Conrad is: $35.00, newWealth: $10420.00\nMilking cows for Commons: Red, Milk Price: $10.00\nUser: Phill Conrad, numCows: 10, cowHealth: 56.80000000000015, totalWealth: $2491.20\nProfit for user: Phill Conrad is: $56.80, newWealth: $2548.00\nCows have been milked!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 260
                 },
                 {
                     "id": 94,
                     "createdAt": "2023-08-08T10:14:00.008943-07:00",
                     "updatedAt": "2023-08-08T10:14:00.071925-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 57.60000000000015\n old cow health: 57.60000000000015, new cow health: 56.80000000000015\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 62
                 },
                 {
                     "id": 93,
                     "createdAt": "2023-08-08T10:13:00.028367-07:00",
                     "updatedAt": "2023-08-08T10:13:00.143601-07:00",
                     "status": "complete",
-                    "log": "Starting to milk the cows\nMilking cows for Commons: Blue, Milk Price: $5.00\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0, totalWealth: $10165.00\nProfit for user: Phill Conrad is: $15.00, newWealth: $10180.00\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0, totalWealth: $10350.00\nProfit for user: Phillip Conrad is: $35.00, newWealth: $10385.00\nMilking cows for Commons: Red, Milk Price: $10.00\nUser: Phill Conrad, numCows: 10, cowHealth: 57.60000000000015, totalWealth: $2433.60\nProfit for user: Phill Conrad is: $57.60, newWealth: $2491.20\nCows have been milked!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 115
                 },
                 {
                     "id": 92,
                     "createdAt": "2023-08-08T10:07:00.011244-07:00",
                     "updatedAt": "2023-08-08T10:07:00.059177-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 58.40000000000015\n old cow health: 58.40000000000015, new cow health: 57.60000000000015\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 47
                 },
                 {
                     "id": 91,
                     "createdAt": "2023-08-08T10:00:00.012706-07:00",
                     "updatedAt": "2023-08-08T10:00:00.087001-07:00",
                     "status": "complete",
-                    "log": "Starting to milk the cows\nMilking cows for Commons: Blue, Milk Price: $5.00\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0, totalWealth: $10150.00\nProfit for user: Phill Conrad is: $15.00, newWealth: $10165.00\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0, totalWealth: $10315.00\nProfit for user: Phillip Conrad is: $35.00, newWealth: $10350.00\nMilking cows for Commons: Red, Milk Price: $10.00\nUser: Phill Conrad, numCows: 10, cowHealth: 58.40000000000015, totalWealth: $2375.20\nProfit for user: Phill Conrad is: $58.40, newWealth: $2433.60\nCows have been milked!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 74
                 }
             ],
             "pageable": {
@@ -404,28 +509,36 @@ const jobsFixtures = {
                     "createdAt": "2023-08-08T09:59:59.979338-07:00",
                     "updatedAt": "2023-08-08T10:00:00.080441-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 58.40000000000015\n old cow health: 58.40000000000015, new cow health: 57.60000000000015\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 101
                 },
                 {
                     "id": 89,
                     "createdAt": "2023-08-08T09:52:00.005894-07:00",
                     "updatedAt": "2023-08-08T09:52:00.235908-07:00",
                     "status": "complete",
-                    "log": "Starting to milk the cows\nMilking cows for Commons: Blue, Milk Price: $5.00\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0, totalWealth: $10135.00\nProfit for user: Phill Conrad is: $15.00, newWealth: $10150.00\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0, totalWealth: $10280.00\nProfit for user: Phillip Conrad is: $35.00, newWealth: $10315.00\nMilking cows for Commons: Red, Milk Price: $10.00\nUser: Phill Conrad, numCows: 10, cowHealth: 58.40000000000015, totalWealth: $2316.80\nProfit for user: Phill Conrad is: $58.40, newWealth: $2375.20\nCows have been milked!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 230
                 },
                 {
                     "id": 88,
                     "createdAt": "2023-08-08T09:49:00.023409-07:00",
                     "updatedAt": "2023-08-08T09:49:00.154346-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 59.200000000000145\n old cow health: 59.200000000000145, new cow health: 58.40000000000015\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 130
                 },
                 {
                     "id": 87,
                     "createdAt": "2023-08-08T09:42:00.01134-07:00",
                     "updatedAt": "2023-08-08T09:42:00.07881-07:00",
                     "status": "complete",
-                    "log": "Updating cow health...\nCommons Blue, degradationRate: 0.1, carryingCapacity: 10\nUser: Phill Conrad, numCows: 3, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nUser: Phillip Conrad, numCows: 7, cowHealth: 100.0\n old cow health: 100.0, new cow health: 100.0\nCommons Red, degradationRate: 0.1, carryingCapacity: 2\nUser: Phill Conrad, numCows: 10, cowHealth: 60.00000000000014\n old cow health: 60.00000000000014, new cow health: 59.200000000000145\nCow health has been updated!"
+                    "createdBy": "phtcon@ucsb.edu",
+                    "numLogLines": 10,
+                    "durationMs": 67
                 }
             ],
             "pageable": {
@@ -1,4 +1,5 @@
-import React from 'react';
+import React, { useEffect } from 'react';
+import { useQueryClient } from "react-query";
 import ChatMessageDisplay from 'main/components/Chat/ChatMessageDisplay';
 import { useBackend } from "main/utils/useBackend";
 
@@ -8,55 +9,102 @@ const ChatDisplay = ({ commonsId }) => {
     const initialMessagePageSize = 10;
     const refreshRate = 2000;
 
+    const queryClient = useQueryClient();
+
+    // New messages are pushed by the backend as they are posted; browsers
+    // without EventSource fall back to polling
+    const streaming = typeof window.EventSource !== "undefined";
+
     // Stryker disable all
 
     const {
         data: messagesPage
         } = useBackend(
-            [`/api/chat/get`],
+            [`/api/chat/messages`],
             {
                 method: "GET",
-                url: `/api/chat/get`,
+                url: `/api/chat/messages`,
                 params: {
                     commonsId: commonsId,
-                    page: 0,
                     size: initialMessagePageSize
                 }
             },
             { content: [] },
-            { refetchInterval: refreshRate }
+            { refetchInterval: streaming ? false : refreshRate }
         );
   
+      // userId -> username; the backend answers repeat requests with a 304
+      // until someone joins or leaves the commons
       const {
-        data: userCommonsList
+        data: usernames
         } = useBackend(
-            [`/api/usercommons/commons/all`],
+            [`/api/chat/authors`],
             {
                 method: "GET",
-                url: "/api/usercommons/commons/all",
+                url: "/api/chat/authors",
                 params: {
                     commonsId: commonsId,
                 }
             },
-            [],
-            { refetchInterval: refreshRate }
+            {},
+            { refetchInterval: streaming ? false : refreshRate }
       );
       
     // Stryker restore all
   
-    const sortedMessages = messagesPage.content.sort((a, b) => b.id - a.id);
+    useEffect(() => {
+        if (!streaming) {
+            return undefined;
+        }
+
+        const source = new window.EventSource(`/api/chat/stream?commonsId=${commonsId}`);
+        let reconnecting = false;
+
+        source.addEventListener("message", (event) => {
+            const message = JSON.parse(event.data);
+            queryClient.setQueryData([`/api/chat/messages`], (page) => ({
+                ...page,
+                content: [message, ...page.content.filter((m) => m.id !== message.id)]
+                    .sort((a, b) => b.id - a.id)
+                    .slice(0, initialMessagePageSize)
+            }));
 
-    const userIdToUsername = userCommonsList.reduce((acc, user) => {
-        acc[user.userId] = user.username || "";
-        return acc;
-    }, {});
+            // the first message of someone who joined after the list was loaded
+            if (!(message.userId in queryClient.getQueryData([`/api/chat/authors`]))) {
+                queryClient.invalidateQueries([`/api/chat/authors`]);
+            }
+        });
+
+        source.addEventListener("hidden", (event) => {
+            const { id } = JSON.parse(event.data);
+            queryClient.setQueryData([`/api/chat/messages`], (page) => ({
+                ...page,
+                content: page.content.filter((m) => m.id !== id)
+            }));
+        });
+
+        // EventSource reconnects by itself; catch up on whatever was posted meanwhile
+        source.addEventListener("error", () => {
+            reconnecting = true;
+        });
+        source.addEventListener("open", () => {
+            if (reconnecting) {
+                reconnecting = false;
+                queryClient.invalidateQueries([`/api/chat/messages`]);
+            }
+        });
+
+        return () => source.close();
+    }, [commonsId, streaming, queryClient]);
+
+    const sortedMessages = messagesPage.content.sort((a, b) => b.id - a.id);
 
     return (
       <div style={{ display: "flex", flexDirection: "column-reverse", overflowY: "scroll", maxHeight: "300px" }} data-testid="ChatDisplay" >
         {Array.isArray(sortedMessages) && sortedMessages.slice(0, initialMessagePageSize).map((message) => (
             <ChatMessageDisplay 
                 key={message.id} 
-                message={{ ...message, username: userIdToUsername[message.userId] }} 
+                message={{ ...message, username: usernames[message.userId] }} 
             />
         ))}
       </div>
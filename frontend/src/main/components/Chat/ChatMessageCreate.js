@@ -7,7 +7,6 @@ import { useBackendMutation } from "main/utils/useBackend";
 const ChatMessageCreate = ({ commonsId, submitAction }) => {
 
     const testid = "ChatMessageCreate";
-    const initialMessagePageSize = 10;
 
     const objectToAxiosParams = (newMessage) => ({
         // Stryker disable next-line all : axiosMock post test works when mutated
@@ -20,7 +19,7 @@ const ChatMessageCreate = ({ commonsId, submitAction }) => {
         objectToAxiosParams,
         { },
         // Stryker disable next-line all : hard to set up test for caching
-        [`/api/chat/get?page=0&size=${initialMessagePageSize}&commonsId=${commonsId}`]
+        [`/api/chat/messages`]
     );
 
     submitAction = submitAction || (async (data) => {
@@ -0,0 +1,42 @@
+import React from "react";
+
+// Follows the log and progress of one job over a single server-sent event
+// stream, which ends with the job's status once it has finished.
+const JobLog = ({ jobId }) => {
+
+    const testId = "JobLog";
+
+    const [lines, setLines] = React.useState([]);
+    const [progress, setProgress] = React.useState(null);
+    const [status, setStatus] = React.useState("");
+
+    React.useEffect(() => {
+        const source = new EventSource(`/api/jobs/${jobId}/events`);
+        source.addEventListener("log", (event) => {
+            setLines((previous) => previous.concat([event.data]));
+        });
+        source.addEventListener("progress", (event) => {
+            setProgress(JSON.parse(event.data));
+        });
+        // without this, the browser would reconnect and the stream would start over
+        source.addEventListener("status", (event) => {
+            setStatus(event.data);
+            source.close();
+        });
+        return () => source.close();
+    }, [jobId]);
+
+    return (
+        <>
+            <h3 data-testid={`${testId}-title`}>Log of job {jobId} {status && `(${status})`}</h3>
+            {progress &&
+                <p data-testid={`${testId}-progress`}>
+                    {progress.phase && `${progress.phase}: `}{progress.completed} of {progress.total} done, {progress.rowsRead} rows read, {progress.rowsWritten} written ({progress.rowsPerSecond.toFixed(1)} rows/s)
+                </p>
+            }
+            <pre data-testid={`${testId}-lines`}>{lines.join("\n")}</pre>
+        </>
+    );
+};
+
+export default JobLog;
@@ -1,7 +1,8 @@
 import React from "react";
-import OurTable, { PlaintextColumn, DateColumn } from "main/components/OurTable";
+import OurTable, { ButtonColumn, DateColumn } from "main/components/OurTable";
 import { Button } from "react-bootstrap";
 import { useBackend } from "main/utils/useBackend";
+import JobLog from "main/components/Jobs/JobLog";
 
 const PagedJobsTable = () => {
 
@@ -9,6 +10,7 @@ const PagedJobsTable = () => {
     const refreshJobsIntervalMilliseconds = 5000;
 
     const [selectedPage, setSelectedPage] = React.useState(0);
+    const [selectedJobId, setSelectedJobId] = React.useState(null);
 
     const pageSize = 10;
 
@@ -53,9 +55,25 @@ const PagedJobsTable = () => {
         DateColumn('Updated', (cell) => cell.row.original.updatedAt),
         {
             Header: 'Status',
-            accessor: 'status'
+            id: 'status',
+            accessor: (row) => row.queuePosition ? `${row.status} (#${row.queuePosition})` : row.status
         },
-        PlaintextColumn('Log', (cell) => cell.row.original.log),
+        {
+            Header: 'Created By',
+            id: 'createdBy',
+            accessor: 'createdBy'
+        },
+        {
+            Header: 'Lines',
+            id: 'numLogLines',
+            accessor: 'numLogLines'
+        },
+        {
+            Header: 'Duration',
+            id: 'durationMs',
+            accessor: (row) => row.durationMs === null ? "" : `${(row.durationMs / 1000).toFixed(1)} s`
+        },
+        ButtonColumn('Log', 'primary', (cell) => setSelectedJobId(cell.row.original.id), testid),
     ];
 
     const sortees = React.useMemo(
@@ -80,6 +98,7 @@ const PagedJobsTable = () => {
                 testid={testid}
                 initialState={{ sortBy: sortees }}
             />
+            {selectedJobId !== null && <JobLog key={selectedJobId} jobId={selectedJobId} />}
         </>
     );
 }; 
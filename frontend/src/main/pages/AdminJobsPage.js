@@ -55,8 +55,9 @@ const AdminJobsPage = () => {
 
   // *** UpdateCowHealth job ***
 
+  // "All Commons" includes the games that have not started or have ended
   const objectToAxiosParamsUpdateCowHealthJob = () => ({
-    url: `/api/jobs/launch/updatecowhealth`,
+    url: `/api/jobs/launch/updatecowhealth?allCommons=true`,
     method: "POST",
   });
 
@@ -92,8 +93,9 @@ const AdminJobsPage = () => {
 
   // *** MilkTheCows job ***
 
+  // "All Commons" includes the games that have not started or have ended
   const objectToAxiosParamsMilkTheCowsJob = () => ({
-    url: `/api/jobs/launch/milkthecowjob`,
+    url: `/api/jobs/launch/milkthecowjob?allCommons=true`,
     method: "POST",
   });
 
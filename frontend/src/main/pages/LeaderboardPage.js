@@ -15,9 +15,13 @@ import { Button } from "react-bootstrap";
 
 import "./LeaderboardPage.css"
 
+// number of farmers fetched at first, and added by each click on "Show more"
+export const LEADERBOARD_PAGE_SIZE = 100;
+
 export default function LeaderboardPage() {
     const { commonsId } = useParams();
     const { data: currentUser } = useCurrentUser();
+    const [k, setK] = React.useState(LEADERBOARD_PAGE_SIZE);
 
     // Stryker disable all
     const {
@@ -25,18 +29,26 @@ export default function LeaderboardPage() {
         error: _error,
         status: _status,
     } = useBackend(
-        [`/api/usercommons/commons/all?commonsId=${commonsId}`],
+        [`/api/leaderboard/top?commonsId=${commonsId}&k=${k}`],
         {
             method: "GET",
-            url: "/api/usercommons/commons/all",
+            url: "/api/leaderboard/top",
             params: {
                 commonsId: commonsId,
+                orderBy: "WEALTH",
+                k: k,
             },
         },
-        []
+        undefined,
+        // keeps showing the farmers fetched so far while the next page loads
+        { keepPreviousData: true }
     );
+    const leaderboardUsers = userCommons || [];
     // Stryker restore all
 
+    // a full page means that there may be more farmers to show
+    const hasMore = leaderboardUsers.length >= k;
+
     // Stryker disable all
     const {
         data: commons,
@@ -80,9 +92,17 @@ export default function LeaderboardPage() {
                     {showLeaderboard ? (
                         <>
                             <LeaderboardTable
-                                leaderboardUsers={userCommons}
+                                leaderboardUsers={leaderboardUsers}
                                 currentUser={currentUser}
                             />
+                            {hasMore && (
+                                <Button
+                                    onClick={() => setK(k + LEADERBOARD_PAGE_SIZE)}
+                                    data-testid="LeaderboardPage-show-more"
+                                >
+                                    Show more
+                                </Button>
+                            )}
                         </>
                     ) : (
                         <p>You're not authorized to see the leaderboard.</p>
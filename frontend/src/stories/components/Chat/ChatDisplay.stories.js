@@ -3,7 +3,7 @@ import { rest } from 'msw';
 
 import ChatDisplay from 'main/components/Chat/ChatDisplay';
 import {chatMessageFixtures} from 'fixtures/chatMessageFixtures';
-import userCommonsFixtures from 'fixtures/userCommonsFixtures';
+import chatAuthorsFixtures from 'fixtures/chatAuthorsFixtures';
 
 export default {
     title: 'components/Chat/ChatDisplay',
@@ -25,12 +25,12 @@ Empty.args = {
 Empty.parameters = {
     msw: [
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/chat/get?page=0&size=10&commonsId=1', (req, res, ctx) => {
+        rest.get('/api/chat/messages', (req, res, ctx) => {
             return res(ctx.status(200),ctx.json({ content: [] }));
         }),
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/usercommons/all?commonsId=1', (req, res, ctx) => {
-            return res(ctx.status(200),ctx.json( [] ));
+        rest.get('/api/chat/authors', (req, res, ctx) => {
+            return res(ctx.status(200),ctx.json({ }));
         }),
     ]
 };
@@ -44,15 +44,15 @@ OneMessage.args = {
 OneMessage.parameters = {
     msw: [
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/chat/get?page=0&size=10&commonsId=1', (req, res, ctx) => {
+        rest.get('/api/chat/messages', (req, res, ctx) => {
             return res(ctx.status(200),ctx.json({
                 content: chatMessageFixtures.oneChatMessage,
                 totalPages: 1,
             }));
         }),
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/usercommons/all?commonsId=1', (req, res, ctx) => {
-            return res(ctx.status(200),ctx.json(userCommonsFixtures.oneUserCommons));
+        rest.get('/api/chat/authors', (req, res, ctx) => {
+            return res(ctx.status(200),ctx.json(chatAuthorsFixtures.oneChatAuthor));
         }),
     ]
 };
@@ -66,15 +66,15 @@ ThreeMessages.args = {
 ThreeMessages.parameters = {
     msw: [
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/chat/get?page=0&size=10&commonsId=1', (req, res, ctx) => {
+        rest.get('/api/chat/messages', (req, res, ctx) => {
             return res(ctx.status(200),ctx.json({
                 content: chatMessageFixtures.threeChatMessages,
                 totalPages: 1,
             }));
         }),
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/usercommons/all?commonsId=1', (req, res, ctx) => {
-            return res(ctx.status(200),ctx.json(userCommonsFixtures.threeUserCommons));
+        rest.get('/api/chat/authors', (req, res, ctx) => {
+            return res(ctx.status(200),ctx.json(chatAuthorsFixtures.threeChatAuthors));
         }),
     ]
 };
@@ -88,15 +88,15 @@ TwelveMessages.args = {
 TwelveMessages.parameters = {
     msw: [
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/chat/get?page=0&size=10&commonsId=1', (req, res, ctx) => {
+        rest.get('/api/chat/messages', (req, res, ctx) => {
             return res(ctx.status(200),ctx.json({
                 content: chatMessageFixtures.twelveChatMessages,
                 totalPages: 2,
             }));
         }),
         /* eslint-disable-next-line no-unused-vars */
-        rest.get('/api/usercommons/all?commonsId=1', (req, res, ctx) => {
-            return res(ctx.status(200),ctx.json(userCommonsFixtures.tenUserCommons));
+        rest.get('/api/chat/authors', (req, res, ctx) => {
+            return res(ctx.status(200),ctx.json(chatAuthorsFixtures.tenChatAuthors));
         }),
     ]
 };
\ No newline at end of file
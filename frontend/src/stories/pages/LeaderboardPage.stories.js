@@ -27,7 +27,7 @@ OrdinaryUserShowLeaderboardTrue.parameters = {
         rest.get('/api/commons', (_req, res, ctx) => {
             return res(ctx.json(commonsFixtures.threeCommons[0]));
         }),
-        rest.get('/api/usercommons/commons/all', (_req, res, ctx) => {
+        rest.get('/api/leaderboard/top', (_req, res, ctx) => {
             return res(ctx.json(userCommonsFixtures.tenUserCommons));
         }),
     ]
@@ -48,7 +48,7 @@ OrdinaryUserShowLeaderboardFalse.parameters = {
         rest.get('/api/commons', (_req, res, ctx) => {
             return res(ctx.json({...commonsFixtures.threeCommons[0], showLeaderboard: false}));
         }),
-        rest.get('/api/usercommons/commons/all', (_req, res, ctx) => {
+        rest.get('/api/leaderboard/top', (_req, res, ctx) => {
             return res(ctx.json(userCommonsFixtures.tenUserCommons));
         }),
     ]
@@ -68,7 +68,7 @@ AdminUser.parameters = {
         rest.get('/api/systemInfo', (_req, res, ctx) => {
             return res(ctx.json(systemInfoFixtures.showingNeither));
         }),
-        rest.get('/api/usercommons/commons/all', (_req, res, ctx) => {
+        rest.get('/api/leaderboard/top', (_req, res, ctx) => {
             return res(ctx.json(userCommonsFixtures.tenUserCommons));
         }),
         rest.get('/api/commons', (_req, res, ctx) => {
@@ -1,9 +1,9 @@
-import { render, screen, waitFor } from "@testing-library/react";
+import { act, render, screen, waitFor } from "@testing-library/react";
 import { QueryClient, QueryClientProvider } from "react-query";
 import { MemoryRouter } from "react-router-dom";
 
 import ChatDisplay from "main/components/Chat/ChatDisplay";
-import userCommonsFixtures from "fixtures/userCommonsFixtures";
+import chatAuthorsFixtures from "fixtures/chatAuthorsFixtures";
 import { chatMessageFixtures } from "fixtures/chatMessageFixtures";
 
 import axios from "axios";
@@ -72,8 +72,8 @@ describe("ChatDisplay tests", () => {
 
     //arrange
 
-    axiosMock.onGet("/api/chat/get").reply(200, { content: chatMessageFixtures.threeChatMessages });
-    axiosMock.onGet("/api/usercommons/commons/all").reply(200, userCommonsFixtures.threeUserCommons);
+    axiosMock.onGet("/api/chat/messages").reply(200, { content: chatMessageFixtures.threeChatMessages });
+    axiosMock.onGet("/api/chat/authors").reply(200, chatAuthorsFixtures.threeChatAuthors);
 
     //act
     render(
@@ -88,9 +88,9 @@ describe("ChatDisplay tests", () => {
     await waitFor(() => {
         expect(axiosMock.history.get.length).toBe(3);
     });
-    expect(axiosMock.history.get[0].url).toBe("/api/chat/get");
-    expect(axiosMock.history.get[0].params).toEqual({ commonsId: 1, page: 0, size: 10 });
-    expect(axiosMock.history.get[1].url).toBe("/api/usercommons/commons/all");
+    expect(axiosMock.history.get[0].url).toBe("/api/chat/messages");
+    expect(axiosMock.history.get[0].params).toEqual({ commonsId: 1, size: 10 });
+    expect(axiosMock.history.get[1].url).toBe("/api/chat/authors");
     expect(axiosMock.history.get[1].params).toEqual({ commonsId: 1 });
 
     const container = screen.getByTestId("ChatDisplay");
@@ -123,8 +123,8 @@ describe("ChatDisplay tests", () => {
 
     //arrange
 
-    axiosMock.onGet("/api/chat/get").reply(200, { content: chatMessageFixtures.oneChatMessage });
-    axiosMock.onGet("/api/usercommons/commons/all").reply(200, [{userId: 1}]);
+    axiosMock.onGet("/api/chat/messages").reply(200, { content: chatMessageFixtures.oneChatMessage });
+    axiosMock.onGet("/api/chat/authors").reply(200, { 1: "" });
 
     //act
     render(
@@ -140,9 +140,9 @@ describe("ChatDisplay tests", () => {
         expect(axiosMock.history.get.length).toBe(3);
     });
     expect(axiosMock.history.get[0].url).toBe("/api/currentUser");
-    expect(axiosMock.history.get[1].url).toBe("/api/chat/get");
-    expect(axiosMock.history.get[1].params).toEqual({ commonsId: 1, page: 0, size: 10 });
-    expect(axiosMock.history.get[2].url).toBe("/api/usercommons/commons/all");
+    expect(axiosMock.history.get[1].url).toBe("/api/chat/messages");
+    expect(axiosMock.history.get[1].params).toEqual({ commonsId: 1, size: 10 });
+    expect(axiosMock.history.get[2].url).toBe("/api/chat/authors");
     expect(axiosMock.history.get[2].params).toEqual({ commonsId: 1 });
 
     await waitFor(() => {
@@ -159,8 +159,8 @@ describe("ChatDisplay tests", () => {
 
     //arrange
 
-    axiosMock.onGet("/api/chat/get").reply(200, { content: chatMessageFixtures.twelveChatMessages });
-    axiosMock.onGet("/api/usercommons/commons/all").reply(200, userCommonsFixtures.threeUserCommons);
+    axiosMock.onGet("/api/chat/messages").reply(200, { content: chatMessageFixtures.twelveChatMessages });
+    axiosMock.onGet("/api/chat/authors").reply(200, chatAuthorsFixtures.threeChatAuthors);
 
     //act
     render(
@@ -176,9 +176,9 @@ describe("ChatDisplay tests", () => {
         expect(axiosMock.history.get.length).toBe(3);
     });
     expect(axiosMock.history.get[0].url).toBe("/api/currentUser");
-    expect(axiosMock.history.get[1].url).toBe("/api/chat/get");
-    expect(axiosMock.history.get[1].params).toEqual({ commonsId: 1, page: 0, size: 10 });
-    expect(axiosMock.history.get[2].url).toBe("/api/usercommons/commons/all");
+    expect(axiosMock.history.get[1].url).toBe("/api/chat/messages");
+    expect(axiosMock.history.get[1].params).toEqual({ commonsId: 1, size: 10 });
+    expect(axiosMock.history.get[2].url).toBe("/api/chat/authors");
     expect(axiosMock.history.get[2].params).toEqual({ commonsId: 1 });
 
     await waitFor(() => {
@@ -200,4 +200,183 @@ describe("ChatDisplay tests", () => {
 
   });
 
+});
+
+describe("ChatDisplay streaming tests", () => {
+
+  const axiosMock = new AxiosMockAdapter(axios);
+
+  const commonsId = 1;
+
+  // Records the listeners ChatDisplay adds, so that tests can play the server's part
+  class FakeEventSource {
+    constructor(url) {
+      this.url = url;
+      this.listeners = {};
+      this.close = jest.fn();
+      FakeEventSource.instances.push(this);
+    }
+
+    addEventListener(type, listener) {
+      this.listeners[type] = listener;
+    }
+
+    emit(type, data) {
+      act(() => {
+        this.listeners[type](data === undefined ? {} : { data: JSON.stringify(data) });
+      });
+    }
+  }
+
+  const renderChatDisplay = () => {
+    const queryClient = new QueryClient();
+    return render(
+        <QueryClientProvider client={queryClient}>
+            <MemoryRouter>
+                <ChatDisplay commonsId={commonsId} />
+            </MemoryRouter>
+        </QueryClientProvider>
+    );
+  };
+
+  const newMessage = {
+    "id": 4,
+    "userId": 1,
+    "commonsId": 1,
+    "timestamp": "2023-08-18T03:00:00.000+00:00",
+    "message": "Pushed by the server",
+    "dm": false,
+    "toUserId": 0,
+    "hidden": false
+  };
+
+  beforeEach(() => {
+    axiosMock.reset();
+    axiosMock.resetHistory();
+    FakeEventSource.instances = [];
+    window.EventSource = FakeEventSource;
+    axiosMock.onGet("/api/chat/messages").reply(200, { content: chatMessageFixtures.threeChatMessages });
+    axiosMock.onGet("/api/chat/authors").reply(200, chatAuthorsFixtures.threeChatAuthors);
+  });
+
+  afterEach(() => {
+    delete window.EventSource;
+  });
+
+  const chatRequests = () => axiosMock.history.get.filter((request) => request.url === "/api/chat/messages");
+  const authorsRequests = () => axiosMock.history.get.filter((request) => request.url === "/api/chat/authors");
+
+  test("subscribes to the stream of the commons and closes it on unmount", async () => {
+    const { unmount } = renderChatDisplay();
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-3")).toBeInTheDocument();
+    });
+    expect(FakeEventSource.instances.length).toBe(1);
+    const source = FakeEventSource.instances[0];
+    expect(source.url).toBe("/api/chat/stream?commonsId=1");
+
+    unmount();
+    expect(source.close).toHaveBeenCalled();
+  });
+
+  test("shows pushed messages without asking the backend again", async () => {
+    renderChatDisplay();
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-3")).toBeInTheDocument();
+    });
+    const requests = axiosMock.history.get.length;
+
+    FakeEventSource.instances[0].emit("message", newMessage);
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-4")).toBeInTheDocument();
+    });
+    expect(screen.getByTestId("ChatMessageDisplay-4-User")).toHaveTextContent("George Washington");
+    expect(screen.getByTestId("ChatMessageDisplay-4-Message")).toHaveTextContent("Pushed by the server");
+    expect(axiosMock.history.get.length).toBe(requests);
+
+    /* eslint-disable testing-library/no-node-access */
+    expect(screen.getByTestId("ChatDisplay").children[0].getAttribute("data-testid")).toBe("ChatMessageDisplay-4");
+    /* eslint-enable testing-library/no-node-access */
+
+    // the same message arriving twice is shown once
+    FakeEventSource.instances[0].emit("message", newMessage);
+    expect(screen.getAllByTestId("ChatMessageDisplay-4").length).toBe(1);
+  });
+
+  test("keeps only the latest page of messages", async () => {
+    axiosMock.onGet("/api/chat/messages").reply(200, { content: chatMessageFixtures.twelveChatMessages.slice(2) });
+    renderChatDisplay();
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-3")).toBeInTheDocument();
+    });
+
+    FakeEventSource.instances[0].emit("message", { ...newMessage, id: 13 });
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-13")).toBeInTheDocument();
+    });
+    expect(screen.queryByTestId("ChatMessageDisplay-3")).not.toBeInTheDocument();
+  });
+
+  test("reloads usernames when someone new writes", async () => {
+    renderChatDisplay();
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-3")).toBeInTheDocument();
+    });
+    expect(authorsRequests().length).toBe(1);
+
+    FakeEventSource.instances[0].emit("message", newMessage);
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-4")).toBeInTheDocument();
+    });
+    expect(authorsRequests().length).toBe(1);
+
+    FakeEventSource.instances[0].emit("message", { ...newMessage, id: 5, userId: 42 });
+    await waitFor(() => {
+        expect(authorsRequests().length).toBe(2);
+    });
+  });
+
+  test("removes hidden messages", async () => {
+    renderChatDisplay();
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-3")).toBeInTheDocument();
+    });
+
+    FakeEventSource.instances[0].emit("hidden", { id: 3 });
+
+    await waitFor(() => {
+        expect(screen.queryByTestId("ChatMessageDisplay-3")).not.toBeInTheDocument();
+    });
+    expect(screen.getByTestId("ChatMessageDisplay-1")).toBeInTheDocument();
+    expect(screen.getByTestId("ChatMessageDisplay-2")).toBeInTheDocument();
+  });
+
+  test("reloads messages after reconnecting, but not on first connecting", async () => {
+    renderChatDisplay();
+
+    await waitFor(() => {
+        expect(screen.getByTestId("ChatMessageDisplay-3")).toBeInTheDocument();
+    });
+    const source = FakeEventSource.instances[0];
+
+    source.emit("open");
+    expect(chatRequests().length).toBe(1);
+
+    source.emit("error");
+    source.emit("open");
+    await waitFor(() => {
+        expect(chatRequests().length).toBe(2);
+    });
+
+    source.emit("open");
+    expect(chatRequests().length).toBe(2);
+  });
+
 });
\ No newline at end of file
@@ -0,0 +1,80 @@
+import { act, render, screen } from "@testing-library/react";
+import JobLog from "main/components/Jobs/JobLog";
+
+// jsdom has no EventSource; this one lets a test send events to the component
+class MockEventSource {
+  constructor(url) {
+    this.url = url;
+    this.listeners = {};
+    this.closed = false;
+    MockEventSource.sources.push(this);
+  }
+
+  addEventListener(name, listener) {
+    this.listeners[name] = listener;
+  }
+
+  emit(name, data) {
+    this.listeners[name]({ data });
+  }
+
+  close() {
+    this.closed = true;
+  }
+}
+
+describe("JobLog tests", () => {
+
+  const testId = "JobLog";
+
+  beforeEach(() => {
+    MockEventSource.sources = [];
+    global.EventSource = MockEventSource;
+  });
+
+  test("shows lines and progress as they arrive until the job has finished", () => {
+
+    // act
+    render(<JobLog jobId={7} />);
+
+    // assert
+    const source = MockEventSource.sources[0];
+    expect(source.url).toBe("/api/jobs/7/events");
+    expect(screen.getByTestId(`${testId}-title`)).toHaveTextContent(/^Log of job 7$/);
+    expect(screen.queryByTestId(`${testId}-progress`)).not.toBeInTheDocument();
+
+    act(() => {
+      source.emit("log", "Starting to milk the cows");
+      source.emit("progress", JSON.stringify({ phase: null, completed: 0, total: 2, rowsRead: 0, rowsWritten: 0, rowsPerSecond: 0 }));
+    });
+
+    expect(screen.getByTestId(`${testId}-progress`)).toHaveTextContent(/^0 of 2 done, 0 rows read, 0 written \(0.0 rows\/s\)$/);
+
+    act(() => {
+      source.emit("progress", JSON.stringify({ phase: "milking the cows", completed: 1, total: 2, rowsRead: 15, rowsWritten: 30, rowsPerSecond: 12.345 }));
+      source.emit("log", "Milking cows for Commons: Blue\nwith a second line");
+    });
+
+    expect(screen.getByTestId(`${testId}-lines`).textContent).toBe("Starting to milk the cows\nMilking cows for Commons: Blue\nwith a second line");
+    expect(screen.getByTestId(`${testId}-progress`)).toHaveTextContent(/^milking the cows: 1 of 2 done, 15 rows read, 30 written \(12.3 rows\/s\)$/);
+    expect(source.closed).toBe(false);
+
+    act(() => {
+      source.emit("status", "complete");
+    });
+
+    expect(screen.getByTestId(`${testId}-title`)).toHaveTextContent("Log of job 7 (complete)");
+    expect(source.closed).toBe(true);
+  });
+
+  test("closes the stream when it is no longer shown", () => {
+
+    // act
+    const { unmount } = render(<JobLog jobId={8} />);
+    const source = MockEventSource.sources[0];
+    unmount();
+
+    // assert
+    expect(source.closed).toBe(true);
+  });
+});
@@ -35,8 +35,8 @@ describe("PagedJobsTable tests", () => {
     );
 
     // assert
-    const expectedHeaders = ['id', 'Created', 'Updated', 'Status', 'Log'];
-    const expectedFields = ['id', 'Created', 'Updated', 'status', 'Log'];
+    const expectedHeaders = ['id', 'Created', 'Updated', 'Status', 'Created By', 'Lines', 'Duration', 'Log'];
+    const expectedFields = ['id', 'Created', 'Updated', 'status', 'createdBy', 'numLogLines', 'durationMs', 'Log'];
 
     expectedHeaders.forEach((headerText) => {
       const header = screen.getByText(headerText);
@@ -68,8 +68,18 @@ describe("PagedJobsTable tests", () => {
       screen.getByTestId(`${testId}-cell-row-0-col-status`)
     ).toHaveTextContent("complete");
     expect(
-      screen.getByTestId(`${testId}-cell-row-0-col-Log`)
-    ).toHaveTextContent(`Updating cow health...Commons Blue, degradationRate: 0.1, carryingCapacity: 10User: Phill Conrad, numCows: 3, cowHealth: 100.0 old cow health: 100.0, new cow health: 100.0User: Phillip Conrad, numCows: 7, cowHealth: 100.0 old cow health: 100.0, new cow health: 100.0Commons Red, degradationRate: 0.1, carryingCapacity: 2User: Phill Conrad, numCows: 10, cowHealth: 54.40000000000016 old cow health: 54.40000000000016, new cow health: 53.600000000000165Cow health has been updated!`);
+      screen.getByTestId(`${testId}-cell-row-0-col-createdBy`)
+    ).toHaveTextContent("phtcon@ucsb.edu");
+    expect(
+      screen.getByTestId(`${testId}-cell-row-0-col-numLogLines`)
+    ).toHaveTextContent("10");
+    expect(
+      screen.getByTestId(`${testId}-cell-row-0-col-durationMs`)
+    ).toHaveTextContent("0.2 s");
+    expect(
+      screen.getByTestId(`${testId}-cell-row-0-col-Log-button`)
+    ).toHaveTextContent("Log");
+    expect(screen.queryByTestId("JobLog-lines")).not.toBeInTheDocument();
 
     expect(screen.getByTestId(`${testId}-header-id-sort-carets`)).toHaveTextContent("🔽");
 
@@ -83,6 +93,59 @@ describe("PagedJobsTable tests", () => {
     expect(previousButton).toBeDisabled();
   });
 
+  test("shows the queue position of queued jobs", async () => {
+
+    // arrange
+
+    axiosMock.onGet("/api/jobs/all/pageable").reply(200, pagedJobsFixtures.queuedPage);
+
+    // act
+    render(
+      <QueryClientProvider client={queryClient}>
+        <MemoryRouter>
+          <PagedJobsTable />
+        </MemoryRouter>
+      </QueryClientProvider>
+
+    );
+
+    // assert
+    await waitFor(() => {
+      expect(screen.getByTestId(`${testId}-cell-row-0-col-status`)).toHaveTextContent("queued (#1)");
+    });
+    expect(screen.getByTestId(`${testId}-cell-row-1-col-status`)).toHaveTextContent(/^running$/);
+    expect(screen.getByTestId(`${testId}-cell-row-1-col-durationMs`)).toHaveTextContent(/^$/);
+  });
+
+  test("shows the log of a job when its Log button is clicked", async () => {
+
+    // arrange
+
+    axiosMock.onGet("/api/jobs/all/pageable").reply(200, pagedJobsFixtures.onePage);
+    global.EventSource = jest.fn(() => ({ addEventListener: jest.fn(), close: jest.fn() }));
+
+    // act
+    render(
+      <QueryClientProvider client={queryClient}>
+        <MemoryRouter>
+          <PagedJobsTable />
+        </MemoryRouter>
+      </QueryClientProvider>
+
+    );
+
+    await waitFor(() => {
+      expect(screen.getByTestId(`${testId}-cell-row-1-col-Log-button`)).toBeInTheDocument();
+    });
+    fireEvent.click(screen.getByTestId(`${testId}-cell-row-1-col-Log-button`));
+
+    // assert
+    await waitFor(() => {
+      expect(screen.getByTestId("JobLog-title")).toHaveTextContent("Log of job 119");
+    });
+    expect(global.EventSource).toHaveBeenCalledWith("/api/jobs/119/events");
+  });
+
   test("buttons are disabled where there are zero pages", async () => {
 
     // arrange
@@ -135,8 +198,8 @@ describe("PagedJobsTable tests", () => {
     );
 
     // assert
-    const expectedHeaders = ['id', 'Created', 'Updated', 'Status', 'Log'];
-    const expectedFields = ['id', 'Created', 'Updated', 'status', 'Log'];
+    const expectedHeaders = ['id', 'Created', 'Updated', 'Status', 'Created By', 'Lines', 'Duration', 'Log'];
+    const expectedFields = ['id', 'Created', 'Updated', 'status', 'createdBy', 'numLogLines', 'durationMs', 'Log'];
 
     expectedHeaders.forEach((headerText) => {
       const header = screen.getByText(headerText);
@@ -213,7 +213,7 @@ describe("AdminJobsPage tests", () => {
 
     await waitFor(() => {
       expect(axiosMock.history.post[0].url).toBe(
-        `/api/jobs/launch/updatecowhealth`
+        `/api/jobs/launch/updatecowhealth?allCommons=true`
       );
     })
 
@@ -288,7 +288,7 @@ describe("AdminJobsPage tests", () => {
 
     await waitFor(() => {
       expect(axiosMock.history.post[0].url).toBe(
-        `/api/jobs/launch/milkthecowjob`
+        `/api/jobs/launch/milkthecowjob?allCommons=true`
       );
     })
 
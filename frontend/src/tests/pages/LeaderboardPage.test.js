@@ -4,10 +4,11 @@ import { MemoryRouter } from "react-router-dom";
 import axios from "axios";
 import AxiosMockAdapter from "axios-mock-adapter";
 
-import LeaderboardPage from "main/pages/LeaderboardPage";
+import LeaderboardPage, { LEADERBOARD_PAGE_SIZE } from "main/pages/LeaderboardPage";
 
 import { apiCurrentUserFixtures } from "fixtures/currentUserFixtures";
 import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
+import leaderboardFixtures from "fixtures/leaderboardFixtures";
 
 const mockToast = jest.fn();
 jest.mock("react-toastify", () => {
@@ -70,7 +71,7 @@ describe("LeaderboardPage tests", () => {
             showLeaderboard: true,
         });
         axiosMock
-            .onGet("/api/usercommons/commons/all", { params: { commonsId: 1 } })
+            .onGet("/api/leaderboard/top", { params: { commonsId: 1, orderBy: "WEALTH", k: 100 } })
             .reply(200, []);
         const queryClient = new QueryClient();
         render(
@@ -131,7 +132,7 @@ describe("LeaderboardPage tests", () => {
             showLeaderboard: true,
         });
         axiosMock
-            .onGet("/api/usercommons/commons/all", { params: { commonsId: 1 } })
+            .onGet("/api/leaderboard/top", { params: { commonsId: 1, orderBy: "WEALTH", k: 100 } })
             .reply(200, []);
         const queryClient = new QueryClient();
         render(
@@ -147,6 +148,48 @@ describe("LeaderboardPage tests", () => {
         expect(await screen.findByText("Total Wealth")).toBeInTheDocument();
     });
 
+    test("Show more fetches the next page of farmers", async () => {
+        setupUser();
+        axiosMock.onGet("/api/commons", { params: { id: 1 } }).reply(200, {
+            showLeaderboard: true,
+        });
+        const farmers = Array.from({ length: 150 }, (_, i) => ({
+            ...leaderboardFixtures.oneUserCommonsLB[0],
+            id: i + 1,
+            userId: i + 1,
+            username: `farmer${i + 1}`,
+        }));
+        axiosMock
+            .onGet("/api/leaderboard/top", { params: { commonsId: 1, orderBy: "WEALTH", k: 100 } })
+            .reply(200, farmers.slice(0, 100));
+        axiosMock
+            .onGet("/api/leaderboard/top", { params: { commonsId: 1, orderBy: "WEALTH", k: 200 } })
+            .reply(200, farmers);
+        const queryClient = new QueryClient();
+        render(
+            <QueryClientProvider client={queryClient}>
+                <MemoryRouter>
+                    <LeaderboardPage />
+                </MemoryRouter>
+            </QueryClientProvider>
+        );
+
+        expect(LEADERBOARD_PAGE_SIZE).toBe(100);
+        expect(await screen.findByText("farmer1")).toBeInTheDocument();
+
+        // a full page may be followed by more farmers
+        fireEvent.click(await screen.findByTestId("LeaderboardPage-show-more"));
+
+        await waitFor(() => {
+            expect(axiosMock.history.get.some((request) => request.params?.k === 200)).toBe(true);
+        });
+        // fewer farmers than were asked for, so there are no more
+        await waitFor(() => {
+            expect(screen.queryByTestId("LeaderboardPage-show-more")).not.toBeInTheDocument();
+        });
+        expect(screen.getByText("farmer1")).toBeInTheDocument();
+    });
+
     test("renders leaderboard error message for users when showLeaderboard = false", async () => {
         setupUser();
         axiosMock.onGet("/api/commons", { params: { id: 1 } }).reply(200, {
@@ -187,7 +230,7 @@ describe("LeaderboardPage tests", () => {
             showLeaderboard: false,
         });
         axiosMock
-            .onGet("/api/usercommons/commons/all", { params: { commonsId: 1 } })
+            .onGet("/api/leaderboard/top", { params: { commonsId: 1, orderBy: "WEALTH", k: 100 } })
             .reply(200, []);
         const queryClient = new QueryClient();
         render(
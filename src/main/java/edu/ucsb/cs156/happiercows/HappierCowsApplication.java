@@ -4,18 +4,25 @@ import java.time.ZonedDateTime;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
 
+import edu.ucsb.cs156.happiercows.diagnostics.QueryStats;
+import edu.ucsb.cs156.happiercows.services.CurrentUserServiceImpl;
 import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -65,22 +72,86 @@ public class HappierCowsApplication {
       };
   }
 
+  /**
+   * Executor for jobs and other &#64;Async work.  With app.jobs.executor=per-job,
+   * each job gets a thread of its own instead of waiting for one of the
+   * threadPoolTaskExecutor threads, and JobService limits how many jobs of
+   * each type run at once.
+   */
   // See: https://www.baeldung.com/spring-security-async-principal-propagation
   @Bean
-  public DelegatingSecurityContextAsyncTaskExecutor taskExecutor(ThreadPoolTaskExecutor delegate) {
-    return new DelegatingSecurityContextAsyncTaskExecutor(delegate);
+  public DelegatingSecurityContextAsyncTaskExecutor taskExecutor(
+      @Qualifier("threadPoolTaskExecutor") ThreadPoolTaskExecutor delegate,
+      @Value("${app.jobs.executor:pool}") String executorMode) {
+    AsyncTaskExecutor executor = delegate;
+    if ("per-job".equals(executorMode)) {
+      executor = new SimpleAsyncTaskExecutor("HappierCows-job-");
+    }
+    return new DelegatingSecurityContextAsyncTaskExecutor(executor);
   }
 
   // See: https://www.baeldung.com/spring-security-async-principal-propagation
   @Bean
-  public ThreadPoolTaskExecutor threadPoolTaskExecutor() {
+  public ThreadPoolTaskExecutor threadPoolTaskExecutor(@Value("${app.jobs.poolSize:2}") int poolSize) {
     ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-    executor.setCorePoolSize(2);
-    executor.setMaxPoolSize(2);
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
     executor.setQueueCapacity(500);
     executor.setThreadNamePrefix("HappierCows-");
     executor.initialize();
     return executor;
   }
 
+  /**
+   * Executor for the per-commons tasks of a job (see CommonsTaskRunner).
+   * It is separate from threadPoolTaskExecutor so that a job waiting for its
+   * commons never holds a thread that one of its own tasks needs.
+   */
+  @Bean
+  public DelegatingSecurityContextAsyncTaskExecutor commonsTaskExecutor(
+      @Qualifier("commonsThreadPoolTaskExecutor") ThreadPoolTaskExecutor delegate) {
+    return new DelegatingSecurityContextAsyncTaskExecutor(delegate);
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor commonsThreadPoolTaskExecutor(@Value("${app.jobs.commonsPoolSize:4}") int poolSize) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setThreadNamePrefix("HappierCows-commons-");
+    // the statements of each task count towards the job that runs it, and
+    // the user a task looks up is not left behind on the pooled thread
+    executor.setTaskDecorator(task -> QueryStats.propagate(CurrentUserServiceImpl.clearingUserOutsideRequest(task)));
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Executor that sends server-sent events to the clients following a job,
+   * so that a slow client holds up one of these threads instead of the job.
+   */
+  @Bean
+  public ThreadPoolTaskExecutor eventsTaskExecutor(@Value("${app.events.poolSize:4}") int poolSize) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setThreadNamePrefix("HappierCows-events-");
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Scheduler for &#64;Scheduled methods.  Spring's default has a single
+   * thread, on which a slow task such as CommonsAggregateService.reconcileAll
+   * would delay the chat heartbeat, the job log flush and the renewal of job
+   * locks.
+   */
+  @Bean
+  public ThreadPoolTaskScheduler taskScheduler(@Value("${app.scheduling.poolSize:4}") int poolSize) {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("HappierCows-scheduling-");
+    return scheduler;
+  }
+
 }
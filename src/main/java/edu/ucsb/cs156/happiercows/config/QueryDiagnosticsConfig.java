@@ -0,0 +1,53 @@
+package edu.ucsb.cs156.happiercows.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import edu.ucsb.cs156.happiercows.diagnostics.QueryDiagnosticsListener;
+import edu.ucsb.cs156.happiercows.diagnostics.QueryStatsFilter;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Turned on by app.diagnostics.enabled (the diagnostics profile).  Routes the
+ * data source through datasource-proxy, so that every statement is counted
+ * and timed with its bound parameters, and adds the query counts of each
+ * request to its response.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.diagnostics.enabled", havingValue = "true")
+public class QueryDiagnosticsConfig {
+
+    // static, so that it is created before the data source it wraps
+    @Bean
+    public static BeanPostProcessor queryDiagnosticsDataSourceWrapper(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                long slowQueryMs = environment.getProperty("app.diagnostics.slowQueryMs", Long.class, 100L);
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(new QueryDiagnosticsListener(slowQueryMs))
+                        .build();
+            }
+        };
+    }
+
+    // first, so that the statements run by the security filters are counted too
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter() {
+        FilterRegistrationBean<QueryStatsFilter> registration = new FilterRegistrationBean<>(new QueryStatsFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -49,6 +49,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     http.authorizeRequests(authorize -> authorize
+        .antMatchers("/actuator/prometheus").hasRole("ADMIN")
         .anyRequest().permitAll())
         .exceptionHandling(handlingConfigurer -> handlingConfigurer
             .authenticationEntryPoint(new Http403ForbiddenEntryPoint()))
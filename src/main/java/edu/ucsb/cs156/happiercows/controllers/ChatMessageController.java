@@ -6,13 +6,18 @@ import lombok.extern.slf4j.Slf4j;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 import edu.ucsb.cs156.happiercows.entities.ChatMessage;
@@ -21,10 +26,15 @@ import edu.ucsb.cs156.happiercows.repositories.ChatMessageRepository;
 import edu.ucsb.cs156.happiercows.entities.User;
 import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
+import edu.ucsb.cs156.happiercows.models.ChatAuthor;
+import edu.ucsb.cs156.happiercows.services.ChatBroadcaster;
+import edu.ucsb.cs156.happiercows.services.MembershipVersionService;
 
 import org.springframework.security.core.Authentication;
 
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Tag(name = "Chat Message")
@@ -33,12 +43,21 @@ import java.util.Optional;
 @Slf4j
 public class ChatMessageController extends ApiController{
 
+    // the most messages /messages returns at once; a larger size is clamped to it
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private ChatMessageRepository chatMessageRepository;
 
     @Autowired
     private UserCommonsRepository userCommonsRepository;
 
+    @Autowired
+    private ChatBroadcaster chatBroadcaster;
+
+    @Autowired
+    private MembershipVersionService membershipVersionService;
+
     @Autowired
     ObjectMapper mapper;
 
@@ -49,22 +68,8 @@ public class ChatMessageController extends ApiController{
                                             @Parameter(name="page") @RequestParam int page,
                                             @Parameter(name="size") @RequestParam int size) {
         
-        // Make sure the user is part of the commons and showChat is true, or user is an admin
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (!auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))){
-            log.info("User is not an admin");
-            User user = getCurrentUser().getUser();
-            Long userId = user.getId();
-            Optional<UserCommons> userCommonsLookup = userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId);
-
-            if (!userCommonsLookup.isPresent()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-            }
-
-            UserCommons userCommons = userCommonsLookup.get();
-            if(!userCommons.getCommons().isShowChat()){
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-            }
+        if (!canReadChat(commonsId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
         // Return the list of non-hidden chat messages
@@ -72,6 +77,67 @@ public class ChatMessageController extends ApiController{
         return ResponseEntity.ok(messages);
     }
 
+    @Operation(summary = "Get chat messages before or after a message", description = "Get up to size (at most 100) non-hidden chat messages of a specific commons. With before, the messages older than that id, newest first; with after, the messages newer than that id, oldest first; with neither, the newest messages.")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping("/messages")
+    public ResponseEntity<Object> getChatMessagesByCursor(@Parameter(description = "The id of the common") @RequestParam Long commonsId,
+                                            @Parameter(description = "Return messages older than this message id") @RequestParam(required = false) Long before,
+                                            @Parameter(description = "Return messages newer than this message id") @RequestParam(required = false) Long after,
+                                            @Parameter(name="size") @RequestParam(defaultValue = "10") int size) {
+
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body(genericMessage("Specify at most one of before and after"));
+        }
+
+        if (size < 1) {
+            return ResponseEntity.badRequest().body(genericMessage("size must be at least 1"));
+        }
+
+        if (!canReadChat(commonsId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        PageRequest pageRequest = PageRequest.of(0, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Slice<ChatMessage> messages = after != null
+                ? chatMessageRepository.findByCommonsIdAfter(commonsId, after, pageRequest)
+                : chatMessageRepository.findByCommonsIdBefore(commonsId, before != null ? before : Long.MAX_VALUE, pageRequest);
+        return ResponseEntity.ok(messages);
+    }
+
+    @Operation(summary = "Get chat authors", description = "Get the username of each member of a specific commons, keyed by user id. The response has an ETag that changes only when users join or leave the commons, so a request with a matching If-None-Match gets a 304 without reading the members.")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping("/authors")
+    public ResponseEntity<Object> getChatAuthors(@Parameter(description = "The id of the common") @RequestParam Long commonsId,
+                                            WebRequest request) {
+
+        // read before the members, see MembershipVersionService.etag
+        String etag = membershipVersionService.etag(commonsId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        Map<Long, String> authors = new LinkedHashMap<>();
+        for (ChatAuthor author : userCommonsRepository.findChatAuthorsByCommonsId(commonsId)) {
+            authors.put(author.getUserId(), author.getUsername() == null ? "" : author.getUsername());
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(authors);
+    }
+
+    @Operation(summary = "Stream chat messages", description = "Server-sent events for a specific commons: a \"message\" event for each message posted and a \"hidden\" event for each message hidden from now on.")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChatMessages(@Parameter(description = "The id of the common") @RequestParam Long commonsId) {
+
+        // Checked once here rather than for every message sent on the stream
+        if (!canReadChat(commonsId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        // admins can read every chat, so only members lose the stream when they lose access
+        Long userId = isAdmin() ? null : getCurrentUser().getUser().getId();
+        return ResponseEntity.ok(chatBroadcaster.subscribe(commonsId, userId));
+    }
+
     @Operation(summary = "Get all chat messages (Admins)", description = "Get all chat messages associated with a specific commons, even the hidden ones. Used only by admins")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("/admin/get")
@@ -135,6 +201,7 @@ public class ChatMessageController extends ApiController{
 
         // Save the message
         chatMessageRepository.save(chatMessage);
+        chatBroadcaster.messageCreated(chatMessage);
 
         return ResponseEntity.ok(chatMessage);
     }
@@ -177,10 +244,27 @@ public class ChatMessageController extends ApiController{
         // Hide the message
         chatMessage.setHidden(true);
         chatMessageRepository.save(chatMessage);
+        chatBroadcaster.messageHidden(chatMessage);
 
         return ResponseEntity.ok(chatMessage);
     }
 
-    
+    // Make sure the user is part of the commons and showChat is true, or user is an admin
+    private boolean canReadChat(Long commonsId) {
+        if (isAdmin()) {
+            return true;
+        }
+        log.info("User is not an admin");
+        User user = getCurrentUser().getUser();
+        Long userId = user.getId();
+        Optional<UserCommons> userCommonsLookup = userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId);
+
+        return userCommonsLookup.isPresent() && userCommonsLookup.get().getCommons().isShowChat();
+    }
+
+    private boolean isAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
 
 }
@@ -1,29 +1,30 @@
 package edu.ucsb.cs156.happiercows.controllers;
 
 import edu.ucsb.cs156.happiercows.entities.CommonStats;
-import edu.ucsb.cs156.happiercows.helpers.CommonStatsCSVHelper;
+import edu.ucsb.cs156.happiercows.models.StatsResolution;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.CommonStatsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
+import edu.ucsb.cs156.happiercows.services.CSVExportService;
+import edu.ucsb.cs156.happiercows.services.CommonStatsRollupService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 
+import java.time.LocalDateTime;
+
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "CommonStats")
 @RequestMapping("/api/commonstats")
@@ -39,6 +40,12 @@ public class CommonStatsController {
     @Autowired
     CommonStatsRepository commonStatsRepository;
 
+    @Autowired
+    CSVExportService csvExportService;
+
+    @Autowired
+    CommonStatsRollupService commonStatsRollupService;
+
     @Operation(summary = "Get all common stats")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
@@ -54,39 +61,48 @@ public class CommonStatsController {
         return commonStatsRepository.findAllByCommonsId(commonsId);
     }
 
+    @Operation(summary = "Get the stats for a commons over a time range",
+            description = "Returns one point per RAW, HOUR or DAY bucket starting in [from, to), with the min, max and average cows and health. Stats older than the retention windows are only kept in hourly or daily buckets, and are returned at that resolution.")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/range")
+    public ResponseEntity<Object> commonStatsInRange(
+            @Parameter(name = "commonsId") @RequestParam Long commonsId,
+            @Parameter(name = "from", description = "start of the range, in iso format, e.g. 2023-10-01T00:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(name = "to", description = "end of the range (exclusive), in iso format, e.g. 2023-11-01T00:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(name = "resolution", description = "RAW, HOUR or DAY") @RequestParam(defaultValue = "HOUR") StatsResolution resolution) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().body("from must be before to.");
+        }
+        return ResponseEntity.ok(commonStatsRollupService.findInRange(commonsId, from, to, resolution));
+    }
+
     @Operation(summary = "Get all stats for a commons as csv")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping(value = "/download")
-    public ResponseEntity<Resource> getCSV(
-            @Parameter(name = "commonsId") @RequestParam Long commonsId) throws IOException {
+    public ResponseEntity<StreamingResponseBody> getCSV(
+            @Parameter(name = "commonsId") @RequestParam Long commonsId) {
 
-        Iterable<CommonStats> commonStats = commonStatsRepository.findAllByCommonsId(commonsId);
-                
         String filename = String.format("stats%05d.csv",commonsId);
 
-        ByteArrayInputStream bais = CommonStatsCSVHelper.toCSV(commonStats);
-        InputStreamResource isr = new InputStreamResource(bais);
+        StreamingResponseBody body = out -> csvExportService.writeCommonStats(commonsId, out);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.parseMediaType("application/csv")).body(isr);
+                .contentType(MediaType.parseMediaType("application/csv")).body(body);
     }
 
     @Operation(summary = "Get all stats for all commons as csv")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping(value = "/downloadAll")
-    public ResponseEntity<Resource> getAllCSV() throws IOException {
+    public ResponseEntity<StreamingResponseBody> getAllCSV() {
 
-        Iterable<CommonStats> commonStats = commonStatsRepository.findAll();
-                
         String filename = String.format("CommonStats.csv");
 
-        ByteArrayInputStream bais = CommonStatsCSVHelper.toCSV(commonStats);
-        InputStreamResource isr = new InputStreamResource(bais);
+        StreamingResponseBody body = out -> csvExportService.writeAllCommonStats(out);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.parseMediaType("application/csv")).body(isr);
+                .contentType(MediaType.parseMediaType("application/csv")).body(body);
     }
     
 }
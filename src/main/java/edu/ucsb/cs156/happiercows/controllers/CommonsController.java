@@ -21,7 +21,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import edu.ucsb.cs156.happiercows.services.ChatBroadcaster;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.MembershipVersionService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
 
 
@@ -45,6 +50,18 @@ public class CommonsController extends ApiController {
     @Autowired
     CommonsPlusBuilderService commonsPlusBuilderService;
 
+    @Autowired
+    CommonsAggregateService commonsAggregateService;
+
+    @Autowired
+    MembershipVersionService membershipVersionService;
+
+    @Autowired
+    LeaderboardService leaderboardService;
+
+    @Autowired
+    ChatBroadcaster chatBroadcaster;
+
     @Value("${app.commons.default.startingBalance}")
     private double defaultStartingBalance;
 
@@ -101,11 +118,7 @@ public class CommonsController extends ApiController {
     @GetMapping("/allplus")
     public ResponseEntity<String> getCommonsPlus() throws JsonProcessingException {
         log.info("getCommonsPlus()...");
-        Iterable<Commons> commonsListIter = commonsRepository.findAll();
-
-        // convert Iterable to List for the purposes of using a Java Stream & lambda
-        // below
-        Iterable<CommonsPlus> commonsPlusList = commonsPlusBuilderService.convertToCommonsPlus(commonsListIter);
+        Iterable<CommonsPlus> commonsPlusList = commonsPlusBuilderService.getAllCommonsPlus();
 
         String body = mapper.writeValueAsString(commonsPlusList);
         return ResponseEntity.ok().body(body);
@@ -116,8 +129,8 @@ public class CommonsController extends ApiController {
     @GetMapping("/plus")
     public CommonsPlus getCommonsPlusById(
             @Parameter(name="id") @RequestParam long id) throws JsonProcessingException {
-                CommonsPlus commonsPlus = commonsPlusBuilderService.toCommonsPlus(commonsRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Commons.class, id)));
+                CommonsPlus commonsPlus = commonsPlusBuilderService.getCommonsPlus(id)
+                .orElseThrow(() -> new EntityNotFoundException(Commons.class, id));
 
         return commonsPlus;
     }
@@ -185,6 +198,10 @@ public class CommonsController extends ApiController {
             throw new IllegalArgumentException("Carrying Capacity cannot be less than 1");
         }
         commonsRepository.save(updated);
+        leaderboardService.commonsChanged(id);
+        if (!updated.isShowChat()) {
+            chatBroadcaster.chatHidden(id);
+        }
 
         return ResponseEntity.status(status).build();
     }
@@ -204,6 +221,7 @@ public class CommonsController extends ApiController {
     @Operation(summary = "Create a new commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping(value = "/new", produces = "application/json")
+    @Transactional
     public ResponseEntity<String> createCommons(
             @Parameter(name="request body") @RequestBody CreateCommonsParams params
     ) throws JsonProcessingException {
@@ -258,6 +276,7 @@ public class CommonsController extends ApiController {
         }
 
         Commons saved = commonsRepository.save(commons);
+        commonsAggregateService.commonsCreated(saved.getId());
         String body = mapper.writeValueAsString(saved);
 
         return ResponseEntity.ok().body(body);
@@ -276,6 +295,7 @@ public class CommonsController extends ApiController {
     @Operation(summary = "Join a commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @PostMapping(value = "/join", produces = "application/json")
+    @Transactional
     public ResponseEntity<String> joinCommon(
             @Parameter(name="commonsId") @RequestParam Long commonsId) throws Exception {
 
@@ -306,6 +326,9 @@ public class CommonsController extends ApiController {
                 .build();
 
         userCommonsRepository.save(uc);
+        commonsAggregateService.userCommonsAdded(uc);
+        membershipVersionService.membershipChanged(commonsId);
+        leaderboardService.userCommonsChanged(uc);
 
         String body = mapper.writeValueAsString(joinedCommons);
         return ResponseEntity.ok().body(body);
@@ -314,6 +337,7 @@ public class CommonsController extends ApiController {
     @Operation(summary = "Delete a Commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
+    @Transactional
     public Object deleteCommons(
             @Parameter(name="id") @RequestParam Long id) {
         
@@ -327,6 +351,10 @@ public class CommonsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Commons.class, id));
 
         commonsRepository.deleteById(id);
+        commonsAggregateService.commonsDeleted(id);
+        membershipVersionService.membershipChanged(id);
+        leaderboardService.commonsChanged(id);
+        chatBroadcaster.commonsDeleted(id);
 
         String responseString = String.format("commons with id %d deleted", id);
         return genericMessage(responseString);
@@ -336,6 +364,7 @@ public class CommonsController extends ApiController {
     @Operation(summary="Delete a user from a commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("/{commonsId}/users/{userId}")
+    @Transactional
     public Object deleteUserFromCommon(@PathVariable("commonsId") Long commonsId,
                                        @PathVariable("userId") Long userId) throws Exception {
 
@@ -345,8 +374,12 @@ public class CommonsController extends ApiController {
                 );
 
         userCommonsRepository.delete(userCommons);
+        commonsAggregateService.userCommonsRemoved(userCommons);
+        membershipVersionService.membershipChanged(commonsId);
+        leaderboardService.userCommonsRemoved(commonsId, userId);
+        chatBroadcaster.memberRemoved(commonsId, userId);
 
-        String responseString = String.format("user with id %d deleted from commons with id %d, %d users remain", userId, commonsId, commonsRepository.getNumUsers(commonsId).orElse(0));
+        String responseString = String.format("user with id %d deleted from commons with id %d, %d users remain", userId, commonsId, commonsAggregateService.getAggregate(commonsId).getTotalUsers());
 
         return genericMessage(responseString);
     }
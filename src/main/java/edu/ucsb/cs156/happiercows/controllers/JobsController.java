@@ -9,16 +9,23 @@ import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.ZonedDateTime;
+import java.util.List;
 
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobStats;
+import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
 import edu.ucsb.cs156.happiercows.jobs.InstructorReportJob;
 import edu.ucsb.cs156.happiercows.jobs.InstructorReportJobFactory;
 import edu.ucsb.cs156.happiercows.jobs.InstructorReportJobSingleCommons;
@@ -31,8 +38,17 @@ import edu.ucsb.cs156.happiercows.jobs.TestJob;
 import edu.ucsb.cs156.happiercows.jobs.UpdateCowHealthJobFactory;
 import edu.ucsb.cs156.happiercows.jobs.RecordCommonStatsJob;
 import edu.ucsb.cs156.happiercows.jobs.RecordCommonStatsJobFactory;
+import edu.ucsb.cs156.happiercows.models.CommonsRunStats;
+import edu.ucsb.cs156.happiercows.models.JobLogLines;
+import edu.ucsb.cs156.happiercows.models.JobSummary;
+import edu.ucsb.cs156.happiercows.models.JobTypeStats;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobCommonsStatsRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobStatsRepository;
 import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+import edu.ucsb.cs156.happiercows.services.jobs.JobConcurrencyLimiter;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.happiercows.services.jobs.JobEventService;
+import edu.ucsb.cs156.happiercows.services.jobs.JobLogService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
 
@@ -44,9 +60,24 @@ public class JobsController extends ApiController {
     @Autowired
     private JobsRepository jobsRepository;
 
+    @Autowired
+    private JobStatsRepository jobStatsRepository;
+
+    @Autowired
+    private JobCommonsStatsRepository jobCommonsStatsRepository;
+
     @Autowired
     private JobService jobService;
 
+    @Autowired
+    private JobLogService jobLogService;
+
+    @Autowired
+    private JobEventService jobEventService;
+
+    @Autowired
+    private JobConcurrencyLimiter jobConcurrencyLimiter;
+
     @Autowired
     private CommonsPlusBuilderService commonsPlusBuilderService;
 
@@ -77,25 +108,117 @@ public class JobsController extends ApiController {
     @Autowired
     RecordCommonStatsJobFactory recordCommonStatsJobFactory;
 
-    @Operation(summary = "List all jobs")
+    @Operation(summary = "List all jobs, without their logs")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("/all")
-    public Iterable<Job> allJobs() {
-        Iterable<Job> jobs = jobsRepository.findAll();
+    public Iterable<JobSummary> allJobs() {
+        List<JobSummary> jobs = jobsRepository.findAllSummaries();
+        jobLogService.attachLineCounts(jobs);
+        jobConcurrencyLimiter.attachQueuePositions(jobs);
         return jobs;
     }
 
-    @Operation(summary = "List all jobs")
+    @Operation(summary = "List all jobs, without their logs")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("/all/pageable")
-    public Page<Job> allJobsPaged(
+    public Page<JobSummary> allJobsPaged(
          @Parameter(name="page") @RequestParam int page,
          @Parameter(name="size") @RequestParam int size
     ) {
-        Page<Job> jobs = jobsRepository.findAll(PageRequest.of(page, size, Sort.by("id").descending()));
+        Page<JobSummary> jobs = jobsRepository.findSummaries(PageRequest.of(page, size));
+        jobLogService.attachLineCounts(jobs);
+        jobConcurrencyLimiter.attachQueuePositions(jobs);
         return jobs;
     }
 
+    @Operation(summary = "Get the lines of a job's log from line fromLine on (numbered from 0)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/{id}/log")
+    public JobLogLines jobLog(
+         @Parameter(name="id") @PathVariable long id,
+         @Parameter(name="fromLine") @RequestParam(defaultValue = "0") int fromLine,
+         @Parameter(name="maxLines", description = "Maximum number of lines returned") @RequestParam(defaultValue = "1000") int maxLines
+    ) {
+        if (fromLine < 0) {
+            throw new IllegalArgumentException("fromLine must not be negative");
+        }
+        if (maxLines < 1 || maxLines > 10000) {
+            throw new IllegalArgumentException("maxLines must be between 1 and 10000");
+        }
+
+        Job job = jobsRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(Job.class, id));
+        return jobLogService.readLines(job, fromLine, maxLines);
+    }
+
+    @Operation(summary = "Stream a job's log lines and progress as server-sent events, ending with its status")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/{id}/events")
+    public SseEmitter jobEvents(
+         @Parameter(name="id") @PathVariable long id,
+         @Parameter(name="fromLine") @RequestParam(defaultValue = "0") int fromLine,
+         @Parameter(hidden = true) @RequestHeader(value = "Last-Event-ID", required = false) Integer lastEventId
+    ) {
+        if (fromLine < 0) {
+            throw new IllegalArgumentException("fromLine must not be negative");
+        }
+
+        // an EventSource that reconnects resumes after the last line it received
+        int firstLine = lastEventId == null ? fromLine : lastEventId + 1;
+        return jobEventService.subscribe(id, firstLine);
+    }
+
+    @Operation(summary = "Get the stats of each type of job over the runs that finished in the last days days")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/stats")
+    public List<JobTypeStats> jobTypeStats(
+         @Parameter(name="days") @RequestParam(defaultValue = "30") int days
+    ) {
+        return jobStatsRepository.findJobTypeStatsSince(since(days));
+    }
+
+    @Operation(summary = "Get the stats of the latest finished runs of a type of job, newest first")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/stats/runs")
+    public List<JobStats> jobRunStats(
+         @Parameter(name="jobType", description = "simple class name of the job, e.g. MilkTheCowsJob") @RequestParam String jobType,
+         @Parameter(name="limit") @RequestParam(defaultValue = "30") int limit
+    ) {
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit must be between 1 and 1000");
+        }
+        return jobStatsRepository.findByJobTypeAndFinishedAtNotNullOrderByFinishedAtDesc(jobType, PageRequest.of(0, limit));
+    }
+
+    @Operation(summary = "Get the stats of each commons over the runs of a type of job that finished in the last days days")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/stats/commons")
+    public List<CommonsRunStats> commonsRunStats(
+         @Parameter(name="jobType", description = "simple class name of the job, e.g. MilkTheCowsJob") @RequestParam String jobType,
+         @Parameter(name="days") @RequestParam(defaultValue = "30") int days
+    ) {
+        return jobCommonsStatsRepository.findCommonsRunStatsSince(jobType, since(days));
+    }
+
+    @Operation(summary = "Get how long one run of a job took for each commons, slowest first")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/{id}/commons")
+    public List<JobCommonsStats> jobCommonsStats(
+         @Parameter(name="id") @PathVariable long id
+    ) {
+        if (!jobsRepository.existsById(id)) {
+            throw new EntityNotFoundException(Job.class, id);
+        }
+        return jobCommonsStatsRepository.findByJobIdOrderByDurationMsDesc(id);
+    }
+
+    private ZonedDateTime since(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be at least 1");
+        }
+        return ZonedDateTime.now().minusDays(days);
+    }
+
     @Operation(summary = "Launch Test Job (click fail if you want to test exception handling)")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/launch/testjob")
@@ -120,8 +243,9 @@ public class JobsController extends ApiController {
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/launch/milkthecowjob")
     public Job launchTestJob(
+         @Parameter(name="allCommons", description="also process commons whose game has not started or has ended") @RequestParam(defaultValue = "false") boolean allCommons
     ) {
-        JobContextConsumer milkTheCowsJob = milkTheCowsJobFactory.create();
+        JobContextConsumer milkTheCowsJob = milkTheCowsJobFactory.create(allCommons);
         return jobService.runAsJob(milkTheCowsJob);
     }
 
@@ -139,8 +263,9 @@ public class JobsController extends ApiController {
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/launch/updatecowhealth")
     public Job updateCowHealth(
+         @Parameter(name="allCommons", description="also process commons whose game has not started or has ended") @RequestParam(defaultValue = "false") boolean allCommons
     ) { 
-        JobContextConsumer updateCowHealthJob = updateCowHealthJobFactory.create();
+        JobContextConsumer updateCowHealthJob = updateCowHealthJobFactory.create(allCommons);
         return jobService.runAsJob(updateCowHealthJob);
     }
 
@@ -175,8 +300,9 @@ public class JobsController extends ApiController {
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/launch/instructorreport")
     public Job instructorReport(
+         @Parameter(name="allCommons", description="also report on commons whose game has not started or has ended; pass false for only those in progress") @RequestParam(defaultValue = "true") boolean allCommons
     ) { 
-        InstructorReportJob instructorReportJob = (InstructorReportJob) instructorReportJobFactory.create();
+        InstructorReportJob instructorReportJob = (InstructorReportJob) instructorReportJobFactory.create(allCommons);
         return jobService.runAsJob(instructorReportJob);
     }
 
@@ -195,9 +321,10 @@ public class JobsController extends ApiController {
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/launch/recordcommonstats")
     public Job recordCommonStats(
+         @Parameter(name="allCommons", description="also process commons whose game has not started or has ended") @RequestParam(defaultValue = "false") boolean allCommons
     ) { 
 
-        RecordCommonStatsJob recordCommonStatsJob = (RecordCommonStatsJob) recordCommonStatsJobFactory.create();
+        RecordCommonStatsJob recordCommonStatsJob = (RecordCommonStatsJob) recordCommonStatsJobFactory.create(allCommons);
         return jobService.runAsJob(recordCommonStatsJob);
     }
 }
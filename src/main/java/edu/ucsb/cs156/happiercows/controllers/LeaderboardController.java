@@ -0,0 +1,62 @@
+package edu.ucsb.cs156.happiercows.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.ucsb.cs156.happiercows.models.LeaderboardOrder;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
+
+@Tag(name = "Leaderboard")
+@RequestMapping("/api/leaderboard")
+@RestController
+public class LeaderboardController extends ApiController {
+
+    @Autowired
+    LeaderboardService leaderboardService;
+
+    @Operation(summary = "Get the top of the leaderboard of a commons", description = "Returns the first k farmers, ordered by total wealth (WEALTH) or by number of cows (COWS). Users can only see it when the commons shows its leaderboard.")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping("/top")
+    public ResponseEntity<Object> getTop(
+            @Parameter(name="commonsId") @RequestParam Long commonsId,
+            @Parameter(name="orderBy") @RequestParam(defaultValue = "WEALTH") LeaderboardOrder orderBy,
+            @Parameter(name="k") @RequestParam(defaultValue = "10") int k) {
+
+        if (!canSeeLeaderboard(commonsId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(leaderboardService.top(commonsId, orderBy, k));
+    }
+
+    @Operation(summary = "Get the current user's place on the leaderboard of a commons", description = "Returns the current user's entry with up to n farmers above and below it, ordered by total wealth (WEALTH) or by number of cows (COWS); empty if the user has not joined the commons.")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping("/around")
+    public ResponseEntity<Object> getAroundCurrentUser(
+            @Parameter(name="commonsId") @RequestParam Long commonsId,
+            @Parameter(name="orderBy") @RequestParam(defaultValue = "WEALTH") LeaderboardOrder orderBy,
+            @Parameter(name="n") @RequestParam(defaultValue = "2") int n) {
+
+        if (!canSeeLeaderboard(commonsId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Long userId = getCurrentUser().getUser().getId();
+        return ResponseEntity.ok(leaderboardService.around(commonsId, orderBy, userId, n));
+    }
+
+    private boolean canSeeLeaderboard(Long commonsId) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
+                || leaderboardService.isShown(commonsId);
+    }
+}
@@ -11,16 +11,17 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(name = "Profits")
@@ -28,6 +29,8 @@ import java.util.List;
 @RestController
 public class ProfitsController extends ApiController {
 
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp");
+
     @Autowired
     CommonsRepository commonsRepository;
 
@@ -83,18 +86,29 @@ public class ProfitsController extends ApiController {
         UserCommons userCommons = userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)
                 .orElseThrow(() -> new EntityNotFoundException(UserCommons.class, "commonsId", commonsId, "userId", userId));
 
-        Iterable<Profit> iterableProfits = profitRepository.findAllByUserCommons(userCommons);
-
-        List<Profit> allProfits = new ArrayList<>();
-        iterableProfits.forEach(allProfits::add);
-
-        int start = pageNumber * pageSize;
-        int end = Math.min((start + pageSize), allProfits.size());
-        List<Profit> paginatedProfits = allProfits.subList(start, end);
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, NEWEST_FIRST);
 
-        Pageable pageable = PageRequest.of(pageNumber, pageSize);
-        Page<Profit> profitsPage = new PageImpl<>(paginatedProfits, pageable, allProfits.size());
-
-        return profitsPage;
+        return profitRepository.findAllByUserCommons(userCommons, pageable);
     }
-}
+
+    @Operation(summary = "Get the profits of a user commons that come after a given profit, oldest first, as a user via CommonsID")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/since/commonsid")
+    public List<Profit> profitsByCommonsIdSince(
+            @Parameter(name = "commonsId") @RequestParam Long commonsId,
+            @Parameter(name = "since", description = "timestamp of the last profit already fetched, in iso format, e.g. 2023-10-01T04:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @Parameter(name = "afterId", description = "id of the last profit already fetched; when omitted, profits with timestamp since are treated as fetched") @RequestParam(required = false) Long afterId,
+            @Parameter(name = "pageSize", description = "Maximum number of records returned") @RequestParam(defaultValue = "100") int pageSize
+    ) {
+        Long userId = getCurrentUser().getUser().getId();
+
+        UserCommons userCommons = userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)
+                .orElseThrow(() -> new EntityNotFoundException(UserCommons.class, "commonsId", commonsId, "userId", userId));
+
+        // ordered by the query, which pages forward from (since, afterId)
+        Pageable pageable = PageRequest.of(0, pageSize);
+        long lastFetchedId = afterId == null ? Long.MAX_VALUE : afterId;
+
+        return profitRepository.findNextByUserCommons(userCommons, since, lastFetchedId, pageable);
+    }
+}
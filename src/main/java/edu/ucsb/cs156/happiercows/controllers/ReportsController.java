@@ -2,11 +2,11 @@ package edu.ucsb.cs156.happiercows.controllers;
 
 import edu.ucsb.cs156.happiercows.entities.Report;
 import edu.ucsb.cs156.happiercows.entities.ReportLine;
-import edu.ucsb.cs156.happiercows.helpers.ReportCSVHelper;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportLineRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
+import edu.ucsb.cs156.happiercows.services.CSVExportService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,20 +16,17 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Reports")
 @RequestMapping("/api/reports")
@@ -48,6 +45,9 @@ public class ReportsController extends ApiController {
     @Autowired
     ReportLineRepository reportLineRepository;
 
+    @Autowired
+    CSVExportService csvExportService;
+
     @Operation(summary = "Get all report headers")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
@@ -89,20 +89,17 @@ public class ReportsController extends ApiController {
     @Operation(summary = "Get report lines for a report id and user commons id")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("/download")
-    public ResponseEntity<Resource> getLinesCSV(
-            @Parameter(name = "reportId") @RequestParam Long reportId) throws IOException {
-
-        Iterable<ReportLine> reportLines = reportLineRepository.findAllByReportId(reportId);
+    public ResponseEntity<StreamingResponseBody> getLinesCSV(
+            @Parameter(name = "reportId") @RequestParam Long reportId) {
 
         String filename = String.format("report%05d.csv",reportId);
 
-        ByteArrayInputStream bais = ReportCSVHelper.toCSV(reportLines);
-        InputStreamResource isr = new InputStreamResource(bais);
+        StreamingResponseBody body = out -> csvExportService.writeReportLines(reportId, out);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.parseMediaType("application/csv"))
-                .body(isr);
+                .body(body);
     }
 
 }
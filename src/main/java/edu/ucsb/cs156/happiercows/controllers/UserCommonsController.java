@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -19,6 +20,8 @@ import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
 import edu.ucsb.cs156.happiercows.errors.NoCowsException;
 import edu.ucsb.cs156.happiercows.errors.NotEnoughMoneyException;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,6 +41,12 @@ public class UserCommonsController extends ApiController {
   @Autowired
   private CommonsRepository commonsRepository;
 
+  @Autowired
+  private CommonsAggregateService commonsAggregateService;
+
+  @Autowired
+  private LeaderboardService leaderboardService;
+
   @Autowired
   ObjectMapper mapper;
 
@@ -71,6 +80,7 @@ public class UserCommonsController extends ApiController {
   @Operation(summary = "Buy a cow, totalWealth updated")
   @PreAuthorize("hasRole('ROLE_USER')")
   @PutMapping("/buy")
+  @Transactional
   public ResponseEntity<String> putUserCommonsByIdBuy(
           @Parameter(name="commonsId") @RequestParam Long commonsId,
           @Parameter(name="numCows") @RequestParam int numCows) throws NotEnoughMoneyException, JsonProcessingException{
@@ -93,6 +103,8 @@ public class UserCommonsController extends ApiController {
           throw new NotEnoughMoneyException("You need more money!");
         }
         userCommonsRepository.save(userCommons);
+        commonsAggregateService.cowsChanged(commonsId, numCows, userCommons.getCowHealth());
+        leaderboardService.userCommonsChanged(userCommons);
 
         String body = mapper.writeValueAsString(userCommons);
         return ResponseEntity.ok().body(body);
@@ -101,6 +113,7 @@ public class UserCommonsController extends ApiController {
   @Operation(summary = "Sell a cow, totalWealth updated")
   @PreAuthorize("hasRole('ROLE_USER')")
   @PutMapping("/sell")
+  @Transactional
   public ResponseEntity<String> putUserCommonsByIdSell(
           @Parameter(name="commonsId") @RequestParam Long commonsId,
           @Parameter(name="numCows") @RequestParam int numCows) throws NoCowsException, JsonProcessingException {
@@ -124,6 +137,8 @@ public class UserCommonsController extends ApiController {
           throw new NoCowsException("You do not have enough cows to sell!");
         }
         userCommonsRepository.save(userCommons);
+        commonsAggregateService.cowsChanged(commonsId, -numCows, userCommons.getCowHealth());
+        leaderboardService.userCommonsChanged(userCommons);
 
         String body = mapper.writeValueAsString(userCommons);
         return ResponseEntity.ok().body(body);
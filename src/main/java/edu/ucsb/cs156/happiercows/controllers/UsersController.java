@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import edu.ucsb.cs156.happiercows.entities.User;
 import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
+import edu.ucsb.cs156.happiercows.interceptors.RoleUserInterceptor;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,6 +30,9 @@ public class UsersController extends ApiController {
     @Autowired
     ObjectMapper mapper;
 
+    @Autowired
+    RoleUserInterceptor roleUserInterceptor;
+
     @Operation(summary = "Get a list of all users")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
@@ -48,6 +52,7 @@ public class UsersController extends ApiController {
 
         user.setSuspended(true);
         userRepository.save(user);
+        roleUserInterceptor.invalidate(user.getEmail());
         return genericMessage("User with id %d suspended".formatted(userId));
     }
 
@@ -59,6 +64,7 @@ public class UsersController extends ApiController {
 
         user.setSuspended(false);
         userRepository.save(user);
+        roleUserInterceptor.invalidate(user.getEmail());
         return genericMessage("User with id %d restored".formatted(userId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package edu.ucsb.cs156.happiercows.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Listens to every statement run through the diagnostics data source.  Adds
+ * each one to the QueryStats of the current thread, and logs any that took
+ * slowQueryMs or longer together with the parameters bound to it.
+ *
+ * A batch counts once however many rows it sends, since it is one round trip
+ * to the database.
+ */
+@Slf4j
+public class QueryDiagnosticsListener implements QueryExecutionListener {
+
+    private final long slowQueryMs;
+
+    public QueryDiagnosticsListener(long slowQueryMs) {
+        this.slowQueryMs = slowQueryMs;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.record(queryInfoList.size(), execInfo.getElapsedTime());
+        }
+        if (execInfo.getElapsedTime() >= slowQueryMs) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                log.warn("Slow statement ({} ms): {}", execInfo.getElapsedTime(), describe(queryInfo));
+            }
+        }
+    }
+
+    /**
+     * Returns the SQL of a statement followed by the parameters bound to it,
+     * one list per row of a batch, e.g. "select ... where id=? [3]"
+     */
+    static String describe(QueryInfo queryInfo) {
+        StringBuilder text = new StringBuilder(queryInfo.getQuery());
+        for (List<ParameterSetOperation> row : queryInfo.getParametersList()) {
+            List<String> values = new ArrayList<>();
+            for (ParameterSetOperation operation : row) {
+                Object[] args = operation.getArgs();
+                if (args == null || args.length < 2) {
+                    continue;
+                }
+                // the second argument of setNull is the SQL type, not a value
+                boolean isNull = "setNull".equals(operation.getMethod().getName());
+                values.add(String.valueOf(isNull ? null : args[1]));
+            }
+            text.append(values.stream().collect(Collectors.joining(", ", " [", "]")));
+        }
+        return text.toString();
+    }
+}
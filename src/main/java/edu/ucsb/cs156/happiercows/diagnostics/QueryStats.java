@@ -0,0 +1,74 @@
+package edu.ucsb.cs156.happiercows.diagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The number of SQL statements run for one HTTP request or job, and the
+ * milliseconds spent in them.  The stats of the unit of work running on a
+ * thread are kept in a thread local, where QueryDiagnosticsListener adds to
+ * them.  Tasks that a job hands to other threads share its stats through
+ * {@link #propagate(Runnable)}, which is why the counters are atomic.
+ */
+public class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong elapsedMs = new AtomicLong();
+
+    /**
+     * Starts counting the statements run on this thread.
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stops counting the statements run on this thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the stats the statements of this thread are counted in, or
+     * null when they are not being counted.
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps a task so that its statements are counted in the stats of the
+     * thread that submits it.  Suitable as the TaskDecorator of an executor.
+     */
+    public static Runnable propagate(Runnable task) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public void record(int statements, long elapsedMs) {
+        this.count.addAndGet(statements);
+        this.elapsedMs.addAndGet(elapsedMs);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs.get();
+    }
+}
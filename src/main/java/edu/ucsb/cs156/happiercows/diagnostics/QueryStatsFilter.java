@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.happiercows.diagnostics;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts the SQL statements run for each request, and returns the count and
+ * the milliseconds spent in them as the X-Query-Count and X-Query-Time-Ms
+ * headers.  Headers cannot be added once the body has started to go out, so
+ * the numbers cover the request up to that point; for a large body that is
+ * written in several parts, statements run while writing the later parts are
+ * not counted.
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStatsResponse statsResponse = new QueryStatsResponse(response, QueryStats.begin());
+        try {
+            filterChain.doFilter(request, statsResponse);
+        } finally {
+            QueryStats.end();
+        }
+        if (!response.isCommitted()) {
+            statsResponse.addStatsHeaders();
+        }
+    }
+
+    private static class QueryStatsResponse extends OnCommittedResponseWrapper {
+        private final QueryStats stats;
+        private boolean headersAdded;
+
+        QueryStatsResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addStatsHeaders();
+        }
+
+        void addStatsHeaders() {
+            if (headersAdded) {
+                return;
+            }
+            headersAdded = true;
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getCount()));
+            response.setHeader(QUERY_TIME_HEADER, String.valueOf(stats.getElapsedMs()));
+        }
+    }
+}
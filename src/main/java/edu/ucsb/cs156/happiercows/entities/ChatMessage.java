@@ -15,6 +15,7 @@ import java.util.Date;
 @NoArgsConstructor
 @Builder
 @Entity(name = "chat_message")
+@Table(indexes = @Index(name = "idx_chat_message_commons_id_hidden_id", columnList = "commons_id, hidden, id"))
 public class ChatMessage {
     
     // Unique Message Id
@@ -16,6 +16,7 @@ import lombok.Builder;
 @NoArgsConstructor
 @Builder
 @Entity(name = "commonstats")
+@Table(indexes = @Index(name = "idx_commonstats_commons_id_create_date", columnList = "commons_id, create_date"))
 public class CommonStats {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
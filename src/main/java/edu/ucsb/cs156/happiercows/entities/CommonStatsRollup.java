@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.happiercows.entities;
+
+import java.util.Date;
+
+import javax.persistence.*;
+
+import edu.ucsb.cs156.happiercows.models.StatsResolution;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * The common stats of one commons over an hour or a day, kept in place of the
+ * commonstats rows they were computed from once those are old enough; see
+ * CommonStatsRollupService.  The points returned by a range query have the
+ * same shape, with id 0.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "commonstats_rollups")
+@Table(indexes = @Index(name = "idx_commonstats_rollups_commons_id_bucket_start", columnList = "commons_id, bucket_start"))
+public class CommonStatsRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    private long commonsId;
+
+    @Enumerated(EnumType.STRING)
+    private StatsResolution resolution;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date bucketStart;
+
+    // number of commonstats rows in the bucket
+    private int numSamples;
+
+    private int minCows;
+    private int maxCows;
+    private double avgCows;
+
+    private double minHealth;
+    private double maxHealth;
+    private double avgHealth;
+}
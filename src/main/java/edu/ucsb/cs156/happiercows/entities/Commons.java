@@ -18,6 +18,9 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity(name = "commons")
+// games that have ended are the bulk of the table, so lastDate leads: the jobs
+// that only process games in progress read just the end of the index
+@Table(indexes = @Index(name = "idx_commons_last_date_starting_date", columnList = "last_date, starting_date"))
 public class Commons {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -46,6 +49,13 @@ public class Commons {
     @Builder.Default
     private CowHealthUpdateStrategies aboveCapacityHealthUpdateStrategy = CowHealthUpdateStrategies.DEFAULT_ABOVE_CAPACITY;
 
+    // counts the users joining and leaving, see MembershipVersionService; only
+    // changed by CommonsRepository.incrementMembershipVersion, so that saving
+    // a commons read earlier does not put back an old value
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    private long membershipVersion;
+
 
     @OneToMany(mappedBy = "commons", cascade = CascadeType.REMOVE)
     @JsonIgnore
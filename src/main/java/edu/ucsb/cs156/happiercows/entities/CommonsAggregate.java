@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.happiercows.entities;
+
+import javax.persistence.*;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running totals of the user commons in one commons.  The row is kept up to
+ * date by CommonsAggregateService in the same transaction as each change to
+ * user_commons, so that the totals can be read without scanning user_commons.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "commons_aggregates")
+public class CommonsAggregate {
+    @Id
+    @Column(name = "commons_id")
+    private long commonsId;
+
+    private long totalCows;
+    private long totalUsers;
+
+    // sum of cowHealth * numOfCows, so the average health is totalCowHealth / totalCows
+    private double totalCowHealth;
+
+    public static CommonsAggregate empty(long commonsId) {
+        return new CommonsAggregate(commonsId, 0, 0, 0);
+    }
+}
@@ -14,6 +14,7 @@ import lombok.Builder;
 @NoArgsConstructor
 @Builder
 @Entity(name = "profits")
+@Table(indexes = @Index(name = "idx_profits_commons_id_user_id_timestamp", columnList = "commons_id, user_id, timestamp"))
 
 public class Profit {
     @Id
@@ -36,6 +36,9 @@ public class Job {
 
     private String status;
 
-    @Column(columnDefinition="text")
-    private String log;
+    // Log of a job that ran before lines were stored in job_log_lines.
+    // JobLogService.migrateLegacyLogs copies it there at startup and clears it.
+    @JsonIgnore
+    @Column(name = "log", columnDefinition = "text")
+    private String legacyLog;
 }
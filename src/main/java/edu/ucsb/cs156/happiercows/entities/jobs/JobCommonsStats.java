@@ -0,0 +1,33 @@
+package edu.ucsb.cs156.happiercows.entities.jobs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * How long a job took for one commons and how many rows it read and wrote
+ * there. Written by JobProgressService when the job finishes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "job_commons_stats")
+@Table(indexes = @Index(name = "idx_job_commons_stats_job_id", columnList = "job_id"))
+public class JobCommonsStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "job_id")
+    private long jobId;
+
+    private long commonsId;
+
+    private long durationMs;
+    private long rowsRead;
+    private long rowsWritten;
+}
@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.happiercows.entities.jobs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The lease on one type of scheduled job. The instance of the app named by
+ * owner may run the job until lockedUntil; see JobLockService.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "job_locks")
+public class JobLock {
+    // simple class name of the job, e.g. MilkTheCowsJob
+    @Id
+    private String name;
+
+    private String owner;
+
+    private ZonedDateTime lockedAt;
+
+    private ZonedDateTime lockedUntil;
+}
@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.happiercows.entities.jobs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * One line of a job's log. Lines are only ever appended, so a job that
+ * logs many lines no longer rewrites its whole log on every call.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "job_log_lines")
+@Table(indexes = @Index(name = "idx_job_log_lines_job_id_line_number", columnList = "job_id, line_number"))
+public class JobLogLine {
+    // ids come from a sequence rather than an identity column, so that
+    // Hibernate can send the lines of a flush as one JDBC batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_log_line_seq")
+    @SequenceGenerator(name = "job_log_line_seq", sequenceName = "job_log_line_seq", allocationSize = 50)
+    private long id;
+
+    @Column(name = "job_id")
+    private long jobId;
+
+    // position of this line within the job's log, starting at 0
+    @Column(name = "line_number")
+    private int lineNumber;
+
+    private ZonedDateTime createdAt;
+
+    @Column(columnDefinition = "text")
+    private String message;
+}
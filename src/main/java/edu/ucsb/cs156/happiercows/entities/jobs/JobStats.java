@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.happiercows.entities.jobs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * When a job ran and how much it did. The row is written when the job starts,
+ * its progress is updated while the job runs, and the rest is filled in when
+ * the job finishes; see JobProgressService. It is kept apart from the jobs
+ * table so that the progress updates only touch this narrow row.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "job_stats")
+@Table(indexes = @Index(name = "idx_job_stats_job_type_finished_at", columnList = "job_type, finished_at"))
+public class JobStats {
+    @Id
+    @Column(name = "job_id")
+    private long jobId;
+
+    // simple class name of the job, e.g. MilkTheCowsJob
+    @Column(name = "job_type")
+    private String jobType;
+
+    private ZonedDateTime startedAt;
+
+    // null while the job is running
+    @Column(name = "finished_at")
+    private ZonedDateTime finishedAt;
+
+    private long durationMs;
+
+    // what the job is doing, as last set with JobContext.setPhase
+    private String phase;
+
+    private int completedUnits;
+    private int totalUnits;
+    private long rowsRead;
+    private long rowsWritten;
+}
@@ -1,9 +1,9 @@
 package edu.ucsb.cs156.happiercows.helpers;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import org.apache.commons.csv.CSVFormat;
@@ -22,20 +22,10 @@ public class ReportCSVHelper {
   private ReportCSVHelper() {}
 
   /**
-   * This method is a hack to avoid a jacoco issue; it isn't possible to 
-   * exclude an individual method call from jacoco coverage, but we can
-   * exclude the entire method.  
-   * @param out
+   * Writes the CSV to out one row at a time, so that only the row being
+   * written is held in memory.  out is flushed but not closed.
    */
-
-  public static void flush_and_close_noPitest(ByteArrayOutputStream out, CSVPrinter csvPrinter) throws IOException {
-    csvPrinter.flush();
-    csvPrinter.close();
-    out.flush();
-    out.close();
-  }
-  
-  public static ByteArrayInputStream toCSV(Iterable<ReportLine> lines) throws IOException {
+  public static void writeCSV(Iterable<ReportLine> lines, OutputStream out) throws IOException {
     final CSVFormat format = CSVFormat.DEFAULT;
 
     List<String> headers = Arrays.asList(
@@ -51,8 +41,7 @@ public class ReportCSVHelper {
         "cowDeaths",
         "reportDate");
 
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    CSVPrinter csvPrinter = new CSVPrinter(new PrintWriter(out), format);
+    CSVPrinter csvPrinter = new CSVPrinter(new OutputStreamWriter(out, StandardCharsets.UTF_8), format);
 
     csvPrinter.printRecord(headers);
 
@@ -72,7 +61,6 @@ public class ReportCSVHelper {
       csvPrinter.printRecord(data);
     }
 
-    flush_and_close_noPitest(out, csvPrinter);
-    return new ByteArrayInputStream(out.toByteArray());
+    csvPrinter.flush();
   }
 }
@@ -3,11 +3,15 @@ package edu.ucsb.cs156.happiercows.interceptors;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import edu.ucsb.cs156.happiercows.interceptors.UserRoleCache.UserRoles;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -16,11 +20,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Collection;
-import edu.ucsb.cs156.happiercows.entities.User;
+
+import javax.annotation.PostConstruct;
 
 
 
@@ -30,6 +37,47 @@ public class RoleUserInterceptor implements HandlerInterceptor {
    @Autowired
    UserRepository userRepository;
 
+   @Value("${app.userRoleCache.maxSize:10000}")
+   int userRoleCacheMaxSize;
+
+   @Value("${app.userRoleCache.ttlSeconds:60}")
+   long userRoleCacheTtlSeconds;
+
+   @Autowired
+   ObjectProvider<MeterRegistry> meterRegistry;
+
+   private UserRoleCache userRoleCache;
+
+   @PostConstruct
+   void createUserRoleCache() {
+      userRoleCache = new UserRoleCache(userRoleCacheMaxSize, Duration.ofSeconds(userRoleCacheTtlSeconds), Clock.systemUTC());
+      meterRegistry.ifAvailable(userRoleCache::bindTo);
+   }
+
+   /**
+    * Must be called after the admin or suspended flag of a user is saved, so
+    * that the next request of that user sees the change
+    */
+   public void invalidate(String email) {
+      userRoleCache.invalidate(email);
+   }
+
+   public void invalidateAll() {
+      userRoleCache.invalidateAll();
+   }
+
+   private Optional<UserRoles> getUserRoles(String email) {
+      Optional<UserRoles> cached = userRoleCache.get(email);
+      if (cached.isPresent()) {
+         return cached;
+      }
+      long generation = userRoleCache.generation();
+      Optional<UserRoles> roles = userRepository.findByEmail(email)
+         .map(user -> new UserRoles(user.isAdmin(), user.isSuspended()));
+      roles.ifPresent(r -> userRoleCache.put(email, r, generation));
+      return roles;
+   }
+
    @Override
    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         // Update user's security context on server each time the user makes HTTP request to the backend
@@ -41,11 +89,11 @@ public class RoleUserInterceptor implements HandlerInterceptor {
         if (authentication instanceof OAuth2AuthenticationToken ) {
             OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
             String email = oAuthUser.getAttribute("email");
-            Optional<User> optionalUser = userRepository.findByEmail(email);
-            if (optionalUser.isPresent()){
-                User user = optionalUser.get();
+            Optional<UserRoles> optionalRoles = getUserRoles(email);
+            if (optionalRoles.isPresent()){
+                UserRoles roles = optionalRoles.get();
 
-                if(user.isSuspended()) {
+                if(roles.isSuspended()) {
                     response.sendError(HttpServletResponse.SC_FORBIDDEN, "Your account has been suspended. Contact an administrator to restore your account");
                     SecurityContextHolder.clearContext();
                     return false;
@@ -59,7 +107,7 @@ public class RoleUserInterceptor implements HandlerInterceptor {
                     newAuthorities.add(authority);
                 });
 
-                if (user.isAdmin()){
+                if (roles.isAdmin()){
                     newAuthorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
                 }
                 
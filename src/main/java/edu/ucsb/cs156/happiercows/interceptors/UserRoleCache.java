@@ -0,0 +1,157 @@
+package edu.ucsb.cs156.happiercows.interceptors;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Value;
+
+/**
+ * Holds the admin and suspended flags of recently seen users, keyed by email,
+ * so that RoleUserInterceptor does not have to load the user on every request.
+ *
+ * Entries expire after ttl, and once maxSize users are cached the least
+ * recently used entry is dropped.  Code that changes either flag calls
+ * invalidate so the change is seen on the next request.
+ *
+ * The cache counts its hits, misses, puts and evictions, and bindTo
+ * registers them as the cache.* meters, tagged cache=userRoles, so that
+ * the hit ratio can be followed from /actuator/prometheus.
+ */
+public class UserRoleCache implements MeterBinder {
+
+    @Value
+    public static class UserRoles {
+        boolean admin;
+        boolean suspended;
+    }
+
+    @Value
+    private static class Entry {
+        UserRoles roles;
+        long expiresAtMillis;
+    }
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+
+    // incremented by every invalidation; see put
+    private long generation = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long puts = 0;
+    // entries dropped because the cache was full or they had expired
+    private long evictions = 0;
+
+    public UserRoleCache(int maxSize, Duration ttl, Clock clock) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean full = size() > UserRoleCache.this.maxSize;
+                if (full) {
+                    evictions++;
+                }
+                return full;
+            }
+        };
+    }
+
+    public synchronized Optional<UserRoles> get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (entry.getExpiresAtMillis() <= clock.millis()) {
+            entries.remove(email);
+            evictions++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.getRoles());
+    }
+
+    /**
+     * Returns the generation to pass to put, read before loading the user.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches roles loaded from the database.  If anything was invalidated since
+     * generation was read the roles may already be out of date, so they are
+     * not cached.
+     */
+    public synchronized void put(String email, UserRoles roles, long generation) {
+        if (maxSize <= 0 || generation != this.generation) {
+            return;
+        }
+        entries.put(email, new Entry(roles, clock.millis() + ttl.toMillis()));
+        puts++;
+    }
+
+    public synchronized void invalidate(String email) {
+        generation++;
+        entries.remove(email);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getPuts() {
+        return puts;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cache.size", this, UserRoleCache::size)
+                .tag("cache", "userRoles")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, UserRoleCache::getHits)
+                .tag("cache", "userRoles")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, UserRoleCache::getMisses)
+                .tag("cache", "userRoles")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", this, UserRoleCache::getPuts)
+                .tag("cache", "userRoles")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, UserRoleCache::getEvictions)
+                .tag("cache", "userRoles")
+                .register(registry);
+    }
+}
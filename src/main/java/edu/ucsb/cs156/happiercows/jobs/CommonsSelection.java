@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.happiercows.jobs;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+
+/**
+ * Chooses the commons that a job over all commons processes.  Normally these
+ * are only the commons whose game is in progress, so that the cost of each
+ * scheduled run grows with the live games rather than with every game ever
+ * played.  An admin can launch the job with allCommons set to process every
+ * commons instead, which the admin jobs page does when "All Commons" is
+ * chosen.  Either way, the job log says how many were chosen, and a
+ * scheduled run also says how many were skipped.
+ */
+public class CommonsSelection {
+
+    private CommonsSelection() {
+    }
+
+    public static <T> List<T> select(JobContext ctx, CommonsRepository commonsRepository, boolean allCommons,
+            Supplier<Iterable<T>> findAll, Function<LocalDateTime, Iterable<T>> findInProgress) {
+        List<T> selected = new ArrayList<>();
+        if (allCommons) {
+            findAll.get().forEach(selected::add);
+            ctx.log(String.format("Processing all %d commons, including those not in progress", selected.size()));
+            return selected;
+        }
+
+        findInProgress.apply(LocalDateTime.now()).forEach(selected::add);
+        long skipped = commonsRepository.count() - selected.size();
+        ctx.log(String.format("Processing %d commons in progress, skipped %d that have not started or have ended",
+                selected.size(), skipped));
+        return selected;
+    }
+}
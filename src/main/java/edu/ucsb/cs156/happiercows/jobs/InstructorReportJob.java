@@ -3,6 +3,7 @@ package edu.ucsb.cs156.happiercows.jobs;
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.Report;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import edu.ucsb.cs156.happiercows.services.ReportService;
@@ -18,17 +19,25 @@ public class InstructorReportJob implements JobContextConsumer {
     @Getter
     private CommonsRepository commonsRepository;
 
+    @Getter
+    private CommonsTaskRunner commonsTaskRunner;
+
+    @Getter
+    private boolean allCommons;
+
     @Override
     public void accept(JobContext ctx) throws Exception {
         ctx.log("Starting instructor report...");
-        Iterable<Commons> allCommons = commonsRepository.findAll();
+        ctx.setPhase("creating reports");
+        Iterable<Commons> commonsToReport = CommonsSelection.select(ctx, commonsRepository, allCommons,
+                commonsRepository::findAll, commonsRepository::findInProgress);
 
-        for (Commons commons : allCommons) {
-            ctx.log(String.format("Starting Commons id=%d (%s)...", commons.getId(), commons.getName()));
+        commonsTaskRunner.runForEach(ctx, commonsToReport, Commons::getId, (commons, commonsCtx) -> {
+            commonsCtx.log(String.format("Starting Commons id=%d (%s)...", commons.getId(), commons.getName()));
             Report report = reportService.createReport(commons.getId());
-            ctx.log(String.format("Report %d for commons id=%d (%s) finished.", report.getId(), commons.getId(),
+            commonsCtx.log(String.format("Report %d for commons id=%d (%s) finished.", report.getId(), commons.getId(),
                     commons.getName()));
-        }
+        });
         ctx.log("Instructor report done!");
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.services.ReportService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 
 @Service
@@ -16,8 +17,19 @@ public class InstructorReportJobFactory {
     @Autowired
     private CommonsRepository commonsRepository;
 
+    @Autowired
+    private CommonsTaskRunner commonsTaskRunner;
+
+    // the report covers finished games too, as it always has
     public JobContextConsumer create() {
-        return new InstructorReportJob(reportService, commonsRepository);
+        return create(true);
+    }
+
+    /**
+     * @param allCommons also report on commons whose game is not in progress
+     */
+    public JobContextConsumer create(boolean allCommons) {
+        return new InstructorReportJob(reportService, commonsRepository, commonsTaskRunner, allCommons);
     }
 
 }
@@ -2,6 +2,8 @@ package edu.ucsb.cs156.happiercows.jobs;
 
 import java.time.LocalDateTime;
 
+import org.springframework.transaction.support.TransactionTemplate;
+
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.Profit;
 import edu.ucsb.cs156.happiercows.entities.User;
@@ -10,6 +12,8 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import lombok.AllArgsConstructor;
@@ -26,6 +30,16 @@ public class MilkTheCowsJob implements JobContextConsumer {
     private UserRepository userRepository;
     @Getter
     private ProfitRepository profitRepository;
+    @Getter
+    private boolean bulk;
+    @Getter
+    private TransactionTemplate transactionTemplate;
+    @Getter
+    private CommonsTaskRunner commonsTaskRunner;
+    @Getter
+    private LeaderboardService leaderboardService;
+    @Getter
+    private boolean allCommons;
 
     public static String formatDollars(double amount) {
         return  String.format("$%.2f", amount);
@@ -34,22 +48,33 @@ public class MilkTheCowsJob implements JobContextConsumer {
     @Override
     public void accept(JobContext ctx) throws Exception {
         ctx.log("Starting to milk the cows");
+        ctx.setPhase("milking the cows");
 
-        Iterable<Commons> allCommons = commonsRepository.findAll();
+        Iterable<Commons> commonsToMilk = CommonsSelection.select(ctx, commonsRepository, allCommons,
+                commonsRepository::findAll, commonsRepository::findInProgress);
 
-        for (Commons commons : allCommons) {
-            String name = commons.getName();
-            double milkPrice = commons.getMilkPrice();
-            ctx.log("Milking cows for Commons: " + name + ", Milk Price: " + formatDollars(milkPrice));
+        commonsTaskRunner.runForEach(ctx, commonsToMilk, Commons::getId, this::milkCowsInCommons);
 
-            Iterable<UserCommons> allUserCommons = userCommonsRepository.findByCommonsId(commons.getId());
+        ctx.log("Cows have been milked!");
+    }
+
+    private void milkCowsInCommons(Commons commons, JobContext ctx) {
+        String name = commons.getName();
+        double milkPrice = commons.getMilkPrice();
+        ctx.log("Milking cows for Commons: " + name + ", Milk Price: " + formatDollars(milkPrice));
 
-            for (UserCommons userCommons : allUserCommons) {
-                milkCows(ctx, commons, userCommons, profitRepository, userCommonsRepository);
-            }
+        if (bulk) {
+            milkCowsInBulk(ctx, commons, profitRepository, userCommonsRepository, transactionTemplate);
+            leaderboardService.cowsMilked(commons.getId(), milkPrice);
+            return;
         }
 
-        ctx.log("Cows have been milked!");
+        Iterable<UserCommons> allUserCommons = userCommonsRepository.findByCommonsId(commons.getId());
+
+        for (UserCommons userCommons : allUserCommons) {
+            milkCows(ctx, commons, userCommons, profitRepository, userCommonsRepository);
+        }
+        leaderboardService.userCommonsChanged(allUserCommons);
     }
 
     /** This method performs the function of milking the cows for a single userCommons.
@@ -80,11 +105,35 @@ public class MilkTheCowsJob implements JobContextConsumer {
         userCommons.setTotalWealth(newWeath);
         userCommonsRepository.save(userCommons);
         profit = profitRepository.save(profit);
+        ctx.addRowsRead(1);
+        ctx.addRowsWritten(2);
         ctx.log("Profit for user: " + user.getFullName()
                 + " is: " + formatDollars(profitAmount)
                 + ", newWealth: " + formatDollars(newWeath));
     }
 
+    /** This method milks the cows for every userCommons in a commons at once.
+     *  The profit rows are written with one INSERT ... SELECT and the wealth of
+     *  every user is updated with one UPDATE, so the number of statements
+     *  depends on the number of commons, not the number of users.
+     *  Both run in one transaction, so a profit is never recorded without
+     *  the wealth it adds, or the other way around.
+     *  The amounts match those computed by calculateMilkingProfit.
+     * @param ctx the JobContext
+     * @param commons the Commons
+     */
+
+    public static void milkCowsInBulk(JobContext ctx, Commons commons, ProfitRepository profitRepository, UserCommonsRepository userCommonsRepository, TransactionTemplate transactionTemplate) {
+        double milkPrice = commons.getMilkPrice();
+        transactionTemplate.executeWithoutResult(status -> {
+            int profitsInserted = profitRepository.insertMilkingProfitsForCommons(commons.getId(), milkPrice, LocalDateTime.now());
+            int usersMilked = userCommonsRepository.addMilkingProfitsForCommons(commons.getId(), milkPrice);
+            ctx.addRowsRead(usersMilked);
+            ctx.addRowsWritten(usersMilked + profitsInserted);
+            ctx.log("Bulk milked cows for " + usersMilked + " users, " + profitsInserted + " profits recorded");
+        });
+    }
+
     /**
      * Calculate the profit for a user from milking their cows.
      *
@@ -1,12 +1,17 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 
 @Service
@@ -24,11 +29,35 @@ public class MilkTheCowsJobFactory {
     @Autowired
     private ProfitRepository profitRepository;
 
+    @Autowired
+    private CommonsTaskRunner commonsTaskRunner;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.milkTheCows.bulk:false}")
+    private boolean bulk;
+
     public JobContextConsumer create() {
+        return create(false);
+    }
+
+    /**
+     * @param allCommons also milk the cows in commons whose game is not in progress
+     */
+    public JobContextConsumer create(boolean allCommons) {
         return new MilkTheCowsJob(
                 commonsRepository,
                 userCommonsRepository,
                 userRepository,
-                profitRepository);
+                profitRepository,
+                bulk,
+                new TransactionTemplate(transactionManager),
+                commonsTaskRunner,
+                leaderboardService,
+                allCommons);
     }
 }
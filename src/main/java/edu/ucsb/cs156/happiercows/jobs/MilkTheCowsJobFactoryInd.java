@@ -7,6 +7,7 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 
 @Service
@@ -24,6 +25,9 @@ public class MilkTheCowsJobFactoryInd {
     @Autowired
     private ProfitRepository profitRepository;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
 
     public JobContextConsumer create(Long commonsID) {
         return new MilkTheCowsJobInd(
@@ -31,6 +35,7 @@ public class MilkTheCowsJobFactoryInd {
                 userCommonsRepository,
                 userRepository,
                 profitRepository,
-                commonsID);
+                commonsID,
+                leaderboardService);
     }
 }
@@ -7,6 +7,7 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import lombok.AllArgsConstructor;
@@ -26,6 +27,8 @@ public class MilkTheCowsJobInd implements JobContextConsumer {
     private ProfitRepository profitRepository;
     @Getter
     private long commonsID;
+    @Getter
+    private LeaderboardService leaderboardService;
 
     public String formatDollars(double amount) {
         return  String.format("$%.2f", amount);
@@ -47,6 +50,7 @@ public class MilkTheCowsJobInd implements JobContextConsumer {
             for (UserCommons userCommons : allUserCommons) {
                 MilkTheCowsJob.milkCows(ctx, commonMilked, userCommons, profitRepository, userCommonsRepository);
             }
+            leaderboardService.userCommonsChanged(allUserCommons);
             
 
             ctx.log("Cows have been milked!");
@@ -2,15 +2,21 @@ package edu.ucsb.cs156.happiercows.jobs;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.services.CommonStatsRollupService;
 import edu.ucsb.cs156.happiercows.services.CommonStatsService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.time.Instant;
 
-/** This job computes the stats for all games in progress and creates one new row in the CommonsStats table for each commons.   It uses the Average Cow Health Service to compute the cowhealth for each commons.
+
+/** This job computes the stats for all games in progress and creates one new row in the CommonsStats table for each commons.   The totals of every commons are read with a single query, and the Average Cow Health Service computes the cowhealth from them.
+    Afterwards, stats that have aged out of the raw retention window are rolled up into hourly and daily buckets.
 */
 
 @AllArgsConstructor
@@ -22,17 +28,36 @@ public class RecordCommonStatsJob implements JobContextConsumer {
     @Getter
     private CommonsRepository commonsRepository;
 
+    @Getter
+    private CommonsTaskRunner commonsTaskRunner;
+
+    @Getter
+    private CommonStatsRollupService commonStatsRollupService;
+
+    @Getter
+    private boolean allCommons;
+
     @Override
     public void accept(JobContext ctx) throws Exception {
         ctx.log("Starting record common stats job...");
-        Iterable<Commons> allCommons = commonsRepository.findAll();
+        ctx.setPhase("recording stats");
+        Iterable<CommonsWithTotals> commonsToRecord = CommonsSelection.select(ctx, commonsRepository, allCommons,
+                commonsRepository::findAllWithTotals, commonsRepository::findInProgressWithTotals);
 
-        for (Commons commons : allCommons) {
-            ctx.log(String.format("Starting Commons id=%d (%s)...", commons.getId(), commons.getName()));
-            CommonStats commonStats = commonStatsService.createAndSaveCommonStats(commons.getId());
-            ctx.log(String.format("CommonStats %d for commons id=%d (%s) finished.", commonStats.getId(), commons.getId(),
+        commonsTaskRunner.runForEach(ctx, commonsToRecord, commonsWithTotals -> commonsWithTotals.getCommons().getId(), (commonsWithTotals, commonsCtx) -> {
+            Commons commons = commonsWithTotals.getCommons();
+            commonsCtx.log(String.format("Starting Commons id=%d (%s)...", commons.getId(), commons.getName()));
+            CommonStats commonStats = commonStatsService.createAndSaveCommonStats(commonsWithTotals);
+            commonsCtx.addRowsWritten(1);
+            commonsCtx.log(String.format("CommonStats %d for commons id=%d (%s) finished.", commonStats.getId(), commons.getId(),
                     commons.getName()));
-        }
+        });
+
+        ctx.setPhase("rolling up stats");
+        Instant now = Instant.now();
+        int hourly = commonStatsRollupService.rollUpRawStats(now);
+        int daily = commonStatsRollupService.rollUpHourlyStats(now);
+        ctx.log(String.format("Rolled up old stats into %d hourly and %d daily buckets.", hourly, daily));
         ctx.log("Record common stats job done!");
     }
 }
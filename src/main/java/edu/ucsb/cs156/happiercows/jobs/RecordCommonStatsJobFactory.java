@@ -4,7 +4,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.services.CommonStatsRollupService;
 import edu.ucsb.cs156.happiercows.services.CommonStatsService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 
 @Service
@@ -16,10 +18,26 @@ public class RecordCommonStatsJobFactory {
     @Autowired
     private CommonStatsService commonStatsService;
 
+    @Autowired
+    private CommonsTaskRunner commonsTaskRunner;
+
+    @Autowired
+    private CommonStatsRollupService commonStatsRollupService;
+
     public JobContextConsumer create() {
+        return create(false);
+    }
+
+    /**
+     * @param allCommons also record the stats of commons whose game is not in progress
+     */
+    public JobContextConsumer create(boolean allCommons) {
         return new RecordCommonStatsJob(
             commonStatsService,
-            commonsRepository);
+            commonsRepository,
+            commonsTaskRunner,
+            commonStatsRollupService,
+            allCommons);
     }
     
 }
@@ -17,6 +17,10 @@ import lombok.extern.slf4j.Slf4j;
  * a Unix cron expression, but with an extra field at the beginning for
  * the seconds.
  * 
+ * Every instance of the app fires these methods, so the jobs are started with
+ * {@link JobService#runAsScheduledJob}, which only runs each tick on the
+ * instance that takes the job's lease.
+ * 
  * @see <a href="https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/scheduling/support/CronExpression.html">Spring Cron Syntax</a>
  * 
  */
@@ -42,9 +46,7 @@ public class ScheduledJobs {
       log.info("runUpdateCowHealthJobBasedOnCron: running");
 
       JobContextConsumer updateCowHealthJob = updateCowHealthJobFactory.create();
-      jobService.runAsJob(updateCowHealthJob);
-   
-      log.info("runUpdateCowHealthJobBasedOnCron: launched job");
+      launch("runUpdateCowHealthJobBasedOnCron", updateCowHealthJob);
    }
 
    @Scheduled(cron = "${app.milkTheCows.cron}", zone = "${spring.jackson.time-zone}")
@@ -52,9 +54,7 @@ public class ScheduledJobs {
       log.info("runMilkTheCowsJobBasedOnCron: running");
 
       JobContextConsumer milkTheCowsJob = milkTheCowsJobFactory.create();
-      jobService.runAsJob(milkTheCowsJob);
-   
-      log.info("runMilkTheCowsJobBasedOnCron: launched job");
+      launch("runMilkTheCowsJobBasedOnCron", milkTheCowsJob);
    }
 
    @Scheduled(cron = "${app.recordCommonStats.cron}", zone = "${spring.jackson.time-zone}")
@@ -62,8 +62,14 @@ public class ScheduledJobs {
       log.info("runRecordCommonStatsJobBasedOnCron: running");
 
       JobContextConsumer recordCommonStatsJob = recordCommonStatsJobFactory.create();
-      jobService.runAsJob(recordCommonStatsJob);
+      launch("runRecordCommonStatsJobBasedOnCron", recordCommonStatsJob);
+   }
 
-      log.info("runRecordCommonStatsJobBasedOnCron: launched job");
+   private void launch(String method, JobContextConsumer job) {
+      if (jobService.runAsScheduledJob(job) == null) {
+         log.info("{}: skipped, another instance holds the lease", method);
+      } else {
+         log.info("{}: launched job", method);
+      }
    }
 }
@@ -7,6 +7,8 @@ import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import lombok.AllArgsConstructor;
@@ -26,6 +28,10 @@ public class SetCowHealthJob implements JobContextConsumer {
     private UserCommonsRepository userCommonsRepository;
     @Getter
     private UserRepository userRepository;
+    @Getter
+    private CommonsAggregateService commonsAggregateService;
+    @Getter
+    private LeaderboardService leaderboardService;
 
     @Override
     public void accept(JobContext ctx) throws Exception {
@@ -46,6 +52,9 @@ public class SetCowHealthJob implements JobContextConsumer {
                 userCommons.setCowHealth(newCowHealth);
                 userCommonsRepository.save(userCommons);
             }
+            // every row in the commons changed, so recompute the totals rather than adding deltas
+            commonsAggregateService.reconcile(commons.get().getId());
+            leaderboardService.userCommonsChanged(allUserCommons);
 
             ctx.log("Cow health has been set!");
         } else {
@@ -6,6 +6,8 @@ import org.springframework.stereotype.Service;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,9 +24,15 @@ public class SetCowHealthJobFactory  {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CommonsAggregateService commonsAggregateService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     public JobContextConsumer create(Long commonsID, double health) {
         log.info("commonsRepository = " + commonsRepository);
         log.info("userCommonsRepository = " + userCommonsRepository);
-        return new SetCowHealthJob(commonsID, health, commonsRepository, userCommonsRepository, userRepository);
+        return new SetCowHealthJob(commonsID, health, commonsRepository, userCommonsRepository, userRepository, commonsAggregateService, leaderboardService);
     }
 }
@@ -7,13 +7,23 @@ import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategy;
+
+import javax.persistence.EntityManager;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionTemplate;
+
 @AllArgsConstructor
 public class UpdateCowHealthJob implements JobContextConsumer {
 
@@ -25,23 +35,31 @@ public class UpdateCowHealthJob implements JobContextConsumer {
     private UserRepository userRepository;
     @Getter
     private CommonsPlusBuilderService commonsPlusBuilderService;
+    @Getter
+    private TransactionTemplate transactionTemplate;
+    @Getter
+    private EntityManager entityManager;
+    @Getter
+    private int chunkSize;
+    @Getter
+    private CommonsTaskRunner commonsTaskRunner;
+    @Getter
+    private CommonsAggregateService commonsAggregateService;
+    @Getter
+    private LeaderboardService leaderboardService;
+    @Getter
+    private boolean allCommons;
 
     @Override
     public void accept(JobContext ctx) throws Exception {
         ctx.log("Updating cow health...");
+        ctx.setPhase("updating cow health");
 
+        Iterable<CommonsPlus> commonsPlusToUpdate = CommonsSelection.select(ctx, commonsRepository, allCommons,
+                commonsPlusBuilderService::getAllCommonsPlus, commonsPlusBuilderService::getCommonsPlusInProgress);
 
-        Iterable<Commons> allCommons = commonsRepository.findAll();
-        Iterable<CommonsPlus> allCommonsPlus = commonsPlusBuilderService.convertToCommonsPlus(allCommons);
-
-        for (CommonsPlus commonsPlus : allCommonsPlus) {
-
-
-            Commons commons = commonsPlus.getCommons();
-            
-            runUpdateJobInCommons(commons, commonsPlus, commonsPlusBuilderService, commonsRepository, userCommonsRepository, ctx);
-            
-        }
+        commonsTaskRunner.runForEach(ctx, commonsPlusToUpdate, commonsPlus -> commonsPlus.getCommons().getId(), (commonsPlus, commonsCtx) ->
+            runUpdateJobInCommons(commonsPlus.getCommons(), commonsPlus, userCommonsRepository, commonsAggregateService, leaderboardService, transactionTemplate, entityManager, chunkSize, commonsCtx));
 
         ctx.log("Cow health has been updated!");
     }
@@ -67,37 +85,75 @@ public class UpdateCowHealthJob implements JobContextConsumer {
         }
     }
 
-    public static void runUpdateJobInCommons(Commons commons, CommonsPlus commonsPlus, CommonsPlusBuilderService commonsPlusBuilderService, CommonsRepository commonsRepository, UserCommonsRepository userCommonsRepository, JobContext ctx){
+    /**
+     * Updates the cow health of every user in a commons.
+     *
+     * The totals in commonsPlus are computed once for the whole commons, and the
+     * user commons are processed in chunks of chunkSize rows.  Each chunk is read,
+     * updated and written back in a transaction, so the updates of a chunk are sent
+     * to the database as JDBC batches.  When the job runs the commons through
+     * CommonsTaskRunner, the chunks join the transaction of their commons, so a
+     * commons is either updated completely or not at all.  The change in the
+     * commons totals is applied to commons_aggregates in the same transaction
+     * as each chunk, and the updated rows are passed to leaderboardService.
+     * After each chunk the persistence context is flushed and cleared, so only
+     * one chunk of rows is held in memory even when the transaction covers the
+     * whole commons.
+     */
+    public static void runUpdateJobInCommons(Commons commons, CommonsPlus commonsPlus, UserCommonsRepository userCommonsRepository, CommonsAggregateService commonsAggregateService, LeaderboardService leaderboardService, TransactionTemplate transactionTemplate, EntityManager entityManager, int chunkSize, JobContext ctx){
         ctx.log("Commons " + commons.getName() + ", degradationRate: " + commons.getDegradationRate() + ", effectiveCapacity: " + commonsPlus.getEffectiveCapacity());
 
-            int numUsers = commonsRepository.getNumUsers(commons.getId()).orElseThrow(() -> new RuntimeException("Error calling getNumUsers(" + commons.getId() + ")"));
-
-            if (numUsers==0) {
-                ctx.log("No users in this commons, skipping");
-                return;
-            }
-
-            int carryingCapacity = commonsPlus.getEffectiveCapacity();
-            Iterable<UserCommons> allUserCommons = userCommonsRepository.findByCommonsId(commons.getId());
-
-            Integer totalCows = commonsRepository.getNumCows(commons.getId()).orElseThrow(() -> new RuntimeException("Error calling getNumCows(" + commons.getId() + ")"));
-
-            var isAboveCapacity = totalCows > carryingCapacity;
-            var cowHealthUpdateStrategy = isAboveCapacity ? commons.getAboveCapacityHealthUpdateStrategy() : commons.getBelowCapacityHealthUpdateStrategy();
+        if (commonsPlus.getTotalUsers() == 0) {
+            ctx.log("No users in this commons, skipping");
+            return;
+        }
 
-            for (UserCommons userCommons : allUserCommons) {
-                User user = userCommons.getUser();
+        int carryingCapacity = commonsPlus.getEffectiveCapacity();
+        int totalCows = commonsPlus.getTotalCows();
+
+        var isAboveCapacity = totalCows > carryingCapacity;
+        var cowHealthUpdateStrategy = isAboveCapacity ? commons.getAboveCapacityHealthUpdateStrategy() : commons.getBelowCapacityHealthUpdateStrategy();
+
+        int pageNumber = 0;
+        boolean hasNext = true;
+        while (hasNext) {
+            PageRequest pageRequest = PageRequest.of(pageNumber, chunkSize);
+            Slice<UserCommons> chunk = transactionTemplate.execute(status -> {
+                Slice<UserCommons> userCommonsChunk = userCommonsRepository.findChunkByCommonsId(commons.getId(), pageRequest);
+                long cowsDelta = 0;
+                double cowHealthDelta = 0;
+                for (UserCommons userCommons : userCommonsChunk) {
+                    int oldNumOfCows = userCommons.getNumOfCows();
+                    double oldCowHealth = userCommons.getNumOfCows() * userCommons.getCowHealth();
+                    updateCowHealth(cowHealthUpdateStrategy, commonsPlus, userCommons, totalCows, ctx);
+                    cowsDelta += userCommons.getNumOfCows() - oldNumOfCows;
+                    cowHealthDelta += userCommons.getNumOfCows() * userCommons.getCowHealth() - oldCowHealth;
+                }
+                userCommonsRepository.saveAll(userCommonsChunk.getContent());
+                commonsAggregateService.adjust(commons.getId(), cowsDelta, 0, cowHealthDelta);
+                leaderboardService.userCommonsChanged(userCommonsChunk.getContent());
+                ctx.addRowsRead(userCommonsChunk.getNumberOfElements());
+                ctx.addRowsWritten(userCommonsChunk.getNumberOfElements());
+                // write the chunk now and detach its rows, instead of keeping them until the commons commits
+                entityManager.flush();
+                entityManager.clear();
+                return userCommonsChunk;
+            });
+            hasNext = chunk.hasNext();
+            pageNumber++;
+        }
+    }
 
-                var newCowHealth = calculateNewCowHealthUsingStrategy(cowHealthUpdateStrategy, commonsPlusBuilderService.toCommonsPlus(commons), userCommons, totalCows);
-                ctx.log("User: " + user.getFullName() + ", numCows: " + userCommons.getNumOfCows() + ", cowHealth: " + userCommons.getCowHealth());
+    private static void updateCowHealth(CowHealthUpdateStrategy cowHealthUpdateStrategy, CommonsPlus commonsPlus, UserCommons userCommons, int totalCows, JobContext ctx) {
+        User user = userCommons.getUser();
 
-                double oldHealth = userCommons.getCowHealth();
-                userCommons.setCowHealth(newCowHealth);
-                calculateCowDeaths(userCommons, ctx);
+        var newCowHealth = calculateNewCowHealthUsingStrategy(cowHealthUpdateStrategy, commonsPlus, userCommons, totalCows);
+        ctx.log("User: " + user.getFullName() + ", numCows: " + userCommons.getNumOfCows() + ", cowHealth: " + userCommons.getCowHealth());
 
-                ctx.log(" old cow health: " + oldHealth + ", new cow health: " + userCommons.getCowHealth());
-                userCommonsRepository.save(userCommons);
-            }
+        double oldHealth = userCommons.getCowHealth();
+        userCommons.setCowHealth(newCowHealth);
+        calculateCowDeaths(userCommons, ctx);
 
+        ctx.log(" old cow health: " + oldHealth + ", new cow health: " + userCommons.getCowHealth());
     }
 }
@@ -1,13 +1,22 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -26,9 +35,34 @@ public class UpdateCowHealthJobFactory  {
     @Autowired
     private CommonsPlusBuilderService commonsPlusBuilderService;
 
+    @Autowired
+    private CommonsTaskRunner commonsTaskRunner;
+
+    @Autowired
+    private CommonsAggregateService commonsAggregateService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.updateCowHealth.chunkSize:100}")
+    private int chunkSize;
+
     public JobContextConsumer create() {
+        return create(false);
+    }
+
+    /**
+     * @param allCommons also update the cow health in commons whose game is not in progress
+     */
+    public JobContextConsumer create(boolean allCommons) {
         log.info("commonsRepository = " + commonsRepository);
         log.info("userCommonsRepository = " + userCommonsRepository);
-        return new UpdateCowHealthJob(commonsRepository, userCommonsRepository, userRepository, commonsPlusBuilderService);
+        return new UpdateCowHealthJob(commonsRepository, userCommonsRepository, userRepository, commonsPlusBuilderService, new TransactionTemplate(transactionManager), entityManager, chunkSize, commonsTaskRunner, commonsAggregateService, leaderboardService, allCommons);
     }
 }
@@ -1,13 +1,21 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,9 +35,24 @@ public class UpdateCowHealthJobFactoryInd  {
     @Autowired
     private CommonsPlusBuilderService commonsPlusBuilderService;
 
+    @Autowired
+    private CommonsAggregateService commonsAggregateService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.updateCowHealth.chunkSize:100}")
+    private int chunkSize;
+
     public JobContextConsumer create(Long commonsID) {
         log.info("commonsRepository = " + commonsRepository);
         log.info("userCommonsRepository = " + userCommonsRepository);
-        return new UpdateCowHealthJobInd(commonsRepository, userCommonsRepository, userRepository, commonsPlusBuilderService, commonsID);
+        return new UpdateCowHealthJobInd(commonsRepository, userCommonsRepository, userRepository, commonsPlusBuilderService, new TransactionTemplate(transactionManager), entityManager, chunkSize, commonsID, commonsAggregateService, leaderboardService);
     }
 }
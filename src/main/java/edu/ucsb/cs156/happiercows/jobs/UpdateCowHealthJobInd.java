@@ -2,17 +2,23 @@ package edu.ucsb.cs156.happiercows.jobs;
 
 import java.util.Optional;
 
+import javax.persistence.EntityManager;
+
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.CommonsPlus;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContextConsumer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import org.springframework.transaction.support.TransactionTemplate;
+
 @AllArgsConstructor
 public class UpdateCowHealthJobInd implements JobContextConsumer {
 
@@ -25,7 +31,17 @@ public class UpdateCowHealthJobInd implements JobContextConsumer {
     @Getter
     private CommonsPlusBuilderService commonsPlusBuilderService;
     @Getter
+    private TransactionTemplate transactionTemplate;
+    @Getter
+    private EntityManager entityManager;
+    @Getter
+    private int chunkSize;
+    @Getter
     private Long commonsID;
+    @Getter
+    private CommonsAggregateService commonsAggregateService;
+    @Getter
+    private LeaderboardService leaderboardService;
 
     @Override
     public void accept(JobContext ctx) throws Exception {
@@ -37,7 +53,7 @@ public class UpdateCowHealthJobInd implements JobContextConsumer {
         if(commonUpdatedOpt.isPresent()){
             Commons commonsUpdated = commonUpdatedOpt.get();
             CommonsPlus commonsPlus = commonsPlusBuilderService.toCommonsPlus(commonsUpdated);
-            UpdateCowHealthJob.runUpdateJobInCommons(commonsUpdated, commonsPlus, commonsPlusBuilderService, commonsRepository, userCommonsRepository, ctx); 
+            UpdateCowHealthJob.runUpdateJobInCommons(commonsUpdated, commonsPlus, userCommonsRepository, commonsAggregateService, leaderboardService, transactionTemplate, entityManager, chunkSize, ctx);
             ctx.log("Cow health has been updated!");
         } else {
             ctx.log(String.format("No commons found for id %d", commonsID));
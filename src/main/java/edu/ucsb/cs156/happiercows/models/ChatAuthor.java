@@ -0,0 +1,10 @@
+package edu.ucsb.cs156.happiercows.models;
+
+/**
+ * The id and display name of a member of a commons, as returned by
+ * UserCommonsRepository.findChatAuthorsByCommonsId.
+ */
+public interface ChatAuthor {
+  Long getUserId();
+  String getUsername();
+}
@@ -0,0 +1,14 @@
+package edu.ucsb.cs156.happiercows.models;
+
+/**
+ * The stats of one commons over the finished runs of one type of job, as
+ * returned by JobCommonsStatsRepository.findCommonsRunStatsSince.
+ */
+public interface CommonsRunStats {
+  Long getCommonsId();
+  Long getNumRuns();
+  Double getAvgDurationMs();
+  Long getMaxDurationMs();
+  Double getAvgRowsRead();
+  Double getAvgRowsWritten();
+}
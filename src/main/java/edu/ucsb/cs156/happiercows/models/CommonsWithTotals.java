@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+
+/**
+ * A commons together with the number of cows and users in it, as returned
+ * by the queries in CommonsRepository.
+ */
+public interface CommonsWithTotals {
+  Commons getCommons();
+  Long getTotalCows();
+  Long getTotalUsers();
+
+  // sum of cowHealth * numOfCows over the users in the commons
+  Double getTotalCowHealth();
+}
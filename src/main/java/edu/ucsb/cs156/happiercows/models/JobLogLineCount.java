@@ -0,0 +1,10 @@
+package edu.ucsb.cs156.happiercows.models;
+
+/**
+ * The number of stored log lines of a job, as returned by
+ * JobLogLineRepository.findLineCountsByJobIds.
+ */
+public interface JobLogLineCount {
+  Long getJobId();
+  Long getNumLines();
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A range of lines from a job's log. A client following a job asks again
+ * from nextLine until the job has finished and no lines are left.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLogLines {
+  private long jobId;
+  private String status;
+  private int fromLine;
+  private int nextLine;
+  private List<String> lines;
+}
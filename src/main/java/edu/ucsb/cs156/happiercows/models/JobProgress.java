@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How far a running job has got, as sent on its event stream. For the jobs
+ * that work through the commons one task per commons, a unit is a commons.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobProgress {
+  private String phase;
+  private int completed;
+  private int total;
+  private long rowsRead;
+  private long rowsWritten;
+  // rows written per second since the job started
+  private double rowsPerSecond;
+}
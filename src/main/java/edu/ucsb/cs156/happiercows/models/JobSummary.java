@@ -0,0 +1,46 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A job as listed on the Jobs admin page. The log is left out, since it can
+ * be megabytes long; it is read a range of lines at a time from
+ * /api/jobs/{id}/log instead.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobSummary {
+  private long id;
+  private String status;
+  private ZonedDateTime createdAt;
+  private ZonedDateTime updatedAt;
+  // email of the user who launched the job
+  private String createdBy;
+  private long numLogLines;
+  // set while the job waits for its type's concurrency limit; see JobConcurrencyLimiter
+  private Integer queuePosition;
+
+  // used by the queries in JobsRepository
+  public JobSummary(long id, String status, ZonedDateTime createdAt, ZonedDateTime updatedAt, String createdBy) {
+    this(id, status, createdAt, updatedAt, createdBy, 0, null);
+  }
+
+  /**
+   * @return how long the job took, in milliseconds, or null if it has not finished
+   */
+  public Long getDurationMs() {
+    boolean finished = "complete".equals(status) || "error".equals(status);
+    if (!finished || createdAt == null || updatedAt == null) {
+      return null;
+    }
+    return Duration.between(createdAt, updatedAt).toMillis();
+  }
+}
@@ -0,0 +1,18 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The stats of the finished runs of one type of job, as returned by
+ * JobStatsRepository.findJobTypeStatsSince.
+ */
+public interface JobTypeStats {
+  String getJobType();
+  Long getNumRuns();
+  Long getNumFailed();
+  Double getAvgDurationMs();
+  Long getMaxDurationMs();
+  Double getAvgRowsRead();
+  Double getAvgRowsWritten();
+  ZonedDateTime getLastFinishedAt();
+}
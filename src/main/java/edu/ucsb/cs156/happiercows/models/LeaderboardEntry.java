@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A snapshot of one user commons as held by LeaderboardService.  rank is
+ * filled in, starting at 1, when the entry is returned from a query.
+ */
+@Value
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class LeaderboardEntry {
+  long userId;
+  long commonsId;
+  String username;
+  double totalWealth;
+  int numOfCows;
+  double cowHealth;
+  int cowsBought;
+  int cowsSold;
+  int cowDeaths;
+  int rank;
+
+  public static LeaderboardEntry of(UserCommons userCommons) {
+    return new LeaderboardEntry(userCommons.getUserId(), userCommons.getCommonsId(), userCommons.getUsername(),
+        userCommons.getTotalWealth(), userCommons.getNumOfCows(), userCommons.getCowHealth(),
+        userCommons.getCowsBought(), userCommons.getCowsSold(), userCommons.getCowDeaths(), 0);
+  }
+}
@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import java.util.Comparator;
+
+/**
+ * The orders LeaderboardService keeps each leaderboard in.  Ties are broken
+ * by user id, so that every entry has exactly one position.
+ */
+public enum LeaderboardOrder {
+  WEALTH(Comparator.comparingDouble(LeaderboardEntry::getTotalWealth).reversed()
+      .thenComparingLong(LeaderboardEntry::getUserId)),
+  COWS(Comparator.comparingInt(LeaderboardEntry::getNumOfCows).reversed()
+      .thenComparing(Comparator.comparingDouble(LeaderboardEntry::getTotalWealth).reversed())
+      .thenComparingLong(LeaderboardEntry::getUserId));
+
+  private final Comparator<LeaderboardEntry> comparator;
+
+  LeaderboardOrder(Comparator<LeaderboardEntry> comparator) {
+    this.comparator = comparator;
+  }
+
+  public Comparator<LeaderboardEntry> comparator() {
+    return comparator;
+  }
+}
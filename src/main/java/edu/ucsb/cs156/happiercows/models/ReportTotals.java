@@ -0,0 +1,10 @@
+package edu.ucsb.cs156.happiercows.models;
+
+/**
+ * The number of users and cows in the lines of a report, as returned by
+ * ReportLineRepository.findTotalsByReportId.
+ */
+public interface ReportTotals {
+  Long getNumUsers();
+  Long getNumCows();
+}
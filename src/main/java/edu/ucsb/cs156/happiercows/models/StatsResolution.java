@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.happiercows.models;
+
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * The resolutions at which common stats are kept and returned.  RAW is one
+ * point per row recorded by RecordCommonStatsJob; HOUR and DAY are buckets
+ * that start on the hour or at midnight in the app's time zone.
+ */
+public enum StatsResolution {
+  RAW(null),
+  HOUR(ChronoUnit.HOURS),
+  DAY(ChronoUnit.DAYS);
+
+  private final ChronoUnit unit;
+
+  StatsResolution(ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  /**
+   * Returns the start of the bucket that a time falls in.
+   */
+  public Date bucketStart(Date time, ZoneId zone) {
+    if (unit == null) {
+      return time;
+    }
+    return Date.from(time.toInstant().atZone(zone).truncatedTo(unit).toInstant());
+  }
+}
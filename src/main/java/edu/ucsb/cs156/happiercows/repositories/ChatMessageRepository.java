@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
@@ -22,6 +23,15 @@ public interface ChatMessageRepository extends CrudRepository<ChatMessage, Long>
     @Query(value = "SELECT cm FROM chat_message cm WHERE cm.commonsId = :commonsId AND cm.hidden = true")
     Page<ChatMessage> findByCommonsIdAndHidden(Long commonsId, Pageable pageable);
 
+    // Keyset pages of visible messages, read straight from idx_chat_message_commons_id_hidden_id.
+    // Pass the size as PageRequest.of(0, size); the cursor takes the place of the page number,
+    // and a Slice only tells whether there is more rather than counting every message.
+    @Query("SELECT cm FROM chat_message cm WHERE cm.commonsId = :commonsId AND cm.hidden = false AND cm.id < :beforeId ORDER BY cm.id DESC")
+    Slice<ChatMessage> findByCommonsIdBefore(Long commonsId, long beforeId, Pageable pageable);
+
+    @Query("SELECT cm FROM chat_message cm WHERE cm.commonsId = :commonsId AND cm.hidden = false AND cm.id > :afterId ORDER BY cm.id ASC")
+    Slice<ChatMessage> findByCommonsIdAfter(Long commonsId, long afterId, Pageable pageable);
+
     @Query("SELECT cm FROM chat_message cm WHERE cm.id = :id")
     Optional<ChatMessage> findById(long id);
 }
@@ -1,6 +1,16 @@
 package edu.ucsb.cs156.happiercows.repositories;
 
 import edu.ucsb.cs156.happiercows.entities.CommonStats;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,6 +18,45 @@ import org.springframework.data.domain.Sort;
 
 @Repository
 public interface CommonStatsRepository extends CrudRepository<CommonStats, Long> {
+    // rows fetched from the database at a time when streaming
+    String STREAM_FETCH_SIZE = "500";
+
     Iterable<CommonStats> findAllByCommonsId(Long commonsId);
     Iterable<CommonStats> findAll(Sort sort);
+
+    /**
+     * Streams the stats of a commons from a database cursor; must be called in a
+     * transaction, and the stream must be closed.
+     */
+    @QueryHints({
+        @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT s FROM commonstats s WHERE s.commonsId = :commonsId ORDER BY s.id")
+    Stream<CommonStats> streamAllByCommonsId(Long commonsId);
+
+    @QueryHints({
+        @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT s FROM commonstats s ORDER BY s.id")
+    Stream<CommonStats> streamAll();
+
+    @Query("SELECT s FROM commonstats s WHERE s.commonsId = :commonsId AND s.createDate >= :from AND s.createDate < :to ORDER BY s.createDate")
+    List<CommonStats> findByCommonsIdInRange(Long commonsId, Date from, Date to);
+
+    /**
+     * Streams the stats recorded before a time, grouped by commons; must be
+     * called in a transaction, and the stream must be closed.
+     */
+    @QueryHints({
+        @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT s FROM commonstats s WHERE s.createDate < :before ORDER BY s.commonsId, s.createDate")
+    Stream<CommonStats> streamAllBefore(Date before);
+
+    @Modifying
+    @Query("DELETE FROM commonstats s WHERE s.createDate < :before")
+    int deleteAllBefore(Date before);
 }
@@ -0,0 +1,38 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import edu.ucsb.cs156.happiercows.entities.CommonStatsRollup;
+import edu.ucsb.cs156.happiercows.models.StatsResolution;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CommonStatsRollupRepository extends CrudRepository<CommonStatsRollup, Long> {
+
+    @Query("SELECT r FROM commonstats_rollups r WHERE r.commonsId = :commonsId AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<CommonStatsRollup> findByCommonsIdInRange(Long commonsId, Date from, Date to);
+
+    /**
+     * Streams the rollups of one resolution that start before a time, grouped by
+     * commons; must be called in a transaction, and the stream must be closed.
+     */
+    @QueryHints({
+        @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = CommonStatsRepository.STREAM_FETCH_SIZE),
+        @QueryHint(name = QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT r FROM commonstats_rollups r WHERE r.resolution = :resolution AND r.bucketStart < :before ORDER BY r.commonsId, r.bucketStart")
+    Stream<CommonStatsRollup> streamByResolutionBefore(StatsResolution resolution, Date before);
+
+    @Modifying
+    @Query("DELETE FROM commonstats_rollups r WHERE r.resolution = :resolution AND r.bucketStart < :before")
+    int deleteByResolutionBefore(StatsResolution resolution, Date before);
+}
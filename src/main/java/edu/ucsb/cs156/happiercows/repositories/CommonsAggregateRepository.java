@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import edu.ucsb.cs156.happiercows.entities.CommonsAggregate;
+
+@Repository
+public interface CommonsAggregateRepository extends CrudRepository<CommonsAggregate, Long> {
+    String COMPUTE_FROM_USER_COMMONS = "SELECT new edu.ucsb.cs156.happiercows.entities.CommonsAggregate(c.id,"
+            + " COALESCE(SUM(uc.numOfCows), 0), COUNT(uc.id.userId), COALESCE(SUM(uc.numOfCows * uc.cowHealth), 0.0))"
+            + " FROM commons c LEFT JOIN c.joinedUsers uc";
+
+    /**
+     * Adds the deltas to the totals of a commons in one UPDATE, so that concurrent
+     * changes do not overwrite each other.
+     *
+     * @return the number of rows updated; 0 if the commons has no aggregate row yet
+     */
+    @Modifying
+    @Query("UPDATE commons_aggregates a SET a.totalCows = a.totalCows + :cowsDelta, a.totalUsers = a.totalUsers + :usersDelta,"
+            + " a.totalCowHealth = a.totalCowHealth + :cowHealthDelta WHERE a.commonsId = :commonsId")
+    int addToTotals(long commonsId, long cowsDelta, long usersDelta, double cowHealthDelta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM commons_aggregates a WHERE a.commonsId = :commonsId")
+    Optional<CommonsAggregate> lockByCommonsId(long commonsId);
+
+    /**
+     * Computes the totals of every commons from user_commons; used to detect drift.
+     */
+    @Query(COMPUTE_FROM_USER_COMMONS + " GROUP BY c.id")
+    Iterable<CommonsAggregate> computeAllFromUserCommons();
+
+    @Query(COMPUTE_FROM_USER_COMMONS + " WHERE c.id = :commonsId GROUP BY c.id")
+    Optional<CommonsAggregate> computeFromUserCommons(long commonsId);
+}
@@ -1,20 +1,51 @@
 package edu.ucsb.cs156.happiercows.repositories;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 
 
 @Repository
 public interface CommonsRepository extends CrudRepository<Commons, Long> {
+    // the totals are read from the commons_aggregates row kept by CommonsAggregateService
+    String SELECT_COMMONS_WITH_TOTALS = "SELECT c AS commons, COALESCE(a.totalCows, 0) AS totalCows,"
+            + " COALESCE(a.totalUsers, 0) AS totalUsers, COALESCE(a.totalCowHealth, 0.0) AS totalCowHealth"
+            + " FROM commons c LEFT JOIN commons_aggregates a ON a.commonsId = c.id";
+
+    // a game is in progress from its startingDate up to, but not including, its lastDate
+    String IN_PROGRESS = "c.startingDate <= :now AND c.lastDate > :now";
+
     @Query("SELECT sum(uc.numOfCows) from user_commons uc where uc.commons.id = :commonsId")
     Optional<Integer> getNumCows(Long commonsId);
 
     @Query("SELECT COUNT(*) FROM user_commons uc WHERE uc.commons.id = :commonsId")
     Optional<Integer> getNumUsers(Long commonsId);
 
+    @Query(SELECT_COMMONS_WITH_TOTALS + " ORDER BY c.id")
+    Iterable<CommonsWithTotals> findAllWithTotals();
+
+    @Query(SELECT_COMMONS_WITH_TOTALS + " WHERE c.id = :commonsId")
+    Optional<CommonsWithTotals> findWithTotalsById(Long commonsId);
+
+    @Query("SELECT c FROM commons c WHERE " + IN_PROGRESS + " ORDER BY c.id")
+    Iterable<Commons> findInProgress(LocalDateTime now);
+
+    @Query(SELECT_COMMONS_WITH_TOTALS + " WHERE " + IN_PROGRESS + " ORDER BY c.id")
+    Iterable<CommonsWithTotals> findInProgressWithTotals(LocalDateTime now);
+
+    @Query("SELECT c.membershipVersion FROM commons c WHERE c.id = :commonsId")
+    Optional<Long> findMembershipVersionById(Long commonsId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE commons c SET c.membershipVersion = c.membershipVersion + 1 WHERE c.id = :commonsId")
+    int incrementMembershipVersion(Long commonsId);
 }
@@ -2,10 +2,43 @@ package edu.ucsb.cs156.happiercows.repositories;
 
 import edu.ucsb.cs156.happiercows.entities.Profit;
 import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface ProfitRepository extends CrudRepository<Profit, Long> {
     Iterable<Profit> findAllByUserCommons(UserCommons userCommons);
+
+    Page<Profit> findAllByUserCommons(UserCommons userCommons, Pageable pageable);
+
+    /**
+     * Returns the profits that come after the profit with timestamp since and
+     * id afterId, oldest first, so that a client pages forward from the last
+     * profit it has without skipping any.  Profits with the same timestamp
+     * are ordered by id.
+     */
+    @Query("SELECT p FROM profits p WHERE p.userCommons = :userCommons "
+            + "AND (p.timestamp > :since OR (p.timestamp = :since AND p.id > :afterId)) "
+            + "ORDER BY p.timestamp ASC, p.id ASC")
+    List<Profit> findNextByUserCommons(UserCommons userCommons, LocalDateTime since, long afterId, Pageable pageable);
+
+    /**
+     * Inserts one profit row for every user in a commons with a single
+     * INSERT ... SELECT; the amount uses the same formula as
+     * MilkTheCowsJob.calculateMilkingProfit
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO profits (user_id, commons_id, amount, timestamp, num_cows, avg_cow_health) "
+            + "SELECT uc.user_id, uc.commons_id, uc.num_of_cows * (uc.cow_health / 100.0) * :milkPrice, :timestamp, uc.num_of_cows, uc.cow_health "
+            + "FROM user_commons uc WHERE uc.commons_id = :commonsId", nativeQuery = true)
+    int insertMilkingProfitsForCommons(Long commonsId, double milkPrice, LocalDateTime timestamp);
 }
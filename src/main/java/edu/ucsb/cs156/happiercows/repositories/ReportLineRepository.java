@@ -1,10 +1,49 @@
 package edu.ucsb.cs156.happiercows.repositories;
 
 import edu.ucsb.cs156.happiercows.entities.ReportLine;
+import edu.ucsb.cs156.happiercows.models.ReportTotals;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ReportLineRepository extends CrudRepository<ReportLine, Long> {
+    // rows fetched from the database at a time when streaming
+    String STREAM_FETCH_SIZE = "500";
+
     Iterable<ReportLine> findAllByReportId(Long reportId);
+
+    /**
+     * Streams the lines of a report from a database cursor; must be called in a
+     * transaction, and the stream must be closed.
+     */
+    @QueryHints({
+        @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT l FROM report_lines l WHERE l.reportId = :reportId ORDER BY l.id")
+    Stream<ReportLine> streamAllByReportId(Long reportId);
+
+    /**
+     * Copies every user commons in a commons into the lines of a report with a
+     * single INSERT ... SELECT, in user id order.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO report_lines (report_id, user_id, username, total_wealth, num_of_cows, avg_cow_health, cows_bought, cows_sold, cow_deaths, create_date) "
+            + "SELECT :reportId, uc.user_id, uc.username, uc.total_wealth, uc.num_of_cows, uc.cow_health, uc.cows_bought, uc.cows_sold, uc.cow_deaths, :createDate "
+            + "FROM user_commons uc WHERE uc.commons_id = :commonsId ORDER BY uc.user_id", nativeQuery = true)
+    int insertReportLinesForCommons(Long reportId, Long commonsId, LocalDateTime createDate);
+
+    @Query("SELECT COUNT(l) AS numUsers, COALESCE(SUM(l.numOfCows), 0) AS numCows FROM report_lines l WHERE l.reportId = :reportId")
+    ReportTotals findTotalsByReportId(Long reportId);
 }
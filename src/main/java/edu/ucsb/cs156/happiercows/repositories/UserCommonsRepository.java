@@ -2,9 +2,15 @@ package edu.ucsb.cs156.happiercows.repositories;
 
 import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.entities.UserCommonsKey;
+import edu.ucsb.cs156.happiercows.models.ChatAuthor;
+import edu.ucsb.cs156.happiercows.models.LeaderboardEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,4 +20,37 @@ public interface UserCommonsRepository extends CrudRepository<UserCommons, UserC
     Optional<UserCommons> findByCommonsIdAndUserId(Long commonsId, Long userId);
     @Query("SELECT uc FROM user_commons uc WHERE uc.commons.id = :commonsId")
     Iterable<UserCommons> findByCommonsId(Long commonsId);
+
+    /**
+     * Returns only the user id and username of each member of a commons, without
+     * loading the user commons, their users or the commons.
+     */
+    @Query("SELECT uc.id.userId AS userId, uc.username AS username FROM user_commons uc WHERE uc.id.commonsId = :commonsId ORDER BY uc.id.userId")
+    Iterable<ChatAuthor> findChatAuthorsByCommonsId(Long commonsId);
+
+    /**
+     * Returns the leaderboard entries of the members of a commons, without
+     * loading the user commons, their users or the commons.
+     */
+    @Query("SELECT new edu.ucsb.cs156.happiercows.models.LeaderboardEntry(uc.id.userId, uc.id.commonsId, uc.username,"
+            + " uc.totalWealth, uc.numOfCows, uc.cowHealth, uc.cowsBought, uc.cowsSold, uc.cowDeaths, 0)"
+            + " FROM user_commons uc WHERE uc.id.commonsId = :commonsId")
+    Iterable<LeaderboardEntry> findLeaderboardEntriesByCommonsId(Long commonsId);
+
+    /**
+     * Returns one fixed-size chunk of the user commons in a commons, ordered by user id
+     * so that consecutive pages are stable.  A Slice is used so that no count query is issued.
+     */
+    @Query("SELECT uc FROM user_commons uc JOIN FETCH uc.user WHERE uc.commons.id = :commonsId ORDER BY uc.id.userId")
+    Slice<UserCommons> findChunkByCommonsId(Long commonsId, Pageable pageable);
+
+    /**
+     * Adds the milking profit to the totalWealth of every user in a commons
+     * in one set-based UPDATE; the amount uses the same formula as
+     * MilkTheCowsJob.calculateMilkingProfit
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE user_commons uc SET uc.totalWealth = uc.totalWealth + uc.numOfCows * (uc.cowHealth / 100.0) * :milkPrice WHERE uc.id.commonsId = :commonsId")
+    int addMilkingProfitsForCommons(Long commonsId, double milkPrice);
 }
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.happiercows.repositories.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.models.CommonsRunStats;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface JobCommonsStatsRepository extends CrudRepository<JobCommonsStats, Long> {
+    List<JobCommonsStats> findByJobIdOrderByDurationMsDesc(long jobId);
+
+    @Query("SELECT c.commonsId AS commonsId, COUNT(c) AS numRuns, AVG(c.durationMs) AS avgDurationMs, MAX(c.durationMs) AS maxDurationMs, "
+            + "AVG(c.rowsRead) AS avgRowsRead, AVG(c.rowsWritten) AS avgRowsWritten "
+            + "FROM job_commons_stats c, job_stats s WHERE s.jobId = c.jobId AND s.jobType = :jobType AND s.finishedAt >= :since "
+            + "GROUP BY c.commonsId ORDER BY c.commonsId")
+    List<CommonsRunStats> findCommonsRunStatsSince(String jobType, ZonedDateTime since);
+}
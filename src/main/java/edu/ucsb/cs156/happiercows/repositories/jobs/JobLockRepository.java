@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.happiercows.repositories.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobLock;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+
+@Repository
+public interface JobLockRepository extends CrudRepository<JobLock, String> {
+
+    // a plain insert, so that two instances creating the same lock cannot both succeed
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO job_locks (name, owner, locked_at, locked_until) VALUES (:name, :owner, :now, :until)", nativeQuery = true)
+    int insertLock(String name, String owner, ZonedDateTime now, ZonedDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE job_locks l SET l.owner = :owner, l.lockedAt = :now, l.lockedUntil = :until WHERE l.name = :name AND l.lockedUntil <= :now")
+    int takeExpiredLock(String name, String owner, ZonedDateTime now, ZonedDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE job_locks l SET l.lockedUntil = :until WHERE l.name = :name AND l.owner = :owner")
+    int setLockedUntil(String name, String owner, ZonedDateTime until);
+}
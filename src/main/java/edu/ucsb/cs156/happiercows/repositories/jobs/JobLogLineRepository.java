@@ -0,0 +1,20 @@
+package edu.ucsb.cs156.happiercows.repositories.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobLogLine;
+import edu.ucsb.cs156.happiercows.models.JobLogLineCount;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JobLogLineRepository extends CrudRepository<JobLogLine, Long> {
+    List<JobLogLine> findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(long jobId, int fromLine, Pageable pageable);
+
+    @Query("SELECT l.jobId AS jobId, COUNT(l) AS numLines FROM job_log_lines l WHERE l.jobId IN :jobIds GROUP BY l.jobId")
+    List<JobLogLineCount> findLineCountsByJobIds(Collection<Long> jobIds);
+}
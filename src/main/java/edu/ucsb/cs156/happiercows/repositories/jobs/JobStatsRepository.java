@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.happiercows.repositories.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobStats;
+import edu.ucsb.cs156.happiercows.models.JobTypeStats;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface JobStatsRepository extends CrudRepository<JobStats, Long> {
+    @Transactional
+    @Modifying
+    @Query("UPDATE job_stats s SET s.phase = :phase, s.completedUnits = :completedUnits, s.totalUnits = :totalUnits, s.rowsRead = :rowsRead, s.rowsWritten = :rowsWritten WHERE s.jobId = :jobId")
+    int updateProgress(long jobId, String phase, int completedUnits, int totalUnits, long rowsRead, long rowsWritten);
+
+    @Query("SELECT s.jobType AS jobType, COUNT(s) AS numRuns, SUM(CASE WHEN j.status = 'error' THEN 1 ELSE 0 END) AS numFailed, "
+            + "AVG(s.durationMs) AS avgDurationMs, MAX(s.durationMs) AS maxDurationMs, AVG(s.rowsRead) AS avgRowsRead, "
+            + "AVG(s.rowsWritten) AS avgRowsWritten, MAX(s.finishedAt) AS lastFinishedAt "
+            + "FROM job_stats s, jobs j WHERE j.id = s.jobId AND s.finishedAt >= :since GROUP BY s.jobType ORDER BY s.jobType")
+    List<JobTypeStats> findJobTypeStatsSince(ZonedDateTime since);
+
+    List<JobStats> findByJobTypeAndFinishedAtNotNullOrderByFinishedAtDesc(String jobType, Pageable pageable);
+}
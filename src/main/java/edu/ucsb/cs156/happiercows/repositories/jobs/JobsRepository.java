@@ -1,14 +1,38 @@
 package edu.ucsb.cs156.happiercows.repositories.jobs;
 
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.models.JobSummary;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 
 @Repository
 public interface JobsRepository extends CrudRepository<Job, Long> {
     public Page<Job> findAll(Pageable pageable);
+
+    @Query("SELECT new edu.ucsb.cs156.happiercows.models.JobSummary(j.id, j.status, j.createdAt, j.updatedAt, u.email) FROM jobs j LEFT JOIN j.createdBy u ORDER BY j.id DESC")
+    List<JobSummary> findAllSummaries();
+
+    @Query(value = "SELECT new edu.ucsb.cs156.happiercows.models.JobSummary(j.id, j.status, j.createdAt, j.updatedAt, u.email) FROM jobs j LEFT JOIN j.createdBy u ORDER BY j.id DESC",
+           countQuery = "SELECT COUNT(j) FROM jobs j")
+    Page<JobSummary> findSummaries(Pageable pageable);
+
+    @Query("SELECT j.id FROM jobs j WHERE j.legacyLog IS NOT NULL")
+    List<Long> findIdsWithLegacyLog();
+
+    @Query("SELECT j.legacyLog FROM jobs j WHERE j.id = :id")
+    String findLegacyLog(long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE jobs j SET j.legacyLog = NULL WHERE j.id = :id")
+    void clearLegacyLog(long id);
 }
@@ -3,46 +3,34 @@ package edu.ucsb.cs156.happiercows.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
-import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 
+/**
+ * Cow totals and average cow health of a commons.  Each lookup is a single
+ * query that also checks that the commons exists; use
+ * CommonsRepository.findAllWithTotals to get the totals of every commons at once.
+ */
 @Service("AverageCowHealthService")
 public class AverageCowHealthService {
 
     @Autowired
     CommonsRepository commonsRepository;
 
-    @Autowired
-    UserCommonsRepository userCommonsRepository;
+    public CommonsWithTotals getTotals(Long commonsId) {
+        return commonsRepository.findWithTotalsById(commonsId)
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Commons with id %d not found", commonsId)));
+    }
 
     public int getTotalNumCows(Long commonsId) {
-        commonsRepository.findById(commonsId).orElseThrow(() -> new IllegalArgumentException(String.format("Commons with id %d not found", commonsId)));
-
-        Iterable<UserCommons> allUserCommons = userCommonsRepository.findByCommonsId(commonsId);
-
-        int totalNumCows = 0;
-
-        for (UserCommons userCommons : allUserCommons) {
-            totalNumCows += userCommons.getNumOfCows();
-        }
-
-        return totalNumCows;
+        return getTotals(commonsId).getTotalCows().intValue();
     }
 
     public double getAverageCowHealth(Long commonsId) {
-        commonsRepository.findById(commonsId).orElseThrow(() -> new IllegalArgumentException(String.format("Commons with id %d not found", commonsId)));
-
-        Iterable<UserCommons> allUserCommons = userCommonsRepository.findByCommonsId(commonsId);
-
-        double totalHealth = 0;
-
-        for (UserCommons userCommons : allUserCommons) {
-            totalHealth += userCommons.getCowHealth() * userCommons.getNumOfCows();
-        }
-
-        return totalHealth / getTotalNumCows(commonsId);
+        return getAverageCowHealth(getTotals(commonsId));
     }
 
-    
+    public double getAverageCowHealth(CommonsWithTotals totals) {
+        return totals.getTotalCowHealth() / totals.getTotalCows();
+    }
 }
@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.entities.ReportLine;
+import edu.ucsb.cs156.happiercows.helpers.CommonStatsCSVHelper;
+import edu.ucsb.cs156.happiercows.helpers.ReportCSVHelper;
+import edu.ucsb.cs156.happiercows.repositories.CommonStatsRepository;
+import edu.ucsb.cs156.happiercows.repositories.ReportLineRepository;
+
+/**
+ * Writes CSV downloads straight from a database cursor.  Each row is detached
+ * once it has been read, so memory use does not grow with the number of rows.
+ */
+@Service("CSVExportService")
+public class CSVExportService {
+
+    @Autowired
+    ReportLineRepository reportLineRepository;
+
+    @Autowired
+    CommonStatsRepository commonStatsRepository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void writeReportLines(Long reportId, OutputStream out) throws IOException {
+        try (Stream<ReportLine> lines = reportLineRepository.streamAllByReportId(reportId)) {
+            ReportCSVHelper.writeCSV(detached(lines)::iterator, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCommonStats(Long commonsId, OutputStream out) throws IOException {
+        try (Stream<CommonStats> stats = commonStatsRepository.streamAllByCommonsId(commonsId)) {
+            CommonStatsCSVHelper.writeCSV(detached(stats)::iterator, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeAllCommonStats(OutputStream out) throws IOException {
+        try (Stream<CommonStats> stats = commonStatsRepository.streamAll()) {
+            CommonStatsCSVHelper.writeCSV(detached(stats)::iterator, out);
+        }
+    }
+
+    private <T> Stream<T> detached(Stream<T> entities) {
+        return entities.peek(entityManager::detach);
+    }
+}
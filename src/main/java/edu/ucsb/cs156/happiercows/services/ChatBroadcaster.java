@@ -0,0 +1,236 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import edu.ucsb.cs156.happiercows.entities.ChatMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes chat messages to the browsers that have the chat of a commons open.
+ *
+ * Each browser holds one server-sent events connection per commons.  When a
+ * message is posted or hidden, ChatMessageController hands it to this class,
+ * which queues it for every connection of that commons.  Nothing is read from
+ * the database, and a commons nobody is watching costs nothing at all.
+ *
+ * Each connection has its own queue, which the events executor sends in
+ * order, so posting a message does not wait for the browsers, and a slow
+ * browser does not hold up the others.  A connection that falls more than
+ * MAX_QUEUED_EVENTS behind is closed, and its EventSource reconnects.
+ *
+ * Whether a user may read the chat is checked when they subscribe.  When a
+ * member is removed from a commons, its chat is hidden or it is deleted, the
+ * connections that lost access are closed, so that their EventSource has to
+ * reconnect and is checked again.
+ */
+@Service("ChatBroadcaster")
+@Slf4j
+public class ChatBroadcaster {
+    static final int MAX_QUEUED_EVENTS = 1000;
+
+    @Value("${app.chat.stream.timeoutMs:1800000}")
+    long timeoutMs;
+
+    @Autowired
+    @Qualifier("eventsTaskExecutor")
+    Executor eventsExecutor;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * @param userId the user reading the chat, or null for an admin, who can
+     * read the chat of every commons
+     */
+    public SseEmitter subscribe(long commonsId, Long userId) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(commonsId, userId, emitter);
+        // added under the map's lock for this commons, so that it cannot race
+        // with the last subscriber leaving and the set being dropped
+        subscribers.compute(commonsId, (id, emitters) -> {
+            Set<Subscriber> set = emitters == null ? new CopyOnWriteArraySet<>() : emitters;
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    public void messageCreated(ChatMessage chatMessage) {
+        send(chatMessage.getCommonsId(),
+                () -> SseEmitter.event().name("message").id(Long.toString(chatMessage.getId())).data(chatMessage));
+    }
+
+    public void messageHidden(ChatMessage chatMessage) {
+        send(chatMessage.getCommonsId(),
+                () -> SseEmitter.event().name("hidden").data(Map.of("id", chatMessage.getId())));
+    }
+
+    /**
+     * Closes the connections of a user who was removed from a commons.
+     */
+    public void memberRemoved(long commonsId, long userId) {
+        closeAfterCommit(commonsId, subscriber -> subscriber.userId != null && subscriber.userId == userId);
+    }
+
+    /**
+     * Closes the connections of the members of a commons whose chat is hidden.
+     * Admins can still read it, so theirs stay open.
+     */
+    public void chatHidden(long commonsId) {
+        closeAfterCommit(commonsId, subscriber -> subscriber.userId != null);
+    }
+
+    public void commonsDeleted(long commonsId) {
+        closeAfterCommit(commonsId, subscriber -> true);
+    }
+
+    /**
+     * Keeps idle connections from being closed by proxies, and finds the ones
+     * whose browser has gone away.
+     */
+    @Scheduled(fixedDelayString = "${app.chat.stream.heartbeatMs:30000}")
+    public void heartbeat() {
+        subscribers.keySet().forEach(commonsId -> send(commonsId, () -> SseEmitter.event().comment("heartbeat")));
+    }
+
+    public int subscriberCount(long commonsId) {
+        Set<Subscriber> emitters = subscribers.get(commonsId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    // an SseEventBuilder can only be built once, so each emitter gets a new one
+    private void send(long commonsId, Supplier<SseEventBuilder> event) {
+        Set<Subscriber> emitters = subscribers.get(commonsId);
+        if (emitters == null) {
+            return;
+        }
+        for (Subscriber subscriber : emitters) {
+            subscriber.enqueue(event.get());
+        }
+    }
+
+    // until the change commits, a reconnecting EventSource would still be let in
+    private void closeAfterCommit(long commonsId, Predicate<Subscriber> lostAccess) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    close(commonsId, lostAccess);
+                }
+            });
+        } else {
+            close(commonsId, lostAccess);
+        }
+    }
+
+    private void close(long commonsId, Predicate<Subscriber> lostAccess) {
+        Set<Subscriber> emitters = subscribers.get(commonsId);
+        if (emitters == null) {
+            return;
+        }
+        for (Subscriber subscriber : emitters) {
+            if (lostAccess.test(subscriber)) {
+                log.debug("Closing chat subscriber of commons {}: no longer allowed to read it", commonsId);
+                subscriber.close();
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.commonsId, (id, emitters) -> {
+            emitters.remove(subscriber);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private class Subscriber {
+        private final long commonsId;
+        private final Long userId;
+        private final SseEmitter emitter;
+
+        // guarded by this subscriber
+        private final Deque<SseEventBuilder> queued = new ArrayDeque<>();
+        private boolean sending;
+
+        private Subscriber(long commonsId, Long userId, SseEmitter emitter) {
+            this.commonsId = commonsId;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(SseEventBuilder event) {
+            synchronized (this) {
+                if (queued.size() >= MAX_QUEUED_EVENTS) {
+                    log.debug("Dropping chat subscriber of commons {}: {} events behind", commonsId, queued.size());
+                    close();
+                    return;
+                }
+                queued.add(event);
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            eventsExecutor.execute(this::sendQueued);
+        }
+
+        // a send already running on the executor fails on the completed emitter and stops
+        private void close() {
+            synchronized (this) {
+                queued.clear();
+            }
+            unsubscribe(this);
+            emitter.complete();
+        }
+
+        private void sendQueued() {
+            while (true) {
+                SseEventBuilder event;
+                synchronized (this) {
+                    event = queued.poll();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping chat subscriber of commons {}: {}", commonsId, e.getMessage());
+                    synchronized (this) {
+                        queued.clear();
+                        sending = false;
+                    }
+                    unsubscribe(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.entities.CommonStatsRollup;
+import edu.ucsb.cs156.happiercows.models.StatsResolution;
+import edu.ucsb.cs156.happiercows.repositories.CommonStatsRepository;
+import edu.ucsb.cs156.happiercows.repositories.CommonStatsRollupRepository;
+
+/**
+ * Compacts old common stats into hourly and daily buckets, and answers range
+ * queries over the raw stats and the buckets together.
+ *
+ * Stats recorded in the last rawRetentionDays days are kept as they are.
+ * Older ones are replaced by one hourly bucket per commons and hour, and
+ * hourly buckets older than hourlyRetentionDays days by one daily bucket per
+ * commons and day.  Each bucket keeps the number of stats it stands for, so
+ * that averages stay exact when buckets are merged.  The cutoffs fall at
+ * midnight, so a bucket is always complete when it is written.
+ */
+@Service("CommonStatsRollupService")
+public class CommonStatsRollupService {
+
+    @Autowired
+    CommonStatsRepository commonStatsRepository;
+
+    @Autowired
+    CommonStatsRollupRepository commonStatsRollupRepository;
+
+    @Value("${app.commonStats.rawRetentionDays:30}")
+    int rawRetentionDays;
+
+    @Value("${app.commonStats.hourlyRetentionDays:90}")
+    int hourlyRetentionDays;
+
+    @Value("${spring.jackson.time-zone}")
+    ZoneId zone;
+
+    /**
+     * Returns the stats of a commons that start in [from, to), one point per
+     * bucket of the given resolution, oldest first.  Stats that are only kept
+     * in coarser buckets are returned at that coarser resolution.
+     */
+    public List<CommonStatsRollup> findInRange(long commonsId, LocalDateTime from, LocalDateTime to, StatsResolution resolution) {
+        Date fromDate = Date.from(from.atZone(zone).toInstant());
+        Date toDate = Date.from(to.atZone(zone).toInstant());
+
+        Map<Date, StatsBucket> buckets = new TreeMap<>();
+        for (CommonStatsRollup rollup : commonStatsRollupRepository.findByCommonsIdInRange(commonsId, fromDate, toDate)) {
+            StatsBucket bucket = StatsBucket.of(rollup, resolution, zone);
+            buckets.merge(bucket.start, bucket, StatsBucket::merge);
+        }
+        for (CommonStats stats : commonStatsRepository.findByCommonsIdInRange(commonsId, fromDate, toDate)) {
+            StatsBucket bucket = StatsBucket.of(stats, resolution, zone);
+            buckets.merge(bucket.start, bucket, StatsBucket::merge);
+        }
+        return buckets.values().stream().map(StatsBucket::toRollup).collect(Collectors.toList());
+    }
+
+    /**
+     * Replaces the stats recorded before the raw retention window with hourly
+     * buckets, and returns the number of buckets written.
+     */
+    @Transactional
+    public int rollUpRawStats(Instant now) {
+        Date before = cutoff(now, rawRetentionDays);
+        int written;
+        try (Stream<CommonStats> stats = commonStatsRepository.streamAllBefore(before)) {
+            written = saveMerged(stats.map(s -> StatsBucket.of(s, StatsResolution.HOUR, zone)).iterator());
+        }
+        commonStatsRepository.deleteAllBefore(before);
+        return written;
+    }
+
+    /**
+     * Replaces the hourly buckets before the hourly retention window with daily
+     * buckets, and returns the number of buckets written.
+     */
+    @Transactional
+    public int rollUpHourlyStats(Instant now) {
+        Date before = cutoff(now, hourlyRetentionDays);
+        int written;
+        try (Stream<CommonStatsRollup> rollups = commonStatsRollupRepository.streamByResolutionBefore(StatsResolution.HOUR, before)) {
+            written = saveMerged(rollups.map(r -> StatsBucket.of(r, StatsResolution.DAY, zone)).iterator());
+        }
+        commonStatsRollupRepository.deleteByResolutionBefore(StatsResolution.HOUR, before);
+        return written;
+    }
+
+    private Date cutoff(Instant now, int retentionDays) {
+        return Date.from(now.atZone(zone).toLocalDate().minusDays(retentionDays).atStartOfDay(zone).toInstant());
+    }
+
+    // the buckets arrive ordered by commons and time, so equal ones are adjacent
+    private int saveMerged(Iterator<StatsBucket> buckets) {
+        List<CommonStatsRollup> merged = new ArrayList<>();
+        StatsBucket current = null;
+        while (buckets.hasNext()) {
+            StatsBucket next = buckets.next();
+            if (current != null && current.commonsId == next.commonsId && current.start.equals(next.start)) {
+                current.merge(next);
+            } else {
+                if (current != null) {
+                    merged.add(current.toRollup());
+                }
+                current = next;
+            }
+        }
+        if (current != null) {
+            merged.add(current.toRollup());
+        }
+        commonStatsRollupRepository.saveAll(merged);
+        return merged.size();
+    }
+
+    private static class StatsBucket {
+        private final long commonsId;
+        private final Date start;
+        private StatsResolution resolution;
+        private int numSamples;
+        private int minCows;
+        private int maxCows;
+        private double totalCows;
+        private double minHealth;
+        private double maxHealth;
+        private double totalHealth;
+
+        private StatsBucket(long commonsId, Date start, StatsResolution resolution, int numSamples,
+                int minCows, int maxCows, double totalCows, double minHealth, double maxHealth, double totalHealth) {
+            this.commonsId = commonsId;
+            this.start = start;
+            this.resolution = resolution;
+            this.numSamples = numSamples;
+            this.minCows = minCows;
+            this.maxCows = maxCows;
+            this.totalCows = totalCows;
+            this.minHealth = minHealth;
+            this.maxHealth = maxHealth;
+            this.totalHealth = totalHealth;
+        }
+
+        static StatsBucket of(CommonStats stats, StatsResolution resolution, ZoneId zone) {
+            return new StatsBucket(stats.getCommonsId(), resolution.bucketStart(stats.getCreateDate(), zone), resolution, 1,
+                    stats.getNumCows(), stats.getNumCows(), stats.getNumCows(),
+                    stats.getAvgHealth(), stats.getAvgHealth(), stats.getAvgHealth());
+        }
+
+        static StatsBucket of(CommonStatsRollup rollup, StatsResolution resolution, ZoneId zone) {
+            return new StatsBucket(rollup.getCommonsId(), resolution.bucketStart(rollup.getBucketStart(), zone),
+                    coarser(resolution, rollup.getResolution()), rollup.getNumSamples(),
+                    rollup.getMinCows(), rollup.getMaxCows(), rollup.getAvgCows() * rollup.getNumSamples(),
+                    rollup.getMinHealth(), rollup.getMaxHealth(), rollup.getAvgHealth() * rollup.getNumSamples());
+        }
+
+        private static StatsResolution coarser(StatsResolution a, StatsResolution b) {
+            return a.compareTo(b) >= 0 ? a : b;
+        }
+
+        StatsBucket merge(StatsBucket other) {
+            resolution = coarser(resolution, other.resolution);
+            numSamples += other.numSamples;
+            minCows = Math.min(minCows, other.minCows);
+            maxCows = Math.max(maxCows, other.maxCows);
+            totalCows += other.totalCows;
+            minHealth = Math.min(minHealth, other.minHealth);
+            maxHealth = Math.max(maxHealth, other.maxHealth);
+            totalHealth += other.totalHealth;
+            return this;
+        }
+
+        CommonStatsRollup toRollup() {
+            return CommonStatsRollup.builder()
+                    .commonsId(commonsId)
+                    .resolution(resolution)
+                    .bucketStart(start)
+                    .numSamples(numSamples)
+                    .minCows(minCows)
+                    .maxCows(maxCows)
+                    .avgCows(totalCows / numSamples)
+                    .minHealth(minHealth)
+                    .maxHealth(maxHealth)
+                    .avgHealth(totalHealth / numSamples)
+                    .build();
+        }
+    }
+}
@@ -4,9 +4,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import edu.ucsb.cs156.happiercows.entities.CommonStats;
-import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonStatsRepository;
-import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 
 @Service("CommonStatsService")
 public class CommonStatsService {
@@ -14,35 +13,34 @@ public class CommonStatsService {
     @Autowired
     CommonStatsRepository commonStatsRepository;
 
-    @Autowired
-    CommonsRepository commonsRepository;
-
-    @Autowired
-    UserCommonsRepository userCommonsRepository;
-
     @Autowired
     private AverageCowHealthService averageCowHealthService;
 
     public CommonStats createCommonStats(Long commonsId) {
+        return createCommonStats(averageCowHealthService.getTotals(commonsId));
+    }
 
-        commonsRepository.findById(commonsId)
-            .orElseThrow(() -> new IllegalArgumentException(String.format("Commons with id %d not found", commonsId)));
-        
-        double avgHealth = averageCowHealthService.getAverageCowHealth(commonsId);
-        int totalNumCows = averageCowHealthService.getTotalNumCows(commonsId);
-
+    public CommonStats createCommonStats(CommonsWithTotals totals) {
         CommonStats stats = CommonStats.builder()
-                .commonsId(commonsId)
-                .numCows(totalNumCows)
-                .avgHealth(avgHealth)
+                .commonsId(totals.getCommons().getId())
+                .numCows(totals.getTotalCows().intValue())
+                .avgHealth(averageCowHealthService.getAverageCowHealth(totals))
                 .build();
 
         return stats;
     }
 
     public CommonStats createAndSaveCommonStats(Long commonsId) {
+        return createAndSaveCommonStats(averageCowHealthService.getTotals(commonsId));
+    }
+
+    /**
+     * Saves stats computed from totals that have already been read, e.g. by
+     * CommonsRepository.findAllWithTotals for every commons at once.
+     */
+    public CommonStats createAndSaveCommonStats(CommonsWithTotals totals) {
         
-        CommonStats stats = createCommonStats(commonsId);
+        CommonStats stats = createCommonStats(totals);
         commonStatsRepository.save(stats);
 
         return stats;
@@ -0,0 +1,157 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.ucsb.cs156.happiercows.entities.CommonsAggregate;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.repositories.CommonsAggregateRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the commons_aggregates row of each commons.
+ *
+ * The row is created with the commons, and the rows of commons created before
+ * then are added at startup, so that the first users to join a commons update
+ * an existing row rather than racing to insert it.  Code that changes
+ * user_commons calls one of the update methods in the same transaction, and
+ * the change is applied to the row with a single UPDATE.  A scheduled
+ * reconciler recomputes the totals from user_commons and repairs any row that
+ * has drifted, e.g. after a change made directly in the database.
+ */
+@Service("CommonsAggregateService")
+@Slf4j
+public class CommonsAggregateService {
+
+    // cowHealth is a double, so allow for rounding in the running sum
+    private static final double COW_HEALTH_TOLERANCE = 1e-6;
+
+    @Autowired
+    CommonsAggregateRepository commonsAggregateRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    public CommonsAggregate getAggregate(long commonsId) {
+        return commonsAggregateRepository.findById(commonsId).orElse(CommonsAggregate.empty(commonsId));
+    }
+
+    @Transactional
+    public void commonsCreated(long commonsId) {
+        commonsAggregateRepository.save(CommonsAggregate.empty(commonsId));
+    }
+
+    @Transactional
+    public void userCommonsAdded(UserCommons userCommons) {
+        adjust(userCommons.getCommonsId(), userCommons.getNumOfCows(), 1,
+                userCommons.getNumOfCows() * userCommons.getCowHealth());
+    }
+
+    @Transactional
+    public void userCommonsRemoved(UserCommons userCommons) {
+        adjust(userCommons.getCommonsId(), -userCommons.getNumOfCows(), -1,
+                -userCommons.getNumOfCows() * userCommons.getCowHealth());
+    }
+
+    /**
+     * Records cows bought (positive cowsDelta) or sold (negative cowsDelta) at the
+     * user's current cow health.
+     */
+    @Transactional
+    public void cowsChanged(long commonsId, int cowsDelta, double cowHealth) {
+        adjust(commonsId, cowsDelta, 0, cowsDelta * cowHealth);
+    }
+
+    /**
+     * Adds the deltas to the totals of a commons.  If its row has gone missing,
+     * e.g. after it was deleted directly in the database, the row is computed
+     * from user_commons instead, which already includes the change as long as
+     * it has been saved in this transaction.
+     */
+    @Transactional
+    public void adjust(long commonsId, long cowsDelta, long usersDelta, double cowHealthDelta) {
+        int updated = commonsAggregateRepository.addToTotals(commonsId, cowsDelta, usersDelta, cowHealthDelta);
+        if (updated == 0) {
+            reconcile(commonsId);
+        }
+    }
+
+    @Transactional
+    public void commonsDeleted(long commonsId) {
+        commonsAggregateRepository.findById(commonsId).ifPresent(commonsAggregateRepository::delete);
+    }
+
+    /**
+     * Recomputes the row of one commons from user_commons.  The row is locked
+     * first, so changes that commit while it is being recomputed are added
+     * after it is written rather than lost.
+     *
+     * @return true if the row was missing or did not match user_commons
+     */
+    @Transactional
+    public boolean reconcile(long commonsId) {
+        var stored = commonsAggregateRepository.lockByCommonsId(commonsId);
+        var computed = commonsAggregateRepository.computeFromUserCommons(commonsId);
+
+        if (computed.isEmpty()) {
+            stored.ifPresent(commonsAggregateRepository::delete);
+            return stored.isPresent();
+        }
+        if (stored.isPresent() && matches(stored.get(), computed.get())) {
+            return false;
+        }
+        commonsAggregateRepository.save(computed.get());
+        return true;
+    }
+
+    /**
+     * Repairs every row that does not match user_commons.  Run once at startup,
+     * which also creates the rows missing for commons created before rows were
+     * made with the commons, and then every reconcileIntervalMs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.commonsAggregates.reconcileIntervalMs:600000}",
+            initialDelayString = "${app.commonsAggregates.reconcileIntervalMs:600000}")
+    public void reconcileAll() {
+        Map<Long, CommonsAggregate> stored = new HashMap<>();
+        commonsAggregateRepository.findAll().forEach(aggregate -> stored.put(aggregate.getCommonsId(), aggregate));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int repaired = 0;
+        for (CommonsAggregate computed : commonsAggregateRepository.computeAllFromUserCommons()) {
+            CommonsAggregate aggregate = stored.remove(computed.getCommonsId());
+            if (aggregate != null && matches(aggregate, computed)) {
+                continue;
+            }
+            log.warn("commons_aggregates for commons {} is {}, expected {}", computed.getCommonsId(), aggregate, computed);
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcile(computed.getCommonsId())))) {
+                repaired++;
+            }
+        }
+        // rows left over belong to commons that no longer exist
+        for (Long commonsId : stored.keySet()) {
+            transactionTemplate.execute(status -> reconcile(commonsId));
+            repaired++;
+        }
+
+        if (repaired > 0) {
+            log.warn("Repaired commons_aggregates for {} commons", repaired);
+        }
+    }
+
+    private static boolean matches(CommonsAggregate stored, CommonsAggregate computed) {
+        return stored.getTotalCows() == computed.getTotalCows()
+                && stored.getTotalUsers() == computed.getTotalUsers()
+                && Math.abs(stored.getTotalCowHealth() - computed.getTotalCowHealth())
+                        <= COW_HEALTH_TOLERANCE * Math.max(1, Math.abs(computed.getTotalCowHealth()));
+    }
+}
@@ -0,0 +1,100 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import edu.ucsb.cs156.happiercows.models.LeaderboardEntry;
+import edu.ucsb.cs156.happiercows.models.LeaderboardOrder;
+import lombok.Getter;
+
+/**
+ * The leaderboard of one commons, held by LeaderboardService.
+ *
+ * The entries are kept in one OrderStatisticTree per LeaderboardOrder, so a
+ * changed entry is moved, the rank of a user is found and the entry at a rank
+ * is read in O(log n).  The orders break ties by user id, so no two entries
+ * compare as equal.
+ */
+class CommonsLeaderboard {
+
+    @Getter
+    private final boolean showLeaderboard;
+
+    @Getter
+    private final long loadedAtMillis;
+
+    private final Map<Long, LeaderboardEntry> byUserId = new HashMap<>();
+    private final Map<LeaderboardOrder, OrderStatisticTree<LeaderboardEntry>> ranked = new EnumMap<>(LeaderboardOrder.class);
+
+    CommonsLeaderboard(boolean showLeaderboard, Iterable<LeaderboardEntry> entries, long loadedAtMillis) {
+        this.showLeaderboard = showLeaderboard;
+        this.loadedAtMillis = loadedAtMillis;
+        entries.forEach(entry -> byUserId.put(entry.getUserId(), entry));
+        for (LeaderboardOrder order : LeaderboardOrder.values()) {
+            ranked.put(order, new OrderStatisticTree<>(order.comparator()));
+        }
+        sortAll();
+    }
+
+    synchronized int size() {
+        return byUserId.size();
+    }
+
+    synchronized void put(LeaderboardEntry entry) {
+        remove(entry.getUserId());
+        byUserId.put(entry.getUserId(), entry);
+        ranked.values().forEach(tree -> tree.add(entry));
+    }
+
+    synchronized void remove(long userId) {
+        LeaderboardEntry entry = byUserId.remove(userId);
+        if (entry == null) {
+            return;
+        }
+        ranked.values().forEach(tree -> tree.remove(entry));
+    }
+
+    /**
+     * Applies a change to every entry, e.g. the profit of milking the cows.
+     */
+    synchronized void updateAll(UnaryOperator<LeaderboardEntry> update) {
+        byUserId.replaceAll((userId, entry) -> update.apply(entry));
+        sortAll();
+    }
+
+    synchronized List<LeaderboardEntry> top(LeaderboardOrder order, int k) {
+        return entries(ranked.get(order), 0, Math.min(k, byUserId.size()));
+    }
+
+    /**
+     * Returns the entry of a user with up to n entries on either side, or
+     * nothing if the user is not in the commons.
+     */
+    synchronized List<LeaderboardEntry> around(LeaderboardOrder order, long userId, int n) {
+        LeaderboardEntry entry = byUserId.get(userId);
+        if (entry == null) {
+            return List.of();
+        }
+        OrderStatisticTree<LeaderboardEntry> tree = ranked.get(order);
+        int index = tree.indexOf(entry);
+        int span = Math.max(n, 0);
+        return entries(tree, Math.max(index - span, 0), Math.min(index + span + 1, tree.size()));
+    }
+
+    private void sortAll() {
+        ranked.values().forEach(tree -> tree.resetTo(byUserId.values()));
+    }
+
+    // the entries from position from up to, but not including, position to, with their ranks
+    private static List<LeaderboardEntry> entries(OrderStatisticTree<LeaderboardEntry> tree, int from, int to) {
+        List<LeaderboardEntry> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            result.add(tree.get(i).toBuilder().rank(i + 1).build());
+        }
+        return result;
+    }
+}
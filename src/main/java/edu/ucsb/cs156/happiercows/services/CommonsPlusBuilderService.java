@@ -1,15 +1,17 @@
 package edu.ucsb.cs156.happiercows.services;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.CommonsAggregate;
 import edu.ucsb.cs156.happiercows.entities.CommonsPlus;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 
 @Service("CommonsPlusBuilderService")
@@ -18,26 +20,52 @@ public class CommonsPlusBuilderService {
     @Autowired
     CommonsRepository commonsRepository;
 
+    @Autowired
+    CommonsAggregateService commonsAggregateService;
+
     public CommonsPlus toCommonsPlus(Commons c) {
-        Optional<Integer> numCows = commonsRepository.getNumCows(c.getId());
-        Optional<Integer> numUsers = commonsRepository.getNumUsers(c.getId());
+        CommonsAggregate aggregate = commonsAggregateService.getAggregate(c.getId());
 
         return CommonsPlus.builder()
                 .commons(c)
-                .totalCows(numCows.orElse(0))
-                .totalUsers(numUsers.orElse(0))
+                .totalCows((int) aggregate.getTotalCows())
+                .totalUsers((int) aggregate.getTotalUsers())
                 .build();
     }
 
+    public CommonsPlus toCommonsPlus(CommonsWithTotals commonsWithTotals) {
+        return CommonsPlus.builder()
+                .commons(commonsWithTotals.getCommons())
+                .totalCows(commonsWithTotals.getTotalCows().intValue())
+                .totalUsers(commonsWithTotals.getTotalUsers().intValue())
+                .build();
+    }
 
-    public Iterable<CommonsPlus> convertToCommonsPlus(Iterable<Commons> iteOfCommons) {
-        List<Commons> commonsList = new ArrayList<Commons>();
-        iteOfCommons.forEach(commonsList::add);
+    /**
+     * Returns every commons with its totals, using a single query
+     * rather than two queries per commons.
+     */
+    public Iterable<CommonsPlus> getAllCommonsPlus() {
+        return toCommonsPlus(commonsRepository.findAllWithTotals());
+    }
 
-        List<CommonsPlus> commonsPlusList = commonsList.stream().map((c) -> toCommonsPlus(c)).collect(Collectors.toList());
+    /**
+     * Returns every commons whose game is in progress at the given time with
+     * its totals, using a single query.
+     */
+    public Iterable<CommonsPlus> getCommonsPlusInProgress(LocalDateTime now) {
+        return toCommonsPlus(commonsRepository.findInProgressWithTotals(now));
+    }
 
-        ArrayList<CommonsPlus> commonsPlusArrayList = new ArrayList<CommonsPlus>(commonsPlusList);
+    private List<CommonsPlus> toCommonsPlus(Iterable<CommonsWithTotals> allCommonsWithTotals) {
+        List<CommonsPlus> commonsPlusList = new ArrayList<CommonsPlus>();
+        for (CommonsWithTotals commonsWithTotals : allCommonsWithTotals) {
+            commonsPlusList.add(toCommonsPlus(commonsWithTotals));
+        }
+        return commonsPlusList;
+    }
 
-        return commonsPlusArrayList;
+    public Optional<CommonsPlus> getCommonsPlus(Long commonsId) {
+        return commonsRepository.findWithTotalsById(commonsId).map(this::toCommonsPlus);
     }
 }
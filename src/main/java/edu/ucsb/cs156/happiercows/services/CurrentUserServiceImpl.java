@@ -1,5 +1,6 @@
 package edu.ucsb.cs156.happiercows.services;
 
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
@@ -17,8 +18,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.interceptors.RoleUserInterceptor;
 import edu.ucsb.cs156.happiercows.models.CurrentUser;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 
@@ -33,15 +37,22 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   @Autowired
   GrantedAuthoritiesService grantedAuthoritiesService;
 
+  @Autowired
+  RoleUserInterceptor roleUserInterceptor;
+
   @Value("${app.admin.emails}")
   final private List<String> adminEmails = new ArrayList<String>();
 
+  private static final String RESOLVED_USER_ATTRIBUTE = CurrentUserServiceImpl.class.getName() + ".resolvedUser";
+
+  private static final ThreadLocal<ResolvedUser> resolvedUserOutsideRequest = new ThreadLocal<>();
+
   public CurrentUser getCurrentUser() {
     CurrentUser cu = CurrentUser.builder()
       .user(this.getUser())
       .roles(this.getRoles())
       .build();
-    log.info("getCurrentUser returns {}",cu);
+    log.debug("getCurrentUser returns {}",cu);
     return cu;
   }
 
@@ -58,15 +69,13 @@ public class CurrentUserServiceImpl extends CurrentUserService {
     String locale = oAuthUser.getAttribute("locale");
     String hostedDomain = oAuthUser.getAttribute("hd");
 
-    java.util.Map<java.lang.String,java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}",attrs);
-
     Optional<User> ou = userRepository.findByEmail(email);
     if (ou.isPresent()) {
       User u = ou.get();
       if (adminEmails.contains(email) && !u.isAdmin()) {
         u.setAdmin(true);
         userRepository.save(u);
+        roleUserInterceptor.invalidate(email);
       }
       return u;
     }
@@ -84,17 +93,79 @@ public class CurrentUserServiceImpl extends CurrentUserService {
         .admin(adminEmails.contains(email))
         .build();
     userRepository.save(u);
+    log.info("created user {} on first login, attrs={}", email, oAuthUser.getAttributes());
     return u;
   }
 
+  /**
+   * Returns the user of the current request, looking it up only the first time
+   * it is asked for.  Outside of a request, e.g. in a job, the user is kept
+   * per thread instead, for as long as the same authentication is in effect.
+   */
   public User getUser() {
     SecurityContext securityContext = SecurityContextHolder.getContext();
     Authentication authentication = securityContext.getAuthentication();
 
-    if (authentication instanceof OAuth2AuthenticationToken) {
-      return getOAuth2AuthenticatedUser(securityContext, authentication);
+    if (!(authentication instanceof OAuth2AuthenticationToken)) {
+      return null;
+    }
+
+    ResolvedUser resolved = getResolvedUser();
+    if (resolved != null && resolved.authentication == authentication) {
+      return resolved.user;
+    }
+
+    User user = getOAuth2AuthenticatedUser(securityContext, authentication);
+    setResolvedUser(new ResolvedUser(authentication, user));
+    return user;
+  }
+
+  // the authentication is compared by identity: RoleUserInterceptor replaces it
+  // on every request, and a job keeps the one of the request that started it
+  @AllArgsConstructor
+  private static class ResolvedUser {
+    final Authentication authentication;
+    final User user;
+  }
+
+  /**
+   * Forgets the user kept for this thread outside of a request.  Pooled
+   * threads run work for many users, so each job or task that may have
+   * looked up a user calls this when it finishes.
+   */
+  public static void clearUserOutsideRequest() {
+    resolvedUserOutsideRequest.remove();
+  }
+
+  /**
+   * Wraps a task so that the user it looks up is forgotten when it
+   * finishes.  Suitable as the TaskDecorator of an executor.
+   */
+  public static Runnable clearingUserOutsideRequest(Runnable task) {
+    return () -> {
+      try {
+        task.run();
+      } finally {
+        clearUserOutsideRequest();
+      }
+    };
+  }
+
+  private ResolvedUser getResolvedUser() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return resolvedUserOutsideRequest.get();
+    }
+    return (ResolvedUser) attributes.getAttribute(RESOLVED_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+  }
+
+  private void setResolvedUser(ResolvedUser resolved) {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      resolvedUserOutsideRequest.set(resolved);
+    } else {
+      attributes.setAttribute(RESOLVED_USER_ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
     }
-    return null;
   }
 
   public Collection<? extends GrantedAuthority> getRoles() {
@@ -0,0 +1,161 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
+import edu.ucsb.cs156.happiercows.models.LeaderboardEntry;
+import edu.ucsb.cs156.happiercows.models.LeaderboardOrder;
+import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
+
+/**
+ * Keeps the leaderboard of each commons in memory, so that it can be read
+ * without going to the database.
+ *
+ * A leaderboard is loaded from user_commons the first time it is read.  After
+ * that, code that changes user_commons passes the changed rows to this class,
+ * and they are moved to their new positions once the transaction commits.
+ * Changes that are not passed row by row, such as editing the commons, drop
+ * the leaderboard so that it is loaded again on the next read.
+ *
+ * Only the instance that makes a change sees it this way; a scheduled job,
+ * for one, runs on a single instance.  So a leaderboard is also loaded again
+ * once it is older than app.leaderboard.maxAgeSeconds, which bounds how long
+ * the other instances show it out of date.
+ */
+@Service("LeaderboardService")
+public class LeaderboardService {
+
+    @Autowired
+    CommonsRepository commonsRepository;
+
+    @Autowired
+    UserCommonsRepository userCommonsRepository;
+
+    @Value("${app.leaderboard.maxAgeSeconds:60}")
+    long maxAgeSeconds;
+
+    Clock clock = Clock.systemUTC();
+
+    private final Map<Long, CommonsLeaderboard> leaderboards = new ConcurrentHashMap<>();
+
+    // number of changes applied to each commons, whether or not its leaderboard was loaded
+    private final Map<Long, Long> changeCounts = new ConcurrentHashMap<>();
+
+    public List<LeaderboardEntry> top(long commonsId, LeaderboardOrder order, int k) {
+        return leaderboard(commonsId).top(order, k);
+    }
+
+    public List<LeaderboardEntry> around(long commonsId, LeaderboardOrder order, long userId, int n) {
+        return leaderboard(commonsId).around(order, userId, n);
+    }
+
+    public boolean isShown(long commonsId) {
+        return leaderboard(commonsId).isShowLeaderboard();
+    }
+
+    public void userCommonsChanged(UserCommons userCommons) {
+        userCommonsChanged(List.of(userCommons));
+    }
+
+    /**
+     * Records rows that were added or changed.  The rows are copied now, so
+     * later changes to the entities are not seen.
+     */
+    public void userCommonsChanged(Iterable<UserCommons> userCommons) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        userCommons.forEach(uc -> entries.add(LeaderboardEntry.of(uc)));
+        afterCommit(() -> entries.forEach(entry ->
+                applyChange(entry.getCommonsId(), leaderboard -> leaderboard.put(entry))));
+    }
+
+    public void userCommonsRemoved(long commonsId, long userId) {
+        afterCommit(() -> applyChange(commonsId, leaderboard -> leaderboard.remove(userId)));
+    }
+
+    /**
+     * Adds the profit of milking the cows to every user in a commons; used when
+     * the profits were added in bulk by UserCommonsRepository.addMilkingProfitsForCommons,
+     * and computed the same way.
+     */
+    public void cowsMilked(long commonsId, double milkPrice) {
+        afterCommit(() -> applyChange(commonsId, leaderboard -> leaderboard.updateAll(entry -> entry.toBuilder()
+                .totalWealth(entry.getTotalWealth() + entry.getNumOfCows() * (entry.getCowHealth() / 100.0) * milkPrice)
+                .build())));
+    }
+
+    /**
+     * Drops the leaderboard of a commons, so that it is loaded again when next read.
+     */
+    public void commonsChanged(long commonsId) {
+        afterCommit(() -> leaderboards.compute(commonsId, (id, leaderboard) -> {
+            changeCounts.merge(id, 1L, Long::sum);
+            return null;
+        }));
+    }
+
+    // Counted under the map's lock for the commons, so that a leaderboard that
+    // is being loaded can tell whether a change committed while it was read.
+    private void applyChange(long commonsId, Consumer<CommonsLeaderboard> change) {
+        leaderboards.compute(commonsId, (id, leaderboard) -> {
+            changeCounts.merge(id, 1L, Long::sum);
+            if (leaderboard != null) {
+                change.accept(leaderboard);
+            }
+            return leaderboard;
+        });
+    }
+
+    // The rows are read outside the map, so that loading one commons does not
+    // block changes to the others.  A leaderboard loaded while a change
+    // committed may be missing that change, so it is used for this read only,
+    // and the next read loads it again.
+    private CommonsLeaderboard leaderboard(long commonsId) {
+        long now = clock.millis();
+        CommonsLeaderboard cached = leaderboards.get(commonsId);
+        if (cached != null && now - cached.getLoadedAtMillis() < maxAgeSeconds * 1000) {
+            return cached;
+        }
+
+        long changesBefore = changeCounts.getOrDefault(commonsId, 0L);
+        Commons commons = commonsRepository.findById(commonsId)
+                .orElseThrow(() -> new EntityNotFoundException(Commons.class, commonsId));
+        CommonsLeaderboard loaded = new CommonsLeaderboard(commons.isShowLeaderboard(),
+                userCommonsRepository.findLeaderboardEntriesByCommonsId(commonsId), now);
+
+        CommonsLeaderboard current = leaderboards.compute(commonsId, (id, leaderboard) -> {
+            // kept if another read loaded it meanwhile, replaced if it is the one that expired
+            if (leaderboard != null && leaderboard != cached) {
+                return leaderboard;
+            }
+            return changeCounts.getOrDefault(id, 0L) == changesBefore ? loaded : null;
+        });
+        return current == null ? loaded : current;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+
+/**
+ * Counts the changes to the members of each commons, so that lists derived
+ * from the members can be given an ETag without reading them.
+ *
+ * The count is the membership_version column of the commons, so every
+ * instance of the app hands out the same ETag, and it survives a restart.
+ * It is incremented in the transaction that changes the members, so it
+ * changes exactly when the new members become visible to other requests.
+ */
+@Service("MembershipVersionService")
+public class MembershipVersionService {
+
+    // the members of a deleted commons never match those of a live one
+    private static final String DELETED_ETAG = "\"deleted\"";
+
+    @Autowired
+    CommonsRepository commonsRepository;
+
+    /**
+     * Returns the ETag of the current members of a commons.  Read it before
+     * reading the members, so that a change that commits in between gives
+     * the next request a different ETag.
+     */
+    public String etag(long commonsId) {
+        return commonsRepository.findMembershipVersionById(commonsId)
+                .map(version -> String.format("\"%d\"", version))
+                .orElse(DELETED_ETAG);
+    }
+
+    /**
+     * Records that a user joined or left a commons, or that it was deleted.
+     * Call it in the transaction that makes the change, so that the version
+     * is rolled back with the change.
+     */
+    public void membershipChanged(long commonsId) {
+        commonsRepository.incrementMembershipVersion(commonsId);
+    }
+}
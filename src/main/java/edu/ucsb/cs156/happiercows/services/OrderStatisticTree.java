@@ -0,0 +1,209 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A sorted collection that also finds the position of an element, and the
+ * element at a position, in O(log n).  It is an AVL tree whose nodes record
+ * the size of their subtree.
+ *
+ * The comparator must not find two different elements equal, and an element
+ * must not change while it is in the tree.  Not thread safe.
+ */
+class OrderStatisticTree<E> {
+
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+
+    OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Replaces the contents of the tree, building it balanced from the sorted
+     * elements instead of adding them one by one.
+     */
+    void resetTo(Collection<? extends E> elements) {
+        List<E> sorted = new ArrayList<>(elements);
+        sorted.sort(comparator);
+        root = build(sorted, 0, sorted.size());
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    void add(E element) {
+        root = add(root, element);
+    }
+
+    void remove(E element) {
+        root = remove(root, element);
+    }
+
+    /**
+     * Returns the number of elements that come before element, which is its
+     * position, starting at 0, if it is in the tree.
+     */
+    int indexOf(E element) {
+        int index = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int c = comparator.compare(element, node.value);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the element at a position, starting at 0.
+     *
+     * @throws IndexOutOfBoundsException if there is no such position
+     */
+    E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    private Node<E> build(List<E> sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node<E> node = new Node<>(sorted.get(middle));
+        node.left = build(sorted, from, middle);
+        node.right = build(sorted, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private Node<E> add(Node<E> node, E element) {
+        if (node == null) {
+            return new Node<>(element);
+        }
+        if (comparator.compare(element, node.value) < 0) {
+            node.left = add(node.left, element);
+        } else {
+            node.right = add(node.right, element);
+        }
+        return balance(node);
+    }
+
+    private Node<E> remove(Node<E> node, E element) {
+        if (node == null) {
+            return null;
+        }
+        int c = comparator.compare(element, node.value);
+        if (c < 0) {
+            node.left = remove(node.left, element);
+        } else if (c > 0) {
+            node.right = remove(node.right, element);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else {
+            // the next element takes the place of the removed one
+            Node<E> next = node.right;
+            while (next.left != null) {
+                next = next.left;
+            }
+            next.right = removeFirst(node.right);
+            next.left = node.left;
+            node = next;
+        }
+        return balance(node);
+    }
+
+    private Node<E> removeFirst(Node<E> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        return balance(node);
+    }
+
+    private Node<E> balance(Node<E> node) {
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static class Node<E> {
+        private final E value;
+        private Node<E> left;
+        private Node<E> right;
+        private int height = 1;
+        private int size = 1;
+
+        private Node(E value) {
+            this.value = value;
+        }
+    }
+}
@@ -1,16 +1,17 @@
 package edu.ucsb.cs156.happiercows.services;
 
+import java.time.LocalDateTime;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.Report;
-import edu.ucsb.cs156.happiercows.entities.ReportLine;
-import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.models.ReportTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportLineRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportRepository;
-import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 
 @Service("ReportService")
 public class ReportService {
@@ -24,22 +25,29 @@ public class ReportService {
     @Autowired
     CommonsRepository commonsRepository;
 
-    @Autowired
-    UserCommonsRepository userCommonsRepository;
-
+    /**
+     * Creates a report for a commons with the same few statements however many
+     * users it has: the header is saved, one INSERT ... SELECT copies every
+     * user commons into report_lines, and the totals in the header are then
+     * computed from the lines just written, so the two always agree.
+     */
+    @Transactional
     public Report createReport(Long commonsId) {
         Report report = createAndSaveReportHeader(commonsId);
-        
-        Iterable<UserCommons> allUserCommons = userCommonsRepository.findByCommonsId(commonsId);
 
+        reportLineRepository.insertReportLinesForCommons(report.getId(), commonsId, LocalDateTime.now());
+        ReportTotals totals = reportLineRepository.findTotalsByReportId(report.getId());
+        report.setNumUsers(totals.getNumUsers().intValue());
+        report.setNumCows(totals.getNumCows().intValue());
 
-        for (UserCommons userCommons : allUserCommons) {
-               createAndSaveReportLine(report, userCommons);
-        }
-
+        reportRepository.save(report);
         return report;
     }
 
+    /**
+     * Saves the header of a report; numUsers and numCows are filled in by
+     * createReport once the lines have been written.
+     */
     public Report createAndSaveReportHeader(Long commonsId) {
         Commons commons = commonsRepository.findById(commonsId)
                 .orElseThrow(() -> new RuntimeException(String.format("Commons with id %d not found", commonsId)));
@@ -57,8 +65,6 @@ public class ReportService {
                 .degradationRate(commons.getDegradationRate())
                 .belowCapacityHealthUpdateStrategy(commons.getBelowCapacityHealthUpdateStrategy())
                 .aboveCapacityHealthUpdateStrategy(commons.getAboveCapacityHealthUpdateStrategy())
-                .numUsers(commonsRepository.getNumUsers(commonsId).orElse(0))
-                .numCows(commonsRepository.getNumCows(commonsId).orElse(0))
 
                 .build();
 
@@ -66,21 +72,4 @@ public class ReportService {
         return report;
     }
 
-    public ReportLine createAndSaveReportLine(Report report, UserCommons userCommons) {
-        ReportLine reportLine = ReportLine.builder()
-                .reportId(report.getId())
-                .userId(userCommons.getUser().getId())
-                .username(userCommons.getUsername())
-                .totalWealth(userCommons.getTotalWealth())
-                .numOfCows(userCommons.getNumOfCows())
-                .avgCowHealth(userCommons.getCowHealth())
-                .cowsBought(userCommons.getCowsBought())
-                .cowsSold(userCommons.getCowsSold())
-                .cowDeaths(userCommons.getCowDeaths())
-                .build();
-
-        reportLineRepository.save(reportLine);
-        return reportLine;
-    }
-
 }
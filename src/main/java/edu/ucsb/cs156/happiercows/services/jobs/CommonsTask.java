@@ -0,0 +1,6 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+@FunctionalInterface
+public interface CommonsTask<T> {
+  void accept(T commons, JobContext ctx) throws Exception;
+}
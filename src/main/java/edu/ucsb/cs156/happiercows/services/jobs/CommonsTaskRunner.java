@@ -0,0 +1,98 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs a job's work for each commons as a separate task on the commons task
+ * executor, so that a job over many commons takes about as long as its slowest
+ * commons rather than the sum of all of them.
+ *
+ * Each task runs in its own transaction and logs to its own {@link JobContext}.
+ * Once a task and every task before it have finished, its lines are added to
+ * the parent job's log, so the log reads in commons order just as it did when
+ * the commons were processed one after another, and the commons is counted as
+ * a completed unit of the job's progress, with the time the task took and the
+ * rows it read and wrote recorded under commonsId. If any task fails, the other
+ * tasks still run, and the first failure is rethrown after all have finished.
+ */
+@Service
+public class CommonsTaskRunner {
+  private final Executor executor;
+  private final TransactionTemplate transactionTemplate;
+
+  @Autowired
+  public CommonsTaskRunner(@Qualifier("commonsTaskExecutor") Executor executor,
+      PlatformTransactionManager transactionManager) {
+    this(executor, new TransactionTemplate(transactionManager));
+  }
+
+  public CommonsTaskRunner(Executor executor, TransactionTemplate transactionTemplate) {
+    this.executor = executor;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  public <T> void runForEach(JobContext ctx, Iterable<T> allCommons, ToLongFunction<T> commonsId, CommonsTask<T> task) throws Exception {
+    List<Long> commonsIds = new ArrayList<>();
+    List<JobContext> taskContexts = new ArrayList<>();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+    for (T commons : allCommons) {
+      JobContext taskContext = ctx.createTaskContext();
+      commonsIds.add(commonsId.applyAsLong(commons));
+      taskContexts.add(taskContext);
+      futures.add(CompletableFuture.runAsync(() -> runInTransaction(commons, taskContext, task), executor));
+    }
+
+    ctx.addTotal(futures.size());
+
+    Throwable failure = null;
+    for (int i = 0; i < futures.size(); i++) {
+      JobContext taskContext = taskContexts.get(i);
+      try {
+        futures.get(i).join();
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        taskContext.log("Error: " + cause.getMessage());
+        if (failure == null) {
+          failure = cause;
+        }
+      }
+      ctx.completeTask(commonsIds.get(i), taskContext);
+    }
+
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw (Exception) failure;
+    }
+  }
+
+  private <T> void runInTransaction(T commons, JobContext taskContext, CommonsTask<T> task) {
+    long startNanos = System.nanoTime();
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        try {
+          task.accept(commons, taskContext);
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new CompletionException(e);
+        }
+      });
+    } finally {
+      taskContext.setTaskDurationMs((System.nanoTime() - startNanos) / 1_000_000);
+    }
+  }
+}
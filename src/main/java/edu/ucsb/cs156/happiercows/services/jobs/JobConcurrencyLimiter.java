@@ -0,0 +1,68 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.models.JobSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits how many jobs of the same type run at once when each job gets its
+ * own thread (app.jobs.executor=per-job). Jobs that are waiting for a permit
+ * are kept in arrival order so that their queue position can be reported.
+ */
+@Service
+public class JobConcurrencyLimiter {
+  @Value("${app.jobs.maxConcurrentPerType:1}")
+  private int maxConcurrentPerType;
+
+  private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+  private final Map<String, Queue<Long>> waitingJobs = new ConcurrentHashMap<>();
+
+  public void acquire(String jobType, long jobId) {
+    Queue<Long> waiting = waitingJobs.computeIfAbsent(jobType, type -> new ConcurrentLinkedQueue<>());
+    waiting.add(jobId);
+    try {
+      permitsFor(jobType).acquireUninterruptibly();
+    } finally {
+      waiting.remove(jobId);
+    }
+  }
+
+  public void release(String jobType) {
+    permitsFor(jobType).release();
+  }
+
+  /**
+   * @return the 1-based position of the job among the waiting jobs of its type,
+   *         or null if the job is not waiting
+   */
+  public Integer queuePosition(long jobId) {
+    for (Queue<Long> waiting : waitingJobs.values()) {
+      int position = 1;
+      for (Long waitingJobId : waiting) {
+        if (waitingJobId == jobId) {
+          return position;
+        }
+        position++;
+      }
+    }
+    return null;
+  }
+
+  public void attachQueuePositions(Iterable<JobSummary> jobs) {
+    jobs.forEach(job -> {
+      if ("queued".equals(job.getStatus())) {
+        job.setQueuePosition(queuePosition(job.getId()));
+      }
+    });
+  }
+
+  private Semaphore permitsFor(String jobType) {
+    return permits.computeIfAbsent(jobType, type -> new Semaphore(maxConcurrentPerType, true));
+  }
+}
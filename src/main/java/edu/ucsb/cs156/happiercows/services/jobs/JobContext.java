@@ -1,22 +1,138 @@
 package edu.ucsb.cs156.happiercows.services.jobs;
 
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
-import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
-import lombok.AllArgsConstructor;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.models.JobProgress;
 import lombok.extern.slf4j.Slf4j;
 
-@AllArgsConstructor
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 public class JobContext {
-  private JobsRepository jobsRepository;
+  private JobLogSink logSink;
+  private JobEventStream events;
   private Job job;
 
+  // shared with the task contexts, which add their rows to it
+  private JobProgressTracker progress;
+
+  // lines of a task context, held until they are appended to the parent job
+  private List<String> taskLines;
+
+  // what a task context has done, recorded for its commons once it has finished
+  private long taskRowsRead;
+  private long taskRowsWritten;
+  private long taskDurationMs;
+
+  public JobContext(JobLogSink logSink, Job job) {
+    this(logSink, null, job);
+  }
+
+  public JobContext(JobLogSink logSink, JobEventStream events, Job job) {
+    this(logSink, events, new JobProgressTracker(), job);
+  }
+
+  public JobContext(JobLogSink logSink, JobEventStream events, JobProgressTracker progress, Job job) {
+    this.logSink = logSink;
+    this.events = events;
+    this.progress = progress;
+    this.job = job;
+  }
+
   public void log(String message) {
     log.info("Job %s: %s".formatted(job.getId(), message));
-    String previousLog = job.getLog() == null ? "" : (job.getLog() + "\n");
-    job.setLog(previousLog + message);
-    if (jobsRepository != null) {
-      jobsRepository.save(job);
+    if (taskLines != null) {
+      taskLines.add(message);
+      return;
+    }
+    if (logSink != null) {
+      int lineNumber = logSink.append(message);
+      if (events != null) {
+        events.line(lineNumber, message);
+      }
+    }
+  }
+
+  /**
+   * Returns a context for a task that does part of this job on another thread.
+   * Its lines are not added to the job until {@link #appendTaskLog} is called.
+   */
+  public JobContext createTaskContext() {
+    JobContext taskContext = new JobContext(null, null, progress, job);
+    taskContext.taskLines = new ArrayList<>();
+    return taskContext;
+  }
+
+  public void appendTaskLog(JobContext taskContext) {
+    taskContext.taskLines.forEach(this::log);
+    taskContext.taskLines.clear();
+  }
+
+  /**
+   * Appends the log of a finished task for one commons, records how long it
+   * took and the rows it read and wrote, and counts the commons as done.
+   */
+  public void completeTask(long commonsId, JobContext taskContext) {
+    appendTaskLog(taskContext);
+    progress.addCommonsStats(JobCommonsStats.builder()
+        .jobId(job.getId())
+        .commonsId(commonsId)
+        .durationMs(taskContext.taskDurationMs)
+        .rowsRead(taskContext.taskRowsRead)
+        .rowsWritten(taskContext.taskRowsWritten)
+        .build());
+    completeUnit();
+  }
+
+  void setTaskDurationMs(long durationMs) {
+    taskDurationMs = durationMs;
+  }
+
+  /**
+   * Names what the job is doing now, e.g. "rolling up stats", for jobs that
+   * do their work in several steps.
+   */
+  public void setPhase(String phase) {
+    progress.setPhase(phase);
+    publishProgress();
+  }
+
+  /**
+   * Adds units of work that the job is going to do, such as the commons it
+   * is going to process.
+   */
+  public void addTotal(int units) {
+    progress.addTotal(units);
+    publishProgress();
+  }
+
+  public void completeUnit() {
+    progress.completeUnit();
+    publishProgress();
+  }
+
+  /**
+   * Counts rows the job has read. Unlike units, rows are not sent to the
+   * job's subscribers one by one, only with the next unit.
+   */
+  public void addRowsRead(long rows) {
+    progress.addRowsRead(rows);
+    taskRowsRead += rows;
+  }
+
+  public void addRowsWritten(long rows) {
+    progress.addRowsWritten(rows);
+    taskRowsWritten += rows;
+  }
+
+  public JobProgress getProgress() {
+    return progress.snapshot(System.nanoTime());
+  }
+
+  private void publishProgress() {
+    if (events != null) {
+      events.progress(getProgress());
     }
   }
 }
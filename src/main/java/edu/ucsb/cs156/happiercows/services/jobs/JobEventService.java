@@ -0,0 +1,110 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps a {@link JobEventStream} for each job that has been launched on this
+ * instance and has not finished yet, and subscribes clients to them.
+ *
+ * A client that asks for a job without a stream here, because the job has
+ * finished or ran on another instance, is sent the stored log and the job's
+ * status at once, and the response ends.
+ */
+@Service
+public class JobEventService {
+  // lines read back per query when a subscriber catches up
+  static final int REPLAY_PAGE_SIZE = 1000;
+
+  @Autowired
+  JobsRepository jobsRepository;
+
+  @Autowired
+  JobLogService jobLogService;
+
+  // sends the queued events of each subscriber, off the threads of the jobs
+  @Autowired
+  @Qualifier("eventsTaskExecutor")
+  Executor eventsExecutor;
+
+  @Value("${app.jobs.events.timeoutMs:1800000}")
+  long timeoutMs;
+
+  private final Map<Long, JobEventStream> streams = new ConcurrentHashMap<>();
+
+  /**
+   * Opens the stream of a job as soon as it is launched, so that clients can
+   * subscribe while it waits for a thread.
+   */
+  public JobEventStream open(Job job) {
+    return streams.computeIfAbsent(job.getId(), jobId -> new JobEventStream(jobId, eventsExecutor));
+  }
+
+  /**
+   * Connects the stream of a job that is starting to run to its log sink.
+   */
+  public JobEventStream attach(Job job, JobLogSink logSink) {
+    JobEventStream stream = open(job);
+    stream.attach(logSink);
+    return stream;
+  }
+
+  /**
+   * Sends the final status to every subscriber and ends the stream. The
+   * status has to be saved first, so that a client that arrives later reads
+   * it from the database.
+   */
+  public void close(JobEventStream stream, String status) {
+    stream.finish(status);
+    streams.remove(stream.getJobId(), stream);
+  }
+
+  public SseEmitter subscribe(long jobId, int fromLine) {
+    return subscribe(jobId, fromLine, new SseEmitter(timeoutMs));
+  }
+
+  SseEmitter subscribe(long jobId, int fromLine, SseEmitter emitter) {
+    JobEventStream stream = streams.get(jobId);
+    if (stream != null && stream.subscribe(emitter, fromLine, (e, from, to) -> replay(e, jobId, from, to))) {
+      return emitter;
+    }
+
+    // read after the stream has finished, so the status is the final one
+    Job job = jobsRepository.findById(jobId)
+        .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    try {
+      replay(emitter, jobId, fromLine, Integer.MAX_VALUE);
+      emitter.send(JobEventStream.statusEvent(job.getStatus()));
+      emitter.complete();
+    } catch (IOException e) {
+      // the client has gone away
+    }
+    return emitter;
+  }
+
+  private void replay(SseEmitter emitter, long jobId, int fromLine, int toLine) throws IOException {
+    int lineNumber = fromLine;
+    while (lineNumber < toLine) {
+      int pageSize = Math.min(REPLAY_PAGE_SIZE, toLine - lineNumber);
+      List<String> lines = jobLogService.readMessages(jobId, lineNumber, pageSize);
+      for (String message : lines) {
+        emitter.send(JobEventStream.logEvent(lineNumber++, message));
+      }
+      if (lines.size() < pageSize) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * The server-sent events of one job that runs on this instance. Log lines
+ * and progress are sent to every subscriber as the job produces them, and a
+ * status event ends the stream once the job has finished.
+ *
+ * The job only queues each event for its subscribers. Every subscriber has
+ * its own queue, which the events executor sends in order, so a slow client
+ * does not hold up the job or the other clients. A client that falls more
+ * than MAX_QUEUED_EVENTS behind is disconnected, and its EventSource
+ * reconnects from the last line it received.
+ *
+ * A subscriber that joins while the job runs is first sent the lines logged
+ * so far, read back from job_log_lines by the first task in its queue. Each
+ * log event carries its line number as its id, and a line that was read
+ * back is not sent again live.
+ */
+public class JobEventStream {
+  static final int MAX_QUEUED_EVENTS = 10000;
+
+  @Getter
+  private final long jobId;
+
+  private final Executor executor;
+  private final List<Subscriber> subscribers = new ArrayList<>();
+  private JobLogSink logSink;
+  private boolean finished;
+
+  public JobEventStream(long jobId, Executor executor) {
+    this.jobId = jobId;
+    this.executor = executor;
+  }
+
+  @FunctionalInterface
+  interface LineReplay {
+    void send(SseEmitter emitter, int fromLine, int toLine) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface SubscriberTask {
+    void send(Subscriber subscriber) throws IOException;
+  }
+
+  synchronized void attach(JobLogSink logSink) {
+    this.logSink = logSink;
+  }
+
+  /**
+   * Adds a subscriber that wants the log from line fromLine on. The lines
+   * logged before it joined are sent with replay, on the executor, before
+   * any of the live events.
+   *
+   * @return false if the job has already finished
+   */
+  synchronized boolean subscribe(SseEmitter emitter, int fromLine, LineReplay replay) {
+    if (finished) {
+      return false;
+    }
+
+    Subscriber subscriber = new Subscriber(emitter, fromLine);
+    subscribers.add(subscriber);
+    emitter.onCompletion(() -> remove(subscriber));
+    emitter.onTimeout(() -> remove(subscriber));
+    emitter.onError(e -> remove(subscriber));
+
+    JobLogSink sink = logSink;
+    subscriber.enqueue(s -> {
+      if (sink == null) {
+        return;
+      }
+      // every line before toLine can be read back once the sink has been flushed
+      int toLine = Math.max(fromLine, sink.flushAndGetNextLineNumber());
+      replay.send(s.emitter, fromLine, toLine);
+      s.nextLine = Math.max(s.nextLine, toLine);
+    });
+    return true;
+  }
+
+  public synchronized void line(int lineNumber, String message) {
+    for (Subscriber subscriber : List.copyOf(subscribers)) {
+      subscriber.enqueue(s -> {
+        if (lineNumber < s.nextLine) {
+          return;
+        }
+        s.nextLine = lineNumber + 1;
+        s.emitter.send(logEvent(lineNumber, message));
+      });
+    }
+  }
+
+  public synchronized void progress(JobProgress progress) {
+    for (Subscriber subscriber : List.copyOf(subscribers)) {
+      subscriber.enqueue(s -> s.emitter.send(progressEvent(progress)));
+    }
+  }
+
+  synchronized void finish(String status) {
+    finished = true;
+    List<Subscriber> remaining = List.copyOf(subscribers);
+    subscribers.clear();
+    for (Subscriber subscriber : remaining) {
+      subscriber.enqueue(s -> {
+        s.emitter.send(statusEvent(status));
+        s.emitter.complete();
+      });
+    }
+  }
+
+  synchronized int getNumSubscribers() {
+    return subscribers.size();
+  }
+
+  private synchronized void remove(Subscriber subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  // a message with newlines is sent as several data fields, which the client joins again
+  static SseEventBuilder logEvent(int lineNumber, String message) {
+    SseEventBuilder event = SseEmitter.event()
+        .id(Integer.toString(lineNumber))
+        .name("log");
+    for (String part : String.valueOf(message).split("\n", -1)) {
+      event.data(part);
+    }
+    return event;
+  }
+
+  static SseEventBuilder progressEvent(JobProgress progress) {
+    return SseEmitter.event().name("progress").data(progress, MediaType.APPLICATION_JSON);
+  }
+
+  static SseEventBuilder statusEvent(String status) {
+    return SseEmitter.event().name("status").data(status);
+  }
+
+  private class Subscriber {
+    private final SseEmitter emitter;
+
+    // only used by the task that is sending to this subscriber
+    private int nextLine;
+
+    // guarded by this subscriber
+    private final Deque<SubscriberTask> queued = new ArrayDeque<>();
+    private boolean sending;
+
+    private Subscriber(SseEmitter emitter, int nextLine) {
+      this.emitter = emitter;
+      this.nextLine = nextLine;
+    }
+
+    private void enqueue(SubscriberTask task) {
+      synchronized (this) {
+        if (queued.size() >= MAX_QUEUED_EVENTS) {
+          goAway();
+          emitter.complete();
+          return;
+        }
+        queued.add(task);
+        if (sending) {
+          return;
+        }
+        sending = true;
+      }
+      executor.execute(this::sendQueued);
+    }
+
+    private void sendQueued() {
+      while (true) {
+        SubscriberTask task;
+        synchronized (this) {
+          task = queued.poll();
+          if (task == null) {
+            sending = false;
+            return;
+          }
+        }
+        try {
+          task.send(this);
+        } catch (Exception e) {
+          // the client has gone away; the container completes the emitter
+          goAway();
+          return;
+        }
+      }
+    }
+
+    private void goAway() {
+      synchronized (this) {
+        queued.clear();
+        sending = false;
+      }
+      remove(this);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leases in the job_locks table, so that a scheduled job that fires on every
+ * instance of the app only runs on one of them. A lease is taken with a single
+ * insert or conditional update, renewed on a timer while this instance holds
+ * it, and expires on its own if the instance goes away. On release it is kept
+ * until at least minHoldSeconds after it was taken, so that an instance whose
+ * cron fires a little later does not run the same tick again.
+ */
+@Service
+@Slf4j
+public class JobLockService {
+  @Autowired
+  JobLockRepository jobLockRepository;
+
+  @Value("${app.jobs.lock.leaseSeconds:120}")
+  long leaseSeconds;
+
+  @Value("${app.jobs.lock.minHoldSeconds:60}")
+  long minHoldSeconds;
+
+  // identifies this instance of the app in job_locks.owner
+  final String owner = UUID.randomUUID().toString();
+
+  // names of the leases held by this instance, and when each was taken
+  private final Map<String, ZonedDateTime> heldLocks = new ConcurrentHashMap<>();
+
+  /**
+   * @return true if this instance now holds the lease, false if another
+   *         instance holds it
+   */
+  public boolean tryAcquire(String name) {
+    ZonedDateTime now = ZonedDateTime.now();
+    ZonedDateTime until = now.plusSeconds(leaseSeconds);
+    boolean acquired = jobLockRepository.takeExpiredLock(name, owner, now, until) == 1
+        || (!jobLockRepository.existsById(name) && insertLock(name, now, until));
+    if (acquired) {
+      heldLocks.put(name, now);
+    }
+    return acquired;
+  }
+
+  public void release(String name) {
+    ZonedDateTime lockedAt = heldLocks.remove(name);
+    if (lockedAt == null) {
+      return;
+    }
+    ZonedDateTime now = ZonedDateTime.now();
+    ZonedDateTime heldUntil = lockedAt.plusSeconds(minHoldSeconds);
+    jobLockRepository.setLockedUntil(name, owner, heldUntil.isAfter(now) ? heldUntil : now);
+  }
+
+  @Scheduled(fixedDelayString = "${app.jobs.lock.renewIntervalMs:30000}")
+  public void renewHeldLocks() {
+    for (String name : heldLocks.keySet()) {
+      if (jobLockRepository.setLockedUntil(name, owner, ZonedDateTime.now().plusSeconds(leaseSeconds)) == 0) {
+        log.warn("Lost the lease on {}; another instance may run it at the same time", name);
+        heldLocks.remove(name);
+      }
+    }
+  }
+
+  private boolean insertLock(String name, ZonedDateTime now, ZonedDateTime until) {
+    try {
+      return jobLockRepository.insertLock(name, owner, now, until) == 1;
+    } catch (DataIntegrityViolationException e) {
+      // another instance created the lock first
+      return false;
+    }
+  }
+}
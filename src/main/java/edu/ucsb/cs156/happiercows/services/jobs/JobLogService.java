@@ -0,0 +1,139 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobLogLine;
+import edu.ucsb.cs156.happiercows.models.JobLogLineCount;
+import edu.ucsb.cs156.happiercows.models.JobLogLines;
+import edu.ucsb.cs156.happiercows.models.JobSummary;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobLogLineRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out a {@link JobLogSink} to each running job, flushes all open sinks
+ * on a timer so that admins can follow a job while it runs, and reads the
+ * stored lines back for the jobs API and for {@link JobEventService}.
+ */
+@Service
+@Slf4j
+public class JobLogService {
+  @Autowired
+  private JobLogLineRepository jobLogLineRepository;
+
+  @Autowired
+  private JobsRepository jobsRepository;
+
+  @Value("${app.jobs.log.maxBufferedLines:100}")
+  private int maxBufferedLines;
+
+  private final Map<Long, JobLogSink> openSinks = new ConcurrentHashMap<>();
+
+  public JobLogSink open(Job job) {
+    JobLogSink sink = new JobLogSink(jobLogLineRepository, job.getId(), maxBufferedLines);
+    openSinks.put(job.getId(), sink);
+    return sink;
+  }
+
+  public void close(JobLogSink sink) {
+    sink.flush();
+    openSinks.remove(sink.getJobId(), sink);
+  }
+
+  @Scheduled(fixedDelayString = "${app.jobs.log.flushIntervalMs:1000}")
+  public void flushOpenSinks() {
+    for (JobLogSink sink : openSinks.values()) {
+      try {
+        sink.flush();
+      } catch (Exception e) {
+        log.error("Unable to flush log for job {}", sink.getJobId(), e);
+      }
+    }
+  }
+
+  /**
+   * Copies the logs of jobs that ran before lines were stored in
+   * job_log_lines from the old jobs.log column into job_log_lines, one job
+   * at a time, and clears the column.  A job whose lines were copied by a
+   * run that stopped before clearing its column is only cleared.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateLegacyLogs() {
+    List<Long> jobIds = jobsRepository.findIdsWithLegacyLog();
+    if (jobIds.isEmpty()) {
+      return;
+    }
+
+    Set<Long> alreadyCopied = new HashSet<>();
+    for (JobLogLineCount count : jobLogLineRepository.findLineCountsByJobIds(jobIds)) {
+      alreadyCopied.add(count.getJobId());
+    }
+    for (long jobId : jobIds) {
+      if (!alreadyCopied.contains(jobId)) {
+        JobLogSink sink = new JobLogSink(jobLogLineRepository, jobId, maxBufferedLines);
+        for (String line : jobsRepository.findLegacyLog(jobId).split("\n", -1)) {
+          sink.append(line);
+        }
+        sink.flush();
+      }
+      jobsRepository.clearLegacyLog(jobId);
+    }
+    log.info("Moved the logs of {} jobs into job_log_lines", jobIds.size());
+  }
+
+  /**
+   * Fills in the number of stored log lines of each job, counting the lines
+   * of all the jobs with a single query.
+   */
+  public void attachLineCounts(Iterable<JobSummary> jobs) {
+    Set<Long> jobIds = new HashSet<>();
+    jobs.forEach(job -> jobIds.add(job.getId()));
+    if (jobIds.isEmpty()) {
+      return;
+    }
+
+    Map<Long, Long> lineCounts = new HashMap<>();
+    for (JobLogLineCount count : jobLogLineRepository.findLineCountsByJobIds(jobIds)) {
+      lineCounts.put(count.getJobId(), count.getNumLines());
+    }
+    jobs.forEach(job -> job.setNumLogLines(lineCounts.getOrDefault(job.getId(), 0L)));
+  }
+
+  /**
+   * Reads at most maxLines stored lines of a job's log, starting at line fromLine.
+   * Lines that the job has logged but that are still buffered are not included.
+   */
+  public JobLogLines readLines(Job job, int fromLine, int maxLines) {
+    List<String> lines = readMessages(job.getId(), fromLine, maxLines);
+    return JobLogLines.builder()
+        .jobId(job.getId())
+        .status(job.getStatus())
+        .fromLine(fromLine)
+        .nextLine(fromLine + lines.size())
+        .lines(lines)
+        .build();
+  }
+
+  public List<String> readMessages(long jobId, int fromLine, int maxLines) {
+    List<String> lines = new ArrayList<>();
+    for (JobLogLine line : jobLogLineRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+        jobId, fromLine, PageRequest.of(0, maxLines))) {
+      lines.add(line.getMessage());
+    }
+    return lines;
+  }
+}
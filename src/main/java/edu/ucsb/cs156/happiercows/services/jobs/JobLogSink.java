@@ -0,0 +1,107 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobLogLine;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobLogLineRepository;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers the log lines of one running job and appends them to the
+ * job_log_lines table in batches. The buffer is written when it reaches
+ * maxBufferedLines, when {@link JobLogService} runs its periodic flush,
+ * and when the job finishes.
+ *
+ * A write takes the buffered lines and leaves an empty buffer behind, so
+ * the job can keep appending while the lines go to the database. Writes
+ * themselves run one at a time, in the order the lines were appended.
+ */
+public class JobLogSink {
+  private final JobLogLineRepository jobLogLineRepository;
+
+  @Getter
+  private final long jobId;
+
+  private final int maxBufferedLines;
+  private List<JobLogLine> buffer = new ArrayList<>();
+  private int nextLineNumber = 0;
+  private final Object writeLock = new Object();
+
+  public JobLogSink(JobLogLineRepository jobLogLineRepository, long jobId, int maxBufferedLines) {
+    this.jobLogLineRepository = jobLogLineRepository;
+    this.jobId = jobId;
+    this.maxBufferedLines = maxBufferedLines;
+  }
+
+  /**
+   * @return the number of the appended line, counting from 0
+   */
+  public int append(String message) {
+    int lineNumber;
+    synchronized (this) {
+      lineNumber = nextLineNumber++;
+      buffer.add(JobLogLine.builder()
+          .jobId(jobId)
+          .lineNumber(lineNumber)
+          .createdAt(ZonedDateTime.now())
+          .message(message)
+          .build());
+      if (buffer.size() < maxBufferedLines) {
+        return lineNumber;
+      }
+    }
+    flush();
+    return lineNumber;
+  }
+
+  /**
+   * Writes the buffered lines and returns the number of the next line, so
+   * that every line before it can be read back from job_log_lines.
+   */
+  public int flushAndGetNextLineNumber() {
+    synchronized (writeLock) {
+      int lineNumber;
+      List<JobLogLine> lines;
+      synchronized (this) {
+        lineNumber = nextLineNumber;
+        lines = takeBuffer();
+      }
+      write(lines);
+      return lineNumber;
+    }
+  }
+
+  public void flush() {
+    synchronized (writeLock) {
+      List<JobLogLine> lines;
+      synchronized (this) {
+        lines = takeBuffer();
+      }
+      write(lines);
+    }
+  }
+
+  private List<JobLogLine> takeBuffer() {
+    List<JobLogLine> lines = buffer;
+    buffer = new ArrayList<>();
+    return lines;
+  }
+
+  private void write(List<JobLogLine> lines) {
+    if (lines.isEmpty()) {
+      return;
+    }
+    try {
+      jobLogLineRepository.saveAll(lines);
+    } catch (RuntimeException e) {
+      // keep the lines, ahead of any appended since, for the next write
+      synchronized (this) {
+        lines.addAll(buffer);
+        buffer = lines;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records each finished job in Micrometer: its duration as the
+ * happycows.jobs.duration timer, and the rows it read and wrote as the
+ * happycows.jobs.rows summary. Both are tagged with the job's type and final
+ * status, so that a slow or failing type of job shows up in its own series.
+ */
+@Component
+public class JobMetrics {
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  public void jobFinished(String jobType, String status, long durationMs, JobProgress progress) {
+    Timer.builder("happycows.jobs.duration")
+        .description("Time taken by finished jobs")
+        .tag("type", jobType)
+        .tag("status", status)
+        .register(meterRegistry)
+        .record(durationMs, TimeUnit.MILLISECONDS);
+    rows(jobType, status, "read").record(progress.getRowsRead());
+    rows(jobType, status, "written").record(progress.getRowsWritten());
+  }
+
+  private DistributionSummary rows(String jobType, String status, String direction) {
+    return DistributionSummary.builder("happycows.jobs.rows")
+        .description("Rows read or written by finished jobs")
+        .baseUnit("rows")
+        .tag("type", jobType)
+        .tag("status", status)
+        .tag("direction", direction)
+        .register(meterRegistry);
+  }
+}
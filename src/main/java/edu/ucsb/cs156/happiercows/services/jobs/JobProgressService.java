@@ -0,0 +1,101 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobStats;
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobCommonsStatsRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the job_stats row of each running job up to date. The progress of a
+ * job is counted in memory by its {@link JobProgressTracker} and saved on a
+ * timer, with one UPDATE per job whose progress has changed since it was last
+ * saved, rather than on every unit or row. When the job finishes, its times
+ * and totals are saved, and the stats of its commons are written in one batch.
+ */
+@Service
+@Slf4j
+public class JobProgressService {
+  @Autowired
+  JobStatsRepository jobStatsRepository;
+
+  @Autowired
+  JobCommonsStatsRepository jobCommonsStatsRepository;
+
+  private final Map<Long, RunningJob> runningJobs = new HashMap<>();
+
+  private static class RunningJob {
+    private final JobStats stats;
+    private final JobProgressTracker tracker;
+    private long savedVersion;
+
+    private RunningJob(JobStats stats, JobProgressTracker tracker) {
+      this.stats = stats;
+      this.tracker = tracker;
+    }
+  }
+
+  /**
+   * Records that a job of the given type has started.
+   *
+   * @return the tracker to count the job's progress with
+   */
+  public synchronized JobProgressTracker start(Job job, String jobType) {
+    JobProgressTracker tracker = new JobProgressTracker();
+    JobStats stats = JobStats.builder()
+        .jobId(job.getId())
+        .jobType(jobType)
+        .startedAt(ZonedDateTime.now())
+        .build();
+    jobStatsRepository.save(stats);
+    runningJobs.put(job.getId(), new RunningJob(stats, tracker));
+    return tracker;
+  }
+
+  @Scheduled(fixedDelayString = "${app.jobs.progress.saveIntervalMs:5000}")
+  public synchronized void saveProgress() {
+    runningJobs.forEach((jobId, runningJob) -> {
+      // read before the snapshot, so that a change made in between is saved next time
+      long version = runningJob.tracker.getVersion();
+      if (version == runningJob.savedVersion) {
+        return;
+      }
+      JobProgress progress = runningJob.tracker.snapshot(System.nanoTime());
+      try {
+        jobStatsRepository.updateProgress(jobId, progress.getPhase(), progress.getCompleted(), progress.getTotal(),
+            progress.getRowsRead(), progress.getRowsWritten());
+        runningJob.savedVersion = version;
+      } catch (Exception e) {
+        log.error("Unable to save progress of job {}", jobId, e);
+      }
+    });
+  }
+
+  /**
+   * Records that a job started with {@link #start} has finished.
+   */
+  public synchronized void finish(Job job) {
+    RunningJob runningJob = runningJobs.remove(job.getId());
+    JobProgressTracker tracker = runningJob.tracker;
+    long nowNanos = System.nanoTime();
+    JobProgress progress = tracker.snapshot(nowNanos);
+    JobStats stats = runningJob.stats;
+    stats.setFinishedAt(ZonedDateTime.now());
+    stats.setDurationMs(tracker.elapsedMs(nowNanos));
+    stats.setPhase(progress.getPhase());
+    stats.setCompletedUnits(progress.getCompleted());
+    stats.setTotalUnits(progress.getTotal());
+    stats.setRowsRead(progress.getRowsRead());
+    stats.setRowsWritten(progress.getRowsWritten());
+    jobStatsRepository.save(stats);
+    jobCommonsStatsRepository.saveAll(tracker.getCommonsStats());
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the units and rows done by a job, and keeps the stats of each
+ * commons it has finished. A job's context and the contexts of its commons
+ * tasks share one tracker, so rows may be added from several threads at once.
+ */
+public class JobProgressTracker {
+  private final long startNanos;
+  private volatile String phase;
+  private final AtomicInteger completed = new AtomicInteger();
+  private final AtomicInteger total = new AtomicInteger();
+  private final AtomicLong rowsRead = new AtomicLong();
+  private final AtomicLong rowsWritten = new AtomicLong();
+  private final List<JobCommonsStats> commonsStats = Collections.synchronizedList(new ArrayList<>());
+
+  // changes whenever the progress does, so that unchanged progress is not saved again
+  private final AtomicLong version = new AtomicLong();
+
+  public JobProgressTracker() {
+    this(System.nanoTime());
+  }
+
+  JobProgressTracker(long startNanos) {
+    this.startNanos = startNanos;
+  }
+
+  public void setPhase(String phase) {
+    this.phase = phase;
+    version.incrementAndGet();
+  }
+
+  public void addTotal(int units) {
+    total.addAndGet(units);
+    version.incrementAndGet();
+  }
+
+  public void completeUnit() {
+    completed.incrementAndGet();
+    version.incrementAndGet();
+  }
+
+  public void addRowsRead(long rows) {
+    rowsRead.addAndGet(rows);
+    version.incrementAndGet();
+  }
+
+  public void addRowsWritten(long rows) {
+    rowsWritten.addAndGet(rows);
+    version.incrementAndGet();
+  }
+
+  public void addCommonsStats(JobCommonsStats stats) {
+    commonsStats.add(stats);
+  }
+
+  public List<JobCommonsStats> getCommonsStats() {
+    synchronized (commonsStats) {
+      return new ArrayList<>(commonsStats);
+    }
+  }
+
+  public long getVersion() {
+    return version.get();
+  }
+
+  public long elapsedMs(long nowNanos) {
+    return (nowNanos - startNanos) / 1_000_000;
+  }
+
+  public JobProgress snapshot(long nowNanos) {
+    long written = rowsWritten.get();
+    double seconds = (nowNanos - startNanos) / 1e9;
+    return JobProgress.builder()
+        .phase(phase)
+        .completed(completed.get())
+        .total(total.get())
+        .rowsRead(rowsRead.get())
+        .rowsWritten(written)
+        .rowsPerSecond(seconds > 0 ? written / seconds : 0)
+        .build();
+  }
+}
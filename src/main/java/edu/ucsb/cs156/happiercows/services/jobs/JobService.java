@@ -1,50 +1,167 @@
 package edu.ucsb.cs156.happiercows.services.jobs;
 
+import edu.ucsb.cs156.happiercows.diagnostics.QueryStats;
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
 import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
 import edu.ucsb.cs156.happiercows.services.CurrentUserService;
+import edu.ucsb.cs156.happiercows.services.CurrentUserServiceImpl;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
+@Slf4j
 public class JobService {
   @Autowired
   private JobsRepository jobsRepository;
 
+  @Autowired
+  private JobLogService jobLogService;
+
+  @Autowired
+  private JobConcurrencyLimiter jobConcurrencyLimiter;
+
   @Autowired
   private CurrentUserService currentUserService;
 
+  @Autowired
+  private JobLockService jobLockService;
+
+  @Autowired
+  private JobEventService jobEventService;
+
+  @Autowired
+  private JobProgressService jobProgressService;
+
+  @Autowired
+  private JobMetrics jobMetrics;
+
   @Lazy
   @Autowired
   private JobService self;
 
+  // "pool" runs jobs on threadPoolTaskExecutor; "per-job" gives each job its
+  // own thread and limits concurrency per job type instead
+  @Value("${app.jobs.executor:pool}")
+  private String executorMode;
+
+  // in the diagnostics profile, each job logs the statements it ran
+  @Value("${app.diagnostics.enabled:false}")
+  private boolean diagnosticsEnabled;
+
   public Job runAsJob(JobContextConsumer jobFunction) {
+    Job job = createJob();
+    self.runJobAsync(job, jobFunction);
+    return job;
+  }
+
+  /**
+   * Runs a job fired by ScheduledJobs. Every instance of the app fires the
+   * same cron tick, so the job only starts on the instance that takes the
+   * lease for its type, which is held until the job finishes.
+   *
+   * @return the job, or null if another instance holds the lease
+   */
+  public Job runAsScheduledJob(JobContextConsumer jobFunction) {
+    String jobType = jobFunction.getClass().getSimpleName();
+    if (!jobLockService.tryAcquire(jobType)) {
+      return null;
+    }
+
+    Job job = createJob();
+    self.runLeasedJobAsync(job, jobFunction, jobType);
+    return job;
+  }
+
+  @Async
+  public void runLeasedJobAsync(Job job, JobContextConsumer jobFunction, String lockName) {
+    try {
+      runJobAsync(job, jobFunction);
+    } finally {
+      jobLockService.release(lockName);
+    }
+  }
+
+  @Async
+  public void runJobAsync(Job job, JobContextConsumer jobFunction) {
+    if (!isPerJobMode()) {
+      runJob(job, jobFunction);
+      return;
+    }
+
+    String jobType = jobFunction.getClass().getSimpleName();
+    jobConcurrencyLimiter.acquire(jobType, job.getId());
+    try {
+      job.setStatus("running");
+      jobsRepository.save(job);
+      runJob(job, jobFunction);
+    } finally {
+      jobConcurrencyLimiter.release(jobType);
+    }
+  }
+
+  private Job createJob() {
     Job job = Job.builder()
       .createdBy(currentUserService.getUser())
-      .status("running")
+      .status(isPerJobMode() ? "queued" : "running")
       .build();
 
     jobsRepository.save(job);
-    self.runJobAsync(job, jobFunction);
+    jobEventService.open(job);
     return job;
   }
 
-  @Async
-  public void runJobAsync(Job job, JobContextConsumer jobFunction) {
-    JobContext context = new JobContext(jobsRepository, job);
+  private void runJob(Job job, JobContextConsumer jobFunction) {
+    JobLogSink logSink = jobLogService.open(job);
+    JobEventStream events = jobEventService.attach(job, logSink);
+    String jobType = jobFunction.getClass().getSimpleName();
+    JobProgressTracker progress = jobProgressService.start(job, jobType);
+    JobContext context = new JobContext(logSink, events, progress, job);
+    QueryStats queryStats = QueryStats.begin();
 
     try {
       jobFunction.accept(context);
+      job.setStatus("complete");
     } catch (Exception e) {
       e.printStackTrace();
       job.setStatus("error");
       context.log(e.getMessage());
-      return;
+    } finally {
+      QueryStats.end();
+      // each step is guarded, so that one that fails, e.g. while the database
+      // is unavailable, does not leave the job running or its stream open
+      finishStep(job, "log its statements", () -> {
+        if (diagnosticsEnabled) {
+          context.log(String.format("Diagnostics: %d SQL statements, %d ms JDBC time",
+              queryStats.getCount(), queryStats.getElapsedMs()));
+        }
+      });
+      // write any buffered lines before the final status is visible
+      finishStep(job, "write its log", () -> jobLogService.close(logSink));
+      finishStep(job, "save its status", () -> jobsRepository.save(job));
+      finishStep(job, "close its events", () -> jobEventService.close(events, job.getStatus()));
+      finishStep(job, "finish its progress", () -> jobProgressService.finish(job));
+      finishStep(job, "record its metrics", () -> {
+        long nowNanos = System.nanoTime();
+        jobMetrics.jobFinished(jobType, job.getStatus(), progress.elapsedMs(nowNanos), progress.snapshot(nowNanos));
+      });
+      // the thread goes back to the pool, to run jobs for other users
+      CurrentUserServiceImpl.clearUserOutsideRequest();
+    }
+  }
+
+  private void finishStep(Job job, String step, Runnable action) {
+    try {
+      action.run();
+    } catch (Exception e) {
+      log.error("Job {}: unable to {}", job.getId(), step, e);
     }
+  }
 
-    job.setStatus("complete");
-    jobsRepository.save(job);
+  private boolean isPerJobMode() {
+    return "per-job".equals(executorMode);
   }
 }
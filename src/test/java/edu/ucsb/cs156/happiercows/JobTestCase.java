@@ -1,9 +1,14 @@
 package edu.ucsb.cs156.happiercows;
 
+import static org.mockito.Mockito.mock;
+
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
 import edu.ucsb.cs156.happiercows.testconfig.TestConfig;
 
@@ -13,4 +18,12 @@ public abstract class JobTestCase {
   @MockBean
   WiremockService mockWiremockService;
 
+  /**
+   * A CommonsTaskRunner that runs each commons on the calling thread,
+   * in a transaction managed by a mock transaction manager
+   */
+  protected CommonsTaskRunner inlineCommonsTaskRunner() {
+    return new CommonsTaskRunner(Runnable::run, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+  }
+
 }
@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.happiercows;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import edu.ucsb.cs156.happiercows.diagnostics.QueryStatsFilter;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+/**
+ * Base class for tests that bound the number of SQL statements an endpoint
+ * runs, against the real repositories, e.g.
+ *
+ *   mockMvc.perform(get("/api/commons/all")).andExpect(maxQueries(1));
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "app.diagnostics.enabled=true")
+public abstract class QueryCountTestCase {
+  @Autowired
+  public MockMvc mockMvc;
+
+  @MockBean
+  WiremockService mockWiremockService;
+
+  protected static ResultMatcher maxQueries(long max) {
+    return result -> {
+      String count = result.getResponse().getHeader(QueryStatsFilter.QUERY_COUNT_HEADER);
+      assertNotNull(count, "response has no " + QueryStatsFilter.QUERY_COUNT_HEADER + " header");
+      assertTrue(Long.parseLong(count) <= max,
+          "expected at most " + max + " SQL statements but " + count + " were run");
+    };
+  }
+}
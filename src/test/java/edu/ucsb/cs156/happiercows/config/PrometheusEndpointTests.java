@@ -0,0 +1,50 @@
+package edu.ucsb.cs156.happiercows.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class PrometheusEndpointTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @WithMockUser(roles = { "ADMIN" })
+    @Test
+    public void admin_can_scrape_request_pool_and_cache_metrics() throws Exception {
+        mockMvc.perform(get("/api/systemInfo")).andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"), "request timers with histograms");
+        assertTrue(metrics.contains("uri=\"/api/systemInfo\""), "request timers per endpoint");
+        assertTrue(metrics.contains("hikaricp_connections_active"), "connection pool gauges");
+        assertTrue(metrics.contains("cache_gets_total{cache=\"userRoles\""), "user role cache counters");
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void users_cannot_scrape_metrics() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void logged_out_users_cannot_scrape_metrics() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+}
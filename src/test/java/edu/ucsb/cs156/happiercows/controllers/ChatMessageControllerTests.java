@@ -2,11 +2,13 @@ package edu.ucsb.cs156.happiercows.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 
 import java.util.Arrays;
 import java.util.Optional;
@@ -22,9 +24,12 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +43,9 @@ import edu.ucsb.cs156.happiercows.entities.ChatMessage;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.models.ChatAuthor;
+import edu.ucsb.cs156.happiercows.services.ChatBroadcaster;
+import edu.ucsb.cs156.happiercows.services.MembershipVersionService;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -53,6 +61,12 @@ public class ChatMessageControllerTests extends ControllerTestCase {
     @MockBean
     UserCommonsRepository userCommonsRepository;
 
+    @MockBean
+    ChatBroadcaster chatBroadcaster;
+
+    @MockBean
+    MembershipVersionService membershipVersionService;
+
     @Autowired
     ObjectMapper mapper;
 
@@ -150,6 +164,308 @@ public class ChatMessageControllerTests extends ControllerTestCase {
 
     }
     
+    //* */ cursor tests
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void userInCommonsCanGetNewestChatMessages() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+        Long userId = 1L;
+
+        ChatMessage chatMessage1 = ChatMessage.builder().id(2L).commonsId(commonsId).userId(userId).build();
+        ChatMessage chatMessage2 = ChatMessage.builder().id(1L).commonsId(commonsId).userId(userId).build();
+        Slice<ChatMessage> sliceOfChatMessages = new SliceImpl<ChatMessage>(Arrays.asList(chatMessage1, chatMessage2), PageRequest.of(0, 10), false);
+
+        when(chatMessageRepository.findByCommonsIdBefore(commonsId, Long.MAX_VALUE, PageRequest.of(0, 10))).thenReturn(sliceOfChatMessages);
+
+        UserCommons userCommons = UserCommons.builder()
+                .commons(Commons.builder().build())
+                .build();
+        when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenReturn(Optional.of(userCommons));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/chat/messages?commonsId={commonsId}", commonsId))
+            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(chatMessageRepository, times(1)).findByCommonsIdBefore(commonsId, Long.MAX_VALUE, PageRequest.of(0, 10));
+        String responseString = response.getResponse().getContentAsString();
+        String expectedResponseString = mapper.writeValueAsString(sliceOfChatMessages);
+        assertEquals(expectedResponseString, responseString);
+    }
+
+    @WithMockUser(roles = {"ADMIN"})
+    @Test
+    public void adminCanGetChatMessagesBeforeAMessage() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+
+        ChatMessage chatMessage1 = ChatMessage.builder().id(4L).commonsId(commonsId).build();
+        ChatMessage chatMessage2 = ChatMessage.builder().id(3L).commonsId(commonsId).build();
+        Slice<ChatMessage> sliceOfChatMessages = new SliceImpl<ChatMessage>(Arrays.asList(chatMessage1, chatMessage2), PageRequest.of(0, 2), true);
+
+        when(chatMessageRepository.findByCommonsIdBefore(commonsId, 5L, PageRequest.of(0, 2))).thenReturn(sliceOfChatMessages);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/chat/messages?commonsId={commonsId}&before=5&size=2", commonsId))
+            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(chatMessageRepository, times(1)).findByCommonsIdBefore(commonsId, 5L, PageRequest.of(0, 2));
+        verify(userCommonsRepository, never()).findByCommonsIdAndUserId(anyLong(), anyLong());
+        String responseString = response.getResponse().getContentAsString();
+        String expectedResponseString = mapper.writeValueAsString(sliceOfChatMessages);
+        assertEquals(expectedResponseString, responseString);
+    }
+
+    @WithMockUser(roles = {"ADMIN"})
+    @Test
+    public void adminCanGetChatMessagesAfterAMessage() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+
+        ChatMessage chatMessage1 = ChatMessage.builder().id(6L).commonsId(commonsId).build();
+        Slice<ChatMessage> sliceOfChatMessages = new SliceImpl<ChatMessage>(Arrays.asList(chatMessage1), PageRequest.of(0, 10), false);
+
+        when(chatMessageRepository.findByCommonsIdAfter(commonsId, 5L, PageRequest.of(0, 10))).thenReturn(sliceOfChatMessages);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/chat/messages?commonsId={commonsId}&after=5", commonsId))
+            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(chatMessageRepository, times(1)).findByCommonsIdAfter(commonsId, 5L, PageRequest.of(0, 10));
+        verify(chatMessageRepository, never()).findByCommonsIdBefore(any(), anyLong(), any());
+        String responseString = response.getResponse().getContentAsString();
+        String expectedResponseString = mapper.writeValueAsString(sliceOfChatMessages);
+        assertEquals(expectedResponseString, responseString);
+    }
+
+    @WithMockUser(roles = {"ADMIN"})
+    @Test
+    public void cannotGetChatMessagesBothBeforeAndAfter() throws Exception {
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/chat/messages?commonsId=1&before=5&after=2"))
+            .andExpect(status().isBadRequest()).andReturn();
+
+        // assert
+        verify(chatMessageRepository, never()).findByCommonsIdBefore(any(), anyLong(), any());
+        verify(chatMessageRepository, never()).findByCommonsIdAfter(any(), anyLong(), any());
+        assertEquals("{\"message\":\"Specify at most one of before and after\"}", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = {"ADMIN"})
+    @Test
+    public void cannotGetChatMessagesWithSizeBelowOne() throws Exception {
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/chat/messages?commonsId=1&size=0"))
+            .andExpect(status().isBadRequest()).andReturn();
+
+        // assert
+        verify(chatMessageRepository, never()).findByCommonsIdBefore(any(), anyLong(), any());
+        verify(chatMessageRepository, never()).findByCommonsIdAfter(any(), anyLong(), any());
+        assertEquals("{\"message\":\"size must be at least 1\"}", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = {"ADMIN"})
+    @Test
+    public void chatMessagesByCursorAreLimitedToTheMaximumSize() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+        PageRequest maxPage = PageRequest.of(0, ChatMessageController.MAX_CURSOR_PAGE_SIZE);
+        Slice<ChatMessage> sliceOfChatMessages = new SliceImpl<ChatMessage>(Arrays.asList(), maxPage, false);
+
+        when(chatMessageRepository.findByCommonsIdBefore(commonsId, Long.MAX_VALUE, maxPage)).thenReturn(sliceOfChatMessages);
+
+        // act
+        mockMvc.perform(get("/api/chat/messages?commonsId={commonsId}&size=1000000", commonsId))
+            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(chatMessageRepository, times(1)).findByCommonsIdBefore(commonsId, Long.MAX_VALUE, maxPage);
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void userNotInCommonsCannotGetChatMessagesByCursor() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+        Long userId = 1L;
+
+        when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenReturn(Optional.empty());
+
+        // act
+        mockMvc.perform(get("/api/chat/messages?commonsId={commonsId}&before=5", commonsId))
+            .andExpect(status().isForbidden()).andReturn();
+
+        // assert
+        verify(chatMessageRepository, never()).findByCommonsIdBefore(any(), anyLong(), any());
+    }
+
+    //* */ authors tests
+    private static ChatAuthor author(long userId, String username) {
+        return new ChatAuthor() {
+            public Long getUserId() {
+                return userId;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void userCanGetChatAuthors() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+
+        when(membershipVersionService.etag(commonsId)).thenReturn("\"abc-3\"");
+        when(userCommonsRepository.findChatAuthorsByCommonsId(commonsId))
+            .thenReturn(Arrays.asList(author(1L, "George Washington"), author(2L, null)));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/chat/authors?commonsId={commonsId}", commonsId))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"abc-3\""))
+            .andExpect(header().string("Cache-Control", "no-cache"))
+            .andReturn();
+
+        // assert
+        verify(userCommonsRepository, times(1)).findChatAuthorsByCommonsId(commonsId);
+        assertEquals("{\"1\":\"George Washington\",\"2\":\"\"}", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void chatAuthorsAreNotReadWhenETagMatches() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+
+        when(membershipVersionService.etag(commonsId)).thenReturn("\"abc-3\"");
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/chat/authors?commonsId={commonsId}", commonsId).header("If-None-Match", "\"abc-3\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"abc-3\""))
+            .andReturn();
+
+        // assert
+        verify(userCommonsRepository, never()).findChatAuthorsByCommonsId(anyLong());
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void chatAuthorsAreReadWhenMembershipChanged() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+
+        when(membershipVersionService.etag(commonsId)).thenReturn("\"abc-4\"");
+        when(userCommonsRepository.findChatAuthorsByCommonsId(commonsId)).thenReturn(Arrays.asList(author(1L, "George Washington")));
+
+        // act
+        mockMvc.perform(get("/api/chat/authors?commonsId={commonsId}", commonsId).header("If-None-Match", "\"abc-3\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"abc-4\""));
+
+        // assert
+        verify(userCommonsRepository, times(1)).findChatAuthorsByCommonsId(commonsId);
+    }
+
+    //* */ stream tests
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void userInCommonsCanStreamChatMessages() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+        Long userId = 1L;
+
+        when(chatBroadcaster.subscribe(commonsId, userId)).thenReturn(new SseEmitter());
+
+        UserCommons userCommons = UserCommons.builder()
+                .commons(Commons.builder().build())
+                .build();
+        when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenReturn(Optional.of(userCommons));
+
+        // act
+        mockMvc.perform(get("/api/chat/stream?commonsId={commonsId}", commonsId))
+            .andExpect(request().asyncStarted()).andReturn();
+
+        // assert
+        verify(chatBroadcaster, times(1)).subscribe(commonsId, userId);
+    }
+
+    @WithMockUser(roles = {"ADMIN"})
+    @Test
+    public void adminCanStreamChatMessages() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+
+        when(chatBroadcaster.subscribe(commonsId, null)).thenReturn(new SseEmitter());
+
+        // act
+        mockMvc.perform(get("/api/chat/stream?commonsId={commonsId}", commonsId))
+            .andExpect(request().asyncStarted()).andReturn();
+
+        // assert
+        // admins can read every chat, so their stream is not tied to a user
+        verify(chatBroadcaster, times(1)).subscribe(commonsId, null);
+        verify(userCommonsRepository, never()).findByCommonsIdAndUserId(anyLong(), anyLong());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void userNotInCommonsCannotStreamChatMessages() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+        Long userId = 1L;
+
+        when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenReturn(Optional.empty());
+
+        // act
+        mockMvc.perform(get("/api/chat/stream?commonsId={commonsId}", commonsId))
+            .andExpect(status().isForbidden()).andReturn();
+
+        // assert
+        verify(chatBroadcaster, never()).subscribe(anyLong(), any());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void userCannotStreamChatMessagesIfShowChatIsFalse() throws Exception {
+
+        // arrange
+        Long commonsId = 1L;
+        Long userId = 1L;
+
+        UserCommons userCommons = UserCommons.builder()
+                .commons(Commons.builder().showChat(false).build())
+                .build();
+        when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenReturn(Optional.of(userCommons));
+
+        // act
+        mockMvc.perform(get("/api/chat/stream?commonsId={commonsId}", commonsId))
+            .andExpect(status().isForbidden()).andReturn();
+
+        // assert
+        verify(chatBroadcaster, never()).subscribe(anyLong(), any());
+    }
+
     //* */ admin/get tests
     @WithMockUser(roles = {"ADMIN"})
     @Test
@@ -281,6 +597,7 @@ public class ChatMessageControllerTests extends ControllerTestCase {
 
         // assert
         verify(chatMessageRepository, atLeastOnce()).save(any(ChatMessage.class));
+        verify(chatBroadcaster, times(1)).messageCreated(any(ChatMessage.class));
         String responseString = response.getResponse().getContentAsString();
         String expectedResponseString = mapper.writeValueAsString(chatMessage);
         log.info("Got back from API: {}",responseString);
@@ -308,6 +625,7 @@ public class ChatMessageControllerTests extends ControllerTestCase {
 
         // assert
         verify(chatMessageRepository, times(0)).save(any(ChatMessage.class));
+        verify(chatBroadcaster, never()).messageCreated(any(ChatMessage.class));
     }
 
     @WithMockUser(roles = {"ADMIN"})
@@ -329,6 +647,7 @@ public class ChatMessageControllerTests extends ControllerTestCase {
 
         // assert
         verify(chatMessageRepository, atLeastOnce()).save(any(ChatMessage.class));
+        verify(chatBroadcaster, times(1)).messageCreated(any(ChatMessage.class));
         String responseString = response.getResponse().getContentAsString();
         String expectedResponseString = mapper.writeValueAsString(chatMessage);
         log.info("Got back from API: {}",responseString);
@@ -378,6 +697,7 @@ when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenRetu
         // assert
         verify(chatMessageRepository, atLeastOnce()).findById(messageId);
         verify(chatMessageRepository, atLeastOnce()).save(any(ChatMessage.class));
+        verify(chatBroadcaster, times(1)).messageHidden(chatMessage);
         String responseString = response.getResponse().getContentAsString();
         chatMessage.setHidden(true);
         String expectedResponseString = mapper.writeValueAsString(chatMessage);
@@ -410,6 +730,7 @@ when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenRetu
         // assert
         verify(chatMessageRepository, atLeastOnce()).findById(messageId);
         verify(chatMessageRepository, atLeastOnce()).save(any(ChatMessage.class));
+        verify(chatBroadcaster, times(1)).messageHidden(chatMessage);
         String responseString = response.getResponse().getContentAsString();
         chatMessage.setHidden(true);
         String expectedResponseString = mapper.writeValueAsString(chatMessage);
@@ -462,6 +783,7 @@ when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenRetu
         // assert
         verify(chatMessageRepository, atLeastOnce()).findById(messageId);
         verify(chatMessageRepository, atLeastOnce()).save(any(ChatMessage.class));
+        verify(chatBroadcaster, times(1)).messageHidden(chatMessage);
         String responseString = response.getResponse().getContentAsString();
         chatMessage.setHidden(true);
         String expectedResponseString = mapper.writeValueAsString(chatMessage);
@@ -501,6 +823,8 @@ when(userCommonsRepository.findByCommonsIdAndUserId(commonsId, userId)).thenRetu
         // assert
         verify(chatMessageRepository, atLeastOnce()).findById(messageId);
         verify(chatMessageRepository, times(0)).save(any(ChatMessage.class));
+        verify(chatBroadcaster, never()).messageHidden(any(ChatMessage.class));
+        verify(chatBroadcaster, never()).messageCreated(any(ChatMessage.class));
     }
     
     @WithMockUser(roles = {"ADMIN"})
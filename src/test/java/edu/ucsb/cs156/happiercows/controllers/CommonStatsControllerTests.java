@@ -4,11 +4,13 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.happiercows.ControllerTestCase;
 import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.entities.CommonStatsRollup;
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.Report;
 import edu.ucsb.cs156.happiercows.entities.ReportLine;
 import edu.ucsb.cs156.happiercows.entities.User;
 import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.models.StatsResolution;
 import edu.ucsb.cs156.happiercows.repositories.CommonStatsRepository;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportLineRepository;
@@ -16,6 +18,8 @@ import edu.ucsb.cs156.happiercows.repositories.ReportRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.services.AverageCowHealthService;
+import edu.ucsb.cs156.happiercows.services.CSVExportService;
+import edu.ucsb.cs156.happiercows.services.CommonStatsRollupService;
 import edu.ucsb.cs156.happiercows.services.CommonStatsService;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
 
@@ -32,17 +36,21 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = CommonStatsController.class)
-@Import(CommonStatsController.class)
+@Import({CommonStatsController.class, CSVExportService.class})
 @AutoConfigureDataJpa
 public class CommonStatsControllerTests extends ControllerTestCase {
 
@@ -64,6 +72,9 @@ public class CommonStatsControllerTests extends ControllerTestCase {
     @MockBean
     AverageCowHealthService averageCowHealthService;
 
+    @MockBean
+    CommonStatsRollupService commonStatsRollupService;
+
 
     private Commons commons = Commons
         .builder()
@@ -132,12 +143,17 @@ public class CommonStatsControllerTests extends ControllerTestCase {
     @WithMockUser(roles = { "ADMIN" })
     @Test
     public void test_get_csv() throws Exception {
-            when(commonStatsRepository.findAllByCommonsId(17L)).thenReturn(List.of(expectedStats1));
+            Runnable onClose = mock(Runnable.class);
+            when(commonStatsRepository.streamAllByCommonsId(17L)).thenReturn(Stream.of(expectedStats1).onClose(onClose));
             
-            MvcResult response = mockMvc.perform(get("/api/commonstats/download?commonsId=17")).andDo(print())
+            MvcResult started = mockMvc.perform(get("/api/commonstats/download?commonsId=17"))
+                            .andExpect(request().asyncStarted()).andReturn();
+            MvcResult response = mockMvc.perform(asyncDispatch(started)).andDo(print())
                             .andExpect(status().isOk()).andReturn();
 
-            verify(commonStatsRepository, times(1)).findAllByCommonsId(eq(17L));
+            verify(commonStatsRepository, times(1)).streamAllByCommonsId(eq(17L));
+            verify(commonStatsRepository, never()).findAllByCommonsId(any());
+            verify(onClose, times(1)).run();
             String responseString = response.getResponse().getContentAsString();
 
             assertEquals("application/csv", response.getResponse().getContentType());
@@ -152,12 +168,17 @@ public class CommonStatsControllerTests extends ControllerTestCase {
     @WithMockUser(roles = { "ADMIN" })
     @Test
     public void test_get_all_csv() throws Exception {
-            when(commonStatsRepository.findAll()).thenReturn(List.of(expectedStats1, expectedStats2));
+            Runnable onClose = mock(Runnable.class);
+            when(commonStatsRepository.streamAll()).thenReturn(Stream.of(expectedStats1, expectedStats2).onClose(onClose));
             
-            MvcResult response = mockMvc.perform(get("/api/commonstats/downloadAll")).andDo(print())
+            MvcResult started = mockMvc.perform(get("/api/commonstats/downloadAll"))
+                            .andExpect(request().asyncStarted()).andReturn();
+            MvcResult response = mockMvc.perform(asyncDispatch(started)).andDo(print())
                             .andExpect(status().isOk()).andReturn();
 
-            verify(commonStatsRepository, times(1)).findAll();
+            verify(commonStatsRepository, times(1)).streamAll();
+            verify(commonStatsRepository, never()).findAll();
+            verify(onClose, times(1)).run();
             String responseString = response.getResponse().getContentAsString();
 
             assertEquals("application/csv", response.getResponse().getContentType());
@@ -170,4 +191,53 @@ public class CommonStatsControllerTests extends ControllerTestCase {
             assertEquals(expected, responseString);
     }
 
+    @WithMockUser(roles = { "ADMIN" })
+    @Test
+    public void get_stats_in_range_with_default_resolution() throws Exception {
+        LocalDateTime from = LocalDateTime.parse("2023-10-01T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2023-11-01T00:00:00");
+        List<CommonStatsRollup> expectedRollups = List.of(CommonStatsRollup.builder()
+                .commonsId(17L).resolution(StatsResolution.HOUR).numSamples(2)
+                .minCows(10).maxCows(20).avgCows(15).minHealth(50).maxHealth(70).avgHealth(60)
+                .build());
+        when(commonStatsRollupService.findInRange(17L, from, to, StatsResolution.HOUR)).thenReturn(expectedRollups);
+
+        MvcResult response = mockMvc.perform(get("/api/commonstats/range?commonsId=17&from=2023-10-01T00:00:00&to=2023-11-01T00:00:00"))
+                .andExpect(status().isOk()).andReturn();
+
+        verify(commonStatsRollupService, times(1)).findInRange(17L, from, to, StatsResolution.HOUR);
+        assertEquals(objectMapper.writeValueAsString(expectedRollups), response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN" })
+    @Test
+    public void get_stats_in_range_by_day() throws Exception {
+        LocalDateTime from = LocalDateTime.parse("2023-01-01T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2024-01-01T00:00:00");
+        when(commonStatsRollupService.findInRange(17L, from, to, StatsResolution.DAY)).thenReturn(List.of());
+
+        MvcResult response = mockMvc.perform(get("/api/commonstats/range?commonsId=17&from=2023-01-01T00:00:00&to=2024-01-01T00:00:00&resolution=DAY"))
+                .andExpect(status().isOk()).andReturn();
+
+        verify(commonStatsRollupService, times(1)).findInRange(17L, from, to, StatsResolution.DAY);
+        assertEquals("[]", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN" })
+    @Test
+    public void get_stats_in_range_rejects_empty_range() throws Exception {
+        MvcResult response = mockMvc.perform(get("/api/commonstats/range?commonsId=17&from=2023-11-01T00:00:00&to=2023-11-01T00:00:00"))
+                .andExpect(status().isBadRequest()).andReturn();
+
+        verify(commonStatsRollupService, never()).findInRange(anyLong(), any(), any(), any());
+        assertEquals("from must be before to.", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void users_cannot_get_stats_in_range() throws Exception {
+        mockMvc.perform(get("/api/commonstats/range?commonsId=17&from=2023-10-01T00:00:00&to=2023-11-01T00:00:00"))
+                .andExpect(status().isForbidden());
+    }
+
 }
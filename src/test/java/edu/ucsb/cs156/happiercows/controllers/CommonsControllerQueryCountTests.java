@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.happiercows.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.ResultActions;
+
+import edu.ucsb.cs156.happiercows.QueryCountTestCase;
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+
+public class CommonsControllerQueryCountTests extends QueryCountTestCase {
+
+    @Autowired
+    CommonsRepository commonsRepository;
+
+    private List<Commons> saved;
+
+    @BeforeEach
+    void saveCommons() {
+        saved = List.of(
+                commonsRepository.save(Commons.builder().name("Query Count 1").build()),
+                commonsRepository.save(Commons.builder().name("Query Count 2").build()),
+                commonsRepository.save(Commons.builder().name("Query Count 3").build()));
+    }
+
+    @AfterEach
+    void deleteCommons() {
+        commonsRepository.deleteAll(saved);
+    }
+
+    @Test
+    public void all_commons_are_read_with_one_query() throws Exception {
+        mockMvc.perform(get("/api/commons/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Query-Time-Ms"))
+                .andExpect(maxQueries(1));
+    }
+
+    @Test
+    public void maxQueries_fails_when_more_queries_are_run() throws Exception {
+        ResultActions actions = mockMvc.perform(get("/api/commons/all"));
+
+        AssertionError e = assertThrows(AssertionError.class, () -> actions.andExpect(maxQueries(0)));
+
+        assertTrue(e.getMessage().startsWith("expected at most 0 SQL statements but 1 were run"), e.getMessage());
+    }
+}
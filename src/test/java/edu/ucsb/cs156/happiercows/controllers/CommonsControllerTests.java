@@ -5,6 +5,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.happiercows.ControllerTestCase;
 import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.CommonsAggregate;
 import edu.ucsb.cs156.happiercows.entities.CommonsPlus;
 import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.models.CreateCommonsParams;
@@ -13,6 +14,10 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.MembershipVersionService;
+import edu.ucsb.cs156.happiercows.services.ChatBroadcaster;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
 import lombok.With;
 
@@ -56,6 +61,18 @@ public class CommonsControllerTests extends ControllerTestCase {
     @MockBean
     CommonsPlusBuilderService commonsPlusBuilderService;
 
+    @MockBean
+    CommonsAggregateService commonsAggregateService;
+
+    @MockBean
+    MembershipVersionService membershipVersionService;
+
+    @MockBean
+    LeaderboardService leaderboardService;
+
+    @MockBean
+    ChatBroadcaster chatBroadcaster;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -146,6 +163,7 @@ public class CommonsControllerTests extends ControllerTestCase {
                 .andReturn();
 
         verify(commonsRepository, times(1)).save(commons);
+        verify(commonsAggregateService, times(1)).commonsCreated(commons.getId());
 
         String actualResponse = response.getResponse().getContentAsString();
         assertEquals(expectedResponse, actualResponse);
@@ -401,6 +419,8 @@ public class CommonsControllerTests extends ControllerTestCase {
                 .andExpect(status().isNoContent());
 
         verify(commonsRepository, times(1)).save(commons);
+        verify(leaderboardService, times(2)).commonsChanged(0L);
+        verify(chatBroadcaster, never()).chatHidden(anyLong());
     }
 
     @WithMockUser(roles = {"ADMIN"})
@@ -453,6 +473,7 @@ public class CommonsControllerTests extends ControllerTestCase {
                 .andExpect(status().isNoContent());
 
         verify(commonsRepository, times(1)).save(commons);
+        verify(chatBroadcaster, times(1)).chatHidden(0L);
 
         assertEquals(CowHealthUpdateStrategies.Constant, commons.getAboveCapacityHealthUpdateStrategy());
         assertEquals(CowHealthUpdateStrategies.Linear, commons.getBelowCapacityHealthUpdateStrategy());
@@ -631,15 +652,12 @@ public class CommonsControllerTests extends ControllerTestCase {
                 .totalUsers(2)
                 .build();
                 
-        when(commonsRepository.findById(eq(18L))).thenReturn(Optional.of(commons1));
-        when(commonsRepository.getNumCows(18L)).thenReturn(Optional.of(5));
-        when(commonsRepository.getNumUsers(18L)).thenReturn(Optional.of(2));
-        when(commonsPlusBuilderService.toCommonsPlus(eq(commons1))).thenReturn(commonsPlus);
+        when(commonsPlusBuilderService.getCommonsPlus(eq(18L))).thenReturn(Optional.of(commonsPlus));
 
         MvcResult response = mockMvc.perform(get("/api/commons/plus?id=18"))
                 .andExpect(status().isOk()).andReturn();
 
-        verify(commonsRepository, times(1)).findById(eq(18L));
+        verify(commonsPlusBuilderService, times(1)).getCommonsPlus(eq(18L));
         String expectedJson = mapper.writeValueAsString(commonsPlus);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
@@ -667,12 +685,12 @@ public class CommonsControllerTests extends ControllerTestCase {
     @WithMockUser(roles = {"USER"})
     @Test
     public void getCommonsPlusByIdTest_invalid() throws Exception {                
-        when(commonsRepository.findById(eq(18L))).thenReturn(Optional.empty());
+        when(commonsPlusBuilderService.getCommonsPlus(eq(18L))).thenReturn(Optional.empty());
 
         MvcResult response = mockMvc.perform(get("/api/commons/plus?id=18"))
                 .andExpect(status().is(404)).andReturn();
 
-        verify(commonsRepository, times(1)).findById(eq(18L));
+        verify(commonsPlusBuilderService, times(1)).getCommonsPlus(eq(18L));
 
         Map<String, Object> responseMap = responseToJson(response);
 
@@ -724,6 +742,9 @@ public class CommonsControllerTests extends ControllerTestCase {
 
         verify(userCommonsRepository, times(1)).findByCommonsIdAndUserId(2L, 1L);
         verify(userCommonsRepository, times(1)).save(uc);
+        verify(commonsAggregateService, times(1)).userCommonsAdded(uc);
+        verify(membershipVersionService, times(1)).membershipChanged(2L);
+        verify(leaderboardService, times(1)).userCommonsChanged(uc);
 
         
         String responseString = response.getResponse().getContentAsString();
@@ -764,6 +785,9 @@ public class CommonsControllerTests extends ControllerTestCase {
                 .andExpect(status().isOk()).andReturn();
 
         verify(userCommonsRepository, times(1)).findByCommonsIdAndUserId(2L, 1L);
+        verify(commonsAggregateService, never()).userCommonsAdded(any());
+        verify(membershipVersionService, never()).membershipChanged(anyLong());
+        verify(leaderboardService, never()).userCommonsChanged(any(UserCommons.class));
 
         String responseString = response.getResponse().getContentAsString();
         String cAsJson = mapper.writeValueAsString(c);
@@ -842,6 +866,10 @@ public class CommonsControllerTests extends ControllerTestCase {
         verify(userCommonsRepository, times(1)).findByCommonsId(2L);
         verify(userCommonsRepository, times(1)).delete(uc1);
         verify(userCommonsRepository, times(1)).delete(uc2);
+        verify(commonsAggregateService, times(1)).commonsDeleted(2L);
+        verify(membershipVersionService, times(1)).membershipChanged(2L);
+        verify(leaderboardService, times(1)).commonsChanged(2L);
+        verify(chatBroadcaster, times(1)).commonsDeleted(2L);
 
         String responseString = response.getResponse().getContentAsString();
 
@@ -892,7 +920,7 @@ public class CommonsControllerTests extends ControllerTestCase {
 
         when(userCommonsRepository.findByCommonsIdAndUserId(2L, 1L)).thenReturn(Optional.of(uc));
         when(commonsRepository.findById(2L)).thenReturn(Optional.of(c));
-        when(commonsRepository.getNumUsers(2L)).thenReturn(Optional.of(0));
+        when(commonsAggregateService.getAggregate(2L)).thenReturn(CommonsAggregate.builder().commonsId(2L).totalUsers(3).build());
 
         MvcResult response = mockMvc
                 .perform(delete("/api/commons/2/users/1").with(csrf()).contentType(MediaType.APPLICATION_JSON)
@@ -901,9 +929,13 @@ public class CommonsControllerTests extends ControllerTestCase {
 
         verify(userCommonsRepository, times(1)).findByCommonsIdAndUserId(2L, 1L);
         verify(userCommonsRepository, times(1)).delete(uc);
+        verify(commonsAggregateService, times(1)).userCommonsRemoved(uc);
+        verify(membershipVersionService, times(1)).membershipChanged(2L);
+        verify(leaderboardService, times(1)).userCommonsRemoved(2L, 1L);
+        verify(chatBroadcaster, times(1)).memberRemoved(2L, 1L);
 
         String responseString = response.getResponse().getContentAsString();
-        String expectedString = "{\"message\":\"user with id 1 deleted from commons with id 2, 0 users remain\"}";
+        String expectedString = "{\"message\":\"user with id 1 deleted from commons with id 2, 3 users remain\"}";
 
         assertEquals(responseString, expectedString);
     }
@@ -935,14 +967,12 @@ public class CommonsControllerTests extends ControllerTestCase {
                 .build();
 
         expectedCommonsPlus.add(CommonsPlus1);
-        when(commonsRepository.findAll()).thenReturn(expectedCommons);
-        when(commonsRepository.getNumCows(1L)).thenReturn(Optional.of(50));
-        when(commonsRepository.getNumUsers(1L)).thenReturn(Optional.of(20));
-        when(commonsPlusBuilderService.convertToCommonsPlus(eq(expectedCommons))).thenReturn(expectedCommonsPlus);
+        when(commonsPlusBuilderService.getAllCommonsPlus()).thenReturn(expectedCommonsPlus);
         MvcResult response = mockMvc.perform(get("/api/commons/allplus").contentType("application/json"))
                 .andExpect(status().isOk()).andReturn();
 
-        verify(commonsRepository, times(1)).findAll();
+        verify(commonsPlusBuilderService, times(1)).getAllCommonsPlus();
+        verify(commonsRepository, never()).getNumCows(any());
 
         String responseString = response.getResponse().getContentAsString();
         List<CommonsPlus> actualCommonsPlus = objectMapper.readValue(responseString,
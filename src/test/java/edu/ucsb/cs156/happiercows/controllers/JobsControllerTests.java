@@ -1,9 +1,13 @@
 package edu.ucsb.cs156.happiercows.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -16,11 +20,16 @@ import static org.awaitility.Awaitility.await;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
@@ -41,8 +50,23 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import edu.ucsb.cs156.happiercows.ControllerTestCase;
 import edu.ucsb.cs156.happiercows.entities.User;
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobLogLine;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobStats;
+import edu.ucsb.cs156.happiercows.models.JobLogLineCount;
+import edu.ucsb.cs156.happiercows.models.JobLogLines;
+import edu.ucsb.cs156.happiercows.models.JobSummary;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobCommonsStatsRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobLogLineRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobStatsRepository;
 import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+import edu.ucsb.cs156.happiercows.services.jobs.JobConcurrencyLimiter;
+import edu.ucsb.cs156.happiercows.services.jobs.JobEventService;
+import edu.ucsb.cs156.happiercows.services.jobs.JobLogService;
+import edu.ucsb.cs156.happiercows.services.jobs.JobLockService;
+import edu.ucsb.cs156.happiercows.services.jobs.JobMetrics;
+import edu.ucsb.cs156.happiercows.services.jobs.JobProgressService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
 import edu.ucsb.cs156.happiercows.jobs.InstructorReportJobFactory;
@@ -60,13 +84,34 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @WebMvcTest(controllers = JobsController.class)
-@Import(JobService.class)
+@Import({JobService.class, JobLogService.class, JobEventService.class, JobProgressService.class, JobConcurrencyLimiter.class})
 @AutoConfigureDataJpa
 public class JobsControllerTests extends ControllerTestCase {
 
         @MockBean
         JobsRepository jobsRepository;
 
+        @MockBean
+        JobLogLineRepository jobLogLineRepository;
+
+        @MockBean
+        JobLockService jobLockService;
+
+        @MockBean
+        JobMetrics jobMetrics;
+
+        @MockBean
+        JobStatsRepository jobStatsRepository;
+
+        @MockBean
+        JobCommonsStatsRepository jobCommonsStatsRepository;
+
+        @Captor
+        ArgumentCaptor<ZonedDateTime> sinceCaptor;
+
+        @Captor
+        ArgumentCaptor<Iterable<JobLogLine>> linesCaptor;
+
         @MockBean
         UserRepository userRepository;
 
@@ -109,19 +154,32 @@ public class JobsControllerTests extends ControllerTestCase {
         @MockBean
         CommonsPlusBuilderService commonsPlusBuilderService;
 
+        private List<String> loggedLines() {
+                verify(jobLogLineRepository, atLeastOnce()).saveAll(linesCaptor.capture());
+                List<String> lines = new ArrayList<>();
+                linesCaptor.getAllValues().forEach(batch -> batch.forEach(line -> lines.add(line.getMessage())));
+                return lines;
+        }
+
+        private static JobLogLineCount lineCount(long jobId, long numLines) {
+                return new JobLogLineCount() {
+                        public Long getJobId() { return jobId; }
+                        public Long getNumLines() { return numLines; }
+                };
+        }
+
         @WithMockUser(roles = { "ADMIN" })
         @Test
         public void admin_can_get_all_jobs() throws Exception {
 
                 // arrange
 
-                Job job1 = Job.builder().log("this is job 1").build();
-                Job job2 = Job.builder().log("this is job 2").build();
+                ZonedDateTime createdAt = ZonedDateTime.parse("2023-08-08T12:14:00-07:00");
+                JobSummary job1 = new JobSummary(2L, "running", createdAt, createdAt, "admin@ucsb.edu");
+                JobSummary job2 = new JobSummary(1L, "complete", createdAt, createdAt.plusSeconds(3), null);
 
-                ArrayList<Job> expectedJobs = new ArrayList<>();
-                expectedJobs.addAll(Arrays.asList(job1, job2));
-
-                when(jobsRepository.findAll()).thenReturn(expectedJobs);
+                when(jobsRepository.findAllSummaries()).thenReturn(List.of(job1, job2));
+                when(jobLogLineRepository.findLineCountsByJobIds(any())).thenReturn(List.of(lineCount(1L, 12L)));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/jobs/all"))
@@ -129,10 +187,17 @@ public class JobsControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(jobsRepository, atLeastOnce()).findAll();
+                verify(jobsRepository, never()).findAll();
+                List<JobSummary> expectedJobs = List.of(
+                                JobSummary.builder().id(2L).status("running").createdAt(createdAt).updatedAt(createdAt)
+                                                .createdBy("admin@ucsb.edu").numLogLines(0).build(),
+                                JobSummary.builder().id(1L).status("complete").createdAt(createdAt)
+                                                .updatedAt(createdAt.plusSeconds(3)).numLogLines(12).build());
                 String expectedJson = mapper.writeValueAsString(expectedJobs);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
+                assertEquals(3000L, expectedJobs.get(1).getDurationMs());
+                assertNull(expectedJobs.get(0).getDurationMs());
         }
 
         @WithMockUser(roles = { "ADMIN" })
@@ -141,17 +206,15 @@ public class JobsControllerTests extends ControllerTestCase {
 
                 // arrange
 
-                PageRequest pageRequest = PageRequest.of(0, 5);
-
-                Job job1 = Job.builder().log("this is job 1").build();
-                Job job2 = Job.builder().log("this is job 2").build();
+                PageRequest pageRequest = PageRequest.of(0, 10);
 
-                ArrayList<Job> expectedJobs = new ArrayList<>();
-                expectedJobs.addAll(Arrays.asList(job1, job2));
+                JobSummary job1 = JobSummary.builder().id(2L).status("queued").build();
+                JobSummary job2 = JobSummary.builder().id(1L).status("error").build();
 
-                Page<Job> expectedJobPage = new PageImpl<>(expectedJobs, pageRequest, expectedJobs.size());
+                Page<JobSummary> jobPage = new PageImpl<>(List.of(job1, job2), pageRequest, 2);
 
-                when(jobsRepository.findAll(any())).thenReturn(expectedJobPage);
+                when(jobsRepository.findSummaries(pageRequest)).thenReturn(jobPage);
+                when(jobLogLineRepository.findLineCountsByJobIds(any())).thenReturn(List.of(lineCount(1L, 2L), lineCount(2L, 0L)));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/jobs/all/pageable?page=0&size=10"))
@@ -159,13 +222,337 @@ public class JobsControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(jobsRepository, atLeastOnce()).findAll(any());
+                verify(jobsRepository, times(1)).findSummaries(pageRequest);
+                verify(jobsRepository, never()).findAll(any());
 
+                Page<JobSummary> expectedJobPage = new PageImpl<>(List.of(
+                                JobSummary.builder().id(2L).status("queued").build(),
+                                JobSummary.builder().id(1L).status("error").numLogLines(2).build()), pageRequest, 2);
                 String expectedJson = mapper.writeValueAsString(expectedJobPage);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_can_get_an_empty_page_of_jobs() throws Exception {
+
+                // arrange
+
+                PageRequest pageRequest = PageRequest.of(3, 10);
+                when(jobsRepository.findSummaries(pageRequest)).thenReturn(new PageImpl<>(List.of(), pageRequest, 0));
+
+                // act
+                mockMvc.perform(get("/api/jobs/all/pageable?page=3&size=10"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(jobLogLineRepository, never()).findLineCountsByJobIds(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_can_get_the_log_of_a_job_from_a_line() throws Exception {
+
+                // arrange
+
+                Job job = Job.builder().id(7L).status("running").build();
+                when(jobsRepository.findById(7L)).thenReturn(Optional.of(job));
+                when(jobLogLineRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 2, PageRequest.of(0, 50)))
+                                .thenReturn(List.of(
+                                                JobLogLine.builder().jobId(7L).lineNumber(2).message("Milking commons 2").build(),
+                                                JobLogLine.builder().jobId(7L).lineNumber(3).message("Milking commons 3").build()));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/log?fromLine=2&maxLines=50"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                JobLogLines expected = JobLogLines.builder()
+                                .jobId(7L)
+                                .status("running")
+                                .fromLine(2)
+                                .nextLine(4)
+                                .lines(List.of("Milking commons 2", "Milking commons 3"))
+                                .build();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void log_of_a_job_defaults_to_the_first_thousand_lines() throws Exception {
+
+                // arrange
+
+                Job job = Job.builder().id(7L).status("complete").build();
+                when(jobsRepository.findById(7L)).thenReturn(Optional.of(job));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/log"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(jobLogLineRepository).findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 0, PageRequest.of(0, 1000));
+                JobLogLines expected = JobLogLines.builder().jobId(7L).status("complete").fromLine(0).nextLine(0).lines(List.of()).build();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void log_of_a_missing_job_is_not_found() throws Exception {
+
+                // arrange
+
+                when(jobsRepository.findById(7L)).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/log"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("EntityNotFoundException", json.get("type"));
+                assertEquals("Job with id 7 not found", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void log_of_a_job_rejects_invalid_ranges() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/log?fromLine=-1"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+
+                response = mockMvc.perform(get("/api/jobs/7/log?maxLines=0"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+
+                response = mockMvc.perform(get("/api/jobs/7/log?maxLines=10001"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+
+                verify(jobsRepository, never()).findById(any());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void users_cannot_get_the_log_of_a_job() throws Exception {
+                mockMvc.perform(get("/api/jobs/7/log"))
+                                .andExpect(status().isForbidden());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_gets_the_stored_log_and_status_of_a_finished_job_as_events() throws Exception {
+
+                // arrange
+
+                Job job = Job.builder().id(7L).status("complete").build();
+                when(jobsRepository.findById(7L)).thenReturn(Optional.of(job));
+                when(jobLogLineRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 0, PageRequest.of(0, 1000)))
+                                .thenReturn(List.of(
+                                                JobLogLine.builder().jobId(7L).lineNumber(0).message("Milking commons 1").build(),
+                                                JobLogLine.builder().jobId(7L).lineNumber(1).message("Cows have been milked!").build()));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/events"))
+                                .andExpect(request().asyncStarted()).andReturn();
+
+                // assert
+
+                String expected = "id:0\nevent:log\ndata:Milking commons 1\n\n"
+                                + "id:1\nevent:log\ndata:Cows have been milked!\n\n"
+                                + "event:status\ndata:complete\n\n";
+                assertEquals(expected, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void events_resume_after_the_last_event_id() throws Exception {
+
+                // arrange
+
+                Job job = Job.builder().id(7L).status("complete").build();
+                when(jobsRepository.findById(7L)).thenReturn(Optional.of(job));
+
+                // act
+                mockMvc.perform(get("/api/jobs/7/events?fromLine=2").header("Last-Event-ID", "4"))
+                                .andExpect(request().asyncStarted());
+
+                // assert
+
+                verify(jobLogLineRepository).findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 5, PageRequest.of(0, 1000));
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void events_of_a_missing_job_are_not_found() throws Exception {
+
+                // arrange
+
+                when(jobsRepository.findById(7L)).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/events"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Job with id 7 not found", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void events_reject_a_negative_line() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/events?fromLine=-1"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+
+                verify(jobsRepository, never()).findById(any());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void users_cannot_get_the_events_of_a_job() throws Exception {
+                mockMvc.perform(get("/api/jobs/7/events"))
+                                .andExpect(status().isForbidden());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_can_get_the_stats_of_each_job_type_over_the_last_days() throws Exception {
+
+                // arrange
+
+                ZonedDateTime before = ZonedDateTime.now();
+                when(jobStatsRepository.findJobTypeStatsSince(any())).thenReturn(List.of());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/stats?days=7"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(jobStatsRepository).findJobTypeStatsSince(sinceCaptor.capture());
+                ZonedDateTime since = sinceCaptor.getValue();
+                assertFalse(since.isBefore(before.minusDays(7)));
+                assertTrue(since.isBefore(ZonedDateTime.now().minusDays(7).plusSeconds(1)));
+                assertEquals("[]", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_can_get_the_latest_runs_of_a_job_type() throws Exception {
+
+                // arrange
+
+                List<JobStats> runs = List.of(
+                                JobStats.builder().jobId(9L).jobType("MilkTheCowsJob").durationMs(1200).phase("milking the cows")
+                                                .completedUnits(2).totalUnits(2).rowsRead(40).rowsWritten(80).build(),
+                                JobStats.builder().jobId(5L).jobType("MilkTheCowsJob").durationMs(900).build());
+                when(jobStatsRepository.findByJobTypeAndFinishedAtNotNullOrderByFinishedAtDesc("MilkTheCowsJob", PageRequest.of(0, 30)))
+                                .thenReturn(runs);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/stats/runs?jobType=MilkTheCowsJob"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(runs), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_can_get_the_stats_of_each_commons_for_a_job_type() throws Exception {
+
+                // arrange
+
+                ZonedDateTime before = ZonedDateTime.now();
+
+                // act
+                mockMvc.perform(get("/api/jobs/stats/commons?jobType=UpdateCowHealthJob"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(jobCommonsStatsRepository).findCommonsRunStatsSince(eq("UpdateCowHealthJob"), sinceCaptor.capture());
+                assertFalse(sinceCaptor.getValue().isBefore(before.minusDays(30)));
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void job_stats_reject_invalid_days_and_limits() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/jobs/stats?days=0"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+
+                response = mockMvc.perform(get("/api/jobs/stats/commons?jobType=MilkTheCowsJob&days=0"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+
+                response = mockMvc.perform(get("/api/jobs/stats/runs?jobType=MilkTheCowsJob&limit=0"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+
+                response = mockMvc.perform(get("/api/jobs/stats/runs?jobType=MilkTheCowsJob&limit=1001"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                assertInstanceOf(IllegalArgumentException.class, response.getResolvedException());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_can_get_the_commons_stats_of_a_job() throws Exception {
+
+                // arrange
+
+                List<JobCommonsStats> commonsStats = List.of(
+                                JobCommonsStats.builder().id(2L).jobId(7L).commonsId(3L).durationMs(800).rowsRead(20).rowsWritten(20).build(),
+                                JobCommonsStats.builder().id(1L).jobId(7L).commonsId(1L).durationMs(150).rowsRead(2).rowsWritten(2).build());
+                when(jobsRepository.existsById(7L)).thenReturn(true);
+                when(jobCommonsStatsRepository.findByJobIdOrderByDurationMsDesc(7L)).thenReturn(commonsStats);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/commons"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(commonsStats), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void commons_stats_of_a_missing_job_are_not_found() throws Exception {
+
+                // arrange
+
+                when(jobsRepository.existsById(7L)).thenReturn(false);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/jobs/7/commons"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Job with id 7 not found", json.get("message"));
+                verify(jobCommonsStatsRepository, never()).findByJobIdOrderByDurationMsDesc(7L);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void users_cannot_get_job_stats() throws Exception {
+                mockMvc.perform(get("/api/jobs/stats"))
+                                .andExpect(status().isForbidden());
+                mockMvc.perform(get("/api/jobs/7/commons"))
+                                .andExpect(status().isForbidden());
+        }
+
         @WithMockUser(roles = { "ADMIN" })
         @Test
         public void admin_can_launch_test_job() throws Exception {
@@ -180,7 +567,6 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .createdAt(null)
                                 .updatedAt(null)
                                 .status("running")
-                                .log("Hello World! from test job!\nauthentication is not null")
                                 .build();
 
                 Job jobCompleted = Job.builder()
@@ -189,7 +575,6 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .createdAt(null)
                                 .updatedAt(null)
                                 .status("complete")
-                                .log("Hello World! from test job!\nauthentication is not null\nGoodbye from test job!")
                                 .build();
 
                 when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobCompleted);
@@ -206,9 +591,12 @@ public class JobsControllerTests extends ControllerTestCase {
                 assertEquals("running", jobReturned.getStatus());
 
                 await().atMost(1, SECONDS)
-                                .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobStarted)));
+                                .untilAsserted(() -> verify(jobsRepository, times(1)).save(eq(jobStarted)));
                 await().atMost(10, SECONDS)
-                                .untilAsserted(() -> verify(jobsRepository, times(5)).save(eq(jobCompleted)));
+                                .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobCompleted)));
+
+                assertEquals(List.of("Hello World! from test job!", "authentication is not null",
+                                "Goodbye from test job!"), loggedLines());
         }
 
         @WithMockUser(roles = { "ADMIN" })
@@ -225,7 +613,6 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .createdAt(null)
                                 .updatedAt(null)
                                 .status("running")
-                                .log("Hello World! from test job!\nauthentication is not null")
                                 .build();
 
                 Job jobFailed = Job.builder()
@@ -234,7 +621,6 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .createdAt(null)
                                 .updatedAt(null)
                                 .status("error")
-                                .log("Hello World! from test job!\nauthentication is not null\nFail!")
                                 .build();
 
                 when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobFailed);
@@ -250,10 +636,13 @@ public class JobsControllerTests extends ControllerTestCase {
                 assertEquals("running", jobReturned.getStatus());
 
                 await().atMost(1, SECONDS)
-                                .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobStarted)));
+                                .untilAsserted(() -> verify(jobsRepository, times(1)).save(eq(jobStarted)));
 
                 await().atMost(10, SECONDS)
-                                .untilAsserted(() -> verify(jobsRepository, times(4)).save(eq(jobFailed)));
+                                .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobFailed)));
+
+                assertEquals(List.of("Hello World! from test job!", "authentication is not null", "Fail!"),
+                                loggedLines());
         }
 
         @WithMockUser(roles = { "ADMIN" })
@@ -265,6 +654,7 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
+                verify(milkTheCowsJobFactory).create(false);
                 String responseString = response.getResponse().getContentAsString();
                 log.info("responseString={}", responseString);
                 Job jobReturned = objectMapper.readValue(responseString, Job.class);
@@ -272,6 +662,18 @@ public class JobsControllerTests extends ControllerTestCase {
                 assertNotNull(jobReturned.getStatus());
         }
 
+        @WithMockUser(roles = { "ADMIN" })
+        @Test
+        public void admin_can_launch_milk_the_cows_job_for_all_commons() throws Exception {
+
+                // act
+                mockMvc.perform(post("/api/jobs/launch/milkthecowjob?allCommons=true").with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                verify(milkTheCowsJobFactory).create(true);
+        }
+
         @WithMockUser(roles = { "ADMIN" })
         @Test
         public void admin_can_launch_milk_the_cows_individual_job() throws Exception {
@@ -295,6 +697,7 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
+                verify(instructorReportJobFactory).create(true);
                 String responseString = response.getResponse().getContentAsString();
                 log.info("responseString={}", responseString);
                 Job jobReturned = objectMapper.readValue(responseString, Job.class);
@@ -310,6 +713,7 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
+                verify(updateCowHealthJobFactory).create(false);
                 String responseString = response.getResponse().getContentAsString();
                 log.info("responseString={}", responseString);
                 Job jobReturned = objectMapper.readValue(responseString, Job.class);
@@ -426,6 +830,7 @@ public class JobsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
+                verify(recordCommonStatsJobFactory).create(false);
                 String responseString = response.getResponse().getContentAsString();
                 log.info("responseString={}", responseString);
                 Job jobReturned = objectMapper.readValue(responseString, Job.class);
@@ -0,0 +1,139 @@
+package edu.ucsb.cs156.happiercows.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import edu.ucsb.cs156.happiercows.ControllerTestCase;
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
+import edu.ucsb.cs156.happiercows.models.LeaderboardEntry;
+import edu.ucsb.cs156.happiercows.models.LeaderboardOrder;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
+
+@WebMvcTest(controllers = LeaderboardController.class)
+@Import(LeaderboardController.class)
+@AutoConfigureDataJpa
+public class LeaderboardControllerTests extends ControllerTestCase {
+
+    @MockBean
+    LeaderboardService leaderboardService;
+
+    private final List<LeaderboardEntry> entries = List.of(
+            LeaderboardEntry.builder().userId(2L).commonsId(1L).username("Rich").totalWealth(500).numOfCows(3).rank(1).build(),
+            LeaderboardEntry.builder().userId(1L).commonsId(1L).username("Poor").totalWealth(100).numOfCows(5).rank(2).build());
+
+    @Test
+    public void logged_out_users_cannot_get_the_leaderboard() throws Exception {
+        mockMvc.perform(get("/api/leaderboard/top?commonsId=1"))
+                .andExpect(status().is(403));
+        mockMvc.perform(get("/api/leaderboard/around?commonsId=1"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void user_gets_the_top_of_a_shown_leaderboard_with_default_order_and_size() throws Exception {
+        when(leaderboardService.isShown(1L)).thenReturn(true);
+        when(leaderboardService.top(1L, LeaderboardOrder.WEALTH, 10)).thenReturn(entries);
+
+        MvcResult response = mockMvc.perform(get("/api/leaderboard/top?commonsId=1"))
+                .andExpect(status().isOk()).andReturn();
+
+        assertEquals(mapper.writeValueAsString(entries), response.getResponse().getContentAsString());
+        verify(leaderboardService).top(1L, LeaderboardOrder.WEALTH, 10);
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void user_gets_the_top_of_a_leaderboard_by_cows() throws Exception {
+        when(leaderboardService.isShown(1L)).thenReturn(true);
+        when(leaderboardService.top(1L, LeaderboardOrder.COWS, 1)).thenReturn(entries.subList(1, 2));
+
+        MvcResult response = mockMvc.perform(get("/api/leaderboard/top?commonsId=1&orderBy=COWS&k=1"))
+                .andExpect(status().isOk()).andReturn();
+
+        assertEquals(mapper.writeValueAsString(entries.subList(1, 2)), response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void user_cannot_get_a_hidden_leaderboard() throws Exception {
+        when(leaderboardService.isShown(1L)).thenReturn(false);
+
+        mockMvc.perform(get("/api/leaderboard/top?commonsId=1"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/leaderboard/around?commonsId=1"))
+                .andExpect(status().isForbidden());
+
+        verify(leaderboardService, never()).top(anyLong(), any(), anyInt());
+        verify(leaderboardService, never()).around(anyLong(), any(), anyLong(), anyInt());
+    }
+
+    @WithMockUser(roles = {"ADMIN", "USER"})
+    @Test
+    public void admin_gets_a_hidden_leaderboard() throws Exception {
+        when(leaderboardService.isShown(1L)).thenReturn(false);
+        when(leaderboardService.top(1L, LeaderboardOrder.WEALTH, 10)).thenReturn(entries);
+
+        MvcResult response = mockMvc.perform(get("/api/leaderboard/top?commonsId=1"))
+                .andExpect(status().isOk()).andReturn();
+
+        assertEquals(mapper.writeValueAsString(entries), response.getResponse().getContentAsString());
+        verify(leaderboardService, never()).isShown(anyLong());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void user_gets_their_place_on_the_leaderboard() throws Exception {
+        when(leaderboardService.isShown(1L)).thenReturn(true);
+        when(leaderboardService.around(1L, LeaderboardOrder.WEALTH, 1L, 2)).thenReturn(entries);
+
+        MvcResult response = mockMvc.perform(get("/api/leaderboard/around?commonsId=1"))
+                .andExpect(status().isOk()).andReturn();
+
+        assertEquals(mapper.writeValueAsString(entries), response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void user_gets_their_place_on_the_leaderboard_by_cows_with_n_neighbours() throws Exception {
+        when(leaderboardService.isShown(1L)).thenReturn(true);
+        when(leaderboardService.around(1L, LeaderboardOrder.COWS, 1L, 0)).thenReturn(entries.subList(0, 1));
+
+        MvcResult response = mockMvc.perform(get("/api/leaderboard/around?commonsId=1&orderBy=COWS&n=0"))
+                .andExpect(status().isOk()).andReturn();
+
+        assertEquals(mapper.writeValueAsString(entries.subList(0, 1)), response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void leaderboard_of_a_missing_commons_is_not_found() throws Exception {
+        when(leaderboardService.isShown(7L)).thenThrow(new EntityNotFoundException(Commons.class, 7L));
+
+        MvcResult response = mockMvc.perform(get("/api/leaderboard/top?commonsId=7"))
+                .andExpect(status().isNotFound()).andReturn();
+
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("EntityNotFoundException", json.get("type"));
+        assertEquals("Commons with id 7 not found", json.get("message"));
+    }
+}
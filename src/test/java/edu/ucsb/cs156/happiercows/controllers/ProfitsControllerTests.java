@@ -15,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
@@ -170,9 +171,9 @@ public class ProfitsControllerTests extends ControllerTestCase {
 
         when(userCommonsRepository.findByCommonsIdAndUserId(2L, 1L)).thenReturn(Optional.of(expectedUserCommons));
 
-        // Mocking the behavior for pagination
-        Page<Profit> profitPage = new PageImpl<>(profits);
-        when(profitRepository.findAllByUserCommons(eq(uc1))).thenReturn(profitPage);
+        Pageable pageable = PageRequest.of(0, 7, Sort.by(Sort.Direction.DESC, "timestamp"));
+        Page<Profit> profitPage = new PageImpl<>(profits, pageable, 1);
+        when(profitRepository.findAllByUserCommons(eq(uc1), eq(pageable))).thenReturn(profitPage);
 
         MvcResult response = mockMvc.perform(get("/api/profits/paged/commonsid?commonsId=2&pageNumber=0&pageSize=7"))
                 .andDo(print())
@@ -188,6 +189,7 @@ public class ProfitsControllerTests extends ControllerTestCase {
         assertEquals(0, jsonResponse.get("number").asInt());
         assertEquals(7, jsonResponse.get("size").asInt());
         assertEquals(1, jsonResponse.get("totalPages").asInt());
+        verify(profitRepository, never()).findAllByUserCommons(any());
     }
 
     @WithMockUser(roles = {"USER"})
@@ -197,9 +199,10 @@ public class ProfitsControllerTests extends ControllerTestCase {
 
         when(userCommonsRepository.findByCommonsIdAndUserId(2L, 1L)).thenReturn(Optional.of(expectedUserCommons));
 
-        // Mocking the behavior for pagination
-        Page<Profit> profitPage = new PageImpl<>(profits2);
-        when(profitRepository.findAllByUserCommons(eq(uc1))).thenReturn(profitPage);
+        // the database returns only the second page, and counts the rest
+        Pageable pageable = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "timestamp"));
+        Page<Profit> profitPage = new PageImpl<>(List.of(p3), pageable, 3);
+        when(profitRepository.findAllByUserCommons(eq(uc1), eq(pageable))).thenReturn(profitPage);
 
         MvcResult response = mockMvc.perform(get("/api/profits/paged/commonsid?commonsId=2&pageNumber=1&pageSize=2"))
                 .andDo(print())
@@ -214,4 +217,55 @@ public class ProfitsControllerTests extends ControllerTestCase {
         assertEquals(2, jsonResponse.get("totalPages").asInt());
         assertEquals(p3.getAmount(), jsonResponse.get("content").get(0).get("amount").asDouble(), 0.01);
     }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void get_profits_since_nonexistent_using_commons_id() throws Exception {
+        MvcResult response = mockMvc.perform(get("/api/profits/since/commonsid?commonsId=2&since=2022-03-05T15:50:10"))
+                .andExpect(status().isNotFound()).andReturn();
+
+        verify(userCommonsRepository, times(1)).findByCommonsIdAndUserId(2L, 1L);
+
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("EntityNotFoundException", json.get("type"));
+        assertEquals("UserCommons with commonsId 2 and userId 1 not found",
+                json.get("message"));
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void get_profits_since_using_commons_id() throws Exception {
+        when(userCommonsRepository.findByCommonsIdAndUserId(2L, 1L)).thenReturn(Optional.of(uc1));
+
+        LocalDateTime since = LocalDateTime.parse("2022-03-05T04:00:00");
+        Pageable pageable = PageRequest.of(0, 100);
+        when(profitRepository.findNextByUserCommons(eq(uc1), eq(since), eq(Long.MAX_VALUE), eq(pageable))).thenReturn(profits);
+
+        MvcResult response = mockMvc.perform(get("/api/profits/since/commonsid?commonsId=2&since=2022-03-05T04:00:00"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(p1.getId()))
+                .andExpect(jsonPath("$[0].amount").value(p1.getAmount()))
+                .andReturn();
+
+        verify(profitRepository, times(1)).findNextByUserCommons(eq(uc1), eq(since), eq(Long.MAX_VALUE), eq(pageable));
+        verify(profitRepository, never()).findAllByUserCommons(any());
+        assertEquals(1, objectMapper.readTree(response.getResponse().getContentAsString()).size());
+    }
+
+    @WithMockUser(roles = {"USER"})
+    @Test
+    public void get_profits_since_with_page_size() throws Exception {
+        when(userCommonsRepository.findByCommonsIdAndUserId(2L, 1L)).thenReturn(Optional.of(uc1));
+
+        LocalDateTime since = LocalDateTime.parse("2022-03-05T04:00:00");
+        Pageable pageable = PageRequest.of(0, 2);
+        when(profitRepository.findNextByUserCommons(eq(uc1), eq(since), eq(7L), eq(pageable))).thenReturn(List.of(p1, p2));
+
+        mockMvc.perform(get("/api/profits/since/commonsid?commonsId=2&since=2022-03-05T04:00:00&afterId=7&pageSize=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        verify(profitRepository, times(1)).findNextByUserCommons(eq(uc1), eq(since), eq(7L), eq(pageable));
+    }
 }
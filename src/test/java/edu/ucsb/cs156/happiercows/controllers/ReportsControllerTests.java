@@ -13,6 +13,7 @@ import edu.ucsb.cs156.happiercows.repositories.ReportLineRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CSVExportService;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
 
 import org.junit.jupiter.api.Test;
@@ -27,17 +28,20 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ReportsController.class)
-@Import(ReportsController.class)
+@Import({ReportsController.class, CSVExportService.class})
 @AutoConfigureDataJpa
 public class ReportsControllerTests extends ControllerTestCase {
         @Autowired
@@ -194,12 +198,17 @@ public class ReportsControllerTests extends ControllerTestCase {
         @WithMockUser(roles = { "ADMIN" })
         @Test
         public void test_get_csv() throws Exception {
-                when(reportLineRepository.findAllByReportId(432L)).thenReturn(List.of(expectedReportLine));
+                Runnable onClose = mock(Runnable.class);
+                when(reportLineRepository.streamAllByReportId(432L)).thenReturn(Stream.of(expectedReportLine).onClose(onClose));
                
-                MvcResult response = mockMvc.perform(get("/api/reports/download?reportId=432")).andDo(print())
+                MvcResult started = mockMvc.perform(get("/api/reports/download?reportId=432"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(started)).andDo(print())
                                 .andExpect(status().isOk()).andReturn();
 
-                verify(reportLineRepository, times(1)).findAllByReportId(eq(432L));
+                verify(reportLineRepository, times(1)).streamAllByReportId(eq(432L));
+                verify(reportLineRepository, never()).findAllByReportId(any());
+                verify(onClose, times(1)).run();
                 String responseString = response.getResponse().getContentAsString();
 
                 assertEquals("application/csv", response.getResponse().getContentType());
@@ -6,6 +6,8 @@ import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -39,6 +41,12 @@ public class UserCommonsControllerTests extends ControllerTestCase {
     @MockBean
     CommonsRepository commonsRepository;
 
+    @MockBean
+    CommonsAggregateService commonsAggregateService;
+
+    @MockBean
+    LeaderboardService leaderboardService;
+
     Commons testCommons = Commons
             .builder()
             .name("test commons")
@@ -157,6 +165,8 @@ public class UserCommonsControllerTests extends ControllerTestCase {
         // assert
         verify(userCommonsRepository, times(1)).findByCommonsIdAndUserId(eq(1L), eq(1L));
         verify(userCommonsRepository, times(1)).save(updateUserCommons);
+        verify(commonsAggregateService, times(1)).cowsChanged(1L, 2, updateUserCommons.getCowHealth());
+        verify(leaderboardService, times(1)).userCommonsChanged(updateUserCommons);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedReturn, responseString);
     }
@@ -191,6 +201,8 @@ public class UserCommonsControllerTests extends ControllerTestCase {
         // assert
         verify(userCommonsRepository, times(1)).findByCommonsIdAndUserId(eq(1L), eq(1L));
         verify(userCommonsRepository, times(1)).save(updatedUserCommons);
+        verify(commonsAggregateService, times(1)).cowsChanged(1L, 1, updatedUserCommons.getCowHealth());
+        verify(leaderboardService, times(1)).userCommonsChanged(updatedUserCommons);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedReturn, responseString);
     }
@@ -225,6 +237,8 @@ public class UserCommonsControllerTests extends ControllerTestCase {
         // assert
         verify(userCommonsRepository, times(1)).findByCommonsIdAndUserId(eq(1L), eq(1L));
         verify(userCommonsRepository, times(1)).save(updatedUserCommons);
+        verify(commonsAggregateService, times(1)).cowsChanged(1L, -2, 50);
+        verify(leaderboardService, times(1)).userCommonsChanged(updatedUserCommons);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedReturn, responseString);
     }
@@ -323,6 +337,8 @@ public class UserCommonsControllerTests extends ControllerTestCase {
         Map<String, Object> expectedJson = mapper.readValue(expectedString, Map.class);
         Map<String, Object> jsonResponse = responseToJson(response);
         assertEquals(expectedJson, jsonResponse);
+        verify(commonsAggregateService, never()).cowsChanged(anyLong(), anyInt(), anyDouble());
+        verify(leaderboardService, never()).userCommonsChanged(any(UserCommons.class));
     }
 
     @WithMockUser(roles = {"USER"})
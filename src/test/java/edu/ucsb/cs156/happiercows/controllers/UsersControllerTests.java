@@ -3,12 +3,14 @@ package edu.ucsb.cs156.happiercows.controllers;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 
 import edu.ucsb.cs156.happiercows.ControllerTestCase;
 import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.interceptors.RoleUserInterceptor;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.testconfig.TestConfig;
 
@@ -37,6 +39,9 @@ public class UsersControllerTests extends ControllerTestCase {
   @MockBean
   UserRepository userRepository;
 
+  @SpyBean
+  RoleUserInterceptor roleUserInterceptor;
+
   @Test
   public void users__logged_out() throws Exception {
     mockMvc.perform(get("/api/admin/users"))
@@ -102,7 +107,7 @@ public class UsersControllerTests extends ControllerTestCase {
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_user_can_suspend_user() throws Exception {
-    User u1 = User.builder().id(1L).build();
+    User u1 = User.builder().id(1L).email("cgaucho@ucsb.edu").build();
     User user = spy(u1);
     when(userRepository.findById(u1.getId())).thenReturn(Optional.of(user));
     when(userRepository.save(any(User.class))).thenReturn(user);
@@ -111,6 +116,7 @@ public class UsersControllerTests extends ControllerTestCase {
 
     verify(userRepository, times(1)).save(user);
     verify(user, times(1)).setSuspended(true);
+    verify(roleUserInterceptor, times(1)).invalidate("cgaucho@ucsb.edu");
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("User with id 1 suspended", json.get("message"));
@@ -119,7 +125,7 @@ public class UsersControllerTests extends ControllerTestCase {
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_user_can_restore_user() throws Exception {
-    User u1 = User.builder().id(1L).build();
+    User u1 = User.builder().id(1L).email("cgaucho@ucsb.edu").build();
     User user = spy(u1);
     when(userRepository.findById(u1.getId())).thenReturn(Optional.of(user));
     when(userRepository.save(any(User.class))).thenReturn(user);
@@ -128,6 +134,7 @@ public class UsersControllerTests extends ControllerTestCase {
 
     verify(userRepository, times(1)).save(user);
     verify(user, times(1)).setSuspended(false);
+    verify(roleUserInterceptor, times(1)).invalidate("cgaucho@ucsb.edu");
     Map<String, Object> json = responseToJson(response);
     assertEquals("User with id 1 restored", json.get("message"));
   }
@@ -0,0 +1,83 @@
+package edu.ucsb.cs156.happiercows.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+public class QueryDiagnosticsListenerTests {
+
+    @AfterEach
+    void tearDown() {
+        QueryStats.end();
+    }
+
+    private static ExecutionInfo execution(long elapsedMs) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setElapsedTime(elapsedMs);
+        return execInfo;
+    }
+
+    private static ParameterSetOperation set(String method, Class<?> type, Object... args) throws Exception {
+        return new ParameterSetOperation(PreparedStatement.class.getMethod(method, int.class, type), args);
+    }
+
+    @Test
+    void statements_are_added_to_the_stats_of_the_thread() {
+        QueryDiagnosticsListener listener = new QueryDiagnosticsListener(100);
+        QueryStats stats = QueryStats.begin();
+
+        listener.beforeQuery(execution(0), List.of(new QueryInfo("select 1")));
+        listener.afterQuery(execution(4), List.of(new QueryInfo("select 1")));
+        listener.afterQuery(execution(150), List.of(new QueryInfo("insert 1"), new QueryInfo("insert 2")));
+
+        assertEquals(3, stats.getCount());
+        assertEquals(154, stats.getElapsedMs());
+    }
+
+    @Test
+    void statements_run_while_not_counting_are_ignored() {
+        QueryDiagnosticsListener listener = new QueryDiagnosticsListener(0);
+
+        listener.afterQuery(execution(4), List.of(new QueryInfo("select 1")));
+
+        assertNull(QueryStats.current());
+    }
+
+    @Test
+    void describe_lists_the_parameters_of_each_row() throws Exception {
+        QueryInfo queryInfo = new QueryInfo("update users set name=?, age=? where id=?");
+        queryInfo.setParametersList(List.of(
+                List.of(set("setString", String.class, 1, "Chris"), set("setNull", int.class, 2, Types.INTEGER),
+                        set("setLong", long.class, 3, 7L)),
+                List.of(set("setString", String.class, 1, "Pat"), set("setInt", int.class, 2, 20),
+                        set("setLong", long.class, 3, 8L))));
+
+        assertEquals("update users set name=?, age=? where id=? [Chris, null, 7] [Pat, 20, 8]",
+                QueryDiagnosticsListener.describe(queryInfo));
+    }
+
+    @Test
+    void describe_skips_operations_without_a_value() throws Exception {
+        QueryInfo queryInfo = new QueryInfo("select * from users where id=?");
+        ParameterSetOperation clear = new ParameterSetOperation(PreparedStatement.class.getMethod("clearParameters"), null);
+        ParameterSetOperation noValue = new ParameterSetOperation(PreparedStatement.class.getMethod("clearParameters"), new Object[0]);
+        queryInfo.setParametersList(List.of(List.of(clear, noValue, set("setLong", long.class, 1, 7L))));
+
+        assertEquals("select * from users where id=? [7]", QueryDiagnosticsListener.describe(queryInfo));
+    }
+
+    @Test
+    void describe_of_a_statement_without_parameters_is_its_sql() {
+        assertEquals("select 1", QueryDiagnosticsListener.describe(new QueryInfo("select 1")));
+    }
+}
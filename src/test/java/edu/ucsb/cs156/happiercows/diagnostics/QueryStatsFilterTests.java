@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.happiercows.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class QueryStatsFilterTests {
+
+    private final QueryStatsFilter filter = new QueryStatsFilter();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/commons/all");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void headers_are_added_when_the_body_is_sent() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            QueryStats.current().record(2, 9);
+            res.getWriter().write("[]");
+            res.flushBuffer();
+            // not included: the headers have gone out already
+            QueryStats.current().record(1, 1);
+        });
+
+        assertEquals("2", response.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER));
+        assertEquals("9", response.getHeader(QueryStatsFilter.QUERY_TIME_HEADER));
+        assertNull(QueryStats.current());
+    }
+
+    @Test
+    void headers_are_added_after_a_response_without_a_body() throws Exception {
+        filter.doFilter(request, response, (req, res) -> QueryStats.current().record(1, 3));
+
+        assertEquals("1", response.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER));
+        assertEquals("3", response.getHeader(QueryStatsFilter.QUERY_TIME_HEADER));
+    }
+
+    @Test
+    void headers_are_added_once_when_the_whole_body_is_written_before_the_response_is_committed() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            QueryStats.current().record(1, 3);
+            res.setContentLength(2);
+            res.getWriter().write("[]");
+            QueryStats.current().record(1, 1);
+        });
+
+        assertEquals("1", response.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER));
+        assertEquals("3", response.getHeader(QueryStatsFilter.QUERY_TIME_HEADER));
+    }
+
+    @Test
+    void counting_stops_when_the_request_fails() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request, response, (req, res) -> {
+            throw new IllegalStateException("Boom");
+        }));
+
+        assertNull(QueryStats.current());
+    }
+}
@@ -0,0 +1,69 @@
+package edu.ucsb.cs156.happiercows.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class QueryStatsTests {
+
+    @AfterEach
+    void tearDown() {
+        QueryStats.end();
+    }
+
+    @Test
+    void statements_are_counted_between_begin_and_end() {
+        assertNull(QueryStats.current());
+
+        QueryStats stats = QueryStats.begin();
+        QueryStats.current().record(1, 5);
+        QueryStats.current().record(2, 7);
+
+        assertSame(stats, QueryStats.current());
+        assertEquals(3, stats.getCount());
+        assertEquals(12, stats.getElapsedMs());
+
+        QueryStats.end();
+        assertNull(QueryStats.current());
+    }
+
+    @Test
+    void propagated_tasks_count_towards_the_submitting_thread() throws Exception {
+        QueryStats stats = QueryStats.begin();
+        AtomicReference<QueryStats> seen = new AtomicReference<>();
+
+        Thread thread = new Thread(QueryStats.propagate(() -> {
+            seen.set(QueryStats.current());
+            QueryStats.current().record(1, 3);
+        }));
+        thread.start();
+        thread.join();
+
+        assertSame(stats, seen.get());
+        assertEquals(1, stats.getCount());
+        assertEquals(3, stats.getElapsedMs());
+    }
+
+    @Test
+    void propagated_tasks_leave_nothing_behind_on_their_thread() {
+        QueryStats stats = QueryStats.begin();
+        Runnable task = QueryStats.propagate(() -> assertSame(stats, QueryStats.current()));
+        QueryStats.end();
+
+        task.run();
+
+        assertNull(QueryStats.current());
+    }
+
+    @Test
+    void tasks_submitted_while_not_counting_are_not_wrapped() {
+        Runnable task = () -> { };
+
+        assertSame(task, QueryStats.propagate(task));
+    }
+}
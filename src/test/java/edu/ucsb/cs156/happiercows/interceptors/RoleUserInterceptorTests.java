@@ -48,8 +48,14 @@ public class RoleUserInterceptorTests {
   @Autowired
   private RequestMappingHandlerMapping mapping;
 
+  @Autowired
+  private RoleUserInterceptor roleUserInterceptor;
+
   @BeforeEach
   public void setupSecurityContext() {
+    // the context, and so the cache, is shared between tests
+    roleUserInterceptor.invalidateAll();
+
     Map<String, Object> attributes = new HashMap<>();
     attributes.put("id", 1);
     attributes.put("email", "gauchoMock@ucsb.edu");
@@ -210,4 +216,56 @@ public class RoleUserInterceptorTests {
     assertEquals(response.getStatus(), HttpServletResponse.SC_FORBIDDEN);
     assertNull(SecurityContextHolder.getContext().getAuthentication());
   }
+
+  private User userWithRoles(boolean admin, boolean suspended) {
+    return User.builder()
+      .id(1)
+      .email("gauchoMock@ucsb.edu")
+      .admin(admin)
+      .suspended(suspended)
+      .build();
+  }
+
+  private boolean hasAdminRole() {
+    return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+      .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
+  }
+
+  @Test
+  public void interceptor_caches_roles_between_requests() throws Exception {
+    when(userRepository.findByEmail("gauchoMock@ucsb.edu")).thenReturn(Optional.of(userWithRoles(false, false)));
+    Authentication original = SecurityContextHolder.getContext().getAuthentication();
+
+    assertTrue(roleUserInterceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null));
+    SecurityContextHolder.getContext().setAuthentication(original);
+    assertTrue(roleUserInterceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null));
+
+    verify(userRepository, times(1)).findByEmail("gauchoMock@ucsb.edu");
+    assertFalse(hasAdminRole());
+  }
+
+  @Test
+  public void interceptor_does_not_cache_missing_user() throws Exception {
+    when(userRepository.findByEmail("gauchoMock@ucsb.edu")).thenReturn(Optional.empty());
+
+    roleUserInterceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null);
+    roleUserInterceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null);
+
+    verify(userRepository, times(2)).findByEmail("gauchoMock@ucsb.edu");
+  }
+
+  @Test
+  public void suspension_takes_effect_on_next_request_after_invalidate() throws Exception {
+    when(userRepository.findByEmail("gauchoMock@ucsb.edu")).thenReturn(Optional.of(userWithRoles(true, false)));
+    assertTrue(roleUserInterceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null));
+    assertTrue(hasAdminRole());
+
+    when(userRepository.findByEmail("gauchoMock@ucsb.edu")).thenReturn(Optional.of(userWithRoles(true, true)));
+    roleUserInterceptor.invalidate("gauchoMock@ucsb.edu");
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertFalse(roleUserInterceptor.preHandle(new MockHttpServletRequest(), response, null));
+    assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+    verify(userRepository, times(2)).findByEmail("gauchoMock@ucsb.edu");
+  }
 }
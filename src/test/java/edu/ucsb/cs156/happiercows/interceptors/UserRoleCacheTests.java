@@ -0,0 +1,142 @@
+package edu.ucsb.cs156.happiercows.interceptors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.happiercows.interceptors.UserRoleCache.UserRoles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class UserRoleCacheTests {
+
+    private final UserRoles admin = new UserRoles(true, false);
+    private final UserRoles suspended = new UserRoles(false, true);
+
+    private Clock clock;
+    private UserRoleCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L);
+        cache = new UserRoleCache(2, Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void get_returns_cached_roles() {
+        cache.put("a@ucsb.edu", admin, cache.generation());
+
+        assertEquals(Optional.of(admin), cache.get("a@ucsb.edu"));
+        assertEquals(Optional.empty(), cache.get("b@ucsb.edu"));
+    }
+
+    @Test
+    void entries_expire_after_ttl() {
+        cache.put("a@ucsb.edu", admin, cache.generation());
+
+        when(clock.millis()).thenReturn(60999L);
+        assertEquals(Optional.of(admin), cache.get("a@ucsb.edu"));
+
+        when(clock.millis()).thenReturn(61000L);
+        assertEquals(Optional.empty(), cache.get("a@ucsb.edu"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void least_recently_used_entry_is_dropped_when_full() {
+        cache.put("a@ucsb.edu", admin, cache.generation());
+        cache.put("b@ucsb.edu", suspended, cache.generation());
+        cache.get("a@ucsb.edu");
+
+        cache.put("c@ucsb.edu", admin, cache.generation());
+
+        assertEquals(2, cache.size());
+        assertEquals(Optional.of(admin), cache.get("a@ucsb.edu"));
+        assertEquals(Optional.empty(), cache.get("b@ucsb.edu"));
+        assertEquals(Optional.of(admin), cache.get("c@ucsb.edu"));
+    }
+
+    @Test
+    void invalidate_removes_one_entry() {
+        cache.put("a@ucsb.edu", admin, cache.generation());
+        cache.put("b@ucsb.edu", suspended, cache.generation());
+
+        cache.invalidate("a@ucsb.edu");
+
+        assertEquals(Optional.empty(), cache.get("a@ucsb.edu"));
+        assertEquals(Optional.of(suspended), cache.get("b@ucsb.edu"));
+    }
+
+    @Test
+    void invalidateAll_removes_every_entry() {
+        cache.put("a@ucsb.edu", admin, cache.generation());
+        cache.put("b@ucsb.edu", suspended, cache.generation());
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void roles_loaded_before_an_invalidation_are_not_cached() {
+        // a request reads the user, then an admin suspends the user before
+        // the request gets to cache what it read
+        long generation = cache.generation();
+        cache.invalidate("a@ucsb.edu");
+
+        cache.put("a@ucsb.edu", admin, generation);
+
+        assertEquals(Optional.empty(), cache.get("a@ucsb.edu"));
+    }
+
+    @Test
+    void hits_misses_puts_and_evictions_are_counted() {
+        cache.put("a@ucsb.edu", admin, cache.generation());
+        cache.put("b@ucsb.edu", suspended, cache.generation());
+        cache.get("a@ucsb.edu");
+        cache.get("c@ucsb.edu");
+        // drops b, the least recently used
+        cache.put("c@ucsb.edu", admin, cache.generation());
+        when(clock.millis()).thenReturn(61000L);
+        // a has expired
+        cache.get("a@ucsb.edu");
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(3, cache.getPuts());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void counts_are_registered_as_cache_meters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.put("a@ucsb.edu", admin, cache.generation());
+        cache.get("a@ucsb.edu");
+        cache.get("a@ucsb.edu");
+        cache.get("b@ucsb.edu");
+
+        assertEquals(1.0, registry.get("cache.size").tag("cache", "userRoles").gauge().value());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "userRoles").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "userRoles").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.puts").tag("cache", "userRoles").functionCounter().count());
+        assertEquals(0.0, registry.get("cache.evictions").tag("cache", "userRoles").functionCounter().count());
+    }
+
+    @Test
+    void nothing_is_cached_when_max_size_is_zero() {
+        UserRoleCache disabled = new UserRoleCache(0, Duration.ofSeconds(60), clock);
+
+        disabled.put("a@ucsb.edu", admin, disabled.generation());
+
+        assertEquals(Optional.empty(), disabled.get("a@ucsb.edu"));
+    }
+}
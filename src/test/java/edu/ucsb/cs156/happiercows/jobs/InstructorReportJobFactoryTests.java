@@ -12,6 +12,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import edu.ucsb.cs156.happiercows.JobTestCase;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.services.ReportService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 
 @RestClientTest(InstructorReportJobFactory.class)
 @AutoConfigureDataJpa
@@ -23,6 +24,9 @@ public class InstructorReportJobFactoryTests extends JobTestCase {
     @MockBean
     CommonsRepository commonsRepository;
 
+    @MockBean
+    CommonsTaskRunner commonsTaskRunner;
+
     @Autowired
     InstructorReportJobFactory InstructorReportJobFactory;
 
@@ -35,7 +39,18 @@ public class InstructorReportJobFactoryTests extends JobTestCase {
         // Assert
         assertEquals(reportService,InstructorReportJob.getReportService());
         assertEquals(commonsRepository,InstructorReportJob.getCommonsRepository());
+        assertEquals(commonsTaskRunner,InstructorReportJob.getCommonsTaskRunner());
+        assertEquals(true,InstructorReportJob.isAllCommons());
        
     }
-}
 
+    @Test
+    void test_create_for_all_commons() throws Exception {
+
+        // Act
+        InstructorReportJob job = (InstructorReportJob) InstructorReportJobFactory.create(true);
+
+        // Assert
+        assertEquals(true,job.isAllCommons());
+    }
+}
@@ -15,6 +15,7 @@ import edu.ucsb.cs156.happiercows.entities.Report;
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
 import edu.ucsb.cs156.happiercows.services.ReportService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration
@@ -31,7 +32,8 @@ public class InstructorReportJobSingleCommonsTests extends JobTestCase {
         Report report = Report.builder().id(17L).name("Foo").build();
         
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
       
         when(reportService.createReport(17L)).thenReturn(report);
 
@@ -47,6 +49,6 @@ public class InstructorReportJobSingleCommonsTests extends JobTestCase {
             Producing instructor report for commons id: 17
             Instructor report 17 for commons Foo has been produced!""";
 
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
     }
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
@@ -19,6 +22,7 @@ import edu.ucsb.cs156.happiercows.entities.jobs.Job;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.services.ReportService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration
@@ -39,26 +43,63 @@ public class InstructorReportJobTests extends JobTestCase {
         Report report = Report.builder().id(17L).build();
         
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
       
-        when(commonsRepository.findAll()).thenReturn(Arrays.asList(commons));      
+        when(commonsRepository.findInProgress(any(LocalDateTime.class))).thenReturn(Arrays.asList(commons));      
+        when(commonsRepository.count()).thenReturn(3L);
         when(reportService.createReport(17L)).thenReturn(report);
 
         // Act
-        InstructorReportJob instructorReportJob = new InstructorReportJob(reportService, commonsRepository);
+        InstructorReportJob instructorReportJob = new InstructorReportJob(reportService, commonsRepository, inlineCommonsTaskRunner(), false);
         instructorReportJob.accept(ctx);
 
         // Assert
 
-        verify(commonsRepository).findAll();
+        verify(commonsRepository, never()).findAll();
         verify(reportService).createReport(17L);
         
         String expected = """
             Starting instructor report...
+            Processing 1 commons in progress, skipped 2 that have not started or have ended
             Starting Commons id=17 (CS156)...
             Report 17 for commons id=17 (CS156) finished.
             Instructor report done!""";
 
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
+    }
+
+    @Test
+    void test_admin_can_report_on_all_commons() throws Exception {
+
+        // Arrange
+
+        Commons finished = Commons.builder().id(17L).name("CS156").build();
+        Report report = Report.builder().id(18L).build();
+
+        Job jobStarted = Job.builder().build();
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
+
+        when(commonsRepository.findAll()).thenReturn(Arrays.asList(finished));
+        when(reportService.createReport(17L)).thenReturn(report);
+
+        // Act
+        InstructorReportJob instructorReportJob = new InstructorReportJob(reportService, commonsRepository, inlineCommonsTaskRunner(), true);
+        instructorReportJob.accept(ctx);
+
+        // Assert
+
+        verify(commonsRepository, never()).findInProgress(any());
+        verify(commonsRepository, never()).count();
+
+        String expected = """
+            Starting instructor report...
+            Processing all 1 commons, including those not in progress
+            Starting Commons id=17 (CS156)...
+            Report 18 for commons id=17 (CS156) finished.
+            Instructor report done!""";
+
+        assertEquals(expected, logSink.getLog());
     }
 }
\ No newline at end of file
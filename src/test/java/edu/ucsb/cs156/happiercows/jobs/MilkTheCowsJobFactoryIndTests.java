@@ -14,6 +14,7 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 
 @RestClientTest(MilkTheCowsJobFactoryInd.class)
 @AutoConfigureDataJpa
@@ -31,6 +32,9 @@ public class MilkTheCowsJobFactoryIndTests extends JobTestCase {
     @MockBean
     ProfitRepository profitRepository;
 
+    @MockBean
+    LeaderboardService leaderboardService;
+
     @Autowired
     MilkTheCowsJobFactoryInd MilkTheCowsJobFactoryInd;
 
@@ -45,6 +49,7 @@ public class MilkTheCowsJobFactoryIndTests extends JobTestCase {
         assertEquals(userCommonsRepository,milkTheCowsJobInd.getUserCommonsRepository());
         assertEquals(userRepository,milkTheCowsJobInd.getUserRepository());
         assertEquals(profitRepository,milkTheCowsJobInd.getProfitRepository());
+        assertEquals(leaderboardService,milkTheCowsJobInd.getLeaderboardService());
 
     }
 }
@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import org.junit.jupiter.api.Test;
 
@@ -14,6 +15,8 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 
 @RestClientTest(MilkTheCowsJobFactory.class)
 @AutoConfigureDataJpa
@@ -31,6 +34,12 @@ public class MilkTheCowsJobFactoryTests extends JobTestCase {
     @MockBean
     ProfitRepository profitRepository;
 
+    @MockBean
+    CommonsTaskRunner commonsTaskRunner;
+
+    @MockBean
+    LeaderboardService leaderboardService;
+
     @Autowired
     MilkTheCowsJobFactory MilkTheCowsJobFactory;
 
@@ -45,7 +54,21 @@ public class MilkTheCowsJobFactoryTests extends JobTestCase {
         assertEquals(userCommonsRepository,milkTheCowsJob.getUserCommonsRepository());
         assertEquals(userRepository,milkTheCowsJob.getUserRepository());
         assertEquals(profitRepository,milkTheCowsJob.getProfitRepository());
+        assertEquals(false,milkTheCowsJob.isBulk());
+        assertNotNull(milkTheCowsJob.getTransactionTemplate());
+        assertEquals(commonsTaskRunner,milkTheCowsJob.getCommonsTaskRunner());
+        assertEquals(leaderboardService,milkTheCowsJob.getLeaderboardService());
+        assertEquals(false,milkTheCowsJob.isAllCommons());
 
     }
-}
 
+    @Test
+    void test_create_for_all_commons() throws Exception {
+
+        // Act
+        MilkTheCowsJob job = (MilkTheCowsJob) MilkTheCowsJobFactory.create(true);
+
+        // Assert
+        assertEquals(true,job.isAllCommons());
+    }
+}
@@ -9,7 +9,9 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -22,6 +24,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -39,6 +42,9 @@ public class MilkTheCowsJobIndTests extends JobTestCase {
     @Mock
     ProfitRepository profitRepository;
 
+    @Mock
+    LeaderboardService leaderboardService;
+
     private User user = User
             .builder()
             .id(1L)
@@ -62,20 +68,21 @@ public class MilkTheCowsJobIndTests extends JobTestCase {
 
         // Arrange
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         when(commonsRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act
         MilkTheCowsJobInd MilkTheCowsJobInd = new MilkTheCowsJobInd(commonsRepository, userCommonsRepository,
-                userRepository, profitRepository, 1L);
+                userRepository, profitRepository, 1L, leaderboardService);
         MilkTheCowsJobInd.accept(ctx);
 
         // Assert
         String expected = """
                 Starting to milk the cows
                 No commons found for id 1""";
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
     }
 
     @Test
@@ -83,7 +90,8 @@ public class MilkTheCowsJobIndTests extends JobTestCase {
 
         // Arrange
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         UserCommons origUserCommons = UserCommons
                 .builder()
@@ -103,7 +111,7 @@ public class MilkTheCowsJobIndTests extends JobTestCase {
 
         // Act
         MilkTheCowsJobInd milkTheCowsJobInd = new MilkTheCowsJobInd(commonsRepository, userCommonsRepository,
-                userRepository, profitRepository, 1L);
+                userRepository, profitRepository, 1L, leaderboardService);
         milkTheCowsJobInd.accept(ctx);
         
 
@@ -116,7 +124,8 @@ public class MilkTheCowsJobIndTests extends JobTestCase {
                 Profit for user: Chris Gaucho is: $0.20, newWealth: $300.20
                 Cows have been milked!""";
 
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
+        verify(leaderboardService).userCommonsChanged(Arrays.asList(origUserCommons));
     }
 
 }
@@ -9,18 +9,26 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ProfitRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,6 +47,12 @@ public class MilkTheCowsJobTests extends JobTestCase {
     @Mock
     ProfitRepository profitRepository;
 
+    @Mock
+    LeaderboardService leaderboardService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
     private User user = User
             .builder()
             .id(1L)
@@ -64,11 +78,12 @@ public class MilkTheCowsJobTests extends JobTestCase {
         // Arrange
 
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         // Act
         MilkTheCowsJob milkTheCowsJob = new MilkTheCowsJob(commonsRepository, userCommonsRepository,
-                userRepository, profitRepository);
+                userRepository, profitRepository, false, new TransactionTemplate(transactionManager), inlineCommonsTaskRunner(), leaderboardService, false);
 
         milkTheCowsJob.accept(ctx);
 
@@ -76,9 +91,10 @@ public class MilkTheCowsJobTests extends JobTestCase {
 
         String expected = """
                 Starting to milk the cows
+                Processing 0 commons in progress, skipped 0 that have not started or have ended
                 Cows have been milked!""";
 
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
     }
 
     @Test
@@ -86,7 +102,8 @@ public class MilkTheCowsJobTests extends JobTestCase {
 
         // Arrange
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         UserCommons origUserCommons = UserCommons
                 .builder()
@@ -97,7 +114,8 @@ public class MilkTheCowsJobTests extends JobTestCase {
                 .cowHealth(10)
                 .build();
 
-        when(commonsRepository.findAll()).thenReturn(Arrays.asList(testCommons));
+        when(commonsRepository.findInProgress(any(LocalDateTime.class))).thenReturn(Arrays.asList(testCommons));
+        when(commonsRepository.count()).thenReturn(1L);
         when(userCommonsRepository.findByCommonsId(testCommons.getId()))
                 .thenReturn(Arrays.asList(origUserCommons));
         when(commonsRepository.getNumCows(testCommons.getId())).thenReturn(Optional.of(Integer.valueOf(1)));
@@ -105,19 +123,21 @@ public class MilkTheCowsJobTests extends JobTestCase {
 
         // Act
         MilkTheCowsJob MilkTheCowsJob = new MilkTheCowsJob(commonsRepository, userCommonsRepository,
-                userRepository, profitRepository);
+                userRepository, profitRepository, false, new TransactionTemplate(transactionManager), inlineCommonsTaskRunner(), leaderboardService, false);
         MilkTheCowsJob.accept(ctx);
 
         // Assert
 
         String expected = """
                 Starting to milk the cows
+                Processing 1 commons in progress, skipped 0 that have not started or have ended
                 Milking cows for Commons: test commons, Milk Price: $2.00
                 User: Chris Gaucho, numCows: 1, cowHealth: 10.0, totalWealth: $300.00
                 Profit for user: Chris Gaucho is: $0.20, newWealth: $300.20
                 Cows have been milked!""";
 
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
+        verify(leaderboardService).userCommonsChanged(Arrays.asList(origUserCommons));
     }
 
     @Test
@@ -125,7 +145,8 @@ public class MilkTheCowsJobTests extends JobTestCase {
 
         // Arrange
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         UserCommons origUserCommons = UserCommons
                 .builder()
@@ -165,6 +186,45 @@ public class MilkTheCowsJobTests extends JobTestCase {
                 Profit for user: Chris Gaucho is: $0.20, newWealth: $300.20""";
 
         verify(userCommonsRepository).save(updatedUserCommons);
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
+    }
+
+    @Test
+    void test_milk_cows_in_bulk() throws Exception {
+
+        // Arrange
+        Job jobStarted = Job.builder().build();
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
+        testCommons.setId(17L);
+
+        when(commonsRepository.findInProgress(any(LocalDateTime.class))).thenReturn(Arrays.asList(testCommons));
+        when(commonsRepository.count()).thenReturn(5L);
+        when(profitRepository.insertMilkingProfitsForCommons(eq(17L), eq(2.0), any(LocalDateTime.class))).thenReturn(3);
+        when(userCommonsRepository.addMilkingProfitsForCommons(17L, 2.0)).thenReturn(3);
+
+        // Act
+        MilkTheCowsJob milkTheCowsJob = new MilkTheCowsJob(commonsRepository, userCommonsRepository,
+                userRepository, profitRepository, true, new TransactionTemplate(transactionManager), inlineCommonsTaskRunner(), leaderboardService, false);
+        milkTheCowsJob.accept(ctx);
+
+        // Assert
+
+        String expected = """
+                Starting to milk the cows
+                Processing 1 commons in progress, skipped 4 that have not started or have ended
+                Milking cows for Commons: test commons, Milk Price: $2.00
+                Bulk milked cows for 3 users, 3 profits recorded
+                Cows have been milked!""";
+
+        assertEquals(expected, logSink.getLog());
+        verify(profitRepository).insertMilkingProfitsForCommons(eq(17L), eq(2.0), any(LocalDateTime.class));
+        verify(userCommonsRepository).addMilkingProfitsForCommons(17L, 2.0);
+        verify(userCommonsRepository, never()).findByCommonsId(any());
+        verify(userCommonsRepository, never()).save(any());
+        verify(leaderboardService).cowsMilked(17L, 2.0);
+        // the profits and the wealth are committed together
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
     }
 }
@@ -11,7 +11,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 
 import edu.ucsb.cs156.happiercows.JobTestCase;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.services.CommonStatsRollupService;
 import edu.ucsb.cs156.happiercows.services.CommonStatsService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
 
 @RestClientTest(RecordCommonStatsJobFactory.class)
 @AutoConfigureDataJpa
@@ -23,6 +25,12 @@ public class RecordCommonStatsJobFactoryTests extends JobTestCase {
     @MockBean
     CommonsRepository commonsRepository;
 
+    @MockBean
+    CommonsTaskRunner commonsTaskRunner;
+
+    @MockBean
+    CommonStatsRollupService commonStatsRollupService;
+
     @Autowired
     RecordCommonStatsJobFactory RecordCommonStatsJobFactory;
 
@@ -35,6 +43,19 @@ public class RecordCommonStatsJobFactoryTests extends JobTestCase {
         // Assert
         assertEquals(commonsRepository,recordCommonStatsJob.getCommonsRepository());
         assertEquals(commonStatsService,recordCommonStatsJob.getCommonStatsService());
+        assertEquals(commonsTaskRunner,recordCommonStatsJob.getCommonsTaskRunner());
+        assertEquals(commonStatsRollupService,recordCommonStatsJob.getCommonStatsRollupService());
+        assertEquals(false,recordCommonStatsJob.isAllCommons());
+
+    }
 
+    @Test
+    void test_create_for_all_commons() throws Exception {
+
+        // Act
+        RecordCommonStatsJob job = (RecordCommonStatsJob) RecordCommonStatsJobFactory.create(true);
+
+        // Assert
+        assertEquals(true,job.isAllCommons());
     }
 }
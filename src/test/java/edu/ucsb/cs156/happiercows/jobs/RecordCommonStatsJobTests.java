@@ -1,9 +1,13 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -17,10 +21,13 @@ import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.JobTestCase;
 import edu.ucsb.cs156.happiercows.entities.CommonStats;
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.services.AverageCowHealthService;
+import edu.ucsb.cs156.happiercows.services.CommonStatsRollupService;
 import edu.ucsb.cs156.happiercows.services.CommonStatsService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration
@@ -35,6 +42,9 @@ public class RecordCommonStatsJobTests extends JobTestCase {
     @MockBean
     CommonsRepository commonsRepository;
 
+    @MockBean
+    CommonStatsRollupService commonStatsRollupService;
+
     @Test
     void test_log_output() throws Exception {
 
@@ -44,27 +54,43 @@ public class RecordCommonStatsJobTests extends JobTestCase {
         CommonStats commonStats = CommonStats.builder().id(17L).build();
         
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
+      
+        CommonsWithTotals commonsWithTotals = new CommonsWithTotals() {
+            public Commons getCommons() { return commons; }
+            public Long getTotalCows() { return 10L; }
+            public Long getTotalUsers() { return 2L; }
+            public Double getTotalCowHealth() { return 1000.0; }
+        };
       
-        when(commonsRepository.findAll()).thenReturn(Arrays.asList(commons));      
-        when(commonStatsService.createAndSaveCommonStats(17L)).thenReturn(commonStats);
+        when(commonsRepository.findInProgressWithTotals(any(LocalDateTime.class))).thenReturn(Arrays.asList(commonsWithTotals));
+        when(commonsRepository.count()).thenReturn(1L);
+        when(commonStatsService.createAndSaveCommonStats(commonsWithTotals)).thenReturn(commonStats);
+        when(commonStatsRollupService.rollUpRawStats(any())).thenReturn(3);
+        when(commonStatsRollupService.rollUpHourlyStats(any())).thenReturn(1);
 
         // Act
         RecordCommonStatsJob recordCommonStatsJob = 
-                new RecordCommonStatsJob(commonStatsService, commonsRepository);
+                new RecordCommonStatsJob(commonStatsService, commonsRepository, inlineCommonsTaskRunner(), commonStatsRollupService, false);
         recordCommonStatsJob.accept(ctx);
 
         // Assert
 
-        verify(commonsRepository).findAll();
-        verify(commonStatsService).createAndSaveCommonStats(17L);
+        verify(commonsRepository).findInProgressWithTotals(any(LocalDateTime.class));
+        verify(commonStatsService).createAndSaveCommonStats(commonsWithTotals);
+        verify(commonStatsService, never()).createAndSaveCommonStats(anyLong());
+        verify(commonStatsRollupService).rollUpRawStats(any());
+        verify(commonStatsRollupService).rollUpHourlyStats(any());
         
         String expected = """
             Starting record common stats job...
+            Processing 1 commons in progress, skipped 0 that have not started or have ended
             Starting Commons id=17 (CS156)...
             CommonStats 17 for commons id=17 (CS156) finished.
+            Rolled up old stats into 3 hourly and 1 daily buckets.
             Record common stats job done!""";
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
     }
 
     @Test
@@ -72,22 +98,25 @@ public class RecordCommonStatsJobTests extends JobTestCase {
 
         // Arrange
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
-        when(commonsRepository.findAll()).thenReturn(new ArrayList<>());
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
+        when(commonsRepository.findAllWithTotals()).thenReturn(new ArrayList<>());
 
         // Act
         RecordCommonStatsJob recordCommonStatsJob = 
-                new RecordCommonStatsJob(commonStatsService, commonsRepository);
+                new RecordCommonStatsJob(commonStatsService, commonsRepository, inlineCommonsTaskRunner(), commonStatsRollupService, true);
         recordCommonStatsJob.accept(ctx);
 
         // Assert
 
-        verify(commonsRepository).findAll();
+        verify(commonsRepository).findAllWithTotals();
         
         String expected = """
             Starting record common stats job...
+            Processing all 0 commons, including those not in progress
+            Rolled up old stats into 0 hourly and 0 daily buckets.
             Record common stats job done!""";
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
     }
     
 }
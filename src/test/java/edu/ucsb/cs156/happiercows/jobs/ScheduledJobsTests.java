@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,7 +51,7 @@ public class ScheduledJobsTests extends JobTestCase {
         MockJobContextConsumer mockJob = new MockJobContextConsumer();
 
        when(updateCowHealthJobFactory.create()).thenReturn(mockJob);
-       when(jobService.runAsJob(any())).thenReturn(job);
+       when(jobService.runAsScheduledJob(any())).thenReturn(job);
 
         // Act
 
@@ -58,7 +59,7 @@ public class ScheduledJobsTests extends JobTestCase {
 
         // Assert
 
-        verify(jobService, times(1)).runAsJob(mockJob);
+        verify(jobService, times(1)).runAsScheduledJob(mockJob);
         verify(updateCowHealthJobFactory, times(1)).create();
 
     }
@@ -72,7 +73,7 @@ public class ScheduledJobsTests extends JobTestCase {
         MockJobContextConsumer mockJob = new MockJobContextConsumer();
 
        when(milkTheCowsJobFactory.create()).thenReturn(mockJob);
-       when(jobService.runAsJob(any())).thenReturn(job);
+       when(jobService.runAsScheduledJob(any())).thenReturn(job);
 
         // Act
 
@@ -80,7 +81,7 @@ public class ScheduledJobsTests extends JobTestCase {
 
         // Assert
 
-        verify(jobService, times(1)).runAsJob(mockJob);
+        verify(jobService, times(1)).runAsScheduledJob(mockJob);
         verify(milkTheCowsJobFactory, times(1)).create();
 
     }
@@ -94,7 +95,7 @@ public class ScheduledJobsTests extends JobTestCase {
         MockJobContextConsumer mockJob = new MockJobContextConsumer();
 
        when(recordCommonStatsJobFactory.create()).thenReturn(mockJob);
-       when(jobService.runAsJob(any())).thenReturn(job);
+       when(jobService.runAsScheduledJob(any())).thenReturn(job);
 
         // Act
 
@@ -102,10 +103,29 @@ public class ScheduledJobsTests extends JobTestCase {
 
         // Assert
 
-        verify(jobService, times(1)).runAsJob(mockJob);
+        verify(jobService, times(1)).runAsScheduledJob(mockJob);
         verify(recordCommonStatsJobFactory, times(1)).create();
 
     }
 
-  
+    @Test
+    void test_job_is_skipped_when_another_instance_holds_the_lease() throws Exception {
+
+        // Arrange
+
+        MockJobContextConsumer mockJob = new MockJobContextConsumer();
+
+       when(milkTheCowsJobFactory.create()).thenReturn(mockJob);
+       when(jobService.runAsScheduledJob(any())).thenReturn(null);
+
+        // Act
+
+        scheduledJobs.runMilkTheCowsJobBasedOnCron();
+
+        // Assert
+
+        verify(jobService, times(1)).runAsScheduledJob(mockJob);
+        verify(jobService, never()).runAsJob(any());
+
+    }
 }
\ No newline at end of file
@@ -13,6 +13,8 @@ import edu.ucsb.cs156.happiercows.JobTestCase;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 
 @RestClientTest(SetCowHealthJobFactory.class)
 @AutoConfigureDataJpa
@@ -27,6 +29,12 @@ public class SetCowHealthJobFactoryTests extends JobTestCase {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    CommonsAggregateService commonsAggregateService;
+
+    @MockBean
+    LeaderboardService leaderboardService;
+
     @Autowired
     SetCowHealthJobFactory setCowHealthJobFactory;
 
@@ -40,6 +48,8 @@ public class SetCowHealthJobFactoryTests extends JobTestCase {
         assertEquals(commonsRepository,setCowHealthJob.getCommonsRepository());
         assertEquals(userCommonsRepository,setCowHealthJob.getUserCommonsRepository());
         assertEquals(userRepository,setCowHealthJob.getUserRepository());
+        assertEquals(commonsAggregateService,setCowHealthJob.getCommonsAggregateService());
+        assertEquals(leaderboardService,setCowHealthJob.getLeaderboardService());
 
     }
 }
@@ -8,7 +8,10 @@ import edu.ucsb.cs156.happiercows.entities.jobs.Job;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -21,6 +24,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -35,6 +40,12 @@ public class SetCowHealthJobTests extends JobTestCase {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    CommonsAggregateService commonsAggregateService;
+
+    @Mock
+    LeaderboardService leaderboardService;
+
     private User user = User
             .builder()
             .id(1L)
@@ -61,13 +72,14 @@ public class SetCowHealthJobTests extends JobTestCase {
         // Arrange
 
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         when(commonsRepository.findById(any())).thenReturn(Optional.empty());
 
         // Act
         SetCowHealthJob setCowHealthJob = new SetCowHealthJob(117L, 2.0, commonsRepository, userCommonsRepository,
-                userRepository);
+                userRepository, commonsAggregateService, leaderboardService);
         setCowHealthJob.accept(ctx);
 
         // Assert
@@ -75,7 +87,7 @@ public class SetCowHealthJobTests extends JobTestCase {
                 Setting cow health...
                 No commons found for id 117""";
 
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
 
     }
 
@@ -96,7 +108,8 @@ public class SetCowHealthJobTests extends JobTestCase {
 
         // Arrange
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         var userCommonsList = Arrays.asList(
                 getUserCommons(),
@@ -120,7 +133,7 @@ public class SetCowHealthJobTests extends JobTestCase {
 
         // Act
         SetCowHealthJob setCowHealthJob = new SetCowHealthJob(117, 2, commonsRepository, userCommonsRepository,
-                userRepository);
+                userRepository, commonsAggregateService, leaderboardService);
         setCowHealthJob.accept(ctx);
 
         // Assert
@@ -136,7 +149,9 @@ public class SetCowHealthJobTests extends JobTestCase {
                  old cow health: 50.0, new cow health: 2.0
                 Cow health has been set!""";
 
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
         userCommonsList.forEach(userCommons -> assertEquals(newUserCommons.getCowHealth(), userCommons.getCowHealth()));
+        verify(commonsAggregateService, times(1)).reconcile(117L);
+        verify(leaderboardService, times(1)).userCommonsChanged(userCommonsList);
     }
 }
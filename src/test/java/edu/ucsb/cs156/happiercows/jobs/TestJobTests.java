@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import edu.ucsb.cs156.happiercows.JobTestCase;
 import edu.ucsb.cs156.happiercows.entities.jobs.Job;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,7 +24,9 @@ public class TestJobTests extends JobTestCase {
 
         Job jobStarted = Job.builder().build();
 
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         // Act
         TestJob testJob = TestJob.builder()
@@ -37,7 +40,7 @@ public class TestJobTests extends JobTestCase {
             authentication is null
             Goodbye from test job!""";
         // Assert
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
     }
 
     @Test
@@ -46,7 +49,8 @@ public class TestJobTests extends JobTestCase {
         // Arrange
 
         Job jobStarted = Job.builder().build();
-        JobContext ctx = new JobContext(null, jobStarted);
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        JobContext ctx = new JobContext(logSink, jobStarted);
 
         // Act
         TestJob testJob = TestJob.builder()
@@ -60,6 +64,6 @@ public class TestJobTests extends JobTestCase {
                 authentication is not null
                 Goodbye from test job!""";
         // Assert
-        assertEquals(expected, jobStarted.getLog());
+        assertEquals(expected, logSink.getLog());
     }
 }
\ No newline at end of file
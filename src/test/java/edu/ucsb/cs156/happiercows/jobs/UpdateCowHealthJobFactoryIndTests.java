@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import org.junit.jupiter.api.Test;
 
@@ -14,6 +15,8 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 
 @RestClientTest(UpdateCowHealthJobFactoryInd.class)
 @AutoConfigureDataJpa
@@ -31,6 +34,12 @@ public class UpdateCowHealthJobFactoryIndTests extends JobTestCase {
     @MockBean
     CommonsPlusBuilderService commonsPlusBuilderService;
 
+    @MockBean
+    CommonsAggregateService commonsAggregateService;
+
+    @MockBean
+    LeaderboardService leaderboardService;
+
     @Autowired
     UpdateCowHealthJobFactoryInd updateCowHealthJobFactoryInd;
 
@@ -45,6 +54,12 @@ public class UpdateCowHealthJobFactoryIndTests extends JobTestCase {
         assertEquals(userCommonsRepository,updateCowHealthJobInd.getUserCommonsRepository());
         assertEquals(userRepository,updateCowHealthJobInd.getUserRepository());
         assertEquals(commonsPlusBuilderService,updateCowHealthJobInd.getCommonsPlusBuilderService());
+        assertEquals(100,updateCowHealthJobInd.getChunkSize());
+        assertEquals(Long.valueOf(1L),updateCowHealthJobInd.getCommonsID());
+        assertNotNull(updateCowHealthJobInd.getTransactionTemplate());
+        assertNotNull(updateCowHealthJobInd.getEntityManager());
+        assertEquals(commonsAggregateService,updateCowHealthJobInd.getCommonsAggregateService());
+        assertEquals(leaderboardService,updateCowHealthJobInd.getLeaderboardService());
 
     }
 }
@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.happiercows.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import org.junit.jupiter.api.Test;
 
@@ -14,6 +15,9 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.jobs.CommonsTaskRunner;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 
 @RestClientTest(UpdateCowHealthJobFactory.class)
 @AutoConfigureDataJpa
@@ -28,6 +32,15 @@ public class UpdateCowHealthJobFactoryTests extends JobTestCase {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    CommonsTaskRunner commonsTaskRunner;
+
+    @MockBean
+    CommonsAggregateService commonsAggregateService;
+
+    @MockBean
+    LeaderboardService leaderboardService;
+
     @Autowired
     UpdateCowHealthJobFactory updateCowHealthJobFactory;
 
@@ -44,7 +57,24 @@ public class UpdateCowHealthJobFactoryTests extends JobTestCase {
         assertEquals(commonsRepository,updateCowHealthJob.getCommonsRepository());
         assertEquals(userCommonsRepository,updateCowHealthJob.getUserCommonsRepository());
         assertEquals(userRepository,updateCowHealthJob.getUserRepository());
+        assertEquals(commonsPlusBuilderService,updateCowHealthJob.getCommonsPlusBuilderService());
+        assertEquals(100,updateCowHealthJob.getChunkSize());
+        assertNotNull(updateCowHealthJob.getTransactionTemplate());
+        assertNotNull(updateCowHealthJob.getEntityManager());
+        assertEquals(commonsTaskRunner,updateCowHealthJob.getCommonsTaskRunner());
+        assertEquals(commonsAggregateService,updateCowHealthJob.getCommonsAggregateService());
+        assertEquals(leaderboardService,updateCowHealthJob.getLeaderboardService());
+        assertEquals(false,updateCowHealthJob.isAllCommons());
 
     }
-}
 
+    @Test
+    void test_create_for_all_commons() throws Exception {
+
+        // Act
+        UpdateCowHealthJob job = (UpdateCowHealthJob) updateCowHealthJobFactory.create(true);
+
+        // Assert
+        assertEquals(true,job.isAllCommons());
+    }
+}
@@ -9,18 +9,26 @@ import edu.ucsb.cs156.happiercows.entities.jobs.Job;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
 import edu.ucsb.cs156.happiercows.jobs.UpdateCowHealthJob;
+import javax.persistence.EntityManager;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 import java.time.LocalDateTime;
@@ -28,7 +36,9 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -46,9 +56,21 @@ public class UpdateCowHealthJobIndTests extends JobTestCase {
         @Mock
         CommonsPlusBuilderService commonsPlusBuilderService;
 
+        @Mock
+        CommonsAggregateService commonsAggregateService;
+
+        @Mock
+        LeaderboardService leaderboardService;
+
         @Mock
         UpdateCowHealthJob updateCowHealthJob;
 
+        @Mock
+        PlatformTransactionManager transactionManager;
+
+        @Mock
+        EntityManager entityManager;
+
         private final User user = User
                         .builder()
                         .id(1L)
@@ -87,11 +109,13 @@ public class UpdateCowHealthJobIndTests extends JobTestCase {
                         .build();
 
         private final Job job = Job.builder().build();
-        private final JobContext ctx = new JobContext(null, job);
+        private final RecordingJobLogSink logSink = new RecordingJobLogSink();
+        private final JobContext ctx = new JobContext(logSink, job);
 
         private void runUpdateCowHealthJob() throws Exception {
                 var updateCowHealthJobInd = new UpdateCowHealthJobInd(commonsRepository, userCommonsRepository,
-                                userRepository, commonsPlusBuilderService, 1L);
+                                userRepository, commonsPlusBuilderService, new TransactionTemplate(transactionManager), entityManager, 100, 1L,
+                                commonsAggregateService, leaderboardService);
                 updateCowHealthJobInd.accept(ctx);
         }
 
@@ -102,7 +126,7 @@ public class UpdateCowHealthJobIndTests extends JobTestCase {
                 String expected = """
                                 Updating cow health...
                                 No commons found for id 1""";
-                assertEquals(expected, job.getLog());
+                assertEquals(expected, logSink.getLog());
         }
 
 
@@ -116,11 +140,8 @@ public class UpdateCowHealthJobIndTests extends JobTestCase {
         commons.setBelowCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear);
 
         when(commonsRepository.findAll()).thenReturn(listOfCommons);
-        when(userCommonsRepository.findByCommonsId(commons.getId())).thenReturn(List.of(userCommons));
-        when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(1));
+        when(userCommonsRepository.findChunkByCommonsId(eq(commons.getId()), any())).thenReturn(new SliceImpl<>(List.of(userCommons)));
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(1));
-        when(commonsPlusBuilderService.convertToCommonsPlus(eq(listOfCommons))).thenReturn(listOfCommonsPlus);
         when(commonsPlusBuilderService.toCommonsPlus(eq(commons))).thenReturn(commonsPlus);
         when(commonsRepository.findById(eq(1L))).thenReturn(Optional.of(commons));
 
@@ -135,7 +156,8 @@ public class UpdateCowHealthJobIndTests extends JobTestCase {
                          old cow health: 10.0, new cow health: 100.0
                         Cow health has been updated!""";
 
-        assertEquals(expected, job.getLog());
+        assertEquals(expected, logSink.getLog());
+        verify(leaderboardService).userCommonsChanged(List.of(userCommons));
     }
 
 }
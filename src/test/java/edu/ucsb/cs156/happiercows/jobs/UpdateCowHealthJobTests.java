@@ -10,25 +10,36 @@ import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.services.jobs.JobContext;
+import edu.ucsb.cs156.happiercows.services.jobs.RecordingJobLogSink;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
 import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.LeaderboardService;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategy;
-import org.junit.jupiter.api.Assertions;
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -46,6 +57,12 @@ public class UpdateCowHealthJobTests extends JobTestCase {
         @Mock
         CommonsPlusBuilderService commonsPlusBuilderService;
 
+        @Mock
+        CommonsAggregateService commonsAggregateService;
+
+        @Mock
+        LeaderboardService leaderboardService;
+
         private final User user = User
                         .builder()
                         .id(1L)
@@ -81,37 +98,71 @@ public class UpdateCowHealthJobTests extends JobTestCase {
 
 
         private final Job job = Job.builder().build();
-        private final JobContext ctx = new JobContext(null, job);
+        private final RecordingJobLogSink logSink = new RecordingJobLogSink();
+        private final JobContext ctx = new JobContext(logSink, job);
+
+        @Mock
+        PlatformTransactionManager transactionManager;
+
+        @Mock
+        EntityManager entityManager;
 
         private void runUpdateCowHealthJob() throws Exception {
+                runUpdateCowHealthJob(100);
+        }
+
+        private void runUpdateCowHealthJob(int chunkSize) throws Exception {
+                runUpdateCowHealthJob(chunkSize, false);
+        }
+
+        private void runUpdateCowHealthJob(int chunkSize, boolean allCommons) throws Exception {
                 var updateCowHealthJob = new UpdateCowHealthJob(commonsRepository, userCommonsRepository,
-                                userRepository, commonsPlusBuilderService);
+                                userRepository, commonsPlusBuilderService,
+                                new TransactionTemplate(transactionManager), entityManager, chunkSize, inlineCommonsTaskRunner(),
+                                commonsAggregateService, leaderboardService, allCommons);
                 updateCowHealthJob.accept(ctx);
         }
 
+        @BeforeEach
+        void countCommons() {
+                when(commonsRepository.count()).thenReturn(2L);
+        }
+
         @Test
         void test_log_output_with_no_commons() throws Exception {
                 runUpdateCowHealthJob();
 
                 String expected = """
                                 Updating cow health...
+                                Processing 0 commons in progress, skipped 2 that have not started or have ended
+                                Cow health has been updated!""";
+                assertEquals(expected, logSink.getLog());
+        }
+
+        @Test
+        void test_admin_can_update_all_commons() throws Exception {
+                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(0).totalUsers(0).build();
+                when(commonsPlusBuilderService.getAllCommonsPlus()).thenReturn(List.of(commonsPlus));
+
+                runUpdateCowHealthJob(100, true);
+
+                String expected = """
+                                Updating cow health...
+                                Processing all 1 commons, including those not in progress
+                                Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
+                                No users in this commons, skipping
                                 Cow health has been updated!""";
-                assertEquals(expected, job.getLog());
+                assertEquals(expected, logSink.getLog());
+                verify(commonsPlusBuilderService, never()).getCommonsPlusInProgress(any());
         }
 
     private void setupUpdateCowHealthTestOnCommons(int totalCows, int numUsers) {
-        List<Commons> listOfCommons = List.of(commons); 
         CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(totalCows).totalUsers(numUsers).build();
 
         List<CommonsPlus> listOfCommonsPlus = List.of(commonsPlus);
         
-        when(commonsRepository.findAll()).thenReturn(listOfCommons);
-        when(userCommonsRepository.findByCommonsId(commons.getId())).thenReturn(List.of(userCommons));
-        when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(totalCows));
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(numUsers));
-        when(commonsPlusBuilderService.convertToCommonsPlus(eq(listOfCommons))).thenReturn(listOfCommonsPlus);
-        when(commonsPlusBuilderService.toCommonsPlus(eq(commons))).thenReturn(commonsPlus);
+        when(userCommonsRepository.findChunkByCommonsId(eq(commons.getId()), any())).thenReturn(new SliceImpl<>(List.of(userCommons)));
+        when(commonsPlusBuilderService.getCommonsPlusInProgress(any(LocalDateTime.class))).thenReturn(listOfCommonsPlus);
     }
 
         @Test
@@ -126,11 +177,12 @@ public class UpdateCowHealthJobTests extends JobTestCase {
 
                 String expected = """
                                 Updating cow health...
+                                Processing 1 commons in progress, skipped 1 that have not started or have ended
                                 Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
                                 User: Chris Gaucho, numCows: 1, cowHealth: 10.0
                                  old cow health: 10.0, new cow health: 9.0
                                 Cow health has been updated!""";
-                assertEquals(expected, job.getLog());
+                assertEquals(expected, logSink.getLog());
         }
 
         @Test
@@ -144,11 +196,12 @@ public class UpdateCowHealthJobTests extends JobTestCase {
 
                 String expected = """
                                 Updating cow health...
+                                Processing 1 commons in progress, skipped 1 that have not started or have ended
                                 Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
                                 User: Chris Gaucho, numCows: 1, cowHealth: 10.0
                                  old cow health: 10.0, new cow health: 11.0
                                 Cow health has been updated!""";
-                assertEquals(expected, job.getLog());
+                assertEquals(expected, logSink.getLog());
         }
 
         @Test
@@ -163,11 +216,12 @@ public class UpdateCowHealthJobTests extends JobTestCase {
 
                 String expected = """
                                 Updating cow health...
+                                Processing 1 commons in progress, skipped 1 that have not started or have ended
                                 Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
                                 User: Chris Gaucho, numCows: 1, cowHealth: 10.0
                                  old cow health: 10.0, new cow health: 11.0
                                 Cow health has been updated!""";
-                assertEquals(expected, job.getLog());
+                assertEquals(expected, logSink.getLog());
         }
 
         @Test
@@ -207,24 +261,19 @@ public class UpdateCowHealthJobTests extends JobTestCase {
                                 .build();
                 commons.setBelowCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear);
                 
-                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(6).totalUsers(1).build();
+                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(99).totalUsers(2).build();
 
                 List<CommonsPlus> commonsPlusList = List.of(commonsPlus);
-                List<Commons> commonsList = List.of(commons);
 
-                when(commonsRepository.findAll()).thenReturn(commonsList);
-                when(commonsPlusBuilderService.convertToCommonsPlus(eq(commonsList))).thenReturn(commonsPlusList);
-                when(commonsPlusBuilderService.toCommonsPlus(eq(commons))).thenReturn(commonsPlus);
-                when(userCommonsRepository.findByCommonsId(commons.getId()))
-                                .thenReturn(List.of(userCommons1, userCommons2));
-                when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(99));
-                when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-                when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(2));
+                when(commonsPlusBuilderService.getCommonsPlusInProgress(any(LocalDateTime.class))).thenReturn(commonsPlusList);
+                when(userCommonsRepository.findChunkByCommonsId(eq(commons.getId()), any()))
+                                .thenReturn(new SliceImpl<>(List.of(userCommons1, userCommons2)));
 
                 runUpdateCowHealthJob();
 
                 String expected = """
                                 Updating cow health...
+                                Processing 1 commons in progress, skipped 1 that have not started or have ended
                                 Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
                                 User: Chris Gaucho, numCows: 1, cowHealth: 10.0
                                  old cow health: 10.0, new cow health: 11.0
@@ -232,10 +281,64 @@ public class UpdateCowHealthJobTests extends JobTestCase {
                                  old cow health: 20.0, new cow health: 21.0
                                 Cow health has been updated!""";
 
-                assertEquals(expected, job.getLog());
+                assertEquals(expected, logSink.getLog());
 
                 assertEquals(11.0, userCommons1.getCowHealth());
                 assertEquals(21.0, userCommons2.getCowHealth());
+
+                verify(userCommonsRepository, times(1)).findChunkByCommonsId(commons.getId(), PageRequest.of(0, 100));
+                verify(userCommonsRepository, times(1)).saveAll(List.of(userCommons1, userCommons2));
+                verify(commonsPlusBuilderService, never()).toCommonsPlus(any());
+                verify(commonsRepository, never()).getNumCows(any());
+                verify(commonsRepository, never()).getNumUsers(any());
+                // health rose by 1 for 1 cow and by 1 for 6 cows
+                verify(commonsAggregateService, times(1)).adjust(commons.getId(), 0L, 0L, 7.0);
+        }
+
+        @Test
+        void test_updating_values_in_chunks() throws Exception {
+                var userCommons1 = userCommons;
+                var userCommons2 = UserCommons
+                                .builder()
+                                .user(user)
+                                .commons(commons)
+                                .totalWealth(300)
+                                .numOfCows(6)
+                                .cowHealth(20)
+                                .build();
+                commons.setBelowCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear);
+
+                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(99).totalUsers(2).build();
+
+                when(commonsPlusBuilderService.getCommonsPlusInProgress(any(LocalDateTime.class))).thenReturn(List.of(commonsPlus));
+                when(userCommonsRepository.findChunkByCommonsId(commons.getId(), PageRequest.of(0, 1)))
+                                .thenReturn(new SliceImpl<>(List.of(userCommons1), PageRequest.of(0, 1), true));
+                when(userCommonsRepository.findChunkByCommonsId(commons.getId(), PageRequest.of(1, 1)))
+                                .thenReturn(new SliceImpl<>(List.of(userCommons2), PageRequest.of(1, 1), false));
+
+                runUpdateCowHealthJob(1);
+
+                String expected = """
+                                Updating cow health...
+                                Processing 1 commons in progress, skipped 1 that have not started or have ended
+                                Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
+                                User: Chris Gaucho, numCows: 1, cowHealth: 10.0
+                                 old cow health: 10.0, new cow health: 11.0
+                                User: Chris Gaucho, numCows: 6, cowHealth: 20.0
+                                 old cow health: 20.0, new cow health: 21.0
+                                Cow health has been updated!""";
+
+                assertEquals(expected, logSink.getLog());
+
+                verify(userCommonsRepository, times(1)).saveAll(List.of(userCommons1));
+                verify(userCommonsRepository, times(1)).saveAll(List.of(userCommons2));
+                verify(transactionManager, times(2)).commit(any());
+                verify(entityManager, times(2)).flush();
+                verify(entityManager, times(2)).clear();
+                verify(commonsAggregateService, times(1)).adjust(commons.getId(), 0L, 0L, 1.0);
+                verify(commonsAggregateService, times(1)).adjust(commons.getId(), 0L, 0L, 6.0);
+                verify(leaderboardService, times(1)).userCommonsChanged(List.of(userCommons1));
+                verify(leaderboardService, times(1)).userCommonsChanged(List.of(userCommons2));
         }
 
         @Test
@@ -295,96 +398,52 @@ public class UpdateCowHealthJobTests extends JobTestCase {
                                 .build();
                 commons.setBelowCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear);
 
-                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(5).totalUsers(1).build();
+                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(99).totalUsers(1).build();
 
                 List<CommonsPlus> commonsPlusList = List.of(commonsPlus);
-                List<Commons> commonsList = List.of(commons);
 
-                when(commonsPlusBuilderService.convertToCommonsPlus(eq(commonsList))).thenReturn(commonsPlusList);
-                when(commonsPlusBuilderService.toCommonsPlus(eq(commons))).thenReturn(commonsPlus);
-
-                when(commonsRepository.findAll()).thenReturn(List.of(commons));
-                when(userCommonsRepository.findByCommonsId(commons.getId())).thenReturn(List.of(userCommons));
-                when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(99));
-                when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-                when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(1));
+                when(commonsPlusBuilderService.getCommonsPlusInProgress(any(LocalDateTime.class))).thenReturn(commonsPlusList);
+                when(userCommonsRepository.findChunkByCommonsId(eq(commons.getId()), any())).thenReturn(new SliceImpl<>(List.of(userCommons)));
 
                 runUpdateCowHealthJob();
 
                 String expected = """
                                 Updating cow health...
+                                Processing 1 commons in progress, skipped 1 that have not started or have ended
                                 Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
                                 User: Chris Gaucho, numCows: 5, cowHealth: -1.0
                                  5 cows for this user died.
                                  old cow health: -1.0, new cow health: 100.0
                                 Cow health has been updated!""";
 
-                assertEquals(expected, job.getLog());
+                assertEquals(expected, logSink.getLog());
 
                 assertEquals(0, userCommons.getNumOfCows());
                 assertEquals(5, userCommons.getCowDeaths());
                 assertEquals(100.0, userCommons.getCowHealth());
+                // 5 cows at health -1.0 were removed
+                verify(commonsAggregateService, times(1)).adjust(commons.getId(), -5L, 0L, 5.0);
         }
 
         @Test
         void test_skipping_job_when_commons_has_zero_users() throws Exception {
-                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(5).totalUsers(1).build();
+                CommonsPlus commonsPlus = CommonsPlus.builder().commons(commons).totalCows(0).totalUsers(0).build();
 
                 List<CommonsPlus> commonsPlusList = List.of(commonsPlus);
-                List<Commons> commonsList = List.of(commons);
 
-                when(commonsPlusBuilderService.convertToCommonsPlus(eq(commonsList))).thenReturn(commonsPlusList);
-                when(commonsPlusBuilderService.toCommonsPlus(eq(commons))).thenReturn(commonsPlus);
+                when(commonsPlusBuilderService.getCommonsPlusInProgress(any(LocalDateTime.class))).thenReturn(commonsPlusList);
                 commons.setBelowCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear);
 
-                when(commonsRepository.findAll()).thenReturn(List.of(commons));
-                when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(0));
-
                 runUpdateCowHealthJob();
 
                 String expected = """
                                 Updating cow health...
+                                Processing 1 commons in progress, skipped 1 that have not started or have ended
                                 Commons test commons, degradationRate: 1.0, effectiveCapacity: 100
                                 No users in this commons, skipping
                                 Cow health has been updated!""";
 
-                assertEquals(expected, job.getLog());
-        }
-
-        @Test
-        void test_throws_exception_when_get_num_cows_fails() {
-                setupUpdateCowHealthTestOnCommons(100, 1);
-                commons.setId(117);
-                when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.empty());
-                when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(1));
-
-                var updateCowHealthJob = new UpdateCowHealthJob(commonsRepository,
-                                userCommonsRepository,
-                                userRepository, commonsPlusBuilderService);
-
-                var thrown = Assertions.assertThrows(RuntimeException.class, () -> {
-                        updateCowHealthJob.accept(ctx);
-                });
-
-                Assertions.assertEquals("Error calling getNumCows(117)",
-                                thrown.getMessage());
-        }
-
-        @Test
-        void test_throws_exception_when_get_num_users_fails() {
-                setupUpdateCowHealthTestOnCommons(100, 1);
-                commons.setId(117);
-                when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.empty());
-
-                var updateCowHealthJob = new UpdateCowHealthJob(commonsRepository,
-                                userCommonsRepository,
-                                userRepository, commonsPlusBuilderService);
-
-                var thrown = Assertions.assertThrows(RuntimeException.class, () -> {
-                        updateCowHealthJob.accept(ctx);
-                });
-
-                Assertions.assertEquals("Error calling getNumUsers(117)",
-                                thrown.getMessage());
+                assertEquals(expected, logSink.getLog());
+                verify(userCommonsRepository, never()).findChunkByCommonsId(any(), any());
         }
 }
@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import edu.ucsb.cs156.happiercows.entities.ChatMessage;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class ChatMessageRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ChatMessageRepository chatMessageRepository;
+
+    // ids of the visible messages of commons 1, oldest first
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            ids.add(entityManager.persist(ChatMessage.builder().commonsId(1L).userId(1L).message("message " + i).build()).getId());
+            entityManager.persist(ChatMessage.builder().commonsId(2L).userId(1L).message("other commons " + i).build());
+        }
+        entityManager.persist(ChatMessage.builder().commonsId(1L).userId(1L).message("hidden").hidden(true).build());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findByCommonsIdBefore_returns_newest_messages_first() {
+        Slice<ChatMessage> slice = chatMessageRepository.findByCommonsIdBefore(1L, Long.MAX_VALUE, PageRequest.of(0, 2));
+
+        assertEquals(List.of(ids.get(4), ids.get(3)), ids(slice));
+        assertTrue(slice.hasNext());
+    }
+
+    @Test
+    void findByCommonsIdBefore_continues_from_the_cursor() {
+        Slice<ChatMessage> slice = chatMessageRepository.findByCommonsIdBefore(1L, ids.get(3), PageRequest.of(0, 2));
+
+        assertEquals(List.of(ids.get(2), ids.get(1)), ids(slice));
+        assertTrue(slice.hasNext());
+    }
+
+    @Test
+    void findByCommonsIdBefore_last_slice_has_no_next() {
+        Slice<ChatMessage> slice = chatMessageRepository.findByCommonsIdBefore(1L, ids.get(1), PageRequest.of(0, 2));
+
+        assertEquals(List.of(ids.get(0)), ids(slice));
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void findByCommonsIdAfter_returns_newer_messages_oldest_first() {
+        Slice<ChatMessage> slice = chatMessageRepository.findByCommonsIdAfter(1L, ids.get(1), PageRequest.of(0, 10));
+
+        assertEquals(List.of(ids.get(2), ids.get(3), ids.get(4)), ids(slice));
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void findByCommonsIdAfter_nothing_new() {
+        Slice<ChatMessage> slice = chatMessageRepository.findByCommonsIdAfter(1L, ids.get(4), PageRequest.of(0, 10));
+
+        assertEquals(List.of(), ids(slice));
+    }
+
+    private static List<Long> ids(Slice<ChatMessage> slice) {
+        return slice.getContent().stream().map(ChatMessage::getId).collect(Collectors.toList());
+    }
+}
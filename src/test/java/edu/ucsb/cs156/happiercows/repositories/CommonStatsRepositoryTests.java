@@ -0,0 +1,76 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class CommonStatsRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    CommonStatsRepository commonStatsRepository;
+
+    private static Date at(String localDateTime) {
+        return Date.from(LocalDateTime.parse(localDateTime).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    // createDate is set on insert, so it is changed afterwards
+    private void persist(long commonsId, int numCows, String createDate) {
+        CommonStats stats = entityManager.persist(CommonStats.builder().commonsId(commonsId).numCows(numCows).build());
+        stats.setCreateDate(at(createDate));
+        entityManager.flush();
+    }
+
+    @BeforeEach
+    void setUp() {
+        persist(2L, 1, "2023-05-01T10:00:00");
+        persist(1L, 2, "2023-05-02T10:00:00");
+        persist(1L, 3, "2023-05-01T10:00:00");
+        persist(1L, 4, "2023-06-01T10:00:00");
+        entityManager.clear();
+    }
+
+    @Test
+    void findByCommonsIdInRange_returns_the_stats_of_a_commons_from_inclusive_to_exclusive() {
+        List<CommonStats> stats = commonStatsRepository.findByCommonsIdInRange(1L, at("2023-05-01T10:00:00"), at("2023-06-01T10:00:00"));
+
+        assertEquals(List.of(3, 2), stats.stream().map(CommonStats::getNumCows).collect(Collectors.toList()));
+    }
+
+    @Test
+    void streamAllBefore_returns_old_stats_grouped_by_commons() {
+        try (Stream<CommonStats> stats = commonStatsRepository.streamAllBefore(at("2023-06-01T00:00:00"))) {
+            assertEquals(List.of(3, 2, 1), stats.map(CommonStats::getNumCows).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void deleteAllBefore_deletes_only_old_stats() {
+        int deleted = commonStatsRepository.deleteAllBefore(at("2023-06-01T00:00:00"));
+
+        assertEquals(3, deleted);
+        assertEquals(1, commonStatsRepository.count());
+    }
+}
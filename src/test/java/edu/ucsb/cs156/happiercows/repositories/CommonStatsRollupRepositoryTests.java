@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import edu.ucsb.cs156.happiercows.entities.CommonStatsRollup;
+import edu.ucsb.cs156.happiercows.models.StatsResolution;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class CommonStatsRollupRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    CommonStatsRollupRepository commonStatsRollupRepository;
+
+    private static Date at(String localDateTime) {
+        return Date.from(LocalDateTime.parse(localDateTime).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void persist(long commonsId, StatsResolution resolution, int numSamples, String bucketStart) {
+        entityManager.persist(CommonStatsRollup.builder()
+                .commonsId(commonsId)
+                .resolution(resolution)
+                .numSamples(numSamples)
+                .bucketStart(at(bucketStart))
+                .build());
+    }
+
+    @BeforeEach
+    void setUp() {
+        persist(1L, StatsResolution.DAY, 1, "2023-01-01T00:00:00");
+        persist(2L, StatsResolution.HOUR, 2, "2023-03-01T10:00:00");
+        persist(1L, StatsResolution.HOUR, 3, "2023-03-01T11:00:00");
+        persist(1L, StatsResolution.HOUR, 4, "2023-03-01T10:00:00");
+        persist(1L, StatsResolution.HOUR, 5, "2023-05-01T10:00:00");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findByCommonsIdInRange_returns_the_rollups_of_a_commons_from_inclusive_to_exclusive() {
+        List<CommonStatsRollup> rollups = commonStatsRollupRepository.findByCommonsIdInRange(1L, at("2023-01-01T00:00:00"), at("2023-05-01T10:00:00"));
+
+        assertEquals(List.of(1, 4, 3), rollups.stream().map(CommonStatsRollup::getNumSamples).collect(Collectors.toList()));
+    }
+
+    @Test
+    void streamByResolutionBefore_returns_old_rollups_of_one_resolution_grouped_by_commons() {
+        try (Stream<CommonStatsRollup> rollups = commonStatsRollupRepository.streamByResolutionBefore(StatsResolution.HOUR, at("2023-04-01T00:00:00"))) {
+            assertEquals(List.of(4, 3, 2), rollups.map(CommonStatsRollup::getNumSamples).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void deleteByResolutionBefore_deletes_only_old_rollups_of_one_resolution() {
+        int deleted = commonStatsRollupRepository.deleteByResolutionBefore(StatsResolution.HOUR, at("2023-04-01T00:00:00"));
+
+        assertEquals(3, deleted);
+        assertEquals(2, commonStatsRollupRepository.count());
+    }
+}
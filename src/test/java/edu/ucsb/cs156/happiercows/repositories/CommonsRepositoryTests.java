@@ -0,0 +1,196 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.CommonsAggregate;
+import edu.ucsb.cs156.happiercows.entities.CommonsPlus;
+import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
+import edu.ucsb.cs156.happiercows.services.CommonsAggregateService;
+import edu.ucsb.cs156.happiercows.services.CommonsPlusBuilderService;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CommonsPlusBuilderService.class, CommonsAggregateService.class})
+public class CommonsRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    CommonsPlusBuilderService commonsPlusBuilderService;
+
+    @Autowired
+    CommonsAggregateService commonsAggregateService;
+
+    @Autowired
+    CommonsAggregateRepository commonsAggregateRepository;
+
+    @Autowired
+    CommonsRepository commonsRepository;
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 10, 15, 12, 0);
+
+    private Commons commons1;
+    private Commons commons2;
+    private Commons commons3;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // in progress, ended and not yet started
+        commons1 = entityManager.persist(Commons.builder().name("Commons 1")
+                .startingDate(now.minusDays(10)).lastDate(now.plusDays(10)).build());
+        commons2 = entityManager.persist(Commons.builder().name("Commons 2")
+                .startingDate(now.minusDays(30)).lastDate(now.minusDays(1)).build());
+        commons3 = entityManager.persist(Commons.builder().name("Commons 3 (empty)")
+                .startingDate(now.plusDays(1)).lastDate(now.plusDays(30)).build());
+
+        User user1 = entityManager.persist(User.builder().email("user1@ucsb.edu").build());
+        User user2 = entityManager.persist(User.builder().email("user2@ucsb.edu").build());
+
+        entityManager.persist(UserCommons.builder().user(user1).commons(commons1).numOfCows(3).cowHealth(50).build());
+        entityManager.persist(UserCommons.builder().user(user2).commons(commons1).numOfCows(4).cowHealth(100).build());
+        entityManager.persist(UserCommons.builder().user(user1).commons(commons2).numOfCows(0).cowHealth(100).build());
+
+        // builds the commons_aggregates rows from user_commons
+        commonsAggregateService.reconcileAll();
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllCommonsPlus_uses_one_statement_for_all_commons() {
+        List<CommonsPlus> commonsPlus = new ArrayList<>();
+        commonsPlusBuilderService.getAllCommonsPlus().forEach(commonsPlus::add);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals(3, commonsPlus.size());
+        assertCommonsPlus(commons1, 7, 2, commonsPlus.get(0));
+        assertCommonsPlus(commons2, 0, 1, commonsPlus.get(1));
+        assertCommonsPlus(commons3, 0, 0, commonsPlus.get(2));
+    }
+
+    @Test
+    void getCommonsPlusInProgress_uses_one_statement_for_the_commons_in_progress() {
+        List<CommonsPlus> commonsPlus = new ArrayList<>();
+        commonsPlusBuilderService.getCommonsPlusInProgress(now).forEach(commonsPlus::add);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals(1, commonsPlus.size());
+        assertCommonsPlus(commons1, 7, 2, commonsPlus.get(0));
+    }
+
+    @Test
+    void findInProgress_includes_the_starting_date_but_not_the_last_date() {
+        List<String> atStart = new ArrayList<>();
+        commonsRepository.findInProgress(now.minusDays(10)).forEach(c -> atStart.add(c.getName()));
+        List<String> atEnd = new ArrayList<>();
+        commonsRepository.findInProgress(now.plusDays(10)).forEach(c -> atEnd.add(c.getName()));
+
+        assertEquals(List.of("Commons 1"), atStart);
+        assertEquals(List.of("Commons 3 (empty)"), atEnd);
+    }
+
+    @Test
+    void getCommonsPlus_uses_one_statement() {
+        Optional<CommonsPlus> commonsPlus = commonsPlusBuilderService.getCommonsPlus(commons1.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(commonsPlus.isPresent());
+        assertCommonsPlus(commons1, 7, 2, commonsPlus.get());
+    }
+
+    @Test
+    void findWithTotalsById_includes_total_cow_health() {
+        CommonsWithTotals totals = commonsRepository.findWithTotalsById(commons1.getId()).get();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(7L, totals.getTotalCows());
+        assertEquals(550.0, totals.getTotalCowHealth());
+    }
+
+    @Test
+    void getCommonsPlus_for_missing_commons_is_empty() {
+        assertEquals(Optional.empty(), commonsPlusBuilderService.getCommonsPlus(commons3.getId() + 1));
+    }
+
+    @Test
+    void reconcileAll_builds_aggregates_from_user_commons() {
+        assertEquals(new CommonsAggregate(commons1.getId(), 7, 2, 550.0), commonsAggregateRepository.findById(commons1.getId()).get());
+        assertEquals(new CommonsAggregate(commons2.getId(), 0, 1, 0.0), commonsAggregateRepository.findById(commons2.getId()).get());
+        assertEquals(new CommonsAggregate(commons3.getId(), 0, 0, 0.0), commonsAggregateRepository.findById(commons3.getId()).get());
+    }
+
+    @Test
+    void adjust_and_reconcile_repair_drift() {
+        commonsAggregateService.cowsChanged(commons1.getId(), 2, 50);
+        entityManager.clear();
+        assertEquals(new CommonsAggregate(commons1.getId(), 9, 2, 650.0), commonsAggregateService.getAggregate(commons1.getId()));
+
+        // the change above was never made to user_commons, so it is drift
+        assertTrue(commonsAggregateService.reconcile(commons1.getId()));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(new CommonsAggregate(commons1.getId(), 7, 2, 550.0), commonsAggregateService.getAggregate(commons1.getId()));
+        assertFalse(commonsAggregateService.reconcile(commons1.getId()));
+    }
+
+    @Test
+    void membership_version_is_only_changed_by_incrementMembershipVersion() {
+        Commons stale = commonsRepository.findById(commons1.getId()).get();
+        assertEquals(Optional.of(0L), commonsRepository.findMembershipVersionById(commons1.getId()));
+
+        assertEquals(1, commonsRepository.incrementMembershipVersion(commons1.getId()));
+        assertEquals(1, commonsRepository.incrementMembershipVersion(commons1.getId()));
+        entityManager.clear();
+
+        // saving a commons read before the increments leaves the version alone
+        stale.setName("Commons 1 renamed");
+        commonsRepository.save(stale);
+        entityManager.flush();
+
+        assertEquals(Optional.of(2L), commonsRepository.findMembershipVersionById(commons1.getId()));
+        assertEquals(Optional.of(0L), commonsRepository.findMembershipVersionById(commons2.getId()));
+        assertEquals(Optional.empty(), commonsRepository.findMembershipVersionById(commons3.getId() + 1));
+        assertEquals(0, commonsRepository.incrementMembershipVersion(commons3.getId() + 1));
+    }
+
+    private void assertCommonsPlus(Commons expectedCommons, int totalCows, int totalUsers, CommonsPlus actual) {
+        assertEquals(expectedCommons.getId(), actual.getCommons().getId());
+        assertEquals(expectedCommons.getName(), actual.getCommons().getName());
+        assertEquals(totalCows, actual.getTotalCows());
+        assertEquals(totalUsers, actual.getTotalUsers());
+    }
+}
@@ -0,0 +1,122 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.Profit;
+import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class ProfitRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ProfitRepository profitRepository;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp");
+
+    private final LocalDateTime day1 = LocalDateTime.parse("2024-01-01T04:00:00");
+
+    private UserCommons userCommons;
+
+    @BeforeEach
+    void setUp() {
+        Commons commons = entityManager.persist(Commons.builder().name("Commons 1").build());
+        User user1 = entityManager.persist(User.builder().email("user1@ucsb.edu").build());
+        User user2 = entityManager.persist(User.builder().email("user2@ucsb.edu").build());
+
+        userCommons = entityManager.persist(UserCommons.builder().user(user1).commons(commons).build());
+        UserCommons other = entityManager.persist(UserCommons.builder().user(user2).commons(commons).build());
+
+        // inserted out of order, so that the order comes from the query
+        for (int day : List.of(3, 1, 5, 2, 4)) {
+            entityManager.persist(Profit.builder().userCommons(userCommons).amount(day).timestamp(day1.plusDays(day - 1)).build());
+        }
+        entityManager.persist(Profit.builder().userCommons(other).amount(100).timestamp(day1.plusDays(10)).build());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllByUserCommons_pages_newest_first() {
+        Page<Profit> page = profitRepository.findAllByUserCommons(userCommons, PageRequest.of(1, 2, NEWEST_FIRST));
+
+        assertEquals(5, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(List.of(3.0, 2.0), amounts(page.getContent()));
+    }
+
+    @Test
+    void findAllByUserCommons_last_page_is_partial() {
+        Page<Profit> page = profitRepository.findAllByUserCommons(userCommons, PageRequest.of(2, 2, NEWEST_FIRST));
+
+        assertEquals(List.of(1.0), amounts(page.getContent()));
+    }
+
+    @Test
+    void findNextByUserCommons_returns_newer_rows_oldest_first() {
+        List<Profit> profits = profitRepository.findNextByUserCommons(
+                userCommons, day1.plusDays(2), Long.MAX_VALUE, PageRequest.of(0, 100));
+
+        assertEquals(List.of(4.0, 5.0), amounts(profits));
+    }
+
+    @Test
+    void findNextByUserCommons_pages_forward_without_skipping_rows() {
+        List<Profit> first = profitRepository.findNextByUserCommons(
+                userCommons, day1.minusDays(1), Long.MAX_VALUE, PageRequest.of(0, 2));
+        assertEquals(List.of(1.0, 2.0), amounts(first));
+
+        Profit last = first.get(1);
+        List<Profit> second = profitRepository.findNextByUserCommons(
+                userCommons, last.getTimestamp(), last.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(3.0, 4.0), amounts(second));
+    }
+
+    @Test
+    void findNextByUserCommons_breaks_timestamp_ties_by_id() {
+        Profit first = entityManager.persist(Profit.builder().userCommons(userCommons).amount(6).timestamp(day1.plusDays(5)).build());
+        entityManager.persist(Profit.builder().userCommons(userCommons).amount(7).timestamp(day1.plusDays(5)).build());
+        entityManager.flush();
+
+        List<Profit> profits = profitRepository.findNextByUserCommons(
+                userCommons, first.getTimestamp(), first.getId(), PageRequest.of(0, 100));
+
+        assertEquals(List.of(7.0), amounts(profits));
+    }
+
+    @Test
+    void findNextByUserCommons_nothing_new() {
+        List<Profit> profits = profitRepository.findNextByUserCommons(
+                userCommons, day1.plusDays(4), Long.MAX_VALUE, PageRequest.of(0, 100));
+
+        assertEquals(List.of(), profits);
+    }
+
+    private static List<Double> amounts(List<Profit> profits) {
+        return profits.stream().map(Profit::getAmount).collect(Collectors.toList());
+    }
+}
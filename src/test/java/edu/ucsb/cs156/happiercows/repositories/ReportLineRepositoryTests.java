@@ -0,0 +1,110 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.Report;
+import edu.ucsb.cs156.happiercows.entities.ReportLine;
+import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.models.ReportTotals;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class ReportLineRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ReportLineRepository reportLineRepository;
+
+    private Commons commons1;
+    private User user1;
+    private User user2;
+    private Report report;
+
+    @BeforeEach
+    void setUp() {
+        commons1 = entityManager.persist(Commons.builder().name("Commons 1").build());
+        Commons commons2 = entityManager.persist(Commons.builder().name("Commons 2").build());
+
+        user1 = entityManager.persist(User.builder().email("user1@ucsb.edu").build());
+        user2 = entityManager.persist(User.builder().email("user2@ucsb.edu").build());
+
+        entityManager.persist(UserCommons.builder().user(user2).commons(commons1).username("Thomas Jefferson")
+                .totalWealth(100).numOfCows(2).cowHealth(50).cowsBought(3).cowsSold(1).cowDeaths(0).build());
+        entityManager.persist(UserCommons.builder().user(user1).commons(commons1).username("George Washington")
+                .totalWealth(250).numOfCows(5).cowHealth(80).cowsBought(6).cowsSold(0).cowDeaths(1).build());
+        entityManager.persist(UserCommons.builder().user(user1).commons(commons2).username("George Washington")
+                .numOfCows(7).build());
+
+        report = entityManager.persist(Report.builder().commonsId(commons1.getId()).name("Commons 1").build());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void insertReportLinesForCommons_copies_every_user_commons_in_the_commons() {
+        int inserted = reportLineRepository.insertReportLinesForCommons(report.getId(), commons1.getId(), LocalDateTime.now());
+
+        List<ReportLine> lines = new ArrayList<>();
+        reportLineRepository.findAllByReportId(report.getId()).forEach(lines::add);
+        lines.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+
+        assertEquals(2, inserted);
+        assertEquals(2, lines.size());
+
+        ReportLine first = lines.get(0);
+        assertEquals(user1.getId(), first.getUserId());
+        assertEquals("George Washington", first.getUsername());
+        assertEquals(250, first.getTotalWealth());
+        assertEquals(5, first.getNumOfCows());
+        assertEquals(80, first.getAvgCowHealth());
+        assertEquals(6, first.getCowsBought());
+        assertEquals(0, first.getCowsSold());
+        assertEquals(1, first.getCowDeaths());
+        assertNotNull(first.getCreateDate());
+
+        ReportLine second = lines.get(1);
+        assertEquals(user2.getId(), second.getUserId());
+        assertEquals("Thomas Jefferson", second.getUsername());
+        assertEquals(2, second.getNumOfCows());
+        assertEquals(50, second.getAvgCowHealth());
+    }
+
+    @Test
+    void findTotalsByReportId_adds_up_the_lines_of_a_report() {
+        reportLineRepository.insertReportLinesForCommons(report.getId(), commons1.getId(), LocalDateTime.now());
+
+        ReportTotals totals = reportLineRepository.findTotalsByReportId(report.getId());
+
+        assertEquals(2L, totals.getNumUsers());
+        assertEquals(7L, totals.getNumCows());
+    }
+
+    @Test
+    void findTotalsByReportId_is_zero_for_a_report_without_lines() {
+        ReportTotals totals = reportLineRepository.findTotalsByReportId(report.getId());
+
+        assertEquals(0L, totals.getNumUsers());
+        assertEquals(0L, totals.getNumCows());
+    }
+}
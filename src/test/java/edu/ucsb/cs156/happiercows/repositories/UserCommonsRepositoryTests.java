@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.happiercows.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.models.ChatAuthor;
+import edu.ucsb.cs156.happiercows.models.LeaderboardEntry;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class UserCommonsRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    UserCommonsRepository userCommonsRepository;
+
+    private Commons commons1;
+    private User user1;
+    private User user2;
+
+    @BeforeEach
+    void setUp() {
+        commons1 = entityManager.persist(Commons.builder().name("Commons 1").build());
+        Commons commons2 = entityManager.persist(Commons.builder().name("Commons 2").build());
+
+        user1 = entityManager.persist(User.builder().email("user1@ucsb.edu").build());
+        user2 = entityManager.persist(User.builder().email("user2@ucsb.edu").build());
+
+        entityManager.persist(UserCommons.builder().user(user2).commons(commons1).username("Thomas Jefferson").build());
+        entityManager.persist(UserCommons.builder().user(user1).commons(commons1).username("George Washington").totalWealth(250).numOfCows(3).cowHealth(80).cowsBought(4).cowsSold(1).build());
+        entityManager.persist(UserCommons.builder().user(user1).commons(commons2).username("George Washington").build());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findChatAuthorsByCommonsId_returns_members_by_user_id_without_loading_entities() {
+        List<String> authors = new ArrayList<>();
+        for (ChatAuthor author : userCommonsRepository.findChatAuthorsByCommonsId(commons1.getId())) {
+            authors.add(author.getUserId() + ":" + author.getUsername());
+        }
+
+        assertEquals(List.of(user1.getId() + ":George Washington", user2.getId() + ":Thomas Jefferson"), authors);
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findLeaderboardEntriesByCommonsId_returns_entries_without_loading_entities() {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        userCommonsRepository.findLeaderboardEntriesByCommonsId(commons1.getId()).forEach(entries::add);
+        entries.sort((a, b) -> Long.compare(a.getUserId(), b.getUserId()));
+
+        LeaderboardEntry expected = new LeaderboardEntry(user1.getId(), commons1.getId(), "George Washington", 250, 3, 80, 4, 1, 0, 0);
+        assertEquals(2, entries.size());
+        assertEquals(expected, entries.get(0));
+        assertEquals(user2.getId(), entries.get(1).getUserId());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
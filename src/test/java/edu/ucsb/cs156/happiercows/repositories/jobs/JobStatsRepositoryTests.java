@@ -0,0 +1,146 @@
+package edu.ucsb.cs156.happiercows.repositories.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobStats;
+import edu.ucsb.cs156.happiercows.models.CommonsRunStats;
+import edu.ucsb.cs156.happiercows.models.JobTypeStats;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class JobStatsRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JobStatsRepository jobStatsRepository;
+
+    @Autowired
+    JobCommonsStatsRepository jobCommonsStatsRepository;
+
+    private final ZonedDateTime now = ZonedDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private long persistRun(String jobType, String status, ZonedDateTime finishedAt, long durationMs, long rowsWritten) {
+        Job job = entityManager.persist(Job.builder().status(status).build());
+        entityManager.persist(JobStats.builder()
+                .jobId(job.getId())
+                .jobType(jobType)
+                .startedAt(finishedAt == null ? now : finishedAt.minusNanos(durationMs * 1_000_000))
+                .finishedAt(finishedAt)
+                .durationMs(durationMs)
+                .rowsRead(rowsWritten)
+                .rowsWritten(rowsWritten)
+                .build());
+        return job.getId();
+    }
+
+    private void persistCommons(long jobId, long commonsId, long durationMs) {
+        entityManager.persist(JobCommonsStats.builder().jobId(jobId).commonsId(commonsId).durationMs(durationMs).rowsRead(10).rowsWritten(10).build());
+    }
+
+    private long oldRun;
+    private long firstRun;
+    private long secondRun;
+    private long running;
+
+    @BeforeEach
+    void setUp() {
+        oldRun = persistRun("MilkTheCowsJob", "complete", now.minusDays(40), 9000, 1000);
+        firstRun = persistRun("MilkTheCowsJob", "complete", now.minusDays(2), 1000, 100);
+        secondRun = persistRun("MilkTheCowsJob", "error", now.minusDays(1), 3000, 300);
+        persistRun("UpdateCowHealthJob", "complete", now.minusDays(1), 500, 50);
+        running = persistRun("MilkTheCowsJob", "running", null, 0, 0);
+
+        persistCommons(oldRun, 1L, 8000);
+        persistCommons(firstRun, 1L, 400);
+        persistCommons(firstRun, 2L, 600);
+        persistCommons(secondRun, 1L, 2000);
+        persistCommons(secondRun, 2L, 1000);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findJobTypeStatsSince_aggregates_the_finished_runs_of_each_type() {
+        List<JobTypeStats> stats = jobStatsRepository.findJobTypeStatsSince(now.minusDays(30));
+
+        assertEquals(2, stats.size());
+        JobTypeStats milk = stats.get(0);
+        assertEquals("MilkTheCowsJob", milk.getJobType());
+        assertEquals(2L, milk.getNumRuns());
+        assertEquals(1L, milk.getNumFailed());
+        assertEquals(2000.0, milk.getAvgDurationMs());
+        assertEquals(3000L, milk.getMaxDurationMs());
+        assertEquals(200.0, milk.getAvgRowsRead());
+        assertEquals(200.0, milk.getAvgRowsWritten());
+        assertEquals(now.minusDays(1).toInstant(), milk.getLastFinishedAt().toInstant());
+
+        JobTypeStats health = stats.get(1);
+        assertEquals("UpdateCowHealthJob", health.getJobType());
+        assertEquals(1L, health.getNumRuns());
+        assertEquals(0L, health.getNumFailed());
+    }
+
+    @Test
+    void findByJobTypeAndFinishedAtNotNull_lists_the_latest_finished_runs_first() {
+        List<JobStats> runs = jobStatsRepository.findByJobTypeAndFinishedAtNotNullOrderByFinishedAtDesc("MilkTheCowsJob", PageRequest.of(0, 2));
+
+        assertEquals(List.of(secondRun, firstRun), runs.stream().map(JobStats::getJobId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void updateProgress_sets_the_progress_of_a_running_job() {
+        int updated = jobStatsRepository.updateProgress(running, "milking the cows", 1, 4, 25L, 50L);
+
+        JobStats stats = jobStatsRepository.findById(running).get();
+        assertEquals(1, updated);
+        assertEquals("milking the cows", stats.getPhase());
+        assertEquals(1, stats.getCompletedUnits());
+        assertEquals(4, stats.getTotalUnits());
+        assertEquals(25L, stats.getRowsRead());
+        assertEquals(50L, stats.getRowsWritten());
+    }
+
+    @Test
+    void findCommonsRunStatsSince_aggregates_each_commons_over_the_runs_of_a_type() {
+        List<CommonsRunStats> stats = jobCommonsStatsRepository.findCommonsRunStatsSince("MilkTheCowsJob", now.minusDays(30));
+
+        assertEquals(2, stats.size());
+        assertEquals(1L, stats.get(0).getCommonsId());
+        assertEquals(2L, stats.get(0).getNumRuns());
+        assertEquals(1200.0, stats.get(0).getAvgDurationMs());
+        assertEquals(2000L, stats.get(0).getMaxDurationMs());
+        assertEquals(10.0, stats.get(0).getAvgRowsRead());
+        assertEquals(10.0, stats.get(0).getAvgRowsWritten());
+        assertEquals(2L, stats.get(1).getCommonsId());
+        assertEquals(800.0, stats.get(1).getAvgDurationMs());
+    }
+
+    @Test
+    void findByJobId_lists_the_slowest_commons_of_a_run_first() {
+        List<JobCommonsStats> stats = jobCommonsStatsRepository.findByJobIdOrderByDurationMsDesc(firstRun);
+
+        assertEquals(List.of(2L, 1L), stats.stream().map(JobCommonsStats::getCommonsId).collect(Collectors.toList()));
+    }
+}
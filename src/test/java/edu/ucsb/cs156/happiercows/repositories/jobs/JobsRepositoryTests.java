@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.happiercows.repositories.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+public class JobsRepositoryTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JobsRepository jobsRepository;
+
+    @Test
+    void test_legacy_logs_are_found_read_and_cleared() {
+        Job oldJob = entityManager.persist(Job.builder().status("complete").legacyLog("Hello\nGoodbye").build());
+        entityManager.persist(Job.builder().status("complete").build());
+
+        assertEquals(List.of(oldJob.getId()), jobsRepository.findIdsWithLegacyLog());
+        assertEquals("Hello\nGoodbye", jobsRepository.findLegacyLog(oldJob.getId()));
+
+        jobsRepository.clearLegacyLog(oldJob.getId());
+        entityManager.clear();
+
+        assertEquals(List.of(), jobsRepository.findIdsWithLegacyLog());
+        assertNull(jobsRepository.findLegacyLog(oldJob.getId()));
+    }
+}
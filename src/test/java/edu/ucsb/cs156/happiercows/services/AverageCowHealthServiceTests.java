@@ -1,14 +1,16 @@
 package edu.ucsb.cs156.happiercows.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,27 +20,17 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
-import edu.ucsb.cs156.happiercows.entities.User;
-import edu.ucsb.cs156.happiercows.entities.UserCommons;
-import edu.ucsb.cs156.happiercows.entities.UserCommonsKey;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
-import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
-import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
 
 @ExtendWith(SpringExtension.class)
 @Import(AverageCowHealthService.class)
 @ContextConfiguration
 public class AverageCowHealthServiceTests {
-    
-    @MockBean
-    UserRepository userRepository;
   
     @MockBean
     CommonsRepository commonsRepository;
-  
-    @MockBean
-    UserCommonsRepository userCommonsRepository;    
 
     @Autowired
     AverageCowHealthService averageCowHealthService;
@@ -58,63 +50,21 @@ public class AverageCowHealthServiceTests {
         .aboveCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear)
         .build();
 
-    private User user1 = User
-        .builder()
-        .id(42L)
-        .fullName("Chris Gaucho")
-        .email("cgaucho@example.org")
-        .build();
-
-    UserCommons userCommons1 = UserCommons
-        .builder()
-        .user(user1)
-        .username("Chris Gaucho")
-        .commons(commons)
-        .totalWealth(300)
-        .numOfCows(20)
-        .cowHealth(10)
-        .cowsBought(10)
-        .cowsSold(23)
-        .cowDeaths(6)
-        .build();
-
-    private User user2 = User
-        .builder()
-        .id(43L)
-        .fullName("John Doe")
-        .email("jdoe@example.org")
-        .build();
-
-    UserCommons userCommons2 = UserCommons
-        .builder()
-        .user(user2)
-        .username("John Doe")
-        .commons(commons)
-        .totalWealth(300)
-        .numOfCows(100)
-        .cowHealth(22)
-        .cowsBought(20)
-        .cowsSold(12)
-        .cowDeaths(2)
-        .build();
-
-
-    @BeforeEach
-    void setup() {
-        userCommons1.setId(new UserCommonsKey(user1.getId(), commons.getId()));
-        userCommons2.setId(new UserCommonsKey(user2.getId(), commons.getId()));
+    private CommonsWithTotals totals(long totalCows, long totalUsers, double totalCowHealth) {
+        return new CommonsWithTotals() {
+            public Commons getCommons() { return commons; }
+            public Long getTotalCows() { return totalCows; }
+            public Long getTotalUsers() { return totalUsers; }
+            public Double getTotalCowHealth() { return totalCowHealth; }
+        };
     }
 
     @Test
     void test_getAverageCowHealthOneUser() {
         // arrange
 
-        when(commonsRepository.findById(17L)).thenReturn(Optional.of(commons));
-        when(userCommonsRepository.findByCommonsId(commons.getId()))
-                .thenReturn(Arrays.asList(userCommons1));
-        when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(Integer.valueOf(1)));
-        when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(Integer.valueOf(20)));
-        when(userRepository.findById(42L)).thenReturn(Optional.of(user1));
+        // one user with 20 cows at health 10
+        when(commonsRepository.findWithTotalsById(17L)).thenReturn(Optional.of(totals(20, 1, 200)));
 
         // act
 
@@ -128,13 +78,8 @@ public class AverageCowHealthServiceTests {
     void test_getAverageCowHealthMultipleUsers() {
         // arrange
 
-        when(commonsRepository.findById(17L)).thenReturn(Optional.of(commons));
-        when(userCommonsRepository.findByCommonsId(commons.getId()))
-                .thenReturn(Arrays.asList(userCommons1,userCommons2));
-        when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(Integer.valueOf(1)));
-        when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(Integer.valueOf(120)));
-        when(userRepository.findById(42L)).thenReturn(Optional.of(user1));
-        when(userRepository.findById(43L)).thenReturn(Optional.of(user2));
+        // 20 cows at health 10 and 100 cows at health 22
+        when(commonsRepository.findWithTotalsById(17L)).thenReturn(Optional.of(totals(120, 2, 2400)));
 
         // act
 
@@ -142,11 +87,25 @@ public class AverageCowHealthServiceTests {
 
         // assert
         assertEquals(20, averageCowHealth);
+        verify(commonsRepository, times(1)).findWithTotalsById(17L);
+        verify(commonsRepository, never()).findById(any());
+    }
+
+    @Test
+    void test_getTotalNumCows() {
+        when(commonsRepository.findWithTotalsById(17L)).thenReturn(Optional.of(totals(120, 2, 2400)));
+
+        assertEquals(120, averageCowHealthService.getTotalNumCows(17L));
+    }
+
+    @Test
+    void test_getAverageCowHealth_from_totals() {
+        assertEquals(20, averageCowHealthService.getAverageCowHealth(totals(120, 2, 2400)));
     }
 
     @Test
     void test_getAverageCowHealthThrowsException() {
-        when(userCommonsRepository.findByCommonsId(1L)).thenReturn(Arrays.asList());
+        when(commonsRepository.findWithTotalsById(1L)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> {
             averageCowHealthService.getAverageCowHealth(1L);
@@ -155,7 +114,7 @@ public class AverageCowHealthServiceTests {
 
     @Test
     void test_getTotalNumCowsThrowsException() {
-        when(userCommonsRepository.findByCommonsId(1L)).thenReturn(Arrays.asList());
+        when(commonsRepository.findWithTotalsById(1L)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> {
             averageCowHealthService.getTotalNumCows(1L);
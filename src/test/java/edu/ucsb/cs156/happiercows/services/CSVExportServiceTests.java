@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.entities.ReportLine;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+@DataJpaTest
+@Import(CSVExportService.class)
+public class CSVExportServiceTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    CSVExportService csvExportService;
+
+    private ReportLine line1;
+    private ReportLine line2;
+    private CommonStats stats1;
+    private CommonStats stats2;
+    private CommonStats stats3;
+
+    @BeforeEach
+    void setUp() {
+        line1 = entityManager.persist(ReportLine.builder().reportId(1L).userId(42L).username("Chris").numOfCows(3).build());
+        entityManager.persist(ReportLine.builder().reportId(2L).userId(42L).username("Chris").numOfCows(4).build());
+        line2 = entityManager.persist(ReportLine.builder().reportId(1L).userId(43L).username("Phill").numOfCows(5).build());
+
+        stats1 = entityManager.persist(CommonStats.builder().commonsId(17L).numCows(20).avgHealth(10.0).build());
+        stats2 = entityManager.persist(CommonStats.builder().commonsId(42L).numCows(120).avgHealth(20.0).build());
+        stats3 = entityManager.persist(CommonStats.builder().commonsId(17L).numCows(30).avgHealth(15.0).build());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void writeReportLines_writes_lines_of_one_report_in_id_order() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        csvExportService.writeReportLines(1L, out);
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, rows.length);
+        assertEquals("id,reportId,userId,username,totalWealth,numOfCows,avgCowHealth,cowsBought,cowsSold,cowDeaths,reportDate", rows[0]);
+        assertTrue(rows[1].startsWith(line1.getId() + ",1,42,Chris,0.0,3,"));
+        assertTrue(rows[2].startsWith(line2.getId() + ",1,43,Phill,0.0,5,"));
+        assertPersistenceContextEmpty();
+    }
+
+    @Test
+    void writeCommonStats_writes_stats_of_one_commons() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        csvExportService.writeCommonStats(17L, out);
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, rows.length);
+        assertEquals("id,commonsId,numCows,avgHealth,createDate", rows[0]);
+        assertTrue(rows[1].startsWith(stats1.getId() + ",17,20,10.0,"));
+        assertTrue(rows[2].startsWith(stats3.getId() + ",17,30,15.0,"));
+        assertPersistenceContextEmpty();
+    }
+
+    @Test
+    void writeAllCommonStats_writes_every_row() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        csvExportService.writeAllCommonStats(out);
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(4, rows.length);
+        assertTrue(rows[1].startsWith(stats1.getId() + ",17,"));
+        assertTrue(rows[2].startsWith(stats2.getId() + ",42,"));
+        assertTrue(rows[3].startsWith(stats3.getId() + ",17,"));
+        assertPersistenceContextEmpty();
+    }
+
+    // rows are detached as they are written, so none are left behind
+    private void assertPersistenceContextEmpty() {
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
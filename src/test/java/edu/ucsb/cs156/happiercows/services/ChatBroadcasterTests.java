@@ -0,0 +1,297 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import edu.ucsb.cs156.happiercows.entities.ChatMessage;
+
+public class ChatBroadcasterTests {
+
+    private ChatBroadcaster chatBroadcaster;
+
+    // what each emitter was sent, rendered as SSE text
+    private final List<String> sent = new ArrayList<>();
+
+    private final ChatMessage message = ChatMessage.builder().id(5L).commonsId(1L).userId(2L).message("Hello").build();
+
+    // the sends queued on the events executor, when they are held back
+    private final List<Runnable> queuedSends = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        chatBroadcaster = spy(new ChatBroadcaster());
+        chatBroadcaster.eventsExecutor = Runnable::run;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void holdSends() {
+        chatBroadcaster.eventsExecutor = queuedSends::add;
+    }
+
+    private void runQueuedSends() {
+        List<Runnable> sends = List.copyOf(queuedSends);
+        queuedSends.clear();
+        sends.forEach(Runnable::run);
+    }
+
+    /**
+     * Makes the next subscribe return a mock emitter that records what is
+     * sent to it, and hands back the callbacks the broadcaster registers.
+     */
+    private Subscriber subscribe(long commonsId) throws IOException {
+        return subscribe(commonsId, null);
+    }
+
+    private Subscriber subscribe(long commonsId, Long userId) throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        Subscriber subscriber = new Subscriber(emitter);
+        doAnswer(invocation -> {
+            subscriber.onCompletion = invocation.getArgument(0);
+            return null;
+        }).when(emitter).onCompletion(any());
+        doAnswer(invocation -> {
+            subscriber.onTimeout = invocation.getArgument(0);
+            return null;
+        }).when(emitter).onTimeout(any());
+        doAnswer(invocation -> {
+            subscriber.onError = invocation.getArgument(0);
+            return null;
+        }).when(emitter).onError(any());
+        doAnswer(invocation -> {
+            sent.add(render(invocation.getArgument(0)));
+            return null;
+        }).when(emitter).send(any(SseEventBuilder.class));
+        doReturn(emitter).when(chatBroadcaster).createEmitter();
+
+        assertSame(emitter, chatBroadcaster.subscribe(commonsId, userId));
+        return subscriber;
+    }
+
+    private static String render(SseEventBuilder event) {
+        StringBuilder text = new StringBuilder();
+        event.build().forEach(part -> text.append(part.getData()));
+        return text.toString();
+    }
+
+    private static class Subscriber {
+        final SseEmitter emitter;
+        Runnable onCompletion;
+        Runnable onTimeout;
+        Consumer<Throwable> onError;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    @Test
+    void messages_are_sent_to_subscribers_of_the_commons() throws Exception {
+        Subscriber first = subscribe(1L);
+        Subscriber second = subscribe(1L);
+        Subscriber other = subscribe(2L);
+
+        chatBroadcaster.messageCreated(message);
+
+        verify(first.emitter, times(1)).send(any(SseEventBuilder.class));
+        verify(second.emitter, times(1)).send(any(SseEventBuilder.class));
+        verify(other.emitter, never()).send(any(SseEventBuilder.class));
+        assertEquals(2, sent.size());
+        assertEquals(sent.get(0), sent.get(1));
+        assertEquals("event:message\nid:5\ndata:" + message + "\n\n", sent.get(0));
+    }
+
+    @Test
+    void hidden_messages_are_sent_by_id() throws Exception {
+        subscribe(1L);
+
+        chatBroadcaster.messageHidden(message);
+
+        assertEquals(List.of("event:hidden\ndata:{id=5}\n\n"), sent);
+    }
+
+    @Test
+    void nothing_is_sent_for_a_commons_without_subscribers() throws Exception {
+        Subscriber other = subscribe(2L);
+
+        chatBroadcaster.messageCreated(message);
+        chatBroadcaster.messageHidden(message);
+
+        verify(other.emitter, never()).send(any(SseEventBuilder.class));
+        assertEquals(0, chatBroadcaster.subscriberCount(1L));
+    }
+
+    @Test
+    void subscribers_are_removed_when_their_connection_ends() throws Exception {
+        Subscriber completed = subscribe(1L);
+        Subscriber timedOut = subscribe(1L);
+        Subscriber failed = subscribe(1L);
+        assertEquals(3, chatBroadcaster.subscriberCount(1L));
+
+        completed.onCompletion.run();
+        assertEquals(2, chatBroadcaster.subscriberCount(1L));
+        timedOut.onTimeout.run();
+        assertEquals(1, chatBroadcaster.subscriberCount(1L));
+        failed.onError.accept(new IOException("Broken pipe"));
+        assertEquals(0, chatBroadcaster.subscriberCount(1L));
+
+        chatBroadcaster.messageCreated(message);
+        assertEquals(List.of(), sent);
+    }
+
+    @Test
+    void subscribers_that_cannot_be_sent_to_are_dropped() throws Exception {
+        Subscriber gone = subscribe(1L);
+        Subscriber open = subscribe(1L);
+        IOException brokenPipe = new IOException("Broken pipe");
+        doThrow(brokenPipe).when(gone.emitter).send(any(SseEventBuilder.class));
+
+        chatBroadcaster.messageCreated(message);
+
+        verify(gone.emitter, times(1)).completeWithError(brokenPipe);
+        verify(open.emitter, never()).completeWithError(any());
+        assertEquals(1, chatBroadcaster.subscriberCount(1L));
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    void messages_are_sent_in_order_on_the_events_executor() throws Exception {
+        holdSends();
+        subscribe(1L);
+        subscribe(1L);
+
+        chatBroadcaster.messageCreated(message);
+        chatBroadcaster.messageHidden(message);
+
+        // posting does not wait for the browsers, and each one is sent to by one task
+        assertEquals(List.of(), sent);
+        assertEquals(2, queuedSends.size());
+
+        runQueuedSends();
+        String created = "event:message\nid:5\ndata:" + message + "\n\n";
+        String hidden = "event:hidden\ndata:{id=5}\n\n";
+        assertEquals(List.of(created, hidden, created, hidden), sent);
+
+        chatBroadcaster.messageHidden(message);
+        assertEquals(2, queuedSends.size());
+    }
+
+    @Test
+    void subscribers_that_fall_too_far_behind_are_dropped() throws Exception {
+        holdSends();
+        Subscriber slow = subscribe(1L);
+
+        for (int i = 0; i < ChatBroadcaster.MAX_QUEUED_EVENTS; i++) {
+            chatBroadcaster.messageCreated(message);
+        }
+        assertEquals(1, chatBroadcaster.subscriberCount(1L));
+        verify(slow.emitter, never()).complete();
+
+        chatBroadcaster.messageCreated(message);
+        assertEquals(0, chatBroadcaster.subscriberCount(1L));
+        verify(slow.emitter, times(1)).complete();
+
+        runQueuedSends();
+        assertEquals(List.of(), sent);
+    }
+
+    @Test
+    void heartbeat_is_sent_to_every_subscriber() throws Exception {
+        subscribe(1L);
+        subscribe(2L);
+
+        chatBroadcaster.heartbeat();
+
+        assertEquals(List.of(":heartbeat\n\n", ":heartbeat\n\n"), sent);
+    }
+
+    @Test
+    void connections_of_a_removed_member_are_closed() throws Exception {
+        Subscriber removed = subscribe(1L, 2L);
+        Subscriber otherUser = subscribe(1L, 3L);
+        Subscriber admin = subscribe(1L);
+        Subscriber otherCommons = subscribe(2L, 2L);
+
+        chatBroadcaster.memberRemoved(1L, 2L);
+
+        verify(removed.emitter, times(1)).complete();
+        verify(otherUser.emitter, never()).complete();
+        verify(admin.emitter, never()).complete();
+        verify(otherCommons.emitter, never()).complete();
+        assertEquals(2, chatBroadcaster.subscriberCount(1L));
+
+        chatBroadcaster.messageCreated(message);
+        verify(removed.emitter, never()).send(any(SseEventBuilder.class));
+    }
+
+    @Test
+    void connections_of_members_are_closed_when_the_chat_is_hidden() throws Exception {
+        Subscriber member = subscribe(1L, 2L);
+        Subscriber admin = subscribe(1L);
+
+        chatBroadcaster.chatHidden(1L);
+
+        verify(member.emitter, times(1)).complete();
+        verify(admin.emitter, never()).complete();
+        assertEquals(1, chatBroadcaster.subscriberCount(1L));
+    }
+
+    @Test
+    void every_connection_is_closed_when_the_commons_is_deleted() throws Exception {
+        Subscriber member = subscribe(1L, 2L);
+        Subscriber admin = subscribe(1L);
+
+        chatBroadcaster.commonsDeleted(1L);
+        chatBroadcaster.commonsDeleted(3L);
+
+        verify(member.emitter, times(1)).complete();
+        verify(admin.emitter, times(1)).complete();
+        assertEquals(0, chatBroadcaster.subscriberCount(1L));
+    }
+
+    @Test
+    void connections_are_closed_only_once_the_transaction_commits() throws Exception {
+        Subscriber member = subscribe(1L, 2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        chatBroadcaster.memberRemoved(1L, 2L);
+        verify(member.emitter, never()).complete();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(member.emitter, times(1)).complete();
+    }
+
+    @Test
+    void emitters_use_the_configured_timeout() {
+        chatBroadcaster.timeoutMs = 1234L;
+
+        assertEquals(1234L, chatBroadcaster.createEmitter().getTimeout());
+    }
+}
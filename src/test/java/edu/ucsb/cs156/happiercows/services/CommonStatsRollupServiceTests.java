@@ -0,0 +1,171 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.entities.CommonStatsRollup;
+import edu.ucsb.cs156.happiercows.models.StatsResolution;
+import edu.ucsb.cs156.happiercows.repositories.CommonStatsRepository;
+import edu.ucsb.cs156.happiercows.repositories.CommonStatsRollupRepository;
+
+public class CommonStatsRollupServiceTests {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Los_Angeles");
+
+    // 30 days of raw stats and 90 days of hourly buckets are kept before this
+    private static final Instant NOW = at("2023-06-15T12:00:00").toInstant();
+
+    private CommonStatsRollupService commonStatsRollupService;
+
+    @BeforeEach
+    void setUp() {
+        commonStatsRollupService = new CommonStatsRollupService();
+        commonStatsRollupService.commonStatsRepository = mock(CommonStatsRepository.class);
+        commonStatsRollupService.commonStatsRollupRepository = mock(CommonStatsRollupRepository.class);
+        commonStatsRollupService.rawRetentionDays = 30;
+        commonStatsRollupService.hourlyRetentionDays = 90;
+        commonStatsRollupService.zone = ZONE;
+    }
+
+    private static Date at(String localDateTime) {
+        return Date.from(LocalDateTime.parse(localDateTime).atZone(ZONE).toInstant());
+    }
+
+    private static CommonStats stats(long commonsId, String createDate, int numCows, double avgHealth) {
+        return CommonStats.builder().commonsId(commonsId).createDate(at(createDate)).numCows(numCows).avgHealth(avgHealth).build();
+    }
+
+    private static CommonStatsRollup rollup(long commonsId, StatsResolution resolution, String bucketStart, int numSamples,
+            int minCows, int maxCows, double avgCows, double minHealth, double maxHealth, double avgHealth) {
+        return CommonStatsRollup.builder()
+                .commonsId(commonsId)
+                .resolution(resolution)
+                .bucketStart(at(bucketStart))
+                .numSamples(numSamples)
+                .minCows(minCows)
+                .maxCows(maxCows)
+                .avgCows(avgCows)
+                .minHealth(minHealth)
+                .maxHealth(maxHealth)
+                .avgHealth(avgHealth)
+                .build();
+    }
+
+    @Test
+    void rollUpRawStats_replaces_old_stats_with_hourly_buckets() {
+        Runnable onClose = mock(Runnable.class);
+        Date cutoff = at("2023-05-16T00:00:00");
+        when(commonStatsRollupService.commonStatsRepository.streamAllBefore(cutoff)).thenReturn(Stream.of(
+                stats(1L, "2023-05-01T10:05:00", 10, 40),
+                stats(1L, "2023-05-01T10:35:00", 20, 60),
+                stats(1L, "2023-05-01T11:05:00", 30, 80),
+                stats(2L, "2023-05-01T10:10:00", 5, 100)).onClose(onClose));
+
+        int written = commonStatsRollupService.rollUpRawStats(NOW);
+
+        assertEquals(3, written);
+        verify(commonStatsRollupService.commonStatsRollupRepository).saveAll(List.of(
+                rollup(1L, StatsResolution.HOUR, "2023-05-01T10:00:00", 2, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.HOUR, "2023-05-01T11:00:00", 1, 30, 30, 30, 80, 80, 80),
+                rollup(2L, StatsResolution.HOUR, "2023-05-01T10:00:00", 1, 5, 5, 5, 100, 100, 100)));
+        verify(commonStatsRollupService.commonStatsRepository).deleteAllBefore(cutoff);
+        verify(onClose, times(1)).run();
+    }
+
+    @Test
+    void rollUpHourlyStats_replaces_old_hourly_buckets_with_daily_buckets() {
+        Runnable onClose = mock(Runnable.class);
+        Date cutoff = at("2023-03-17T00:00:00");
+        when(commonStatsRollupService.commonStatsRollupRepository.streamByResolutionBefore(StatsResolution.HOUR, cutoff)).thenReturn(Stream.of(
+                rollup(1L, StatsResolution.HOUR, "2023-03-01T10:00:00", 2, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.HOUR, "2023-03-01T23:00:00", 1, 30, 30, 30, 80, 80, 80),
+                rollup(1L, StatsResolution.HOUR, "2023-03-02T00:00:00", 4, 1, 2, 1.5, 10, 20, 15)).onClose(onClose));
+
+        int written = commonStatsRollupService.rollUpHourlyStats(NOW);
+
+        assertEquals(2, written);
+        verify(commonStatsRollupService.commonStatsRollupRepository).saveAll(List.of(
+                rollup(1L, StatsResolution.DAY, "2023-03-01T00:00:00", 3, 10, 30, 20, 40, 80, 60),
+                rollup(1L, StatsResolution.DAY, "2023-03-02T00:00:00", 4, 1, 2, 1.5, 10, 20, 15)));
+        verify(commonStatsRollupService.commonStatsRollupRepository).deleteByResolutionBefore(StatsResolution.HOUR, cutoff);
+        verify(onClose, times(1)).run();
+    }
+
+    @Test
+    void rolling_up_nothing_writes_no_buckets() {
+        when(commonStatsRollupService.commonStatsRepository.streamAllBefore(at("2023-05-16T00:00:00"))).thenReturn(Stream.empty());
+        when(commonStatsRollupService.commonStatsRollupRepository.streamByResolutionBefore(StatsResolution.HOUR, at("2023-03-17T00:00:00")))
+                .thenReturn(Stream.empty());
+
+        assertEquals(0, commonStatsRollupService.rollUpRawStats(NOW));
+        assertEquals(0, commonStatsRollupService.rollUpHourlyStats(NOW));
+        verify(commonStatsRollupService.commonStatsRollupRepository, times(2)).saveAll(List.of());
+    }
+
+    @Test
+    void findInRange_merges_raw_stats_and_rollups_into_buckets_of_the_resolution() {
+        Date from = at("2023-01-01T00:00:00");
+        Date to = at("2023-07-01T00:00:00");
+        when(commonStatsRollupService.commonStatsRollupRepository.findByCommonsIdInRange(1L, from, to)).thenReturn(List.of(
+                rollup(1L, StatsResolution.DAY, "2023-02-01T00:00:00", 4, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.HOUR, "2023-04-01T10:00:00", 2, 10, 20, 15, 40, 60, 50)));
+        when(commonStatsRollupService.commonStatsRepository.findByCommonsIdInRange(1L, from, to)).thenReturn(List.of(
+                stats(1L, "2023-06-01T10:05:00", 10, 40),
+                stats(1L, "2023-06-01T10:35:00", 20, 60)));
+
+        List<CommonStatsRollup> hourly = commonStatsRollupService.findInRange(1L,
+                LocalDateTime.parse("2023-01-01T00:00:00"), LocalDateTime.parse("2023-07-01T00:00:00"), StatsResolution.HOUR);
+
+        // the daily bucket keeps its own resolution
+        assertEquals(List.of(
+                rollup(1L, StatsResolution.DAY, "2023-02-01T00:00:00", 4, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.HOUR, "2023-04-01T10:00:00", 2, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.HOUR, "2023-06-01T10:00:00", 2, 10, 20, 15, 40, 60, 50)), hourly);
+
+        List<CommonStatsRollup> raw = commonStatsRollupService.findInRange(1L,
+                LocalDateTime.parse("2023-01-01T00:00:00"), LocalDateTime.parse("2023-07-01T00:00:00"), StatsResolution.RAW);
+
+        assertEquals(List.of(
+                rollup(1L, StatsResolution.DAY, "2023-02-01T00:00:00", 4, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.HOUR, "2023-04-01T10:00:00", 2, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.RAW, "2023-06-01T10:05:00", 1, 10, 10, 10, 40, 40, 40),
+                rollup(1L, StatsResolution.RAW, "2023-06-01T10:35:00", 1, 20, 20, 20, 60, 60, 60)), raw);
+
+        List<CommonStatsRollup> daily = commonStatsRollupService.findInRange(1L,
+                LocalDateTime.parse("2023-01-01T00:00:00"), LocalDateTime.parse("2023-07-01T00:00:00"), StatsResolution.DAY);
+
+        assertEquals(List.of(
+                rollup(1L, StatsResolution.DAY, "2023-02-01T00:00:00", 4, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.DAY, "2023-04-01T00:00:00", 2, 10, 20, 15, 40, 60, 50),
+                rollup(1L, StatsResolution.DAY, "2023-06-01T00:00:00", 2, 10, 20, 15, 40, 60, 50)), daily);
+    }
+
+    @Test
+    void findInRange_merges_a_raw_stat_into_a_coarser_bucket_starting_at_the_same_time() {
+        Date from = at("2023-01-01T00:00:00");
+        Date to = at("2023-07-01T00:00:00");
+        when(commonStatsRollupService.commonStatsRollupRepository.findByCommonsIdInRange(1L, from, to)).thenReturn(List.of(
+                rollup(1L, StatsResolution.HOUR, "2023-06-01T10:00:00", 1, 10, 10, 10, 40, 40, 40)));
+        when(commonStatsRollupService.commonStatsRepository.findByCommonsIdInRange(1L, from, to)).thenReturn(List.of(
+                stats(1L, "2023-06-01T10:00:00", 20, 60)));
+
+        List<CommonStatsRollup> raw = commonStatsRollupService.findInRange(1L,
+                LocalDateTime.parse("2023-01-01T00:00:00"), LocalDateTime.parse("2023-07-01T00:00:00"), StatsResolution.RAW);
+
+        assertEquals(List.of(rollup(1L, StatsResolution.HOUR, "2023-06-01T10:00:00", 2, 10, 20, 15, 40, 60, 50)), raw);
+    }
+}
@@ -1,12 +1,13 @@
 package edu.ucsb.cs156.happiercows.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -19,6 +20,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.CommonStats;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
@@ -78,13 +80,22 @@ public class CommonStatsServiceTests {
         .build();
 
 
+    private CommonsWithTotals totals(long totalCows, double totalCowHealth) {
+        return new CommonsWithTotals() {
+            public Commons getCommons() { return commons; }
+            public Long getTotalCows() { return totalCows; }
+            public Long getTotalUsers() { return 1L; }
+            public Double getTotalCowHealth() { return totalCowHealth; }
+        };
+    }
+
     @Test
     void test_saveStatsOneUser() {
         // arrange
 
-        when(commonsRepository.findById(17L)).thenReturn(Optional.of(commons));
-        when(averageCowHealthService.getAverageCowHealth(17L)).thenReturn(10.0);
-        when(averageCowHealthService.getTotalNumCows(17L)).thenReturn(20);
+        CommonsWithTotals totals = totals(20, 200);
+        when(averageCowHealthService.getTotals(17L)).thenReturn(totals);
+        when(averageCowHealthService.getAverageCowHealth(totals)).thenReturn(10.0);
 
         // act
 
@@ -99,9 +110,9 @@ public class CommonStatsServiceTests {
     void test_saveStatsMultipleUsers() {
         // arrange
 
-        when(commonsRepository.findById(17L)).thenReturn(Optional.of(commons));
-        when(averageCowHealthService.getAverageCowHealth(17L)).thenReturn(20.0);
-        when(averageCowHealthService.getTotalNumCows(17L)).thenReturn(120);
+        CommonsWithTotals totals = totals(120, 2400);
+        when(averageCowHealthService.getTotals(17L)).thenReturn(totals);
+        when(averageCowHealthService.getAverageCowHealth(totals)).thenReturn(20.0);
 
         // act
 
@@ -112,9 +123,21 @@ public class CommonStatsServiceTests {
         assertEquals(expectedStats2, stats);
     }
 
+    @Test
+    void test_saveStats_from_totals_read_for_all_commons() {
+        CommonsWithTotals totals = totals(20, 200);
+        when(averageCowHealthService.getAverageCowHealth(totals)).thenReturn(10.0);
+
+        CommonStats stats = commonStatsService.createAndSaveCommonStats(totals);
+
+        verify(commonStatsRepository).save(eq(expectedStats1));
+        assertEquals(expectedStats1, stats);
+        verify(averageCowHealthService, never()).getTotals(any());
+    }
+
     @Test
     void test_getAverageCowHealthThrowsException() {
-        when(commonsRepository.findById(1L)).thenReturn(Optional.empty());
+        when(averageCowHealthService.getTotals(1L)).thenThrow(new IllegalArgumentException("Commons with id 1 not found"));
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> {
             commonStatsService.createAndSaveCommonStats(1L);
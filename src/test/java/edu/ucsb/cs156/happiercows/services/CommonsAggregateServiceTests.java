@@ -0,0 +1,218 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.CommonsAggregate;
+import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.repositories.CommonsAggregateRepository;
+
+@ExtendWith(SpringExtension.class)
+@Import(CommonsAggregateService.class)
+@ContextConfiguration
+public class CommonsAggregateServiceTests {
+
+    @MockBean
+    CommonsAggregateRepository commonsAggregateRepository;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    CommonsAggregateService commonsAggregateService;
+
+    private UserCommons userCommons = UserCommons
+        .builder()
+        .user(User.builder().id(42L).build())
+        .commons(Commons.builder().id(17L).build())
+        .numOfCows(3)
+        .cowHealth(50)
+        .build();
+
+    @Test
+    void test_getAggregate() {
+        CommonsAggregate aggregate = new CommonsAggregate(17L, 3, 1, 150);
+        when(commonsAggregateRepository.findById(17L)).thenReturn(Optional.of(aggregate));
+
+        assertEquals(aggregate, commonsAggregateService.getAggregate(17L));
+    }
+
+    @Test
+    void test_getAggregate_missing_row_is_empty() {
+        when(commonsAggregateRepository.findById(17L)).thenReturn(Optional.empty());
+
+        assertEquals(new CommonsAggregate(17L, 0, 0, 0), commonsAggregateService.getAggregate(17L));
+    }
+
+    @Test
+    void test_commonsCreated() {
+        commonsAggregateService.commonsCreated(17L);
+
+        verify(commonsAggregateRepository, times(1)).save(new CommonsAggregate(17L, 0, 0, 0));
+    }
+
+    @Test
+    void test_userCommonsAdded() {
+        when(commonsAggregateRepository.addToTotals(17L, 3, 1, 150.0)).thenReturn(1);
+
+        commonsAggregateService.userCommonsAdded(userCommons);
+
+        verify(commonsAggregateRepository, times(1)).addToTotals(17L, 3, 1, 150.0);
+        verify(commonsAggregateRepository, never()).computeFromUserCommons(17L);
+    }
+
+    @Test
+    void test_userCommonsRemoved() {
+        when(commonsAggregateRepository.addToTotals(17L, -3, -1, -150.0)).thenReturn(1);
+
+        commonsAggregateService.userCommonsRemoved(userCommons);
+
+        verify(commonsAggregateRepository, times(1)).addToTotals(17L, -3, -1, -150.0);
+    }
+
+    @Test
+    void test_cowsChanged() {
+        when(commonsAggregateRepository.addToTotals(17L, -2, 0, -100.0)).thenReturn(1);
+
+        commonsAggregateService.cowsChanged(17L, -2, 50);
+
+        verify(commonsAggregateRepository, times(1)).addToTotals(17L, -2, 0, -100.0);
+    }
+
+    @Test
+    void test_adjust_creates_missing_row_from_user_commons() {
+        CommonsAggregate computed = new CommonsAggregate(17L, 5, 2, 400);
+        when(commonsAggregateRepository.addToTotals(17L, 2, 0, 100.0)).thenReturn(0);
+        when(commonsAggregateRepository.lockByCommonsId(17L)).thenReturn(Optional.empty());
+        when(commonsAggregateRepository.computeFromUserCommons(17L)).thenReturn(Optional.of(computed));
+
+        commonsAggregateService.adjust(17L, 2, 0, 100.0);
+
+        verify(commonsAggregateRepository, times(1)).save(computed);
+    }
+
+    @Test
+    void test_commonsDeleted() {
+        CommonsAggregate aggregate = new CommonsAggregate(17L, 3, 1, 150);
+        when(commonsAggregateRepository.findById(17L)).thenReturn(Optional.of(aggregate));
+
+        commonsAggregateService.commonsDeleted(17L);
+
+        verify(commonsAggregateRepository, times(1)).delete(aggregate);
+    }
+
+    @Test
+    void test_reconcile_matching_row_is_left_alone() {
+        when(commonsAggregateRepository.lockByCommonsId(17L)).thenReturn(Optional.of(new CommonsAggregate(17L, 3, 1, 150.0000000001)));
+        when(commonsAggregateRepository.computeFromUserCommons(17L)).thenReturn(Optional.of(new CommonsAggregate(17L, 3, 1, 150)));
+
+        assertFalse(commonsAggregateService.reconcile(17L));
+
+        verify(commonsAggregateRepository, never()).save(any());
+    }
+
+    @Test
+    void test_reconcile_repairs_drifted_row() {
+        CommonsAggregate computed = new CommonsAggregate(17L, 3, 1, 150);
+        when(commonsAggregateRepository.lockByCommonsId(17L)).thenReturn(Optional.of(new CommonsAggregate(17L, 4, 1, 150)));
+        when(commonsAggregateRepository.computeFromUserCommons(17L)).thenReturn(Optional.of(computed));
+
+        assertTrue(commonsAggregateService.reconcile(17L));
+
+        verify(commonsAggregateRepository, times(1)).save(computed);
+    }
+
+    @Test
+    void test_reconcile_repairs_cow_health() {
+        CommonsAggregate computed = new CommonsAggregate(17L, 3, 1, 150);
+        when(commonsAggregateRepository.lockByCommonsId(17L)).thenReturn(Optional.of(new CommonsAggregate(17L, 3, 1, 151)));
+        when(commonsAggregateRepository.computeFromUserCommons(17L)).thenReturn(Optional.of(computed));
+
+        assertTrue(commonsAggregateService.reconcile(17L));
+
+        verify(commonsAggregateRepository, times(1)).save(computed);
+    }
+
+    @Test
+    void test_reconcile_deletes_row_of_deleted_commons() {
+        CommonsAggregate stored = new CommonsAggregate(17L, 3, 1, 150);
+        when(commonsAggregateRepository.lockByCommonsId(17L)).thenReturn(Optional.of(stored));
+        when(commonsAggregateRepository.computeFromUserCommons(17L)).thenReturn(Optional.empty());
+
+        assertTrue(commonsAggregateService.reconcile(17L));
+
+        verify(commonsAggregateRepository, times(1)).delete(stored);
+    }
+
+    @Test
+    void test_reconcile_deleted_commons_without_row() {
+        when(commonsAggregateRepository.lockByCommonsId(17L)).thenReturn(Optional.empty());
+        when(commonsAggregateRepository.computeFromUserCommons(17L)).thenReturn(Optional.empty());
+
+        assertFalse(commonsAggregateService.reconcile(17L));
+
+        verify(commonsAggregateRepository, never()).delete(any());
+    }
+
+    @Test
+    void test_reconcileAll() {
+        CommonsAggregate drifted = new CommonsAggregate(1L, 5, 1, 500);
+        CommonsAggregate matching = new CommonsAggregate(3L, 2, 1, 200);
+        CommonsAggregate orphan = new CommonsAggregate(4L, 2, 1, 200);
+        when(commonsAggregateRepository.findAll()).thenReturn(List.of(drifted, matching, orphan));
+
+        CommonsAggregate computed1 = new CommonsAggregate(1L, 4, 1, 400);
+        CommonsAggregate computed2 = new CommonsAggregate(2L, 1, 1, 100);
+        when(commonsAggregateRepository.computeAllFromUserCommons())
+                .thenReturn(List.of(computed1, computed2, new CommonsAggregate(3L, 2, 1, 200)));
+
+        when(commonsAggregateRepository.lockByCommonsId(1L)).thenReturn(Optional.of(drifted));
+        when(commonsAggregateRepository.computeFromUserCommons(1L)).thenReturn(Optional.of(computed1));
+        when(commonsAggregateRepository.lockByCommonsId(2L)).thenReturn(Optional.empty());
+        when(commonsAggregateRepository.computeFromUserCommons(2L)).thenReturn(Optional.of(computed2));
+        when(commonsAggregateRepository.lockByCommonsId(4L)).thenReturn(Optional.of(orphan));
+        when(commonsAggregateRepository.computeFromUserCommons(4L)).thenReturn(Optional.empty());
+
+        commonsAggregateService.reconcileAll();
+
+        verify(commonsAggregateRepository, times(1)).save(computed1);
+        verify(commonsAggregateRepository, times(1)).save(computed2);
+        verify(commonsAggregateRepository, times(1)).delete(orphan);
+        verify(commonsAggregateRepository, never()).lockByCommonsId(3L);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void test_reconcileAll_row_fixed_concurrently() {
+        // the row looked wrong, but had been corrected by the time it was locked
+        when(commonsAggregateRepository.findAll()).thenReturn(List.of(new CommonsAggregate(1L, 5, 1, 500)));
+        CommonsAggregate computed = new CommonsAggregate(1L, 4, 1, 400);
+        when(commonsAggregateRepository.computeAllFromUserCommons()).thenReturn(List.of(computed));
+        when(commonsAggregateRepository.lockByCommonsId(1L)).thenReturn(Optional.of(computed));
+        when(commonsAggregateRepository.computeFromUserCommons(1L)).thenReturn(Optional.of(computed));
+
+        commonsAggregateService.reconcileAll();
+
+        verify(commonsAggregateRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,151 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.happiercows.models.LeaderboardEntry;
+import edu.ucsb.cs156.happiercows.models.LeaderboardOrder;
+
+public class CommonsLeaderboardTests {
+
+    private static LeaderboardEntry entry(long userId, double totalWealth, int numOfCows) {
+        return LeaderboardEntry.builder()
+                .userId(userId)
+                .commonsId(1L)
+                .username("user" + userId)
+                .totalWealth(totalWealth)
+                .numOfCows(numOfCows)
+                .build();
+    }
+
+    // user ids in rank order, each followed by its rank
+    private static String ranking(List<LeaderboardEntry> entries) {
+        return entries.stream()
+                .map(e -> e.getUserId() + "#" + e.getRank())
+                .collect(Collectors.joining(" "));
+    }
+
+    private final CommonsLeaderboard leaderboard = new CommonsLeaderboard(true, List.of(
+            entry(1, 100, 5),
+            entry(2, 300, 1),
+            entry(3, 200, 5),
+            entry(4, 300, 2),
+            entry(5, 50, 0)), 0L);
+
+    @Test
+    void orders_by_wealth_then_user_id() {
+        assertEquals("2#1 4#2 3#3 1#4 5#5", ranking(leaderboard.top(LeaderboardOrder.WEALTH, 10)));
+    }
+
+    @Test
+    void orders_by_cows_then_wealth_then_user_id() {
+        assertEquals("3#1 1#2 4#3 2#4 5#5", ranking(leaderboard.top(LeaderboardOrder.COWS, 10)));
+    }
+
+    @Test
+    void top_returns_at_most_k_entries() {
+        assertEquals("2#1 4#2", ranking(leaderboard.top(LeaderboardOrder.WEALTH, 2)));
+        assertEquals("", ranking(leaderboard.top(LeaderboardOrder.WEALTH, 0)));
+        assertEquals("", ranking(leaderboard.top(LeaderboardOrder.WEALTH, -1)));
+    }
+
+    @Test
+    void around_returns_the_user_with_n_entries_on_either_side() {
+        assertEquals("4#2 3#3 1#4", ranking(leaderboard.around(LeaderboardOrder.WEALTH, 3, 1)));
+        assertEquals("3#3", ranking(leaderboard.around(LeaderboardOrder.WEALTH, 3, 0)));
+        assertEquals("3#3", ranking(leaderboard.around(LeaderboardOrder.WEALTH, 3, -2)));
+    }
+
+    @Test
+    void around_stops_at_the_ends_of_the_leaderboard() {
+        assertEquals("2#1 4#2 3#3", ranking(leaderboard.around(LeaderboardOrder.WEALTH, 2, 2)));
+        assertEquals("3#3 1#4 5#5", ranking(leaderboard.around(LeaderboardOrder.WEALTH, 5, 2)));
+        assertEquals("3#1 1#2 4#3 2#4 5#5", ranking(leaderboard.around(LeaderboardOrder.COWS, 4, 10)));
+    }
+
+    @Test
+    void around_is_empty_for_a_user_not_in_the_commons() {
+        assertTrue(leaderboard.around(LeaderboardOrder.WEALTH, 99, 2).isEmpty());
+    }
+
+    @Test
+    void put_moves_a_changed_entry_in_every_order() {
+        leaderboard.put(entry(5, 1000, 6));
+
+        assertEquals(5, leaderboard.size());
+        assertEquals("5#1 2#2 4#3 3#4 1#5", ranking(leaderboard.top(LeaderboardOrder.WEALTH, 10)));
+        assertEquals("5#1 3#2 1#3 4#4 2#5", ranking(leaderboard.top(LeaderboardOrder.COWS, 10)));
+        assertEquals(1000, leaderboard.top(LeaderboardOrder.WEALTH, 1).get(0).getTotalWealth());
+    }
+
+    @Test
+    void put_adds_a_new_entry() {
+        leaderboard.put(entry(6, 250, 3));
+
+        assertEquals(6, leaderboard.size());
+        assertEquals("2#1 4#2 6#3 3#4 1#5 5#6", ranking(leaderboard.top(LeaderboardOrder.WEALTH, 10)));
+        assertEquals("3#1 1#2 6#3 4#4 2#5 5#6", ranking(leaderboard.top(LeaderboardOrder.COWS, 10)));
+    }
+
+    @Test
+    void remove_drops_an_entry_from_every_order() {
+        leaderboard.remove(4);
+        leaderboard.remove(99);
+
+        assertEquals(4, leaderboard.size());
+        assertEquals("2#1 3#2 1#3 5#4", ranking(leaderboard.top(LeaderboardOrder.WEALTH, 10)));
+        assertEquals("3#1 1#2 2#3 5#4", ranking(leaderboard.top(LeaderboardOrder.COWS, 10)));
+        assertTrue(leaderboard.around(LeaderboardOrder.WEALTH, 4, 1).isEmpty());
+    }
+
+    @Test
+    void updateAll_changes_every_entry_and_sorts_again() {
+        leaderboard.updateAll(e -> e.toBuilder().totalWealth(e.getTotalWealth() + 100 * e.getNumOfCows()).build());
+
+        assertEquals("3#1 1#2 4#3 2#4 5#5", ranking(leaderboard.top(LeaderboardOrder.WEALTH, 10)));
+        assertEquals(700, leaderboard.top(LeaderboardOrder.WEALTH, 1).get(0).getTotalWealth());
+        assertEquals("3#1 1#2 4#3 2#4 5#5", ranking(leaderboard.top(LeaderboardOrder.COWS, 10)));
+    }
+
+    @Test
+    void ranks_are_found_on_a_large_leaderboard() {
+        // user i has wealth (i * 7919) % 100000, so the ranks are not in user id order
+        int users = 100000;
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            entries.add(entry(i, (i * 7919L) % users, i % 10));
+        }
+        CommonsLeaderboard large = new CommonsLeaderboard(true, entries, 0L);
+
+        List<LeaderboardEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(LeaderboardOrder.WEALTH.comparator());
+        for (int rank = 1; rank <= users; rank += 997) {
+            long userId = sorted.get(rank - 1).getUserId();
+            List<LeaderboardEntry> around = large.around(LeaderboardOrder.WEALTH, userId, 2);
+            LeaderboardEntry user = around.stream().filter(e -> e.getUserId() == userId).findFirst().get();
+            assertEquals(rank, user.getRank());
+        }
+
+        // moving a user to the bottom and back to the top
+        long userId = sorted.get(users / 2).getUserId();
+        large.put(entry(userId, -1, 0));
+        assertEquals(users, large.around(LeaderboardOrder.WEALTH, userId, 0).get(0).getRank());
+        large.put(entry(userId, 1e9, 0));
+        assertEquals(1, large.around(LeaderboardOrder.WEALTH, userId, 0).get(0).getRank());
+        assertEquals(sorted.get(0).getUserId(), large.top(LeaderboardOrder.WEALTH, 2).get(1).getUserId());
+    }
+
+    @Test
+    void remembers_whether_the_leaderboard_is_shown() {
+        assertTrue(leaderboard.isShowLeaderboard());
+        assertFalse(new CommonsLeaderboard(false, List.of(), 0L).isShowLeaderboard());
+        assertEquals(0, new CommonsLeaderboard(false, List.of(), 0L).size());
+    }
+}
@@ -1,10 +1,13 @@
 package edu.ucsb.cs156.happiercows.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
@@ -18,10 +21,12 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.CommonsAggregate;
 import edu.ucsb.cs156.happiercows.entities.CommonsPlus;
 import edu.ucsb.cs156.happiercows.entities.User;
 import edu.ucsb.cs156.happiercows.entities.UserCommons;
 import edu.ucsb.cs156.happiercows.entities.UserCommonsKey;
+import edu.ucsb.cs156.happiercows.models.CommonsWithTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.UserRepository;
@@ -41,6 +46,9 @@ public class CommonsPlusBuilderServiceTests {
     @MockBean
     UserCommonsRepository userCommonsRepository;
 
+    @MockBean
+    CommonsAggregateService commonsAggregateService;
+
     @Autowired
     CommonsPlusBuilderService commonsPlusBuilderService;
 
@@ -68,19 +76,51 @@ public class CommonsPlusBuilderServiceTests {
 
     @Test
     void test_toCommonsPlus() {
-        when(commonsRepository.getNumCows(17L)).thenReturn(Optional.of(10));
-        when(commonsRepository.getNumUsers(17L)).thenReturn(Optional.of(5));
+        when(commonsAggregateService.getAggregate(17L)).thenReturn(new CommonsAggregate(17L, 10, 5, 500.0));
         CommonsPlus commonsPlus = commonsPlusBuilderService.toCommonsPlus(commons);
         assertEquals(commonsPlus, this.commonsPlus);
     }
 
+    private CommonsWithTotals commonsWithTotals = new CommonsWithTotals() {
+        public Commons getCommons() { return commons; }
+        public Long getTotalCows() { return 10L; }
+        public Long getTotalUsers() { return 5L; }
+        public Double getTotalCowHealth() { return 500.0; }
+    };
+
     @Test
-    void test_convertToCommonsPlus() {
-        when(commonsRepository.getNumCows(17L)).thenReturn(Optional.of(10));
-        when(commonsRepository.getNumUsers(17L)).thenReturn(Optional.of(5));
-        Iterable<CommonsPlus> commonsPlusIterable = commonsPlusBuilderService.convertToCommonsPlus(Arrays.asList(commons));
-        CommonsPlus commonsPlus = commonsPlusIterable.iterator().next();
+    void test_toCommonsPlus_from_totals() {
+        CommonsPlus commonsPlus = commonsPlusBuilderService.toCommonsPlus(commonsWithTotals);
         assertEquals(commonsPlus, this.commonsPlus);
     }
 
+    @Test
+    void test_getAllCommonsPlus() {
+        when(commonsRepository.findAllWithTotals()).thenReturn(List.of(commonsWithTotals));
+        Iterable<CommonsPlus> commonsPlusIterable = commonsPlusBuilderService.getAllCommonsPlus();
+        assertEquals(List.of(this.commonsPlus), commonsPlusIterable);
+        verify(commonsRepository, never()).getNumCows(any());
+        verify(commonsRepository, never()).getNumUsers(any());
+    }
+
+    @Test
+    void test_getCommonsPlusInProgress() {
+        LocalDateTime now = LocalDateTime.of(2024, 10, 15, 12, 0);
+        when(commonsRepository.findInProgressWithTotals(now)).thenReturn(List.of(commonsWithTotals));
+        assertEquals(List.of(this.commonsPlus), commonsPlusBuilderService.getCommonsPlusInProgress(now));
+        verify(commonsRepository, never()).findAllWithTotals();
+    }
+
+    @Test
+    void test_getCommonsPlus() {
+        when(commonsRepository.findWithTotalsById(17L)).thenReturn(Optional.of(commonsWithTotals));
+        assertEquals(Optional.of(this.commonsPlus), commonsPlusBuilderService.getCommonsPlus(17L));
+    }
+
+    @Test
+    void test_getCommonsPlus_not_found() {
+        when(commonsRepository.findWithTotalsById(18L)).thenReturn(Optional.empty());
+        assertEquals(Optional.empty(), commonsPlusBuilderService.getCommonsPlus(18L));
+    }
+
 }
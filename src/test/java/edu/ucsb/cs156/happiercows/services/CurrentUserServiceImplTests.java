@@ -0,0 +1,171 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.interceptors.RoleUserInterceptor;
+import edu.ucsb.cs156.happiercows.repositories.UserRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CurrentUserServiceImplTests {
+
+  private static final String EMAIL = "cgaucho@ucsb.edu";
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Autowired
+  CurrentUserServiceImpl currentUserService;
+
+  @Autowired
+  RoleUserInterceptor roleUserInterceptor;
+
+  @Autowired
+  MockMvc mockMvc;
+
+  private final Set<GrantedAuthority> authorities = Set.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+  private final OAuth2User oAuthUser = new DefaultOAuth2User(authorities, Map.of(
+      "email", EMAIL,
+      "sub", "123",
+      "name", "Chris Gaucho",
+      "email_verified", true),
+      "email");
+
+  private final User user = User.builder().id(1L).email(EMAIL).build();
+
+  @BeforeEach
+  void setUp() {
+    roleUserInterceptor.invalidateAll();
+    when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+    SecurityContextHolder.clearContext();
+    CurrentUserServiceImpl.clearUserOutsideRequest();
+  }
+
+  private void startRequest() {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  private void authenticate() {
+    SecurityContextHolder.getContext().setAuthentication(new OAuth2AuthenticationToken(oAuthUser, authorities, "google"));
+  }
+
+  @Test
+  void one_user_query_per_http_request() throws Exception {
+    // the first request also fills RoleUserInterceptor's cache
+    mockMvc.perform(get("/api/currentUser").with(oauth2Login().oauth2User(oAuthUser))).andExpect(status().isOk());
+    clearInvocations(userRepository);
+
+    mockMvc.perform(get("/api/currentUser").with(oauth2Login().oauth2User(oAuthUser))).andExpect(status().isOk());
+    verify(userRepository, times(1)).findByEmail(EMAIL);
+
+    mockMvc.perform(get("/api/currentUser").with(oauth2Login().oauth2User(oAuthUser))).andExpect(status().isOk());
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+  }
+
+  @Test
+  void user_is_looked_up_once_per_request() {
+    startRequest();
+    authenticate();
+
+    User first = currentUserService.getUser();
+    assertSame(first, currentUserService.getUser());
+    assertSame(first, currentUserService.getCurrentUser().getUser());
+    verify(userRepository, times(1)).findByEmail(EMAIL);
+
+    startRequest();
+    currentUserService.getUser();
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+  }
+
+  @Test
+  void user_is_looked_up_again_when_authentication_changes() {
+    startRequest();
+    authenticate();
+    currentUserService.getUser();
+
+    authenticate();
+    currentUserService.getUser();
+
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+  }
+
+  @Test
+  void user_is_looked_up_once_per_authentication_outside_of_request() throws Exception {
+    authenticate();
+
+    User first = currentUserService.getUser();
+    assertSame(first, currentUserService.getUser());
+    verify(userRepository, times(1)).findByEmail(EMAIL);
+
+    // a job started by the same request, running on another thread
+    Thread job = new Thread(() -> {
+      SecurityContextHolder.getContext().setAuthentication(new OAuth2AuthenticationToken(oAuthUser, authorities, "google"));
+      currentUserService.getUser();
+      currentUserService.getUser();
+    });
+    job.start();
+    job.join();
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+  }
+
+  @Test
+  void user_is_looked_up_again_outside_of_request_after_it_is_cleared() {
+    authenticate();
+    currentUserService.getUser();
+
+    // what a pooled thread does when it finishes a job
+    CurrentUserServiceImpl.clearUserOutsideRequest();
+    currentUserService.getUser();
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+
+    CurrentUserServiceImpl.clearingUserOutsideRequest(() -> currentUserService.getUser()).run();
+    currentUserService.getUser();
+    verify(userRepository, times(3)).findByEmail(EMAIL);
+  }
+
+  @Test
+  void no_user_without_oauth2_authentication() {
+    startRequest();
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password"));
+
+    assertNull(currentUserService.getUser());
+  }
+}
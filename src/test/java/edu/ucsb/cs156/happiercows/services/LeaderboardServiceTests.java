@@ -0,0 +1,242 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.happiercows.entities.Commons;
+import edu.ucsb.cs156.happiercows.entities.User;
+import edu.ucsb.cs156.happiercows.entities.UserCommons;
+import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
+import edu.ucsb.cs156.happiercows.models.LeaderboardEntry;
+import edu.ucsb.cs156.happiercows.models.LeaderboardOrder;
+import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
+
+public class LeaderboardServiceTests {
+
+    private final Commons commons = Commons.builder().id(1L).name("Commons 1").showLeaderboard(true).build();
+
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService = new LeaderboardService();
+        leaderboardService.commonsRepository = mock(CommonsRepository.class);
+        leaderboardService.userCommonsRepository = mock(UserCommonsRepository.class);
+        leaderboardService.maxAgeSeconds = 60;
+        leaderboardService.clock = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+        when(leaderboardService.commonsRepository.findById(1L)).thenReturn(Optional.of(commons));
+        when(leaderboardService.userCommonsRepository.findLeaderboardEntriesByCommonsId(1L)).thenReturn(List.of(
+                LeaderboardEntry.of(userCommons(1L, 100, 4, 50)),
+                LeaderboardEntry.of(userCommons(2L, 300, 1, 100)),
+                LeaderboardEntry.of(userCommons(3L, 200, 2, 100))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private UserCommons userCommons(long userId, double totalWealth, int numOfCows, double cowHealth) {
+        return UserCommons.builder()
+                .user(User.builder().id(userId).build())
+                .commons(commons)
+                .username("user" + userId)
+                .totalWealth(totalWealth)
+                .numOfCows(numOfCows)
+                .cowHealth(cowHealth)
+                .build();
+    }
+
+    // user ids in rank order, each followed by its total wealth
+    private String wealthRanking() {
+        return leaderboardService.top(1L, LeaderboardOrder.WEALTH, 10).stream()
+                .map(e -> e.getUserId() + ":" + e.getTotalWealth())
+                .collect(Collectors.joining(" "));
+    }
+
+    @Test
+    void leaderboard_is_loaded_once_and_then_read_from_memory() {
+        assertTrue(leaderboardService.isShown(1L));
+        assertEquals("2:300.0 3:200.0 1:100.0", wealthRanking());
+        List<LeaderboardEntry> around = leaderboardService.around(1L, LeaderboardOrder.COWS, 3L, 1);
+
+        assertEquals(List.of(1L, 3L, 2L), around.stream().map(LeaderboardEntry::getUserId).collect(Collectors.toList()));
+        assertEquals(2, around.get(1).getRank());
+        verify(leaderboardService.commonsRepository, times(1)).findById(1L);
+        verify(leaderboardService.userCommonsRepository, times(1)).findLeaderboardEntriesByCommonsId(1L);
+    }
+
+    @Test
+    void leaderboard_loaded_while_a_change_commits_is_loaded_again_on_the_next_read() {
+        when(leaderboardService.userCommonsRepository.findLeaderboardEntriesByCommonsId(1L))
+                .thenAnswer(invocation -> {
+                    // commits after the rows were read, so the rows do not have it
+                    leaderboardService.userCommonsChanged(userCommons(1L, 400, 4, 50));
+                    return List.of(LeaderboardEntry.of(userCommons(1L, 100, 4, 50)));
+                })
+                .thenReturn(List.of(LeaderboardEntry.of(userCommons(1L, 400, 4, 50))));
+
+        assertEquals("1:100.0", wealthRanking());
+        assertEquals("1:400.0", wealthRanking());
+        assertEquals("1:400.0", wealthRanking());
+
+        verify(leaderboardService.userCommonsRepository, times(2)).findLeaderboardEntriesByCommonsId(1L);
+    }
+
+    @Test
+    void leaderboard_cached_by_another_read_while_loading_is_kept() {
+        List<String> otherRead = new ArrayList<>();
+        when(leaderboardService.userCommonsRepository.findLeaderboardEntriesByCommonsId(1L))
+                .thenAnswer(invocation -> {
+                    otherRead.add(wealthRanking());
+                    return List.of(LeaderboardEntry.of(userCommons(1L, 100, 4, 50)));
+                })
+                .thenReturn(List.of(LeaderboardEntry.of(userCommons(2L, 300, 1, 100))));
+
+        assertEquals("2:300.0", wealthRanking());
+
+        assertEquals(List.of("2:300.0"), otherRead);
+        assertEquals("2:300.0", wealthRanking());
+        verify(leaderboardService.userCommonsRepository, times(2)).findLeaderboardEntriesByCommonsId(1L);
+    }
+
+    @Test
+    void leaderboard_is_loaded_again_once_it_is_older_than_the_max_age() {
+        // e.g. milked by the scheduled job on another instance
+        wealthRanking();
+        when(leaderboardService.userCommonsRepository.findLeaderboardEntriesByCommonsId(1L)).thenReturn(List.of(
+                LeaderboardEntry.of(userCommons(1L, 900, 4, 50))));
+
+        leaderboardService.clock = Clock.offset(leaderboardService.clock, Duration.ofSeconds(59));
+        assertEquals("2:300.0 3:200.0 1:100.0", wealthRanking());
+
+        leaderboardService.clock = Clock.offset(leaderboardService.clock, Duration.ofSeconds(1));
+        assertEquals("1:900.0", wealthRanking());
+        assertEquals("1:900.0", wealthRanking());
+        verify(leaderboardService.userCommonsRepository, times(2)).findLeaderboardEntriesByCommonsId(1L);
+    }
+
+    @Test
+    void hidden_leaderboard_is_reported() {
+        commons.setShowLeaderboard(false);
+
+        assertFalse(leaderboardService.isShown(1L));
+    }
+
+    @Test
+    void leaderboard_of_a_missing_commons_throws_and_is_not_cached() {
+        when(leaderboardService.commonsRepository.findById(7L)).thenReturn(Optional.empty());
+
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class, () -> leaderboardService.top(7L, LeaderboardOrder.WEALTH, 10));
+        assertThrows(EntityNotFoundException.class, () -> leaderboardService.isShown(7L));
+
+        assertEquals("Commons with id 7 not found", e.getMessage());
+        verify(leaderboardService.commonsRepository, times(2)).findById(7L);
+    }
+
+    @Test
+    void changed_user_commons_are_moved_on_a_loaded_leaderboard() {
+        wealthRanking();
+
+        leaderboardService.userCommonsChanged(userCommons(1L, 400, 4, 50));
+        leaderboardService.userCommonsChanged(List.of(userCommons(4L, 250, 0, 100), userCommons(2L, 50, 0, 100)));
+
+        assertEquals("1:400.0 4:250.0 3:200.0 2:50.0", wealthRanking());
+        verify(leaderboardService.userCommonsRepository, times(1)).findLeaderboardEntriesByCommonsId(1L);
+    }
+
+    @Test
+    void changes_to_a_leaderboard_that_is_not_loaded_are_ignored() {
+        leaderboardService.userCommonsChanged(userCommons(1L, 400, 4, 50));
+        leaderboardService.userCommonsRemoved(1L, 2L);
+        leaderboardService.cowsMilked(1L, 10);
+
+        assertEquals("2:300.0 3:200.0 1:100.0", wealthRanking());
+    }
+
+    @Test
+    void changes_are_applied_only_after_the_transaction_commits() {
+        wealthRanking();
+        TransactionSynchronizationManager.initSynchronization();
+
+        UserCommons changed = userCommons(1L, 400, 4, 50);
+        leaderboardService.userCommonsChanged(changed);
+        changed.setTotalWealth(0);
+        assertEquals("2:300.0 3:200.0 1:100.0", wealthRanking());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals("1:400.0 2:300.0 3:200.0", wealthRanking());
+    }
+
+    @Test
+    void changes_are_dropped_when_the_transaction_rolls_back() {
+        wealthRanking();
+        TransactionSynchronizationManager.initSynchronization();
+
+        leaderboardService.userCommonsChanged(userCommons(1L, 400, 4, 50));
+        leaderboardService.userCommonsRemoved(1L, 2L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals("2:300.0 3:200.0 1:100.0", wealthRanking());
+    }
+
+    @Test
+    void removed_user_commons_leave_the_leaderboard() {
+        wealthRanking();
+
+        leaderboardService.userCommonsRemoved(1L, 2L);
+
+        assertEquals("3:200.0 1:100.0", wealthRanking());
+        assertTrue(leaderboardService.around(1L, LeaderboardOrder.WEALTH, 2L, 2).isEmpty());
+    }
+
+    @Test
+    void milking_adds_the_same_profit_as_the_milking_job() {
+        wealthRanking();
+
+        leaderboardService.cowsMilked(1L, 100);
+
+        // user 1: 4 cows at 50% health, user 2: 1 cow, user 3: 2 cows, both at 100% health
+        assertEquals("2:400.0 3:400.0 1:300.0", wealthRanking());
+    }
+
+    @Test
+    void changing_the_commons_reloads_its_leaderboard() {
+        wealthRanking();
+        commons.setShowLeaderboard(false);
+
+        leaderboardService.commonsChanged(1L);
+
+        assertFalse(leaderboardService.isShown(1L));
+        verify(leaderboardService.commonsRepository, times(2)).findById(1L);
+        verify(leaderboardService.userCommonsRepository, times(2)).findLeaderboardEntriesByCommonsId(1L);
+        verify(leaderboardService.userCommonsRepository, never()).findByCommonsId(1L);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
+
+public class MembershipVersionServiceTests {
+
+    private final MembershipVersionService membershipVersionService = new MembershipVersionService();
+
+    private final CommonsRepository commonsRepository = mock(CommonsRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        membershipVersionService.commonsRepository = commonsRepository;
+    }
+
+    @Test
+    void etag_is_the_quoted_membership_version_of_the_commons() {
+        when(commonsRepository.findMembershipVersionById(1L)).thenReturn(Optional.of(0L));
+        when(commonsRepository.findMembershipVersionById(2L)).thenReturn(Optional.of(12L));
+
+        assertEquals("\"0\"", membershipVersionService.etag(1L));
+        assertEquals("\"12\"", membershipVersionService.etag(2L));
+    }
+
+    @Test
+    void etag_of_a_deleted_commons_differs_from_every_version() {
+        when(commonsRepository.findMembershipVersionById(1L)).thenReturn(Optional.empty());
+
+        assertEquals("\"deleted\"", membershipVersionService.etag(1L));
+    }
+
+    @Test
+    void membershipChanged_increments_the_version_of_its_commons() {
+        membershipVersionService.membershipChanged(1L);
+
+        verify(commonsRepository, times(1)).incrementMembershipVersion(1L);
+    }
+}
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.happiercows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class OrderStatisticTreeTests {
+
+    private final OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+
+    private List<Integer> contents() {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < tree.size(); i++) {
+            elements.add(tree.get(i));
+        }
+        return elements;
+    }
+
+    @Test
+    void keeps_elements_in_order() {
+        List.of(5, 1, 4, 2, 3).forEach(tree::add);
+
+        assertEquals(List.of(1, 2, 3, 4, 5), contents());
+        assertEquals(0, tree.indexOf(1));
+        assertEquals(3, tree.indexOf(4));
+    }
+
+    @Test
+    void indexOf_a_missing_element_counts_the_elements_before_it() {
+        List.of(10, 20, 30).forEach(tree::add);
+
+        assertEquals(0, tree.indexOf(5));
+        assertEquals(2, tree.indexOf(25));
+        assertEquals(3, tree.indexOf(35));
+    }
+
+    @Test
+    void removing_a_missing_element_changes_nothing() {
+        List.of(10, 20, 30).forEach(tree::add);
+
+        tree.remove(25);
+        new OrderStatisticTree<Integer>(Comparator.naturalOrder()).remove(1);
+
+        assertEquals(List.of(10, 20, 30), contents());
+    }
+
+    @Test
+    void get_outside_the_tree_throws() {
+        tree.add(1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(1));
+    }
+
+    @Test
+    void resetTo_replaces_the_contents() {
+        tree.add(100);
+
+        tree.resetTo(List.of(3, 1, 2));
+
+        assertEquals(List.of(1, 2, 3), contents());
+        tree.resetTo(List.of());
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void matches_a_tree_set_through_many_changes() {
+        Random random = new Random(156);
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(5000);
+            if (expected.contains(element)) {
+                expected.remove(element);
+                tree.remove(element);
+            } else {
+                expected.add(element);
+                tree.add(element);
+            }
+        }
+        // ascending and descending runs take the other rotations
+        for (int element = 5000; element < 6000; element++) {
+            expected.add(element);
+            tree.add(element);
+        }
+        for (int element = -1; element > -1000; element--) {
+            expected.add(element);
+            tree.add(element);
+        }
+
+        assertEquals(new ArrayList<>(expected), contents());
+        int index = 0;
+        for (int element : expected) {
+            assertEquals(index++, tree.indexOf(element));
+        }
+    }
+}
@@ -1,18 +1,20 @@
 package edu.ucsb.cs156.happiercows.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -21,15 +23,10 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import edu.ucsb.cs156.happiercows.entities.Commons;
 import edu.ucsb.cs156.happiercows.entities.Report;
-import edu.ucsb.cs156.happiercows.entities.ReportLine;
-import edu.ucsb.cs156.happiercows.entities.User;
-import edu.ucsb.cs156.happiercows.entities.UserCommons;
-import edu.ucsb.cs156.happiercows.entities.UserCommonsKey;
+import edu.ucsb.cs156.happiercows.models.ReportTotals;
 import edu.ucsb.cs156.happiercows.repositories.CommonsRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportLineRepository;
 import edu.ucsb.cs156.happiercows.repositories.ReportRepository;
-import edu.ucsb.cs156.happiercows.repositories.UserCommonsRepository;
-import edu.ucsb.cs156.happiercows.repositories.UserRepository;
 import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
 
 @ExtendWith(SpringExtension.class)
@@ -37,15 +34,9 @@ import edu.ucsb.cs156.happiercows.strategies.CowHealthUpdateStrategies;
 @ContextConfiguration
 class ReportServiceTests {
 
-  @MockBean
-  UserRepository userRepository;
-
   @MockBean
   CommonsRepository commonsRepository;
 
-  @MockBean
-  UserCommonsRepository userCommonsRepository;
-
   @MockBean
   ReportRepository reportRepository;
 
@@ -55,13 +46,6 @@ class ReportServiceTests {
   @Autowired
   ReportService reportService;
 
-  private User user = User
-      .builder()
-      .id(42L)
-      .fullName("Chris Gaucho")
-      .email("cgaucho@example.org")
-      .build();
-
   private Commons commons = Commons
       .builder()
       .id(17L)
@@ -77,19 +61,6 @@ class ReportServiceTests {
       .aboveCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear)
       .build();
 
-  UserCommons userCommons = UserCommons
-      .builder()
-      .user(user)
-      .username("Chris Gaucho")
-      .commons(commons)
-      .totalWealth(300)
-      .numOfCows(123)
-      .cowHealth(10)
-      .cowsBought(78)
-      .cowsSold(23)
-      .cowDeaths(6)
-      .build();
-
   Report expectedReportHeader = Report.builder()
       .name("test commons")
       .commonsId(17L)
@@ -103,37 +74,13 @@ class ReportServiceTests {
       .degradationRate(0.01)
       .belowCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear)
       .aboveCapacityHealthUpdateStrategy(CowHealthUpdateStrategies.Linear)
-      .numCows(123)
-      .numUsers(1)
       .build();
 
-  ReportLine expectedReportLine = ReportLine.builder()
-      .userId(42L)
-
-      .username("Chris Gaucho")
-      .totalWealth(300)
-      .numOfCows(123)
-      .avgCowHealth(10)
-      .cowsBought(78)
-      .cowsSold(23)
-      .cowDeaths(6)
-      .build();
-
-  @BeforeEach
-  void setup() {
-    userCommons.setId(new UserCommonsKey(user.getId(), commons.getId()));
-  }
-
   @Test
   void test_createAndSaveReportHeader() {
         // arrange
 
         when(commonsRepository.findById(17L)).thenReturn(Optional.of(commons));
-        when(userCommonsRepository.findByCommonsId(commons.getId()))
-                .thenReturn(Arrays.asList(userCommons));
-        when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(Integer.valueOf(1)));
-        when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(Integer.valueOf(123)));
-        when(userRepository.findById(42L)).thenReturn(Optional.of(user));
 
         // act
 
@@ -167,11 +114,16 @@ class ReportServiceTests {
         // arrange
 
         when(commonsRepository.findById(17L)).thenReturn(Optional.of(commons));
-        when(userCommonsRepository.findByCommonsId(commons.getId()))
-                .thenReturn(Arrays.asList(userCommons));
-        when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(Integer.valueOf(1)));
-        when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(Integer.valueOf(123)));
-        when(userRepository.findById(42L)).thenReturn(Optional.of(user));
+        when(reportLineRepository.insertReportLinesForCommons(eq(0L), eq(17L), any(LocalDateTime.class))).thenReturn(2);
+        when(reportLineRepository.findTotalsByReportId(0L)).thenReturn(new ReportTotals() {
+            public Long getNumUsers() {
+                return 2L;
+            }
+
+            public Long getNumCows() {
+                return 123L;
+            }
+        });
 
         // act
 
@@ -179,31 +131,16 @@ class ReportServiceTests {
 
         // assert
 
+        expectedReportHeader.setNumUsers(2);
+        expectedReportHeader.setNumCows(123);
         assertEquals(expectedReportHeader, report);
-        verify(reportLineRepository).save(eq(expectedReportLine));
-        verify(reportLineRepository).save(eq(expectedReportLine));
-  }
-
-  @Test
-  void test_createAndSaveReportLine() {
-        // arrange
-
-        when(commonsRepository.findById(17L)).thenReturn(Optional.of(commons));
-        when(userCommonsRepository.findByCommonsId(commons.getId()))
-                .thenReturn(Arrays.asList(userCommons));
-        when(commonsRepository.getNumUsers(commons.getId())).thenReturn(Optional.of(Integer.valueOf(1)));
-        when(commonsRepository.getNumCows(commons.getId())).thenReturn(Optional.of(Integer.valueOf(123)));
-        when(userRepository.findById(42L)).thenReturn(Optional.of(user));
-
-        // act
-
-        ReportLine reportLine = reportService.createAndSaveReportLine(expectedReportHeader, userCommons);
-
-        // assert
-
-        assertEquals(expectedReportLine, reportLine);
 
-        verify(reportLineRepository).save(eq(expectedReportLine));
+        InOrder inOrder = inOrder(reportRepository, reportLineRepository);
+        inOrder.verify(reportRepository).save(report);
+        inOrder.verify(reportLineRepository).insertReportLinesForCommons(eq(0L), eq(17L), any(LocalDateTime.class));
+        inOrder.verify(reportLineRepository).findTotalsByReportId(0L);
+        inOrder.verify(reportRepository).save(report);
+        verify(reportLineRepository, never()).save(any());
   }
 
 }
@@ -0,0 +1,158 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration
+public class CommonsTaskRunnerTests {
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    private final Job job = Job.builder().build();
+    private final JobProgressTracker progress = new JobProgressTracker();
+    private final RecordingJobLogSink logSink = new RecordingJobLogSink();
+    private final JobContext ctx = new JobContext(logSink, null, progress, job);
+
+    // the commons in these tests are named "A", "B", ... and have ids 1, 2, ...
+    private static long commonsId(String commons) {
+        return commons.charAt(0) - 'A' + 1;
+    }
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void test_commons_run_at_the_same_time_and_log_in_order() throws Exception {
+        CommonsTaskRunner runner = new CommonsTaskRunner(executor, transactionManager);
+
+        // each task waits until all three have started, so this only finishes if they run in parallel
+        CountDownLatch allStarted = new CountDownLatch(3);
+
+        runner.runForEach(ctx, List.of("A", "B", "C"), CommonsTaskRunnerTests::commonsId, (commons, commonsCtx) -> {
+            allStarted.countDown();
+            assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+            commonsCtx.log("Starting " + commons);
+            commonsCtx.log("Done " + commons);
+        });
+
+        String expected = """
+                Starting A
+                Done A
+                Starting B
+                Done B
+                Starting C
+                Done C""";
+        assertEquals(expected, logSink.getLog());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void test_time_and_rows_of_each_commons_are_recorded_in_commons_order() throws Exception {
+        CommonsTaskRunner runner = new CommonsTaskRunner(executor, transactionManager);
+
+        runner.runForEach(ctx, List.of("A", "B"), CommonsTaskRunnerTests::commonsId, (commons, commonsCtx) -> {
+            commonsCtx.addRowsRead(commons.equals("A") ? 3 : 5);
+            commonsCtx.addRowsWritten(commons.equals("A") ? 1 : 2);
+        });
+
+        List<JobCommonsStats> commonsStats = progress.getCommonsStats();
+        assertEquals(2, commonsStats.size());
+        assertEquals(1L, commonsStats.get(0).getCommonsId());
+        assertEquals(3, commonsStats.get(0).getRowsRead());
+        assertEquals(1, commonsStats.get(0).getRowsWritten());
+        assertEquals(2L, commonsStats.get(1).getCommonsId());
+        assertEquals(5, commonsStats.get(1).getRowsRead());
+        assertEquals(2, commonsStats.get(1).getRowsWritten());
+        assertTrue(commonsStats.get(1).getDurationMs() >= 0);
+
+        JobProgress snapshot = progress.snapshot(System.nanoTime());
+        assertEquals(2, snapshot.getCompleted());
+        assertEquals(2, snapshot.getTotal());
+        assertEquals(8, snapshot.getRowsRead());
+        assertEquals(3, snapshot.getRowsWritten());
+    }
+
+    @Test
+    void test_failed_commons_is_rolled_back_and_the_others_still_run() throws Exception {
+        CommonsTaskRunner runner = new CommonsTaskRunner(executor, transactionManager);
+        Exception failure = new Exception("Commons B failed");
+
+        Exception thrown = assertThrows(Exception.class,
+                () -> runner.runForEach(ctx, List.of("A", "B", "C"), CommonsTaskRunnerTests::commonsId, (commons, commonsCtx) -> {
+                    commonsCtx.log("Starting " + commons);
+                    if (commons.equals("B")) {
+                        throw failure;
+                    }
+                }));
+
+        assertSame(failure, thrown);
+        assertEquals(3, progress.getCommonsStats().size());
+        String expected = """
+                Starting A
+                Starting B
+                Error: Commons B failed
+                Starting C""";
+        assertEquals(expected, logSink.getLog());
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void test_first_failure_is_rethrown() throws Exception {
+        CommonsTaskRunner runner = new CommonsTaskRunner(executor, transactionManager);
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> runner.runForEach(ctx, List.of("A", "B"), CommonsTaskRunnerTests::commonsId, (commons, commonsCtx) -> {
+                    throw new IllegalStateException("Commons " + commons + " failed");
+                }));
+
+        assertEquals("Commons A failed", thrown.getMessage());
+        String expected = """
+                Error: Commons A failed
+                Error: Commons B failed""";
+        assertEquals(expected, logSink.getLog());
+    }
+
+    @Test
+    void test_errors_are_rethrown() throws Exception {
+        CommonsTaskRunner runner = new CommonsTaskRunner(executor, transactionManager);
+        AssertionError error = new AssertionError("out of cows");
+
+        AssertionError thrown = assertThrows(AssertionError.class,
+                () -> runner.runForEach(ctx, List.of("A"), CommonsTaskRunnerTests::commonsId, (commons, commonsCtx) -> {
+                    throw error;
+                }));
+
+        assertSame(error, thrown);
+        assertEquals("Error: out of cows", logSink.getLog());
+    }
+}
@@ -0,0 +1,65 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.happiercows.models.JobSummary;
+
+@ExtendWith(SpringExtension.class)
+@Import(JobConcurrencyLimiter.class)
+@ContextConfiguration
+public class JobConcurrencyLimiterTests {
+
+    @Autowired
+    JobConcurrencyLimiter jobConcurrencyLimiter;
+
+    @Test
+    void test_jobs_of_the_same_type_wait_in_order() throws Exception {
+        jobConcurrencyLimiter.acquire("UpdateCowHealthJob", 1L);
+
+        // a different job type is not held up
+        jobConcurrencyLimiter.acquire("MilkTheCowsJob", 2L);
+
+        Thread second = new Thread(() -> jobConcurrencyLimiter.acquire("UpdateCowHealthJob", 3L));
+        second.start();
+        await().atMost(5, SECONDS).until(() -> jobConcurrencyLimiter.queuePosition(3L) != null);
+
+        Thread third = new Thread(() -> jobConcurrencyLimiter.acquire("UpdateCowHealthJob", 4L));
+        third.start();
+        await().atMost(5, SECONDS).until(() -> jobConcurrencyLimiter.queuePosition(4L) != null);
+
+        assertNull(jobConcurrencyLimiter.queuePosition(1L));
+        assertNull(jobConcurrencyLimiter.queuePosition(2L));
+        assertEquals(1, jobConcurrencyLimiter.queuePosition(3L));
+        assertEquals(2, jobConcurrencyLimiter.queuePosition(4L));
+
+        JobSummary running = JobSummary.builder().id(1L).status("running").build();
+        JobSummary queued = JobSummary.builder().id(4L).status("queued").build();
+        jobConcurrencyLimiter.attachQueuePositions(List.of(running, queued));
+        assertNull(running.getQueuePosition());
+        assertEquals(2, queued.getQueuePosition());
+
+        jobConcurrencyLimiter.release("UpdateCowHealthJob");
+        second.join(5000);
+        assertNull(jobConcurrencyLimiter.queuePosition(3L));
+        assertEquals(1, jobConcurrencyLimiter.queuePosition(4L));
+
+        jobConcurrencyLimiter.release("UpdateCowHealthJob");
+        third.join(5000);
+        assertNull(jobConcurrencyLimiter.queuePosition(4L));
+
+        jobConcurrencyLimiter.release("UpdateCowHealthJob");
+        jobConcurrencyLimiter.release("MilkTheCowsJob");
+    }
+}
@@ -0,0 +1,375 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.errors.EntityNotFoundException;
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobLogLineRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+
+public class JobEventServiceTests {
+
+    private final Job job = Job.builder().id(1L).status("running").build();
+
+    private JobEventService jobEventService;
+    private JobLogLineRepository jobLogLineRepository;
+    private JobLogSink sink;
+
+    private boolean holdSends;
+    private final List<Runnable> queuedSends = new ArrayList<>();
+
+    private void runQueuedSends() {
+        while (!queuedSends.isEmpty()) {
+            queuedSends.remove(0).run();
+        }
+    }
+
+    // keeps the events sent to it, each as one line, e.g. "log 0 first line"
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private final List<Runnable> removalCallbacks = new ArrayList<>();
+        private boolean failing;
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            events.add(describe(builder.build()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            removalCallbacks.add(callback);
+        }
+
+        @Override
+        public synchronized void onTimeout(Runnable callback) {
+            removalCallbacks.add(callback);
+        }
+
+        @Override
+        public synchronized void onError(Consumer<Throwable> callback) {
+            removalCallbacks.add(() -> callback.accept(new IOException("Broken pipe")));
+        }
+
+        private static String describe(Set<DataWithMediaType> parts) {
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType part : parts) {
+                Object data = part.getData();
+                if (data instanceof JobProgress) {
+                    JobProgress progress = (JobProgress) data;
+                    text.append(progress.getCompleted() + "/" + progress.getTotal() + " rows=" + progress.getRowsWritten());
+                } else {
+                    text.append(data);
+                }
+            }
+            String event = text.toString().trim();
+            String id = event.startsWith("id:") ? event.substring(3, event.indexOf('\n')) + " " : "";
+            String name = event.substring(event.indexOf("event:") + 6, event.indexOf('\n', event.indexOf("event:")));
+            String data = event.substring(event.indexOf("data:") + 5).replace("\ndata:", "|");
+            return name + " " + id + data;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jobEventService = new JobEventService();
+        jobEventService.jobsRepository = mock(JobsRepository.class);
+        jobEventService.jobLogService = mock(JobLogService.class);
+        jobEventService.timeoutMs = 60000;
+        // sends each event as soon as it is queued, unless a test holds them in queuedSends
+        jobEventService.eventsExecutor = task -> {
+            if (holdSends) {
+                queuedSends.add(task);
+            } else {
+                task.run();
+            }
+        };
+
+        jobLogLineRepository = mock(JobLogLineRepository.class);
+        sink = new JobLogSink(jobLogLineRepository, 1L, 100);
+    }
+
+    @Test
+    void subscriber_gets_the_lines_logged_so_far_then_live_events_then_the_status() {
+        JobEventStream stream = jobEventService.attach(job, sink);
+        JobContext ctx = new JobContext(sink, stream, job);
+        ctx.log("first line");
+        ctx.log("second line");
+        when(jobEventService.jobLogService.readMessages(1L, 0, 2)).thenReturn(List.of("first line", "second line"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertSame(emitter, jobEventService.subscribe(1L, 0, emitter));
+
+        ctx.addTotal(2);
+        ctx.addRowsWritten(5);
+        ctx.log("third line\nwith a second line");
+        ctx.completeUnit();
+        jobEventService.close(stream, "complete");
+
+        assertEquals(List.of(
+                "log 0 first line",
+                "log 1 second line",
+                "progress 0/2 rows=0",
+                "log 2 third line|with a second line",
+                "progress 1/2 rows=5",
+                "status complete"), emitter.events);
+        assertTrue(emitter.completed);
+        // the buffered lines were written before they were read back
+        verify(jobLogLineRepository).saveAll(any());
+    }
+
+    @Test
+    void subscriber_from_a_later_line_gets_only_the_lines_after_it() {
+        JobEventStream stream = jobEventService.attach(job, sink);
+        JobContext ctx = new JobContext(sink, stream, job);
+        ctx.log("first line");
+        ctx.log("second line");
+        when(jobEventService.jobLogService.readMessages(1L, 1, 1)).thenReturn(List.of("second line"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        jobEventService.subscribe(1L, 1, emitter);
+        ctx.log("third line");
+
+        assertEquals(List.of("log 1 second line", "log 2 third line"), emitter.events);
+    }
+
+    @Test
+    void lines_that_were_read_back_are_not_sent_again() {
+        JobEventStream stream = jobEventService.attach(job, sink);
+        // the job has appended the line but not yet sent it to the stream
+        sink.append("first line");
+        when(jobEventService.jobLogService.readMessages(1L, 0, 1)).thenReturn(List.of("first line"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        jobEventService.subscribe(1L, 0, emitter);
+        stream.line(0, "first line");
+        stream.line(1, "second line");
+
+        assertEquals(List.of("log 0 first line", "log 1 second line"), emitter.events);
+    }
+
+    @Test
+    void subscriber_to_a_job_waiting_to_run_gets_its_whole_log() {
+        jobEventService.open(job);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        jobEventService.subscribe(1L, 0, emitter);
+
+        JobEventStream stream = jobEventService.attach(job, sink);
+        new JobContext(sink, stream, job).log("first line");
+
+        assertEquals(List.of("log 0 first line"), emitter.events);
+        verifyNoInteractions(jobEventService.jobLogService);
+        verifyNoInteractions(jobEventService.jobsRepository);
+    }
+
+    @Test
+    void subscriber_to_a_finished_job_gets_the_stored_log_and_the_status() {
+        Job finished = Job.builder().id(2L).status("error").build();
+        when(jobEventService.jobsRepository.findById(2L)).thenReturn(Optional.of(finished));
+        List<String> firstPage = IntStream.range(0, JobEventService.REPLAY_PAGE_SIZE)
+                .mapToObj(i -> "line " + i)
+                .collect(Collectors.toList());
+        when(jobEventService.jobLogService.readMessages(2L, 0, JobEventService.REPLAY_PAGE_SIZE)).thenReturn(firstPage);
+        when(jobEventService.jobLogService.readMessages(2L, JobEventService.REPLAY_PAGE_SIZE, JobEventService.REPLAY_PAGE_SIZE))
+                .thenReturn(List.of("Boom"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        jobEventService.subscribe(2L, 0, emitter);
+
+        assertEquals(JobEventService.REPLAY_PAGE_SIZE + 2, emitter.events.size());
+        assertEquals("log 0 line 0", emitter.events.get(0));
+        assertEquals("log 1000 Boom", emitter.events.get(JobEventService.REPLAY_PAGE_SIZE));
+        assertEquals("status error", emitter.events.get(JobEventService.REPLAY_PAGE_SIZE + 1));
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void subscriber_arriving_as_the_job_finishes_reads_the_final_status() {
+        JobEventStream stream = jobEventService.attach(job, sink);
+        // the stream has finished but has not been removed yet
+        stream.finish("complete");
+        when(jobEventService.jobsRepository.findById(1L))
+                .thenReturn(Optional.of(Job.builder().id(1L).status("complete").build()));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        jobEventService.subscribe(1L, 0, emitter);
+
+        assertEquals(List.of("status complete"), emitter.events);
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void subscriber_to_a_missing_job_is_refused() {
+        when(jobEventService.jobsRepository.findById(3L)).thenReturn(Optional.empty());
+
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class,
+                () -> jobEventService.subscribe(3L, 0, new RecordingEmitter()));
+
+        assertEquals("Job with id 3 not found", e.getMessage());
+    }
+
+    @Test
+    void subscribers_that_go_away_are_dropped() {
+        JobEventStream stream = jobEventService.attach(job, sink);
+        JobContext ctx = new JobContext(sink, stream, job);
+        RecordingEmitter failsOnLine = new RecordingEmitter();
+        RecordingEmitter failsOnProgress = new RecordingEmitter();
+        RecordingEmitter failsOnStatus = new RecordingEmitter();
+        RecordingEmitter completes = new RecordingEmitter();
+        RecordingEmitter timesOut = new RecordingEmitter();
+        RecordingEmitter errors = new RecordingEmitter();
+        for (RecordingEmitter emitter : List.of(failsOnLine, failsOnProgress, failsOnStatus, completes, timesOut, errors)) {
+            jobEventService.subscribe(1L, 0, emitter);
+        }
+        assertEquals(6, stream.getNumSubscribers());
+
+        completes.removalCallbacks.get(0).run();
+        timesOut.removalCallbacks.get(1).run();
+        errors.removalCallbacks.get(2).run();
+        assertEquals(3, stream.getNumSubscribers());
+
+        failsOnLine.failing = true;
+        ctx.log("first line");
+        assertEquals(2, stream.getNumSubscribers());
+
+        failsOnProgress.failing = true;
+        ctx.addTotal(1);
+        assertEquals(1, stream.getNumSubscribers());
+
+        failsOnStatus.failing = true;
+        jobEventService.close(stream, "complete");
+        assertEquals(0, stream.getNumSubscribers());
+        assertFalse(failsOnStatus.completed);
+    }
+
+    @Test
+    void subscriber_that_goes_away_during_the_replay_is_not_added() {
+        JobEventStream stream = jobEventService.attach(job, sink);
+        new JobContext(sink, stream, job).log("first line");
+        when(jobEventService.jobLogService.readMessages(1L, 0, 1)).thenReturn(List.of("first line"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+        jobEventService.subscribe(1L, 0, emitter);
+
+        assertEquals(0, stream.getNumSubscribers());
+    }
+
+    @Test
+    void subscriber_that_goes_away_before_a_finished_job_is_replayed_is_ignored() {
+        when(jobEventService.jobsRepository.findById(2L)).thenReturn(Optional.of(Job.builder().id(2L).status("complete").build()));
+        when(jobEventService.jobLogService.readMessages(2L, 0, JobEventService.REPLAY_PAGE_SIZE)).thenReturn(List.of("first line"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+        jobEventService.subscribe(2L, 0, emitter);
+
+        assertFalse(emitter.completed);
+    }
+
+    @Test
+    void events_are_sent_off_the_job_thread_in_order() {
+        holdSends = true;
+        JobEventStream stream = jobEventService.attach(job, sink);
+        JobContext ctx = new JobContext(sink, stream, job);
+        ctx.log("first line");
+        // the second line is logged before the replay runs, so it is read back and not sent again live
+        when(jobEventService.jobLogService.readMessages(1L, 0, 2)).thenReturn(List.of("first line", "second line"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        jobEventService.subscribe(1L, 0, emitter);
+        ctx.log("second line");
+        ctx.addTotal(1);
+        jobEventService.close(stream, "complete");
+
+        // nothing, not even the lines logged before the client joined, is sent on the job's thread
+        assertEquals(List.of(), emitter.events);
+        verifyNoInteractions(jobEventService.jobLogService);
+        assertEquals(1, queuedSends.size());
+
+        runQueuedSends();
+
+        assertEquals(List.of(
+                "log 0 first line",
+                "log 1 second line",
+                "progress 0/1 rows=0",
+                "status complete"), emitter.events);
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void subscriber_that_falls_too_far_behind_is_disconnected() {
+        holdSends = true;
+        JobEventStream stream = jobEventService.attach(job, sink);
+        RecordingEmitter slow = new RecordingEmitter();
+        jobEventService.subscribe(1L, 0, slow);
+
+        // the replay of the lines logged so far is the first queued event
+        int lastLine = JobEventStream.MAX_QUEUED_EVENTS - 1;
+        for (int lineNumber = 0; lineNumber < lastLine; lineNumber++) {
+            stream.line(lineNumber, "line " + lineNumber);
+        }
+        assertEquals(1, stream.getNumSubscribers());
+        assertFalse(slow.completed);
+
+        stream.line(lastLine, "line " + lastLine);
+        assertTrue(slow.completed);
+        assertEquals(0, stream.getNumSubscribers());
+
+        runQueuedSends();
+        assertEquals(List.of(), slow.events);
+    }
+
+    @Test
+    void closed_streams_are_forgotten() {
+        JobEventStream stream = jobEventService.open(job);
+        jobEventService.close(stream, "complete");
+
+        assertEquals(1L, stream.getJobId());
+        JobEventStream reopened = jobEventService.open(job);
+        assertNotSame(stream, reopened);
+    }
+
+    @Test
+    void subscribe_creates_an_emitter_with_the_configured_timeout() {
+        jobEventService.open(job);
+
+        SseEmitter emitter = jobEventService.subscribe(1L, 0);
+
+        assertEquals(60000L, emitter.getTimeout());
+    }
+}
@@ -0,0 +1,154 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobLock;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobLockRepository;
+import edu.ucsb.cs156.happiercows.services.wiremock.WiremockService;
+
+/**
+ * Each JobLockService built here stands for one instance of the app; they
+ * share the test database, and every repository call commits on its own.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JobLockServiceTests {
+
+    // required by HappierCowsApplication
+    @MockBean
+    WiremockService wiremockService;
+
+    @Autowired
+    JobLockRepository jobLockRepository;
+
+    @AfterEach
+    void tearDown() {
+        jobLockRepository.deleteAll();
+    }
+
+    private JobLockService instance(long leaseSeconds, long minHoldSeconds) {
+        JobLockService jobLockService = new JobLockService();
+        jobLockService.jobLockRepository = jobLockRepository;
+        jobLockService.leaseSeconds = leaseSeconds;
+        jobLockService.minHoldSeconds = minHoldSeconds;
+        return jobLockService;
+    }
+
+    private String ownerOf(String name) {
+        return jobLockRepository.findById(name).map(JobLock::getOwner).orElse(null);
+    }
+
+    @Test
+    void only_one_of_two_instances_firing_at_once_gets_the_lease() throws Exception {
+        JobLockService first = instance(120, 60);
+        JobLockService second = instance(120, 60);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int tick = 0; tick < 20; tick++) {
+                String name = "Job" + tick;
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Callable<Boolean> fireFirst = () -> { barrier.await(); return first.tryAcquire(name); };
+                Callable<Boolean> fireSecond = () -> { barrier.await(); return second.tryAcquire(name); };
+                Future<Boolean> firstAcquired = executor.submit(fireFirst);
+                Future<Boolean> secondAcquired = executor.submit(fireSecond);
+
+                assertTrue(firstAcquired.get() ^ secondAcquired.get(), "tick " + tick);
+                assertEquals(firstAcquired.get() ? first.owner : second.owner, ownerOf(name));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void released_lease_is_kept_for_the_min_hold_so_a_late_instance_skips_the_tick() {
+        JobLockService first = instance(120, 60);
+        JobLockService second = instance(120, 60);
+
+        assertTrue(first.tryAcquire("MilkTheCowsJob"));
+        first.release("MilkTheCowsJob");
+
+        assertFalse(second.tryAcquire("MilkTheCowsJob"));
+        assertEquals(first.owner, ownerOf("MilkTheCowsJob"));
+    }
+
+    @Test
+    void released_lease_can_be_taken_by_another_instance_once_the_min_hold_has_passed() {
+        JobLockService first = instance(120, 0);
+        JobLockService second = instance(120, 0);
+
+        assertTrue(first.tryAcquire("MilkTheCowsJob"));
+        assertFalse(second.tryAcquire("MilkTheCowsJob"));
+        first.release("MilkTheCowsJob");
+
+        assertTrue(second.tryAcquire("MilkTheCowsJob"));
+        assertEquals(second.owner, ownerOf("MilkTheCowsJob"));
+    }
+
+    @Test
+    void renewing_extends_the_lease_of_the_holder() {
+        JobLockService first = instance(120, 60);
+
+        assertTrue(first.tryAcquire("MilkTheCowsJob"));
+        ZonedDateTime lockedUntil = jobLockRepository.findById("MilkTheCowsJob").get().getLockedUntil();
+        first.leaseSeconds = 600;
+        first.renewHeldLocks();
+
+        assertTrue(jobLockRepository.findById("MilkTheCowsJob").get().getLockedUntil().isAfter(lockedUntil));
+    }
+
+    @Test
+    void expired_lease_is_taken_over_and_the_old_holder_stops_renewing_it() {
+        JobLockService first = instance(0, 0);
+        JobLockService second = instance(120, 60);
+
+        assertTrue(first.tryAcquire("MilkTheCowsJob"));
+        assertTrue(second.tryAcquire("MilkTheCowsJob"));
+
+        first.renewHeldLocks();
+        first.release("MilkTheCowsJob");
+        first.release("UnknownJob");
+
+        assertEquals(second.owner, ownerOf("MilkTheCowsJob"));
+        assertFalse(first.tryAcquire("MilkTheCowsJob"));
+    }
+
+    @Test
+    void lease_created_by_another_instance_first_is_not_acquired() {
+        JobLockService jobLockService = instance(120, 60);
+        jobLockService.jobLockRepository = mock(JobLockRepository.class);
+        when(jobLockService.jobLockRepository.insertLock(eq("MilkTheCowsJob"), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertFalse(jobLockService.tryAcquire("MilkTheCowsJob"));
+        // nothing inserted, e.g. the row was deleted and recreated in between
+        assertFalse(jobLockService.tryAcquire("UpdateCowHealthJob"));
+
+        jobLockService.release("MilkTheCowsJob");
+        verify(jobLockService.jobLockRepository, never()).setLockedUntil(any(), any(), any());
+    }
+}
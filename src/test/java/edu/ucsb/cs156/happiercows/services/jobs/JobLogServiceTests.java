@@ -0,0 +1,205 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobLogLine;
+import edu.ucsb.cs156.happiercows.models.JobLogLineCount;
+import edu.ucsb.cs156.happiercows.models.JobLogLines;
+import edu.ucsb.cs156.happiercows.models.JobSummary;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobLogLineRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+
+@ExtendWith(SpringExtension.class)
+@Import(JobLogService.class)
+@ContextConfiguration
+@TestPropertySource(properties = "app.jobs.log.maxBufferedLines=2")
+public class JobLogServiceTests {
+
+    @MockBean
+    JobLogLineRepository jobLogLineRepository;
+
+    @MockBean
+    JobsRepository jobsRepository;
+
+    @Autowired
+    JobLogService jobLogService;
+
+    @Captor
+    ArgumentCaptor<Iterable<JobLogLine>> linesCaptor;
+
+    private List<String> messages(Iterable<JobLogLine> lines) {
+        List<String> messages = new ArrayList<>();
+        lines.forEach(line -> messages.add(line.getLineNumber() + ":" + line.getMessage()));
+        return messages;
+    }
+
+    @Test
+    void test_lines_are_buffered_until_the_size_threshold() {
+        Job job = Job.builder().id(7L).build();
+        JobLogSink sink = jobLogService.open(job);
+
+        sink.append("line one");
+        verify(jobLogLineRepository, never()).saveAll(any());
+
+        sink.append("line two");
+        sink.append("line three");
+        verify(jobLogLineRepository, times(1)).saveAll(linesCaptor.capture());
+        assertEquals(List.of("0:line one", "1:line two"), messages(linesCaptor.getValue()));
+
+        jobLogService.close(sink);
+        verify(jobLogLineRepository, times(2)).saveAll(linesCaptor.capture());
+        assertEquals(List.of("2:line three"), messages(linesCaptor.getValue()));
+        assertEquals(7L, linesCaptor.getValue().iterator().next().getJobId());
+
+        // nothing is left to write, and a closed sink is no longer flushed on a timer
+        jobLogService.close(sink);
+        jobLogService.flushOpenSinks();
+        verify(jobLogLineRepository, times(2)).saveAll(any());
+    }
+
+    @Test
+    void test_flushOpenSinks_writes_open_sinks_and_survives_errors() {
+        JobLogSink failing = jobLogService.open(Job.builder().id(1L).build());
+        JobLogSink working = jobLogService.open(Job.builder().id(2L).build());
+        failing.append("first job");
+        working.append("second job");
+
+        when(jobLogLineRepository.saveAll(any()))
+            .thenThrow(new RuntimeException("database unavailable"))
+            .thenReturn(List.of());
+
+        jobLogService.flushOpenSinks();
+
+        verify(jobLogLineRepository, times(2)).saveAll(any());
+
+        // the lines that failed are written again, with the lines appended since
+        failing.append("after the failure");
+        jobLogService.close(failing);
+        verify(jobLogLineRepository, times(3)).saveAll(linesCaptor.capture());
+        assertEquals(List.of("0:first job", "1:after the failure"), messages(linesCaptor.getValue()));
+        jobLogService.close(working);
+    }
+
+    @Test
+    void test_append_does_not_wait_for_a_write_in_progress() throws Exception {
+        JobLogSink sink = jobLogService.open(Job.builder().id(3L).build());
+        sink.append("written first");
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jobLogLineRepository.saveAll(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return List.of();
+        });
+        Thread writer = new Thread(sink::flush);
+        writer.start();
+        writing.await();
+
+        assertEquals(1, assertTimeoutPreemptively(Duration.ofSeconds(5), () -> sink.append("appended during the write")));
+
+        release.countDown();
+        writer.join();
+        assertEquals(2, sink.flushAndGetNextLineNumber());
+        verify(jobLogLineRepository, times(2)).saveAll(linesCaptor.capture());
+        assertEquals(List.of("1:appended during the write"), messages(linesCaptor.getValue()));
+        jobLogService.close(sink);
+    }
+
+    @Test
+    void test_attachLineCounts_counts_lines_for_each_job() {
+        JobSummary job1 = JobSummary.builder().id(1L).build();
+        JobSummary job2 = JobSummary.builder().id(2L).numLogLines(5).build();
+
+        when(jobLogLineRepository.findLineCountsByJobIds(Set.of(1L, 2L))).thenReturn(List.of(new JobLogLineCount() {
+            public Long getJobId() { return 1L; }
+            public Long getNumLines() { return 3L; }
+        }));
+
+        jobLogService.attachLineCounts(List.of(job1, job2));
+
+        assertEquals(3, job1.getNumLogLines());
+        assertEquals(0, job2.getNumLogLines());
+    }
+
+    @Test
+    void test_attachLineCounts_with_no_jobs_does_not_query() {
+        jobLogService.attachLineCounts(List.of());
+        verify(jobLogLineRepository, never()).findLineCountsByJobIds(any());
+    }
+
+    @Test
+    void test_migrateLegacyLogs_copies_old_logs_into_lines_and_clears_them() {
+        when(jobsRepository.findIdsWithLegacyLog()).thenReturn(List.of(1L, 2L));
+        when(jobsRepository.findLegacyLog(1L)).thenReturn("Hello\nfrom\nthe old log");
+        // the lines of job 2 were copied by an earlier run that stopped before clearing its log
+        when(jobLogLineRepository.findLineCountsByJobIds(List.of(1L, 2L))).thenReturn(List.of(new JobLogLineCount() {
+            public Long getJobId() { return 2L; }
+            public Long getNumLines() { return 4L; }
+        }));
+
+        jobLogService.migrateLegacyLogs();
+
+        verify(jobLogLineRepository, times(2)).saveAll(linesCaptor.capture());
+        List<String> copied = new ArrayList<>();
+        linesCaptor.getAllValues().forEach(lines -> copied.addAll(messages(lines)));
+        assertEquals(List.of("0:Hello", "1:from", "2:the old log"), copied);
+        assertEquals(1L, linesCaptor.getValue().iterator().next().getJobId());
+        verify(jobsRepository, never()).findLegacyLog(2L);
+        verify(jobsRepository).clearLegacyLog(1L);
+        verify(jobsRepository).clearLegacyLog(2L);
+    }
+
+    @Test
+    void test_migrateLegacyLogs_with_no_old_logs_does_nothing() {
+        when(jobsRepository.findIdsWithLegacyLog()).thenReturn(List.of());
+
+        jobLogService.migrateLegacyLogs();
+
+        verify(jobLogLineRepository, never()).findLineCountsByJobIds(any());
+        verify(jobsRepository, never()).clearLegacyLog(anyLong());
+    }
+
+    @Test
+    void test_readLines_returns_the_lines_from_a_line_on() {
+        Job job = Job.builder().id(7L).status("error").build();
+        when(jobLogLineRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 1, PageRequest.of(0, 2))).thenReturn(List.of(
+            JobLogLine.builder().jobId(7L).lineNumber(1).message("Goodbye").build(),
+            JobLogLine.builder().jobId(7L).lineNumber(2).message(null).build()));
+
+        JobLogLines lines = jobLogService.readLines(job, 1, 2);
+
+        assertEquals(7L, lines.getJobId());
+        assertEquals("error", lines.getStatus());
+        assertEquals(1, lines.getFromLine());
+        assertEquals(3, lines.getNextLine());
+        assertEquals(Arrays.asList("Goodbye", null), lines.getLines());
+    }
+}
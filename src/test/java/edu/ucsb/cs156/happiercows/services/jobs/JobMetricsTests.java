@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JobMetricsTests {
+
+    private JobMetrics jobMetrics;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        jobMetrics = new JobMetrics();
+        jobMetrics.meterRegistry = registry;
+    }
+
+    @Test
+    void duration_and_rows_are_recorded_per_type_and_status() {
+        jobMetrics.jobFinished("MilkTheCowsJob", "complete", 1500, JobProgress.builder().rowsRead(10).rowsWritten(20).build());
+        jobMetrics.jobFinished("MilkTheCowsJob", "complete", 500, JobProgress.builder().rowsRead(30).rowsWritten(40).build());
+        jobMetrics.jobFinished("MilkTheCowsJob", "error", 100, JobProgress.builder().build());
+
+        Timer complete = registry.get("happycows.jobs.duration").tag("type", "MilkTheCowsJob").tag("status", "complete").timer();
+        assertEquals(2, complete.count());
+        assertEquals(2000.0, complete.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get("happycows.jobs.duration").tag("status", "error").timer().count());
+
+        DistributionSummary read = registry.get("happycows.jobs.rows").tag("status", "complete").tag("direction", "read").summary();
+        DistributionSummary written = registry.get("happycows.jobs.rows").tag("status", "complete").tag("direction", "written").summary();
+        assertEquals(40.0, read.totalAmount());
+        assertEquals(60.0, written.totalAmount());
+        assertEquals(40.0, written.max());
+    }
+}
@@ -0,0 +1,120 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.entities.jobs.JobStats;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobCommonsStatsRepository;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobStatsRepository;
+
+public class JobProgressServiceTests {
+
+    private final Job job = Job.builder().id(4L).status("running").build();
+
+    private JobProgressService jobProgressService;
+
+    @BeforeEach
+    void setUp() {
+        jobProgressService = new JobProgressService();
+        jobProgressService.jobStatsRepository = mock(JobStatsRepository.class);
+        jobProgressService.jobCommonsStatsRepository = mock(JobCommonsStatsRepository.class);
+    }
+
+    @Test
+    void start_records_the_type_and_start_time_of_the_job() {
+        jobProgressService.start(job, "MilkTheCowsJob");
+
+        ArgumentCaptor<JobStats> captor = ArgumentCaptor.forClass(JobStats.class);
+        verify(jobProgressService.jobStatsRepository).save(captor.capture());
+        JobStats stats = captor.getValue();
+        assertEquals(4L, stats.getJobId());
+        assertEquals("MilkTheCowsJob", stats.getJobType());
+        assertNotNull(stats.getStartedAt());
+        assertNull(stats.getFinishedAt());
+    }
+
+    @Test
+    void progress_is_only_saved_when_it_has_changed() {
+        JobProgressTracker tracker = jobProgressService.start(job, "MilkTheCowsJob");
+
+        jobProgressService.saveProgress();
+        verify(jobProgressService.jobStatsRepository, never())
+                .updateProgress(anyLong(), any(), anyInt(), anyInt(), anyLong(), anyLong());
+
+        tracker.setPhase("milking the cows");
+        tracker.addTotal(3);
+        tracker.completeUnit();
+        tracker.addRowsRead(10);
+        tracker.addRowsWritten(20);
+        jobProgressService.saveProgress();
+        jobProgressService.saveProgress();
+
+        verify(jobProgressService.jobStatsRepository, times(1)).updateProgress(4L, "milking the cows", 1, 3, 10L, 20L);
+    }
+
+    @Test
+    void progress_that_could_not_be_saved_is_saved_next_time() {
+        JobProgressTracker tracker = jobProgressService.start(job, "MilkTheCowsJob");
+        tracker.addTotal(3);
+        when(jobProgressService.jobStatsRepository.updateProgress(4L, null, 0, 3, 0L, 0L))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(1);
+
+        jobProgressService.saveProgress();
+        jobProgressService.saveProgress();
+        jobProgressService.saveProgress();
+
+        verify(jobProgressService.jobStatsRepository, times(2)).updateProgress(4L, null, 0, 3, 0L, 0L);
+    }
+
+    @Test
+    void finish_records_the_totals_and_the_stats_of_each_commons() {
+        JobProgressTracker tracker = jobProgressService.start(job, "UpdateCowHealthJob");
+        tracker.setPhase("updating cow health");
+        tracker.addTotal(2);
+        tracker.completeUnit();
+        tracker.completeUnit();
+        tracker.addRowsRead(30);
+        tracker.addRowsWritten(30);
+        JobCommonsStats commonsStats = JobCommonsStats.builder().jobId(4L).commonsId(1L).durationMs(25).build();
+        tracker.addCommonsStats(commonsStats);
+
+        jobProgressService.finish(job);
+
+        ArgumentCaptor<JobStats> captor = ArgumentCaptor.forClass(JobStats.class);
+        verify(jobProgressService.jobStatsRepository, times(2)).save(captor.capture());
+        JobStats stats = captor.getValue();
+        assertEquals("UpdateCowHealthJob", stats.getJobType());
+        assertNotNull(stats.getFinishedAt());
+        assertTrue(stats.getDurationMs() >= 0);
+        assertEquals("updating cow health", stats.getPhase());
+        assertEquals(2, stats.getCompletedUnits());
+        assertEquals(2, stats.getTotalUnits());
+        assertEquals(30, stats.getRowsRead());
+        assertEquals(30, stats.getRowsWritten());
+        verify(jobProgressService.jobCommonsStatsRepository).saveAll(List.of(commonsStats));
+
+        // a finished job is no longer saved on the timer
+        jobProgressService.saveProgress();
+        verify(jobProgressService.jobStatsRepository, never())
+                .updateProgress(anyLong(), any(), anyInt(), anyInt(), anyLong(), anyLong());
+    }
+}
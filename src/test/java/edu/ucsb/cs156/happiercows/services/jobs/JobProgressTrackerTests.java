@@ -0,0 +1,70 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.JobCommonsStats;
+import edu.ucsb.cs156.happiercows.models.JobProgress;
+
+public class JobProgressTrackerTests {
+
+    private final JobProgressTracker tracker = new JobProgressTracker(1_000_000_000L);
+
+    @Test
+    void counts_units_and_rows_and_the_rate_since_the_start() {
+        tracker.setPhase("milking the cows");
+        tracker.addTotal(3);
+        tracker.addTotal(1);
+        tracker.completeUnit();
+        tracker.addRowsRead(100);
+        tracker.addRowsWritten(150);
+        tracker.addRowsWritten(50);
+
+        JobProgress progress = tracker.snapshot(5_000_000_000L);
+
+        assertEquals("milking the cows", progress.getPhase());
+        assertEquals(1, progress.getCompleted());
+        assertEquals(4, progress.getTotal());
+        assertEquals(100, progress.getRowsRead());
+        assertEquals(200, progress.getRowsWritten());
+        assertEquals(50.0, progress.getRowsPerSecond());
+        assertEquals(4000, tracker.elapsedMs(5_000_000_000L));
+    }
+
+    @Test
+    void rate_is_zero_before_any_time_has_passed() {
+        tracker.addRowsWritten(10);
+
+        assertEquals(0.0, tracker.snapshot(1_000_000_000L).getRowsPerSecond());
+    }
+
+    @Test
+    void version_changes_with_every_change_of_progress() {
+        long version = tracker.getVersion();
+
+        for (Runnable change : List.<Runnable>of(
+                () -> tracker.setPhase("rolling up stats"),
+                () -> tracker.addTotal(1),
+                () -> tracker.completeUnit(),
+                () -> tracker.addRowsRead(1),
+                () -> tracker.addRowsWritten(1))) {
+            change.run();
+            assertNotEquals(version, tracker.getVersion());
+            version = tracker.getVersion();
+        }
+    }
+
+    @Test
+    void keeps_the_stats_of_each_finished_commons() {
+        JobCommonsStats first = JobCommonsStats.builder().commonsId(1L).durationMs(20).build();
+        JobCommonsStats second = JobCommonsStats.builder().commonsId(2L).durationMs(30).build();
+        tracker.addCommonsStats(first);
+        tracker.addCommonsStats(second);
+
+        assertEquals(List.of(first, second), tracker.getCommonsStats());
+    }
+}
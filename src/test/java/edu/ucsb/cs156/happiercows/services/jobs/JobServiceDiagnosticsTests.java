@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.happiercows.diagnostics.QueryStats;
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+import edu.ucsb.cs156.happiercows.services.CurrentUserService;
+
+@ExtendWith(SpringExtension.class)
+@Import({JobService.class, JobConcurrencyLimiter.class})
+@ContextConfiguration
+@TestPropertySource(properties = "app.diagnostics.enabled=true")
+public class JobServiceDiagnosticsTests {
+
+    @MockBean
+    JobsRepository jobsRepository;
+
+    @MockBean
+    JobLogService jobLogService;
+
+    @MockBean
+    CurrentUserService currentUserService;
+
+    @MockBean
+    JobLockService jobLockService;
+
+    @MockBean
+    JobEventService jobEventService;
+
+    @MockBean
+    JobProgressService jobProgressService;
+
+    @MockBean
+    JobMetrics jobMetrics;
+
+    @Autowired
+    JobService jobService;
+
+    @Test
+    void test_job_logs_the_statements_it_ran() throws Exception {
+        when(jobProgressService.start(any(Job.class), any())).thenReturn(new JobProgressTracker());
+        RecordingJobLogSink logSink = new RecordingJobLogSink();
+        when(jobLogService.open(any(Job.class))).thenReturn(logSink);
+
+        // stands in for the statements the data source would count
+        Job job = jobService.runAsJob(ctx -> {
+            ctx.log("Hello");
+            QueryStats.current().record(3, 12);
+        });
+
+        assertEquals("Hello\nDiagnostics: 3 SQL statements, 12 ms JDBC time", logSink.getLog());
+        assertNull(QueryStats.current());
+    }
+}
@@ -0,0 +1,250 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.happiercows.entities.jobs.Job;
+import edu.ucsb.cs156.happiercows.repositories.jobs.JobsRepository;
+import edu.ucsb.cs156.happiercows.services.CurrentUserService;
+
+@ExtendWith(SpringExtension.class)
+@Import({JobService.class, JobConcurrencyLimiter.class})
+@ContextConfiguration
+@TestPropertySource(properties = "app.jobs.executor=per-job")
+public class JobServiceTests {
+
+    @MockBean
+    JobsRepository jobsRepository;
+
+    @MockBean
+    JobLogService jobLogService;
+
+    @MockBean
+    CurrentUserService currentUserService;
+
+    @MockBean
+    JobLockService jobLockService;
+
+    @MockBean
+    JobEventService jobEventService;
+
+    @MockBean
+    JobProgressService jobProgressService;
+
+    @MockBean
+    JobMetrics jobMetrics;
+
+    @Autowired
+    JobService jobService;
+
+    @Autowired
+    JobConcurrencyLimiter jobConcurrencyLimiter;
+
+    private final List<String> savedStatuses = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<Long, RecordingJobLogSink> logSinks = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void trackProgress() {
+        when(jobProgressService.start(any(Job.class), any())).thenAnswer(invocation -> new JobProgressTracker());
+    }
+
+    @BeforeEach
+    void recordLogs() {
+        when(jobLogService.open(any(Job.class))).thenAnswer(invocation -> {
+            Job job = invocation.getArgument(0);
+            return logSinks.computeIfAbsent(job.getId(), id -> new RecordingJobLogSink());
+        });
+    }
+
+    private String logOf(Job job) {
+        return logSinks.get(job.getId()).getLog();
+    }
+
+    private void recordSavedStatuses() {
+        when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> {
+            Job job = invocation.getArgument(0);
+            savedStatuses.add(job.getId() + ":" + job.getStatus());
+            return job;
+        });
+    }
+
+    private static class BlockingJob implements JobContextConsumer {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch finish = new CountDownLatch(1);
+
+        @Override
+        public void accept(JobContext ctx) throws Exception {
+            started.countDown();
+            finish.await();
+            ctx.log("Finished");
+        }
+    }
+
+    @Test
+    void test_per_job_mode_job_starts_queued() throws Exception {
+        recordSavedStatuses();
+
+        // @Async is not enabled in this context, so the job runs before runAsJob returns
+        Job job = jobService.runAsJob(ctx -> ctx.log("Hello"));
+
+        assertEquals(List.of("0:queued", "0:running", "0:complete"), savedStatuses);
+        assertEquals("Hello", logOf(job));
+    }
+
+    @Test
+    void test_job_events_end_after_the_final_status_is_saved() throws Exception {
+        recordSavedStatuses();
+        JobEventStream events = new JobEventStream(0L, Runnable::run);
+        when(jobEventService.attach(any(Job.class), any())).thenReturn(events);
+
+        List<String> savedBeforeClose = new ArrayList<>();
+        doAnswer(invocation -> savedBeforeClose.addAll(savedStatuses))
+                .when(jobEventService).close(any(), any());
+
+        Job job = jobService.runAsJob(ctx -> ctx.log("Hello"));
+
+        assertEquals(List.of("0:queued", "0:running", "0:complete"), savedBeforeClose);
+        InOrder inOrder = inOrder(jobEventService);
+        inOrder.verify(jobEventService).open(job);
+        inOrder.verify(jobEventService).attach(job, logSinks.get(0L));
+        inOrder.verify(jobEventService).close(events, "complete");
+    }
+
+    @Test
+    void test_job_is_finished_when_its_last_lines_cannot_be_written() throws Exception {
+        recordSavedStatuses();
+        doThrow(new RuntimeException("database unavailable")).when(jobLogService).close(any());
+
+        Job job = jobService.runAsJob(new LeasedJob());
+
+        assertEquals(List.of("0:queued", "0:running", "0:complete"), savedStatuses);
+        verify(jobEventService).close(any(), eq("complete"));
+        verify(jobProgressService).finish(job);
+        verify(jobMetrics).jobFinished(eq("LeasedJob"), eq("complete"), anyLong(), any());
+    }
+
+    @Test
+    void test_job_events_and_progress_end_when_the_final_status_cannot_be_saved() throws Exception {
+        when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> {
+            Job job = invocation.getArgument(0);
+            if ("complete".equals(job.getStatus())) {
+                throw new RuntimeException("database unavailable");
+            }
+            return job;
+        });
+
+        Job job = jobService.runAsJob(new LeasedJob());
+
+        verify(jobEventService).close(any(), eq("complete"));
+        verify(jobProgressService).finish(job);
+        verify(jobMetrics).jobFinished(eq("LeasedJob"), eq("complete"), anyLong(), any());
+    }
+
+    @Test
+    void test_job_progress_is_tracked_from_the_start_of_the_job_until_it_has_finished() throws Exception {
+        JobProgressTracker tracker = new JobProgressTracker();
+        when(jobProgressService.start(any(Job.class), any())).thenReturn(tracker);
+
+        Job job = jobService.runAsJob(new LeasedJob());
+
+        assertEquals(2, tracker.snapshot(System.nanoTime()).getRowsWritten());
+        InOrder inOrder = inOrder(jobProgressService, jobEventService);
+        inOrder.verify(jobProgressService).start(job, "LeasedJob");
+        inOrder.verify(jobEventService).close(any(), any());
+        inOrder.verify(jobProgressService).finish(job);
+        verify(jobMetrics).jobFinished(eq("LeasedJob"), eq("complete"), anyLong(), argThat(progress -> progress.getRowsWritten() == 2));
+    }
+
+    @Test
+    void test_per_job_mode_second_job_of_a_type_waits_for_the_first() throws Exception {
+        recordSavedStatuses();
+        BlockingJob blockingJob = new BlockingJob();
+
+        Job first = Job.builder().id(1L).status("queued").build();
+        Job second = Job.builder().id(2L).status("queued").build();
+
+        Thread firstThread = new Thread(() -> jobService.runJobAsync(first, blockingJob));
+        firstThread.start();
+        blockingJob.started.await();
+
+        Thread secondThread = new Thread(() -> jobService.runJobAsync(second, blockingJob));
+        secondThread.start();
+        await().atMost(5, SECONDS).until(() -> jobConcurrencyLimiter.queuePosition(2L) != null);
+
+        assertEquals("running", first.getStatus());
+        assertEquals("queued", second.getStatus());
+        assertEquals(1, jobConcurrencyLimiter.queuePosition(2L));
+
+        blockingJob.finish.countDown();
+        firstThread.join(5000);
+        secondThread.join(5000);
+
+        assertEquals(List.of("1:running", "1:complete", "2:running", "2:complete"), savedStatuses);
+        assertEquals("Finished", logOf(second));
+    }
+
+    private static class LeasedJob implements JobContextConsumer {
+        @Override
+        public void accept(JobContext ctx) throws Exception {
+            ctx.log("Leased");
+            ctx.addRowsWritten(2);
+        }
+    }
+
+    @Test
+    void test_scheduled_job_runs_while_holding_the_lease_for_its_type() throws Exception {
+        recordSavedStatuses();
+        when(jobLockService.tryAcquire("LeasedJob")).thenReturn(true);
+
+        Job job = jobService.runAsScheduledJob(new LeasedJob());
+
+        assertEquals(List.of("0:queued", "0:running", "0:complete"), savedStatuses);
+        assertEquals("Leased", logOf(job));
+        InOrder inOrder = inOrder(jobLockService, jobLogService);
+        inOrder.verify(jobLockService).tryAcquire("LeasedJob");
+        inOrder.verify(jobLogService).close(any());
+        inOrder.verify(jobLockService).release("LeasedJob");
+    }
+
+    @Test
+    void test_scheduled_job_is_skipped_when_another_instance_holds_the_lease() throws Exception {
+        when(jobLockService.tryAcquire("LeasedJob")).thenReturn(false);
+
+        Job job = jobService.runAsScheduledJob(new LeasedJob());
+
+        assertNull(job);
+        verify(jobsRepository, never()).save(any());
+        verify(jobLockService, never()).release(any());
+    }
+}
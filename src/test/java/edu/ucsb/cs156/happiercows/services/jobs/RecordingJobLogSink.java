@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.happiercows.services.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A JobLogSink that keeps a job's lines in memory, so that tests can check
+ * what a job logged without storing the lines in job_log_lines
+ */
+public class RecordingJobLogSink extends JobLogSink {
+
+    private final List<String> lines = new ArrayList<>();
+
+    public RecordingJobLogSink() {
+        super(null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized int append(String message) {
+        lines.add(message);
+        return lines.size() - 1;
+    }
+
+    @Override
+    public synchronized int flushAndGetNextLineNumber() {
+        return lines.size();
+    }
+
+    @Override
+    public synchronized void flush() {
+    }
+
+    /**
+     * Returns the lines logged so far, separated by newlines
+     */
+    public synchronized String getLog() {
+        return String.join("\n", lines);
+    }
+}